@@ -38,6 +38,18 @@ public abstract class AbstractOperation implements IUndoableOperation {
 
 	private String label = ""; //$NON-NLS-1$
 
+	/*
+	 * the operation history lists holding the receiver, which are told when
+	 * its contexts change. The array is replaced rather than modified.
+	 */
+	private volatile DefaultOperationHistory.OperationList[] histories = null;
+
+	/*
+	 * the lock guarding the changes of the histories of all operations, which
+	 * are rare and short
+	 */
+	private static final Object historiesLock = new Object();
+
 	/**
 	 * Construct an operation that has the specified label.
 	 * 
@@ -60,6 +72,7 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	public void addContext(IUndoContext context) {
 		if (!contexts.contains(context)) {
 			contexts.add(context);
+			contextsChanged();
 		}
 	}
 
@@ -181,7 +194,9 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	 */
 
 	public void removeContext(IUndoContext context) {
-		contexts.remove(context);
+		if (contexts.remove(context)) {
+			contextsChanged();
+		}
 	}
 
 	/*
@@ -193,6 +208,61 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	public abstract IStatus undo(IProgressMonitor monitor, IAdaptable info)
 			throws ExecutionException;
 
+	/*
+	 * Note that the receiver was added to the specified history list.
+	 */
+	void addHistory(DefaultOperationHistory.OperationList history) {
+		synchronized (historiesLock) {
+			DefaultOperationHistory.OperationList[] old = histories;
+			int length = old == null ? 0 : old.length;
+			DefaultOperationHistory.OperationList[] lists = new DefaultOperationHistory.OperationList[length + 1];
+			if (old != null) {
+				System.arraycopy(old, 0, lists, 0, length);
+			}
+			lists[length] = history;
+			histories = lists;
+		}
+	}
+
+	/*
+	 * Note that the receiver was removed from the specified history list.
+	 */
+	void removeHistory(DefaultOperationHistory.OperationList history) {
+		synchronized (historiesLock) {
+			DefaultOperationHistory.OperationList[] old = histories;
+			if (old == null) {
+				return;
+			}
+			for (int i = 0; i < old.length; i++) {
+				if (old[i] == history) {
+					if (old.length == 1) {
+						histories = null;
+					} else {
+						DefaultOperationHistory.OperationList[] lists = new DefaultOperationHistory.OperationList[old.length - 1];
+						System.arraycopy(old, 0, lists, 0, i);
+						System.arraycopy(old, i + 1, lists, i, old.length - i
+								- 1);
+						histories = lists;
+					}
+					return;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Tell the history lists holding the receiver that its contexts changed.
+	 * Nothing needs to be done while the receiver is not in a history.
+	 */
+	void contextsChanged() {
+		DefaultOperationHistory.OperationList[] lists = histories;
+		if (lists != null) {
+			for (int i = 0; i < lists.length; i++) {
+				lists[i].contextsChanged(this);
+			}
+		}
+	}
+
 	/**
 	 * The string representation of this operation. Used for debugging purposes
 	 * only. This string should not be shown to an end user.
@@ -15,9 +15,11 @@ package org.eclipse.core.commands.operations;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.util.Tracing;
@@ -62,6 +64,16 @@ import org.eclipse.core.runtime.Status;
  * be properly synchronized using the techniques specified by the client's
  * widget library.
  * </p>
+ * <p>
+ * The undo and redo histories are indexed by the undo contexts they are
+ * queried for, so that the operations of a context are found without
+ * filtering the whole history. The indexes follow the contexts of operations
+ * extending {@link AbstractOperation} and the matches of
+ * {@link ObjectUndoContext}s. Contexts whose matches may change otherwise,
+ * because they implement {@link IUndoContext#matches(IUndoContext)}
+ * themselves, are not indexed, and while the history holds operations that
+ * cannot be followed, it is filtered as a whole instead.
+ * </p>
  * 
  * <p>
  * This implementation is not intended to be subclassed.
@@ -111,6 +123,20 @@ public final class DefaultOperationHistory implements IOperationHistory {
 
 	static final int DEFAULT_LIMIT = 20;
 
+	/**
+	 * a counter incremented whenever the matches of an
+	 * {@link ObjectUndoContext} change, so that the context indexes can tell
+	 * when they have to be rebuilt
+	 */
+	static volatile int matchChanges = 0;
+
+	/**
+	 * the classes of undo contexts whose matches can be followed, mapped to
+	 * Boolean.TRUE or Boolean.FALSE
+	 */
+	private static final Map trackedContextClasses = Collections
+			.synchronizedMap(new HashMap());
+
 	/**
 	 * the list of {@link IOperationApprover}s
 	 */
@@ -129,16 +155,16 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	/**
 	 * the list of operations available for redo, LIFO
 	 */
-	private List redoList = Collections.synchronizedList(new ArrayList());
+	private final OperationList redoList = new OperationList(this);
 
 	/**
 	 * the list of operations available for undo, LIFO
 	 */
-	private List undoList = Collections.synchronizedList(new ArrayList());
+	private final OperationList undoList = new OperationList(this);
 
 	/**
 	 * a lock that is used to synchronize access between the undo and redo
-	 * history
+	 * history. The undo and redo lists are only modified while holding it.
 	 */
 	final Object undoRedoHistoryLock = new Object();
 
@@ -330,6 +356,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			flushUndo(context);
 			flushRedo(context);
 			limits.remove(context);
+			forgetContext(context);
 			return;
 		}
 		if (flushUndo) {
@@ -338,9 +365,23 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		if (flushRedo) {
 			flushRedo(context);
 		}
+		if (flushUndo && flushRedo) {
+			// the context is most likely not used anymore
+			forgetContext(context);
+		}
 
 	}
 
+	/*
+	 * Drop the indexes of the specified context.
+	 */
+	private void forgetContext(IUndoContext context) {
+		synchronized (undoRedoHistoryLock) {
+			undoList.forget(context);
+			redoList.forget(context);
+		}
+	}
+
 	/**
 	 * Perform the redo. All validity checks have already occurred.
 	 * 
@@ -542,29 +583,21 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	/*
 	 * Filter the specified list to include only the specified undo context.
 	 */
-	private IUndoableOperation[] filter(List list, IUndoContext context) {
-		/*
-		 * This method is used whenever there is a need to filter the undo or
-		 * redo history on a particular context. Currently there are no caches
-		 * kept to optimize repeated requests for the same filter. If benchmarks
-		 * show this to be a common pattern that causes performances problems,
-		 * we could implement a filtered cache here that is nullified whenever
-		 * the global history changes.
-		 */
+	private IUndoableOperation[] filter(OperationList list, IUndoContext context) {
+		synchronized (undoRedoHistoryLock) {
+			return list.filter(context);
+		}
+	}
 
-		List filtered = new ArrayList();
+	/*
+	 * Answer the most recent operation of the specified list that has the
+	 * specified context.
+	 */
+	private IUndoableOperation getLatest(OperationList list,
+			IUndoContext context) {
 		synchronized (undoRedoHistoryLock) {
-			Iterator iterator = list.iterator();
-			while (iterator.hasNext()) {
-				IUndoableOperation operation = (IUndoableOperation) iterator
-						.next();
-				if (operation.hasContext(context)) {
-					filtered.add(operation);
-				}
-			}
+			return list.getLatest(context);
 		}
-		return (IUndoableOperation[]) filtered
-				.toArray(new IUndoableOperation[filtered.size()]);
 	}
 
 	/*
@@ -798,16 +831,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	public IUndoableOperation getRedoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
-		synchronized (undoRedoHistoryLock) {
-			for (int i = redoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = (IUndoableOperation) redoList
-						.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
-		}
-		return null;
+		return getLatest(redoList, context);
 	}
 
 	/*
@@ -852,16 +876,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	public IUndoableOperation getUndoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
-		synchronized (undoRedoHistoryLock) {
-			for (int i = undoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = (IUndoableOperation) undoList
-						.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
-		}
-		return null;
+		return getLatest(undoList, context);
 	}
 
 	/*
@@ -1389,8 +1404,270 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * @see org.eclipse.core.commands.operations.IOperationHistory#operationChanged(org.eclipse.core.commands.operations.IUndoableOperation)
 	 */
 	public void operationChanged(IUndoableOperation operation) {
-		if (undoList.contains(operation) || redoList.contains(operation)) {
+		boolean inHistory;
+		synchronized (undoRedoHistoryLock) {
+			inHistory = undoList.contains(operation)
+					|| redoList.contains(operation);
+		}
+		if (inHistory) {
 			notifyChanged(operation);
 		}
 	}
+
+	/*
+	 * Notes that the matches of an ObjectUndoContext have changed.
+	 */
+	static void matchesChanged() {
+		matchChanges++;
+	}
+
+	/*
+	 * Answer whether the matches of the context can only change through
+	 * ObjectUndoContext#addMatch and removeMatch, which the indexes follow.
+	 */
+	static boolean isTracked(IUndoContext context) {
+		if (context instanceof ObjectUndoContext
+				|| context == IOperationHistory.GLOBAL_UNDO_CONTEXT) {
+			return true;
+		}
+		Class contextClass = context.getClass();
+		Boolean tracked = (Boolean) trackedContextClasses.get(contextClass);
+		if (tracked == null) {
+			boolean inherited;
+			try {
+				inherited = contextClass.getMethod("matches", //$NON-NLS-1$
+						new Class[] { IUndoContext.class }).getDeclaringClass() == UndoContext.class;
+			} catch (NoSuchMethodException e) {
+				inherited = false;
+			} catch (SecurityException e) {
+				inherited = false;
+			}
+			tracked = inherited ? Boolean.TRUE : Boolean.FALSE;
+			trackedContextClasses.put(contextClass, tracked);
+		}
+		return tracked.booleanValue();
+	}
+
+	/*
+	 * The operations of the undo or the redo history, oldest first, and the
+	 * indexes of the contexts the history was queried for. The list is only
+	 * used while holding the undoRedoHistoryLock. The operations extending
+	 * AbstractOperation know the lists holding them, and tell them when their
+	 * contexts change.
+	 */
+	static final class OperationList {
+
+		private final DefaultOperationHistory history;
+
+		private final List operations = new ArrayList();
+
+		private final Map indexes = new HashMap();
+
+		/*
+		 * the operations whose contexts cannot be followed by the indexes
+		 */
+		private final Set untracked = new HashSet();
+
+		OperationList(DefaultOperationHistory history) {
+			this.history = history;
+		}
+
+		void add(IUndoableOperation operation) {
+			operations.add(operation);
+			added(operation);
+			Iterator iterator = indexes.values().iterator();
+			while (iterator.hasNext()) {
+				ContextOperations indexed = (ContextOperations) iterator
+						.next();
+				if (operation.hasContext(indexed.context)) {
+					indexed.operations.add(operation);
+				}
+			}
+		}
+
+		void add(int index, IUndoableOperation operation) {
+			operations.add(index, operation);
+			added(operation);
+			// the position of the operation in the indexes is not known
+			Iterator iterator = indexes.values().iterator();
+			while (iterator.hasNext()) {
+				ContextOperations indexed = (ContextOperations) iterator
+						.next();
+				if (operation.hasContext(indexed.context)) {
+					indexed.stale = true;
+				}
+			}
+		}
+
+		private void added(IUndoableOperation operation) {
+			if (operation instanceof AbstractOperation) {
+				((AbstractOperation) operation).addHistory(this);
+			}
+			updateTracking(operation);
+		}
+
+		boolean remove(IUndoableOperation operation) {
+			if (!operations.remove(operation)) {
+				return false;
+			}
+			if (operation instanceof AbstractOperation) {
+				((AbstractOperation) operation).removeHistory(this);
+			}
+			untracked.remove(operation);
+			Iterator iterator = indexes.values().iterator();
+			while (iterator.hasNext()) {
+				((ContextOperations) iterator.next()).operations
+						.remove(operation);
+			}
+			return true;
+		}
+
+		/*
+		 * Update the indexes whose operations changed because the contexts of
+		 * the operation changed. Called by the operation, without the lock.
+		 */
+		void contextsChanged(IUndoableOperation operation) {
+			synchronized (history.undoRedoHistoryLock) {
+				if (!operations.contains(operation)) {
+					return;
+				}
+				updateTracking(operation);
+				Iterator iterator = indexes.values().iterator();
+				while (iterator.hasNext()) {
+					ContextOperations indexed = (ContextOperations) iterator
+							.next();
+					boolean hasContext = operation.hasContext(indexed.context);
+					if (indexed.operations.contains(operation)) {
+						if (!hasContext) {
+							indexed.operations.remove(operation);
+						}
+					} else if (hasContext) {
+						indexed.stale = true;
+					}
+				}
+			}
+		}
+
+		private void updateTracking(IUndoableOperation operation) {
+			boolean tracked = operation instanceof AbstractOperation;
+			if (tracked) {
+				IUndoContext[] contexts = operation.getContexts();
+				for (int i = 0; i < contexts.length && tracked; i++) {
+					tracked = isTracked(contexts[i]);
+				}
+			}
+			if (tracked) {
+				untracked.remove(operation);
+			} else {
+				untracked.add(operation);
+			}
+		}
+
+		int indexOf(IUndoableOperation operation) {
+			return operations.indexOf(operation);
+		}
+
+		boolean contains(IUndoableOperation operation) {
+			return operations.contains(operation);
+		}
+
+		void forget(IUndoContext context) {
+			indexes.remove(context);
+		}
+
+		IUndoableOperation getLatest(IUndoContext context) {
+			if (!isIndexed(context)) {
+				for (int i = operations.size() - 1; i >= 0; i--) {
+					IUndoableOperation operation = (IUndoableOperation) operations
+							.get(i);
+					if (operation.hasContext(context)) {
+						return operation;
+					}
+				}
+				return null;
+			}
+			List indexed = getIndex(context).operations;
+			int size = indexed.size();
+			return size == 0 ? null : (IUndoableOperation) indexed
+					.get(size - 1);
+		}
+
+		IUndoableOperation[] filter(IUndoContext context) {
+			List filtered;
+			if (!isIndexed(context)) {
+				filtered = new ArrayList();
+				ContextOperations.collect(operations, context, filtered);
+			} else {
+				filtered = getIndex(context).operations;
+			}
+			return (IUndoableOperation[]) filtered
+					.toArray(new IUndoableOperation[filtered.size()]);
+		}
+
+		private boolean isIndexed(IUndoContext context) {
+			return untracked.isEmpty() && isTracked(context);
+		}
+
+		private ContextOperations getIndex(IUndoContext context) {
+			ContextOperations indexed = (ContextOperations) indexes
+					.get(context);
+			if (indexed == null) {
+				indexed = new ContextOperations(context);
+				indexed.rebuild(operations);
+				indexes.put(context, indexed);
+			} else if (!indexed.isCurrent()) {
+				indexed.rebuild(operations);
+			}
+			return indexed;
+		}
+	}
+
+	/*
+	 * The operations of an OperationList that have a context, oldest first.
+	 */
+	private static final class ContextOperations {
+
+		final IUndoContext context;
+
+		final List operations = new ArrayList();
+
+		/*
+		 * the value of matchChanges when the index was built
+		 */
+		private int stamp;
+
+		/*
+		 * whether an operation of the context was added at an unknown position
+		 */
+		boolean stale;
+
+		ContextOperations(IUndoContext context) {
+			this.context = context;
+		}
+
+		static void collect(List operations, IUndoContext context,
+				List filtered) {
+			Iterator iterator = operations.iterator();
+			while (iterator.hasNext()) {
+				IUndoableOperation operation = (IUndoableOperation) iterator
+						.next();
+				if (operation.hasContext(context)) {
+					filtered.add(operation);
+				}
+			}
+		}
+
+		boolean isCurrent() {
+			return !stale && stamp == matchChanges;
+		}
+
+		void rebuild(List allOperations) {
+			// read the counter first, so that changes made while collecting
+			// leave the index out of date
+			stamp = matchChanges;
+			stale = false;
+			operations.clear();
+			collect(allOperations, context, operations);
+		}
+	}
 }
@@ -92,6 +92,7 @@ public final class ObjectUndoContext extends UndoContext {
 	 */
 	public void addMatch(IUndoContext context) {
 		children.add(context);
+		DefaultOperationHistory.matchesChanged();
 	}
 
 	/**
@@ -105,7 +106,9 @@ public final class ObjectUndoContext extends UndoContext {
 	 *            context
 	 */
 	public void removeMatch(IUndoContext context) {
-		children.remove(context);
+		if (children.remove(context)) {
+			DefaultOperationHistory.matchesChanged();
+		}
 	}
 
 	/*
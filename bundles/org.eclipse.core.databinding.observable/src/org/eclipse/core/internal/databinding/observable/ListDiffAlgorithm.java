@@ -0,0 +1,471 @@
+/*******************************************************************************
+ * Copyright (c) 2006, 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * The algorithms computing the {@link ListDiffEntry} entries describing the
+ * change between two list states.
+ * <p>
+ * {@link #computeAnalyzerDiff(List, List, List)} moves elements to their new
+ * position one at a time. It reports moves as adjacent remove and add entries
+ * but scans the lists for every element out of place, which is quadratic.
+ * </p>
+ * <p>
+ * {@link #computeLcsDiff(List, List, List)} keeps a longest common
+ * subsequence of the two lists and reports the other elements as removed or
+ * added. Elements occurring once in both lists are matched in
+ * <code>O(n log n)</code> as a longest increasing subsequence of their old
+ * positions, the remaining ranges are matched with Myers' algorithm, up to
+ * {@link #MAX_EDIT_DISTANCE} edits per range. Elements are compared with
+ * {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ * </p>
+ */
+public class ListDiffAlgorithm {
+
+	/**
+	 * The maximum number of removed and added elements Myers' algorithm looks
+	 * for in a range before reporting the whole range as removed and added.
+	 */
+	public static final int MAX_EDIT_DISTANCE = 1000;
+
+	/**
+	 * adapted from EMF's ListDifferenceAnalyzer
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param listDiffs
+	 *            the list to add the {@link ListDiffEntry} entries to
+	 */
+	public static void computeAnalyzerDiff(List oldList, List newList,
+			List listDiffs) {
+		oldList = new ArrayList(oldList);
+		int index = 0;
+		for (Iterator it = newList.iterator(); it.hasNext();) {
+			Object newValue = it.next();
+			if (oldList.size() <= index) {
+				// append newValue to newList
+				listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+			} else {
+				boolean done;
+				do {
+					done = true;
+					Object oldValue = oldList.get(index);
+					if (oldValue == null ? newValue != null : !oldValue
+							.equals(newValue)) {
+						int oldIndexOfNewValue = listIndexOf(oldList, newValue,
+								index);
+						if (oldIndexOfNewValue != -1) {
+							int newIndexOfOldValue = listIndexOf(newList,
+									oldValue, index);
+							if (newIndexOfOldValue == -1) {
+								// removing oldValue from list[index]
+								listDiffs.add(Diffs.createListDiffEntry(index,
+										false, oldValue));
+								oldList.remove(index);
+								done = false;
+							} else if (newIndexOfOldValue > oldIndexOfNewValue) {
+								// moving oldValue from list[index] to
+								// [newIndexOfOldValue]
+								if (oldList.size() <= newIndexOfOldValue) {
+									// The element cannot be moved to the
+									// correct index
+									// now, however later iterations will insert
+									// elements
+									// in front of it, eventually moving it into
+									// the
+									// correct spot.
+									newIndexOfOldValue = oldList.size() - 1;
+								}
+								listDiffs.add(Diffs.createListDiffEntry(index,
+										false, oldValue));
+								oldList.remove(index);
+								listDiffs.add(Diffs.createListDiffEntry(
+										newIndexOfOldValue, true, oldValue));
+								oldList.add(newIndexOfOldValue, oldValue);
+								done = false;
+							} else {
+								// move newValue from list[oldIndexOfNewValue]
+								// to [index]
+								listDiffs.add(Diffs.createListDiffEntry(
+										oldIndexOfNewValue, false, newValue));
+								oldList.remove(oldIndexOfNewValue);
+								listDiffs.add(Diffs.createListDiffEntry(index,
+										true, newValue));
+								oldList.add(index, newValue);
+							}
+						} else {
+							// add newValue at list[index]
+							oldList.add(index, newValue);
+							listDiffs.add(Diffs.createListDiffEntry(index,
+									true, newValue));
+						}
+					}
+				} while (!done);
+			}
+			++index;
+		}
+		for (int i = oldList.size(); i > index;) {
+			// remove excess trailing elements not present in newList
+			listDiffs.add(Diffs.createListDiffEntry(--i, false, oldList
+					.get(i)));
+		}
+	}
+
+	/**
+	 * @param list
+	 * @param object
+	 * @param index
+	 * @return the index, or -1 if not found
+	 */
+	private static int listIndexOf(List list, Object object, int index) {
+		int size = list.size();
+		for (int i = index; i < size; i++) {
+			Object candidate = list.get(i);
+			if (candidate == null ? object == null : candidate.equals(object)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Computes the entries keeping a longest common subsequence of the two
+	 * lists. The elements between two kept elements are reported as pairs of
+	 * remove and add entries at the same position, followed by the remaining
+	 * removals or additions.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param listDiffs
+	 *            the list to add the {@link ListDiffEntry} entries to
+	 */
+	public static void computeLcsDiff(List oldList, List newList,
+			List listDiffs) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+
+		int oldEnd = oldElements.length;
+		int newEnd = newElements.length;
+		int start = 0;
+		while (start < oldEnd && start < newEnd
+				&& Util.equals(oldElements[start], newElements[start])) {
+			start++;
+		}
+		while (oldEnd > start && newEnd > start
+				&& Util.equals(oldElements[oldEnd - 1], newElements[newEnd - 1])) {
+			oldEnd--;
+			newEnd--;
+		}
+
+		Matches matches = new Matches();
+		if (oldEnd > start && newEnd > start) {
+			new LcsMatcher(oldElements, newElements, start, oldEnd, newEnd)
+					.match(matches);
+		}
+
+		int oldIndex = start;
+		int newIndex = start;
+		for (int i = 0; i <= matches.size; i++) {
+			int oldMatch = i < matches.size ? matches.oldIndexes[i] : oldEnd;
+			int newMatch = i < matches.size ? matches.newIndexes[i] : newEnd;
+			int removals = oldMatch - oldIndex;
+			int additions = newMatch - newIndex;
+			int position = newIndex;
+			for (int j = 0; j < Math.min(removals, additions); j++) {
+				listDiffs.add(Diffs.createListDiffEntry(position, false,
+						oldElements[oldIndex + j]));
+				listDiffs.add(Diffs.createListDiffEntry(position, true,
+						newElements[newIndex + j]));
+				position++;
+			}
+			for (int j = additions; j < removals; j++) {
+				listDiffs.add(Diffs.createListDiffEntry(position, false,
+						oldElements[oldIndex + j]));
+			}
+			for (int j = removals; j < additions; j++) {
+				listDiffs.add(Diffs.createListDiffEntry(position++, true,
+						newElements[newIndex + j]));
+			}
+			oldIndex = oldMatch + 1;
+			newIndex = newMatch + 1;
+		}
+	}
+
+	/**
+	 * The ascending pairs of old and new indexes of the kept elements.
+	 */
+	private static final class Matches {
+		int[] oldIndexes = new int[16];
+
+		int[] newIndexes = new int[16];
+
+		int size;
+
+		void add(int oldIndex, int newIndex) {
+			if (size == oldIndexes.length) {
+				int[] grownOld = new int[size * 2];
+				int[] grownNew = new int[size * 2];
+				System.arraycopy(oldIndexes, 0, grownOld, 0, size);
+				System.arraycopy(newIndexes, 0, grownNew, 0, size);
+				oldIndexes = grownOld;
+				newIndexes = grownNew;
+			}
+			oldIndexes[size] = oldIndex;
+			newIndexes[size] = newIndex;
+			size++;
+		}
+	}
+
+	/**
+	 * Matches the elements of the differing middle ranges of two lists. The
+	 * elements are replaced by integer ids so that the matching only compares
+	 * integers.
+	 */
+	private static final class LcsMatcher {
+		private final int start;
+
+		private final int[] oldIds;
+
+		private final int[] newIds;
+
+		/**
+		 * Indexed by id: the number of occurrences in the old and new range,
+		 * and the old index of the last occurrence.
+		 */
+		private final int[] oldCounts;
+
+		private final int[] newCounts;
+
+		private final int[] oldIndexOfId;
+
+		LcsMatcher(Object[] oldElements, Object[] newElements, int start,
+				int oldEnd, int newEnd) {
+			this.start = start;
+			int oldLength = oldEnd - start;
+			int newLength = newEnd - start;
+			Map ids = new HashMap((oldLength + newLength) * 2);
+			oldIds = new int[oldLength];
+			newIds = new int[newLength];
+			for (int i = 0; i < oldLength; i++) {
+				oldIds[i] = idOf(ids, oldElements[start + i]);
+			}
+			for (int i = 0; i < newLength; i++) {
+				newIds[i] = idOf(ids, newElements[start + i]);
+			}
+
+			oldCounts = new int[ids.size()];
+			newCounts = new int[ids.size()];
+			oldIndexOfId = new int[ids.size()];
+			for (int i = 0; i < oldLength; i++) {
+				oldCounts[oldIds[i]]++;
+				oldIndexOfId[oldIds[i]] = i;
+			}
+			for (int i = 0; i < newLength; i++) {
+				newCounts[newIds[i]]++;
+			}
+		}
+
+		private static int idOf(Map ids, Object element) {
+			Integer id = (Integer) ids.get(element);
+			if (id == null) {
+				id = new Integer(ids.size());
+				ids.put(element, id);
+			}
+			return id.intValue();
+		}
+
+		/**
+		 * Adds the matched old and new indexes, in ascending order.
+		 */
+		void match(Matches matches) {
+			int[] anchors = findUniqueAnchors();
+
+			int oldIndex = 0;
+			int newIndex = 0;
+			for (int i = 0; i <= anchors.length; i++) {
+				int newAnchor = i < anchors.length ? anchors[i] : newIds.length;
+				int oldAnchor = i < anchors.length ? oldIndexOfId[newIds[newAnchor]]
+						: oldIds.length;
+				matchRange(oldIndex, oldAnchor, newIndex, newAnchor, matches);
+				if (i < anchors.length) {
+					matches.add(start + oldAnchor, start + newAnchor);
+				}
+				oldIndex = oldAnchor + 1;
+				newIndex = newAnchor + 1;
+			}
+		}
+
+		/**
+		 * Returns the ascending new indexes of the elements occurring once in
+		 * both ranges which form a longest increasing subsequence of old
+		 * indexes.
+		 */
+		private int[] findUniqueAnchors() {
+			int[] candidates = new int[newIds.length];
+			int count = 0;
+			for (int i = 0; i < newIds.length; i++) {
+				int id = newIds[i];
+				if (oldCounts[id] == 1 && newCounts[id] == 1) {
+					candidates[count++] = i;
+				}
+			}
+
+			// patience sorting: tails[l] is the candidate ending the
+			// increasing subsequence of length l + 1 with the smallest old
+			// index
+			int[] tails = new int[count];
+			int[] previous = new int[count];
+			int length = 0;
+			for (int c = 0; c < count; c++) {
+				int oldIndex = oldIndexOfId[newIds[candidates[c]]];
+				int low = 0;
+				int high = length;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (oldIndexOfId[newIds[candidates[tails[mid]]]] < oldIndex) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				previous[c] = low > 0 ? tails[low - 1] : -1;
+				tails[low] = c;
+				if (low == length) {
+					length++;
+				}
+			}
+
+			int[] anchors = new int[length];
+			int i = length > 0 ? tails[length - 1] : -1;
+			for (int j = length - 1; j >= 0; j--) {
+				anchors[j] = candidates[i];
+				i = previous[i];
+			}
+			return anchors;
+		}
+
+		/**
+		 * Matches the old range [oldFrom, oldTo) against the new range
+		 * [newFrom, newTo) with Myers' algorithm.
+		 */
+		private void matchRange(int oldFrom, int oldTo, int newFrom,
+				int newTo, Matches matches) {
+			int suffix = 0;
+			while (oldFrom < oldTo && newFrom < newTo
+					&& oldIds[oldFrom] == newIds[newFrom]) {
+				matches.add(start + oldFrom++, start + newFrom++);
+			}
+			while (oldTo > oldFrom && newTo > newFrom
+					&& oldIds[oldTo - 1] == newIds[newTo - 1]) {
+				oldTo--;
+				newTo--;
+				suffix++;
+			}
+
+			if (oldTo > oldFrom && newTo > newFrom) {
+				matchMyers(oldFrom, oldTo, newFrom, newTo, matches);
+			}
+
+			for (int i = 0; i < suffix; i++) {
+				matches.add(start + oldTo + i, start + newTo + i);
+			}
+		}
+
+		private void matchMyers(int oldFrom, int oldTo, int newFrom,
+				int newTo, Matches matches) {
+			int n = oldTo - oldFrom;
+			int m = newTo - newFrom;
+			int limit = Math.min(n + m, MAX_EDIT_DISTANCE);
+
+			// v[k + offset] is the furthest old index reached on diagonal k;
+			// trace[d] keeps the diagonals -d..d after d edits
+			int offset = limit + 1;
+			int[] v = new int[2 * limit + 3];
+			List trace = new ArrayList();
+			int distance = -1;
+			for (int d = 0; d <= limit && distance == -1; d++) {
+				for (int k = -d; k <= d; k += 2) {
+					int x;
+					if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+						x = v[offset + k + 1];
+					} else {
+						x = v[offset + k - 1] + 1;
+					}
+					int y = x - k;
+					while (x < n && y < m
+							&& oldIds[oldFrom + x] == newIds[newFrom + y]) {
+						x++;
+						y++;
+					}
+					v[offset + k] = x;
+					if (x >= n && y >= m) {
+						distance = d;
+					}
+				}
+				int[] snapshot = new int[2 * d + 1];
+				System.arraycopy(v, offset - d, snapshot, 0, snapshot.length);
+				trace.add(snapshot);
+			}
+			if (distance == -1) {
+				// too many differences, report the whole range as changed
+				return;
+			}
+
+			Matches reversed = new Matches();
+			int x = n;
+			int y = m;
+			for (int d = distance; d > 0; d--) {
+				int[] previous = (int[]) trace.get(d - 1);
+				int k = x - y;
+				int previousK;
+				if (k == -d
+						|| (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+					previousK = k + 1;
+				} else {
+					previousK = k - 1;
+				}
+				int previousX = previous[previousK + d - 1];
+				int previousY = previousX - previousK;
+				while (x > previousX && y > previousY) {
+					x--;
+					y--;
+					reversed.add(oldFrom + x, newFrom + y);
+				}
+				x = previousX;
+				y = previousY;
+			}
+			while (x > 0 && y > 0) {
+				x--;
+				y--;
+				reversed.add(oldFrom + x, newFrom + y);
+			}
+
+			for (int i = reversed.size - 1; i >= 0; i--) {
+				matches.add(start + reversed.oldIndexes[i], start
+						+ reversed.newIndexes[i]);
+			}
+		}
+	}
+}
@@ -125,9 +125,10 @@ public class BindingTable {
 	private ArrayList<Binding> bindings = new ArrayList<Binding>();
 	private Map<TriggerSequence, Binding> bindingsByTrigger = new HashMap<TriggerSequence, Binding>();
 	private Map<ParameterizedCommand, ArrayList<Binding>> bindingsByCommand = new HashMap<ParameterizedCommand, ArrayList<Binding>>();
-	private Map<TriggerSequence, ArrayList<Binding>> bindingsByPrefix = new HashMap<TriggerSequence, ArrayList<Binding>>();
+	private BindingTrie prefixTrie = new BindingTrie();
 	private Map<TriggerSequence, ArrayList<Binding>> conflicts = new HashMap<TriggerSequence, ArrayList<Binding>>();
 	private Map<TriggerSequence, ArrayList<Binding>> orderedBindingsByTrigger = new HashMap<TriggerSequence, ArrayList<Binding>>();
+	private ArrayList<BindingTableManager> managers = new ArrayList<BindingTableManager>(1);
 
 	/**
 	 * @param context
@@ -203,14 +204,9 @@ public class BindingTable {
 		sequences.add(binding);
 		Collections.sort(sequences, BEST_SEQUENCE);
 
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings == null) {
-				bindings = new ArrayList<Binding>();
-				bindingsByPrefix.put(prefs[i], bindings);
-			}
-			bindings.add(binding);
+		prefixTrie.add(binding);
+		for (BindingTableManager manager : managers) {
+			manager.bindingAdded(this, binding);
 		}
 	}
 
@@ -222,12 +218,9 @@ public class BindingTable {
 		if (sequences != null) {
 			sequences.remove(binding);
 		}
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings != null) {
-				bindings.remove(binding);
-			}
+		prefixTrie.remove(binding);
+		for (BindingTableManager manager : managers) {
+			manager.bindingRemoved(this, binding);
 		}
 	}
 
@@ -331,15 +324,29 @@ public class BindingTable {
 	}
 
 	public Collection<Binding> getPartialMatches(TriggerSequence sequence) {
-		return bindingsByPrefix.get(sequence);
+		return prefixTrie.getPartialMatches(sequence);
 	}
 
 	public boolean isPartialMatch(TriggerSequence seq) {
-		return bindingsByPrefix.get(seq) != null;
+		return prefixTrie.isPartialMatch(seq);
 	}
 
 	public Collection<Binding> getBindings() {
 		return Collections.unmodifiableCollection(bindings);
 	}
 
+	/**
+	 * Notifies the manager of the bindings added to and removed from this
+	 * table, so it can keep its own indexes up to date.
+	 */
+	void addManager(BindingTableManager manager) {
+		if (!managers.contains(manager)) {
+			managers.add(manager);
+		}
+	}
+
+	void removeManager(BindingTableManager manager) {
+		managers.remove(manager);
+	}
+
 }
@@ -14,8 +14,10 @@ package org.eclipse.e4.ui.bindings.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -29,6 +31,11 @@ import org.eclipse.jface.bindings.TriggerSequence;
 public class BindingTableManager {
 	private static final String BINDING_TABLE_PREFIX = "bindingTable:"; //$NON-NLS-1$
 
+	/**
+	 * The number of context sets whose active bindings are kept in a trie.
+	 */
+	private static final int ACTIVE_TRIE_COUNT = 4;
+
 	@Inject
 	private IEclipseContext eclipseContext;
 
@@ -36,6 +43,22 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	/**
+	 * The bindings of the tables of the most recently used context sets, keyed
+	 * by the contexts of the set. They are kept up to date as bindings are
+	 * added to and removed from the tables, and dropped when tables are added
+	 * or removed.
+	 */
+	private Map<List<Context>, BindingTrie> activeTries = new LinkedHashMap<List<Context>, BindingTrie>(
+			8, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Context>, BindingTrie> eldest) {
+			return size() > ACTIVE_TRIE_COUNT;
+		}
+	};
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +66,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		activeTries.clear();
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +85,8 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		table.removeManager(this);
+		activeTries.clear();
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -120,16 +146,21 @@ public class BindingTableManager {
 	}
 
 	public Binding getPerfectMatch(ContextSet contextSet, TriggerSequence triggerSequence) {
+		Collection<Binding> matches = getActiveTrie(contextSet).getPerfectMatches(
+				triggerSequence);
+		if (matches == null) {
+			return null;
+		}
+		if (matches.size() == 1) {
+			return matches.iterator().next();
+		}
 		Binding result = null;
 		Binding currentResult = null;
 		List<Context> contexts = contextSet.getContexts();
 		ListIterator<Context> it = contexts.listIterator(contexts.size());
 		while (it.hasPrevious()) {
 			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				currentResult = table.getPerfectMatch(triggerSequence);
-			}
+			currentResult = getMatchIn(matches, c.getId());
 			if (currentResult != null) {
 				if (isMostActiveScheme(currentResult)) {
 					return currentResult;
@@ -147,6 +178,55 @@ public class BindingTableManager {
 		return result;
 	}
 
+	private static Binding getMatchIn(Collection<Binding> matches, String contextId) {
+		for (Binding binding : matches) {
+			if (contextId.equals(binding.getContextId())) {
+				return binding;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the trie of the bindings of the tables of the given context set,
+	 * building it on first use.
+	 */
+	private BindingTrie getActiveTrie(ContextSet contextSet) {
+		List<Context> contexts = contextSet.getContexts();
+		BindingTrie trie = activeTries.get(contexts);
+		if (trie == null) {
+			trie = new BindingTrie();
+			for (Context ctx : contexts) {
+				BindingTable table = getTable(ctx.getId());
+				if (table != null) {
+					table.addManager(this);
+					for (Binding binding : table.getBindings()) {
+						trie.add(binding);
+					}
+				}
+			}
+			// the contexts of a set may change, see addTable(BindingTable)
+			activeTries.put(new ArrayList<Context>(contexts), trie);
+		}
+		return trie;
+	}
+
+	void bindingAdded(BindingTable table, Binding binding) {
+		for (Map.Entry<List<Context>, BindingTrie> entry : activeTries.entrySet()) {
+			if (entry.getKey().contains(table.getTableId()) && getTable(table.getId()) == table) {
+				entry.getValue().add(binding);
+			}
+		}
+	}
+
+	void bindingRemoved(BindingTable table, Binding binding) {
+		for (Map.Entry<List<Context>, BindingTrie> entry : activeTries.entrySet()) {
+			if (entry.getKey().contains(table.getTableId()) && getTable(table.getId()) == table) {
+				entry.getValue().remove(binding);
+			}
+		}
+	}
+
 	/**
 	 * @param currentResult
 	 * @return
@@ -203,18 +283,7 @@ public class BindingTableManager {
 	}
 
 	public boolean isPartialMatch(ContextSet contextSet, TriggerSequence sequence) {
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				if (table.isPartialMatch(sequence)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return getActiveTrie(contextSet).isPartialMatch(sequence);
 	}
 
 	public Collection<Binding> getPartialMatches(ContextSet contextSet, TriggerSequence sequence) {
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.bindings.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
+import org.eclipse.jface.bindings.TriggerSequence;
+
+/**
+ * A trie of binding trigger sequences with one node per trigger. Each node
+ * holds the bindings whose sequence ends there and counts the bindings whose
+ * sequence is longer, so perfect and partial matches are found by walking the
+ * triggers once. Bindings are added and removed without rebuilding the trie.
+ */
+class BindingTrie {
+
+	private static class Node {
+		private Map<Trigger, Node> children;
+		private ArrayList<Binding> bindings;
+
+		/**
+		 * The number of bindings below this node.
+		 */
+		private int partialCount;
+
+		Node getChild(Trigger trigger) {
+			return children == null ? null : children.get(trigger);
+		}
+
+		Node createChild(Trigger trigger) {
+			if (children == null) {
+				children = new LinkedHashMap<Trigger, Node>(4);
+			}
+			Node child = new Node();
+			children.put(trigger, child);
+			return child;
+		}
+
+		void collectPartialMatches(Collection<Binding> matches) {
+			if (children == null) {
+				return;
+			}
+			for (Node child : children.values()) {
+				if (child.bindings != null) {
+					matches.addAll(child.bindings);
+				}
+				child.collectPartialMatches(matches);
+			}
+		}
+	}
+
+	private final Node root = new Node();
+
+	public void add(Binding binding) {
+		Node node = root;
+		for (Trigger trigger : binding.getTriggerSequence().getTriggers()) {
+			node.partialCount++;
+			Node child = node.getChild(trigger);
+			if (child == null) {
+				child = node.createChild(trigger);
+			}
+			node = child;
+		}
+		if (node.bindings == null) {
+			node.bindings = new ArrayList<Binding>(1);
+		}
+		node.bindings.add(binding);
+	}
+
+	public boolean remove(Binding binding) {
+		Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+		Node[] path = new Node[triggers.length + 1];
+		path[0] = root;
+		for (int i = 0; i < triggers.length; i++) {
+			path[i + 1] = path[i].getChild(triggers[i]);
+			if (path[i + 1] == null) {
+				return false;
+			}
+		}
+		Node node = path[triggers.length];
+		if (node.bindings == null || !node.bindings.remove(binding)) {
+			return false;
+		}
+		if (node.bindings.isEmpty()) {
+			node.bindings = null;
+		}
+		for (int i = triggers.length - 1; i >= 0; i--) {
+			path[i].partialCount--;
+			Node child = path[i + 1];
+			if (child.partialCount == 0 && child.bindings == null) {
+				path[i].children.remove(triggers[i]);
+			}
+		}
+		return true;
+	}
+
+	private Node find(TriggerSequence sequence) {
+		Trigger[] triggers = sequence.getTriggers();
+		if (triggers.length == 0) {
+			return null;
+		}
+		Node node = root;
+		for (int i = 0; i < triggers.length && node != null; i++) {
+			node = node.getChild(triggers[i]);
+		}
+		return node;
+	}
+
+	/**
+	 * @return the bindings whose trigger sequence is the given sequence, or
+	 *         <code>null</code> if there are none
+	 */
+	public Collection<Binding> getPerfectMatches(TriggerSequence sequence) {
+		Node node = find(sequence);
+		return node == null ? null : node.bindings;
+	}
+
+	public boolean isPartialMatch(TriggerSequence sequence) {
+		Node node = find(sequence);
+		return node != null && node.partialCount > 0;
+	}
+
+	/**
+	 * @return the bindings whose trigger sequence starts with and is longer
+	 *         than the given sequence, or <code>null</code> if there are none
+	 */
+	public Collection<Binding> getPartialMatches(TriggerSequence sequence) {
+		Node node = find(sequence);
+		if (node == null || node.partialCount == 0) {
+			return null;
+		}
+		ArrayList<Binding> matches = new ArrayList<Binding>(node.partialCount);
+		node.collectPartialMatches(matches);
+		return matches;
+	}
+}
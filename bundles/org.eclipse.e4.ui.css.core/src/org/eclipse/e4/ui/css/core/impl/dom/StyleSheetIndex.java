@@ -0,0 +1,401 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSAndConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.css.sac.SimpleSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * The selectors of a {@link CSSStyleSheet}, bucketed by the id, class or
+ * element type their subject requires, so that only the selectors which may
+ * match an element are evaluated.
+ * <p>
+ * Selectors made only of an element type, ids and classes match every element
+ * with the same type, id and classes alike. Their matches are cached per
+ * signature of the element, as is the computed style when there are no other
+ * candidates. The other candidate selectors, e.g. with combinators or pseudo
+ * classes, are evaluated on every call.
+ * </p>
+ */
+class StyleSheetIndex {
+
+	/**
+	 * A selector of a style rule and its order in the style sheet.
+	 */
+	private static class IndexedSelector {
+		final ExtendedSelector selector;
+		final StyleWrapper wrapper;
+		final boolean typeIdClassOnly;
+
+		IndexedSelector(ExtendedSelector selector, CSSStyleRule rule,
+				int position) {
+			this.selector = selector;
+			this.wrapper = new StyleWrapper(rule.getStyle(),
+					selector.getSpecificity(), position);
+			this.typeIdClassOnly = isTypeIdClassOnly(selector);
+		}
+	}
+
+	private static final Comparator<IndexedSelector> POSITION_ORDER = new Comparator<IndexedSelector>() {
+		public int compare(IndexedSelector selector1, IndexedSelector selector2) {
+			return selector1.wrapper.position - selector2.wrapper.position;
+		}
+	};
+
+	/**
+	 * The candidate selectors of the elements sharing a signature.
+	 */
+	private static class Candidates {
+		/**
+		 * The matches of the type, id and class only candidates.
+		 */
+		final List<StyleWrapper> matches = new ArrayList<StyleWrapper>();
+
+		/**
+		 * The other candidates, to evaluate on every call.
+		 */
+		final List<IndexedSelector> others = new ArrayList<IndexedSelector>();
+
+		/**
+		 * The style computed from the matches, shared by the elements of the
+		 * signature when there are no other candidates.
+		 */
+		CSSStyleDeclaration style;
+	}
+
+	private final CSSRuleList ruleList;
+
+	private final int ruleCount;
+
+	private final Map<String, List<IndexedSelector>> byId = new HashMap<String, List<IndexedSelector>>();
+
+	private final Map<String, List<IndexedSelector>> byClass = new HashMap<String, List<IndexedSelector>>();
+
+	private final Map<String, List<IndexedSelector>> byType = new HashMap<String, List<IndexedSelector>>();
+
+	private final List<IndexedSelector> universal = new ArrayList<IndexedSelector>();
+
+	private final Map<Signature, Candidates> candidatesCache = new HashMap<Signature, Candidates>();
+
+	StyleSheetIndex(CSSStyleSheet styleSheet) {
+		ruleList = styleSheet.getCssRules();
+		ruleCount = ruleList.getLength();
+		int position = 0;
+		for (int i = 0; i < ruleCount; i++) {
+			CSSRule rule = ruleList.item(i);
+			if (rule.getType() != CSSRule.STYLE_RULE
+					|| !(rule instanceof ExtendedCSSRule)) {
+				continue;
+			}
+			SelectorList selectorList = ((ExtendedCSSRule) rule)
+					.getSelectorList();
+			int l = selectorList.getLength();
+			for (int j = 0; j < l; j++) {
+				Selector selector = selectorList.item(j);
+				if (selector instanceof ExtendedSelector) {
+					add(new IndexedSelector((ExtendedSelector) selector,
+							(CSSStyleRule) rule, position++), selector);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether this index still reflects the rules of the given style
+	 * sheet.
+	 */
+	boolean isValid(CSSStyleSheet styleSheet) {
+		return styleSheet.getCssRules() == ruleList
+				&& ruleList.getLength() == ruleCount;
+	}
+
+	private void add(IndexedSelector indexed, Selector selector) {
+		Selector subject = getSubject(selector);
+		String id = null;
+		String className = null;
+		String type = null;
+		if (subject instanceof ConditionalSelector) {
+			ConditionalSelector conditional = (ConditionalSelector) subject;
+			id = findConditionValue(conditional.getCondition(), true);
+			className = findConditionValue(conditional.getCondition(), false);
+			type = getType(conditional.getSimpleSelector());
+		} else if (subject instanceof SimpleSelector) {
+			type = getType((SimpleSelector) subject);
+		}
+
+		if (id != null) {
+			addTo(byId, id, indexed);
+		} else if (className != null) {
+			addTo(byClass, className, indexed);
+		} else if (type != null) {
+			addTo(byType, type, indexed);
+		} else {
+			universal.add(indexed);
+		}
+	}
+
+	private static void addTo(Map<String, List<IndexedSelector>> map,
+			String key, IndexedSelector indexed) {
+		List<IndexedSelector> list = map.get(key);
+		if (list == null) {
+			list = new ArrayList<IndexedSelector>(2);
+			map.put(key, list);
+		}
+		list.add(indexed);
+	}
+
+	/**
+	 * Returns the selector describing the element the given selector applies
+	 * to, e.g. <code>Button</code> in <code>Shell > Button</code>.
+	 */
+	private static Selector getSubject(Selector selector) {
+		while (true) {
+			if (selector instanceof DescendantSelector) {
+				selector = ((DescendantSelector) selector).getSimpleSelector();
+			} else if (selector instanceof SiblingSelector) {
+				selector = ((SiblingSelector) selector).getSiblingSelector();
+			} else {
+				return selector;
+			}
+		}
+	}
+
+	private static String getType(SimpleSelector selector) {
+		if (selector instanceof CSSElementSelectorImpl) {
+			return ((CSSElementSelectorImpl) selector).getLocalName();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the value of an id or class condition the given condition
+	 * requires, or <code>null</code> if there is none.
+	 */
+	private static String findConditionValue(Condition condition, boolean id) {
+		if (id && condition instanceof CSSIdConditionImpl) {
+			return ((CSSIdConditionImpl) condition).getValue();
+		}
+		if (!id && condition instanceof CSSClassConditionImpl) {
+			return ((CSSClassConditionImpl) condition).getValue();
+		}
+		if (condition instanceof CSSAndConditionImpl) {
+			CombinatorCondition and = (CombinatorCondition) condition;
+			String value = findConditionValue(and.getFirstCondition(), id);
+			return value != null ? value : findConditionValue(
+					and.getSecondCondition(), id);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether the selector only tests the element type, ids and
+	 * classes, which are all part of the element signature.
+	 */
+	private static boolean isTypeIdClassOnly(Selector selector) {
+		if (selector instanceof ConditionalSelector) {
+			ConditionalSelector conditional = (ConditionalSelector) selector;
+			return isTypeIdClassOnly(conditional.getSimpleSelector())
+					&& isIdClassOnly(conditional.getCondition());
+		}
+		if (selector instanceof CSSElementSelectorImpl) {
+			return ((CSSElementSelectorImpl) selector).getNamespaceURI() == null;
+		}
+		return false;
+	}
+
+	private static boolean isIdClassOnly(Condition condition) {
+		if (condition instanceof CSSIdConditionImpl
+				|| condition instanceof CSSClassConditionImpl) {
+			return true;
+		}
+		if (condition instanceof CSSAndConditionImpl) {
+			CombinatorCondition and = (CombinatorCondition) condition;
+			return isIdClassOnly(and.getFirstCondition())
+					&& isIdClassOnly(and.getSecondCondition());
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the style declaration computed from the selectors matching the
+	 * element, or <code>null</code> if none matches.
+	 */
+	CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
+		Signature signature = new Signature(elt, pseudoElt);
+		Candidates candidates = candidatesCache.get(signature);
+		if (candidates == null) {
+			candidates = getCandidates(elt, pseudoElt, signature);
+			candidatesCache.put(signature, candidates);
+		}
+		if (candidates.others.isEmpty()) {
+			if (candidates.style == null && !candidates.matches.isEmpty()) {
+				candidates.style = computeStyle(candidates.matches);
+			}
+			return candidates.style;
+		}
+
+		List<StyleWrapper> matches = new ArrayList<StyleWrapper>(
+				candidates.matches);
+		for (IndexedSelector indexed : candidates.others) {
+			if (indexed.selector.match(elt, pseudoElt)) {
+				matches.add(indexed.wrapper);
+			}
+		}
+		return computeStyle(matches);
+	}
+
+	private static CSSStyleDeclaration computeStyle(List<StyleWrapper> matches) {
+		switch (matches.size()) {
+		case 0:
+			return null;
+		case 1:
+			return matches.get(0).style;
+		default:
+			// There is several Style Declarations which match
+			// the element, merge the CSS Property value.
+			return new CSSComputedStyleImpl(new ArrayList<StyleWrapper>(
+					matches));
+		}
+	}
+
+	private Candidates getCandidates(Element elt, String pseudoElt,
+			Signature signature) {
+		List<IndexedSelector> selectors = new ArrayList<IndexedSelector>();
+		if (signature.id != null) {
+			addAll(selectors, byId.get(signature.id));
+		}
+		for (String className : getClassNames(signature.classes)) {
+			addAll(selectors, byClass.get(className));
+		}
+		if (signature.type != null) {
+			addAll(selectors, byType.get(signature.type));
+		}
+		selectors.addAll(universal);
+		Collections.sort(selectors, POSITION_ORDER);
+
+		Candidates candidates = new Candidates();
+		for (IndexedSelector indexed : selectors) {
+			if (!indexed.typeIdClassOnly) {
+				candidates.others.add(indexed);
+			} else if (indexed.selector.match(elt, pseudoElt)) {
+				candidates.matches.add(indexed.wrapper);
+			}
+		}
+		return candidates;
+	}
+
+	private static void addAll(List<IndexedSelector> selectors,
+			List<IndexedSelector> bucket) {
+		if (bucket != null) {
+			selectors.addAll(bucket);
+		}
+	}
+
+	/**
+	 * Splits the class attribute the way {@link CSSClassConditionImpl} does.
+	 */
+	private static Set<String> getClassNames(String classes) {
+		if (classes == null || classes.length() == 0) {
+			return Collections.emptySet();
+		}
+		Set<String> names = new LinkedHashSet<String>();
+		int start = -1;
+		for (int i = 0; i <= classes.length(); i++) {
+			if (i == classes.length() || Character.isSpaceChar(classes.charAt(i))) {
+				if (start != -1) {
+					names.add(classes.substring(start, i));
+					start = -1;
+				}
+			} else if (start == -1) {
+				start = i;
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * The type, id, classes and pseudo element the type, id and class only
+	 * selectors test.
+	 */
+	private static final class Signature {
+		final String type;
+		final String id;
+		final String classes;
+		final String pseudo;
+		private final int hashCode;
+
+		Signature(Element elt, String pseudoElt) {
+			// the way CSSElementSelectorImpl gets the name of the element
+			type = elt.getPrefix() == null ? elt.getNodeName() : elt
+					.getLocalName();
+			if (elt instanceof CSSStylableElement) {
+				CSSStylableElement stylable = (CSSStylableElement) elt;
+				id = stylable.getCSSId();
+				classes = stylable.getCSSClass();
+			} else {
+				id = elt.getAttribute("id"); //$NON-NLS-1$
+				classes = elt.getAttribute("class"); //$NON-NLS-1$
+			}
+			pseudo = pseudoElt;
+			hashCode = ((hash(type) * 31 + hash(id)) * 31 + hash(classes))
+					* 31 + hash(pseudo);
+		}
+
+		private static int hash(String s) {
+			return s == null ? 0 : s.hashCode();
+		}
+
+		private static boolean equals(String s1, String s2) {
+			return s1 == null ? s2 == null : s1.equals(s2);
+		}
+
+		public int hashCode() {
+			return hashCode;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Signature)) {
+				return false;
+			}
+			Signature other = (Signature) obj;
+			return equals(type, other.type) && equals(id, other.id)
+					&& equals(classes, other.classes)
+					&& equals(pseudo, other.pseudo);
+		}
+	}
+}
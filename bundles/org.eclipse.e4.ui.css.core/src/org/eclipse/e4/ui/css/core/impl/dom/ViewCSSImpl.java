@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Angelo Zerr and others.
+ * Copyright (c) 2008, 2014 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,17 +11,10 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.css.core.impl.dom;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
-import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
-import org.w3c.css.sac.Selector;
-import org.w3c.css.sac.SelectorList;
+import java.util.HashMap;
+import java.util.Map;
 import org.w3c.dom.Element;
-import org.w3c.dom.css.CSSRule;
-import org.w3c.dom.css.CSSRuleList;
 import org.w3c.dom.css.CSSStyleDeclaration;
-import org.w3c.dom.css.CSSStyleRule;
 import org.w3c.dom.css.CSSStyleSheet;
 import org.w3c.dom.css.DocumentCSS;
 import org.w3c.dom.css.ViewCSS;
@@ -36,6 +29,13 @@ public class ViewCSSImpl implements ViewCSS {
 
 	protected DocumentCSS documentCSS;
 
+	/**
+	 * The selector indexes of the style sheets, kept until {@link #reset()}.
+	 * The indexes refer to their style sheet through its rules, so they cannot
+	 * be weakly keyed.
+	 */
+	private final Map<CSSStyleSheet, StyleSheetIndex> styleSheetIndexes = new HashMap<CSSStyleSheet, StyleSheetIndex>();
+
 	/**
 	 * Creates a new ViewCSS.
 	 */
@@ -71,65 +71,27 @@ public class ViewCSSImpl implements ViewCSS {
 
 	public CSSStyleDeclaration getComputedStyle(CSSStyleSheet styleSheet,
 			Element elt, String pseudoElt) {
-		List styleDeclarations = null;
-		StyleWrapper firstStyleDeclaration = null;
-		CSSRuleList ruleList = styleSheet.getCssRules();
-		int length = ruleList.getLength();
-		int position = 0;
-		for (int i = 0; i < length; i++) {
-			CSSRule rule = ruleList.item(i);
-			switch (rule.getType()) {
-			case CSSRule.STYLE_RULE: {
-				CSSStyleRule styleRule = (CSSStyleRule) rule;
-				if (rule instanceof ExtendedCSSRule) {
-					ExtendedCSSRule r = (ExtendedCSSRule) rule;
-					SelectorList selectorList = r.getSelectorList();
-					// Loop for SelectorList
-					int l = selectorList.getLength();
-					for (int j = 0; j < l; j++) {
-						Selector selector = (Selector) selectorList.item(j);
-						if (selector instanceof ExtendedSelector) {
-							ExtendedSelector extendedSelector = (ExtendedSelector) selector;
-							if (extendedSelector.match(elt, pseudoElt)) {
-								CSSStyleDeclaration style = styleRule
-										.getStyle();
-								int specificity = extendedSelector
-										.getSpecificity();
-								StyleWrapper wrapper = new StyleWrapper(style,
-										specificity, position++);
-								if (firstStyleDeclaration == null) {
-									firstStyleDeclaration = wrapper;
-								} else {
-									// There is several Style Declarations which
-									// match the current element
-									if (styleDeclarations == null) {
-										styleDeclarations = new ArrayList();
-										styleDeclarations
-												.add(firstStyleDeclaration);
-									}
-									styleDeclarations.add(wrapper);
-								}
-							}
-						} else {
-							// TODO : selector is not batik ExtendedSelector,
-							// Manage this case...
-						}
-					}
-				} else {
-					// TODO : CSS rule is not ExtendedCSSRule,
-					// Manage this case...
-				}
-			}
-			}
-		}
-		if (styleDeclarations != null) {
-			// There is several Style Declarations wich match
-			// the element, merge the CSS Property value.
-			return new CSSComputedStyleImpl(styleDeclarations);
-		}
-		if (firstStyleDeclaration != null) {
-			return firstStyleDeclaration.style;
+		return getStyleSheetIndex(styleSheet).getComputedStyle(elt, pseudoElt);
+	}
+
+	/**
+	 * Returns the index of the selectors of the given style sheet, built once
+	 * and rebuilt when its rules change.
+	 */
+	private StyleSheetIndex getStyleSheetIndex(CSSStyleSheet styleSheet) {
+		StyleSheetIndex index = styleSheetIndexes.get(styleSheet);
+		if (index == null || !index.isValid(styleSheet)) {
+			index = new StyleSheetIndex(styleSheet);
+			styleSheetIndexes.put(styleSheet, index);
 		}
-		return null;
+		return index;
+	}
+
+	/**
+	 * Drops the indexes of the style sheets, which must be called when the
+	 * style sheets are removed from the document.
+	 */
+	public void reset() {
+		styleSheetIndexes.clear();
 	}
 }
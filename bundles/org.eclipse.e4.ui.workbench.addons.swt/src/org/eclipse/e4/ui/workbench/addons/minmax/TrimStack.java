@@ -45,6 +45,7 @@ import org.eclipse.e4.ui.workbench.IResourceUtilities;
 import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
 import org.eclipse.e4.ui.workbench.modeling.EPartService;
+import org.eclipse.e4.ui.workbench.renderers.swt.LazyStackRenderer;
 import org.eclipse.e4.ui.workbench.renderers.swt.TrimmedPartLayout;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -816,6 +817,14 @@ public class TrimStack {
 			hostPane.setVisible(true);
 			isShowing = true;
 
+			// Render the part whose rendering was deferred while minimized
+			if (minimizedElement.getRenderer() instanceof LazyStackRenderer) {
+				LazyStackRenderer lsr = (LazyStackRenderer) minimizedElement.getRenderer();
+				@SuppressWarnings("unchecked")
+				MGenericStack<MUIElement> stack = (MGenericStack<MUIElement>) minimizedElement;
+				lsr.renderDeferredContents(stack);
+			}
+
 			// Activate the part that is being brought up...
 			if (minimizedElement instanceof MPartStack) {
 				MPartStack theStack = (MPartStack) minimizedElement;
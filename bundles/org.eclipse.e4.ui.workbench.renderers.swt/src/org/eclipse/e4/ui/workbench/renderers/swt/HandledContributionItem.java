@@ -15,9 +15,13 @@ package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
+import org.eclipse.core.commands.CommandEvent;
+import org.eclipse.core.commands.ICommandListener;
 import org.eclipse.core.commands.IStateListener;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.State;
@@ -30,6 +34,7 @@ import org.eclipse.e4.core.commands.EHandlerService;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IContextFunction;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.bindings.EBindingService;
@@ -114,6 +119,16 @@ public class HandledContributionItem extends ContributionItem {
 
 	}
 
+	/**
+	 * System property restoring the polling of the enablement of all tool
+	 * items every 400ms, instead of re-evaluating an item when the context
+	 * values or the command its enablement depends on change.
+	 */
+	private static final String POLL_ENABLEMENT_PROPERTY = "org.eclipse.e4.ui.workbench.renderers.swt.pollToolItemEnablement"; //$NON-NLS-1$
+
+	private static final boolean POLL_ENABLEMENT = Boolean
+			.getBoolean(POLL_ENABLEMENT_PROPERTY);
+
 	public static class ToolItemUpdateTimer implements Runnable {
 		Display display = Display.getCurrent();
 		RunnableRunner runner = new RunnableRunner();
@@ -122,8 +137,23 @@ public class HandledContributionItem extends ContributionItem {
 		List<Runnable> windowRunnables = new ArrayList<Runnable>();
 		final List<HandledContributionItem> orphanedToolItems = new ArrayList<HandledContributionItem>();
 
+		private boolean timerRunning = false;
+
+		/**
+		 * The items whose enablement has to be evaluated again since the last
+		 * update.
+		 */
+		private final Set<HandledContributionItem> pendingItems = new LinkedHashSet<HandledContributionItem>();
+
+		private final Runnable pendingUpdater = new Runnable() {
+			public void run() {
+				updatePendingItems();
+			}
+		};
+
 		public void addWindowRunnable(Runnable r) {
 			windowRunnables.add(r);
+			startTimer();
 		}
 
 		public void removeWindowRunnable(Runnable r) {
@@ -135,13 +165,52 @@ public class HandledContributionItem extends ContributionItem {
 				itemsToCheck.add(item);
 
 				// Start the timer on the first item registered
-				if (itemsToCheck.size() == 1)
-					display.timerExec(400, this);
+				startTimer();
 			}
 		}
 
 		void removeItem(HandledContributionItem item) {
 			itemsToCheck.remove(item);
+			synchronized (pendingItems) {
+				pendingItems.remove(item);
+			}
+		}
+
+		private void startTimer() {
+			if (!timerRunning) {
+				timerRunning = true;
+				display.timerExec(400, this);
+			}
+		}
+
+		/**
+		 * Queues an enablement update of the item. The enablement of the items
+		 * queued until the display gets to run the update is evaluated once
+		 * per item, however many changes were reported meanwhile.
+		 * 
+		 * @param item
+		 *            the item to update
+		 */
+		void scheduleUpdate(HandledContributionItem item) {
+			synchronized (pendingItems) {
+				if (pendingItems.isEmpty()) {
+					display.asyncExec(pendingUpdater);
+				}
+				pendingItems.add(item);
+			}
+		}
+
+		void updatePendingItems() {
+			HandledContributionItem[] items;
+			synchronized (pendingItems) {
+				items = pendingItems
+						.toArray(new HandledContributionItem[pendingItems
+								.size()]);
+				pendingItems.clear();
+			}
+			for (HandledContributionItem item : items) {
+				item.refreshEnablement();
+			}
 		}
 
 		public void run() {
@@ -168,9 +237,11 @@ public class HandledContributionItem extends ContributionItem {
 				}
 			}
 
-			// repeat until the list goes empty
-			if (itemsToCheck.size() > 0)
+			// repeat until the lists go empty
+			if (itemsToCheck.size() > 0 || windowRunnables.size() > 0)
 				display.timerExec(400, this);
+			else
+				timerRunning = false;
 		}
 	}
 
@@ -228,28 +299,28 @@ public class HandledContributionItem extends ContributionItem {
 		if (updateRunner == null) {
 			updateRunner = new ISafeRunnable() {
 				public void run() throws Exception {
-					boolean shouldEnable = canExecuteItem(null);
-					if (shouldEnable != model.isEnabled()) {
-						model.setEnabled(shouldEnable);
-						update();
-					}
+					setItemEnablement(canExecuteItem(null));
 				}
 
 				public void handleException(Throwable exception) {
-					if (!logged) {
-						logged = true;
-						if (logger != null) {
-							logger.error(
-									exception,
-									"Internal error during tool item enablement updating, this is only logged once per tool item."); //$NON-NLS-1$
-						}
-					}
+					logUpdateError(exception);
 				}
 			};
 		}
 		return updateRunner;
 	}
 
+	private void logUpdateError(Throwable exception) {
+		if (!logged) {
+			logged = true;
+			if (logger != null) {
+				logger.error(
+						exception,
+						"Internal error during tool item enablement updating, this is only logged once per tool item."); //$NON-NLS-1$
+			}
+		}
+	}
+
 	protected void updateItemEnablement() {
 		if (!(model.getWidget() instanceof ToolItem))
 			return;
@@ -258,7 +329,142 @@ public class HandledContributionItem extends ContributionItem {
 		if (widget == null || widget.isDisposed())
 			return;
 
-		SafeRunner.run(getUpdateRunner());
+		evaluatingEnablement = true;
+		try {
+			SafeRunner.run(getUpdateRunner());
+		} finally {
+			evaluatingEnablement = false;
+		}
+	}
+
+	private void setItemEnablement(boolean shouldEnable) {
+		if (!(model.getWidget() instanceof ToolItem))
+			return;
+
+		ToolItem widget = (ToolItem) model.getWidget();
+		if (widget == null || widget.isDisposed())
+			return;
+
+		if (shouldEnable != model.isEnabled()) {
+			model.setEnabled(shouldEnable);
+			update();
+		}
+	}
+
+	/**
+	 * Evaluates the enablement of the tool item again whenever a value of the
+	 * context read by the evaluation changes, or the command reports a change
+	 * of its enablement or handler. The items are evaluated in batches by the
+	 * {@link #toolItemUpdater}.
+	 */
+	private void hookEnablementTracking() {
+		final IEclipseContext lclContext = getContext(model);
+		if (lclContext == null) {
+			toolItemUpdater.registerItem(this);
+			return;
+		}
+		trackEnablement(lclContext);
+
+		ParameterizedCommand cmd = model.getWbCommand();
+		if (cmd != null) {
+			enablementCommand = cmd;
+			cmd.getCommand().addCommandListener(getCommandListener());
+		}
+	}
+
+	/**
+	 * Evaluates the enablement of the item, recording the context values read
+	 * by the evaluation. The first change of one of them only queues the item
+	 * in the {@link #toolItemUpdater} and stops the tracking, so that the
+	 * changes made until the update runs lead to a single evaluation, which
+	 * tracks the context again.
+	 */
+	private void trackEnablement(IEclipseContext lclContext) {
+		enablementTracker = new RunAndTrack() {
+			private boolean evaluated = false;
+
+			@Override
+			public boolean changed(IEclipseContext context) {
+				if (enablementTracker != this || widget == null
+						|| widget.isDisposed() || model.getParent() == null) {
+					return false;
+				}
+				if (evaluated) {
+					toolItemUpdater.scheduleUpdate(HandledContributionItem.this);
+					return false;
+				}
+				evaluated = true;
+				Boolean enabled = evaluateEnablement();
+				if (enabled != null) {
+					setItemEnablement(enabled.booleanValue());
+				}
+				return true;
+			}
+		};
+		lclContext.runAndTrack(enablementTracker);
+	}
+
+	/**
+	 * Evaluates the enablement of an item queued in the
+	 * {@link #toolItemUpdater}.
+	 */
+	void refreshEnablement() {
+		IEclipseContext lclContext = enablementTracker == null ? null
+				: getContext(model);
+		if (lclContext == null) {
+			updateItemEnablement();
+		} else {
+			trackEnablement(lclContext);
+		}
+	}
+
+	private void unhookEnablementTracking() {
+		enablementTracker = null;
+		if (enablementCommand != null) {
+			enablementCommand.getCommand().removeCommandListener(
+					getCommandListener());
+			enablementCommand = null;
+		}
+	}
+
+	private ICommandListener getCommandListener() {
+		if (commandListener == null) {
+			commandListener = new ICommandListener() {
+				public void commandChanged(CommandEvent commandEvent) {
+					// evaluating the enablement updates the command
+					if (!evaluatingEnablement
+							&& (commandEvent.isEnabledChanged() || commandEvent
+									.isHandledChanged())) {
+						toolItemUpdater
+								.scheduleUpdate(HandledContributionItem.this);
+					}
+				}
+			};
+		}
+		return commandListener;
+	}
+
+	/**
+	 * @return the enablement of the item, or <code>null</code> if it could not
+	 *         be evaluated
+	 */
+	private Boolean evaluateEnablement() {
+		final Boolean[] enabled = new Boolean[1];
+		evaluatingEnablement = true;
+		try {
+			SafeRunner.run(new ISafeRunnable() {
+				public void run() throws Exception {
+					enabled[0] = Boolean.valueOf(canExecuteItem(null));
+				}
+
+				public void handleException(Throwable exception) {
+					logUpdateError(exception);
+				}
+			});
+		} finally {
+			evaluatingEnablement = false;
+		}
+		return enabled[0];
 	}
 
 	private IMenuListener menuListener = new IMenuListener() {
@@ -269,6 +475,14 @@ public class HandledContributionItem extends ContributionItem {
 
 	private ISafeRunnable updateRunner;
 
+	private RunAndTrack enablementTracker;
+
+	private ICommandListener commandListener;
+
+	private ParameterizedCommand enablementCommand;
+
+	private boolean evaluatingEnablement = false;
+
 	private IEclipseContext infoContext;
 
 	private State styleState;
@@ -431,10 +645,14 @@ public class HandledContributionItem extends ContributionItem {
 		widget = item;
 		model.setWidget(widget);
 		widget.setData(AbstractPartRenderer.OWNING_ME, model);
-		toolItemUpdater.registerItem(this);
 
 		update(null);
 		hookCheckListener();
+		if (POLL_ENABLEMENT) {
+			toolItemUpdater.registerItem(this);
+		} else {
+			hookEnablementTracking();
+		}
 
 		if (updateService != null) {
 			unreferenceRunnable = updateService.registerElementForUpdate(
@@ -676,6 +894,7 @@ public class HandledContributionItem extends ContributionItem {
 				unreferenceRunnable = null;
 			}
 			unhookCheckListener();
+			unhookEnablementTracking();
 			toolItemUpdater.removeItem(this);
 			if (infoContext != null) {
 				infoContext.dispose();
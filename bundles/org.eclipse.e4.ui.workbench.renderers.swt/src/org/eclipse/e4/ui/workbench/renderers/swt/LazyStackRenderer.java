@@ -11,7 +11,9 @@
 package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.model.application.ui.MContext;
@@ -29,6 +31,8 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Widget;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
@@ -40,7 +44,12 @@ import org.osgi.service.event.EventHandler;
  * from being rendered, calling 'childAdded' instead. This not only saves time
  * and SWT resources but is necessary in an IDE world where we must not
  * arbitrarily cause plug-in loading.
- * 
+ * <p>
+ * The selected element of a minimized stack is not rendered either until the
+ * stack is shown. The contents whose rendering is deferred can be rendered
+ * ahead of time, one stack at a time while the display is idle, through
+ * {@link #prewarm(MUIElement)}.
+ * </p>
  */
 public abstract class LazyStackRenderer extends SWTPartRenderer {
 	private EventHandler lazyLoader = new EventHandler() {
@@ -62,11 +71,36 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 				hideElementRecursive(oldSel);
 			}
 
-			if (stack.getSelectedElement() != null)
+			if (stack.getSelectedElement() != null && !lsr.isDeferred(stack))
 				lsr.showTab(stack.getSelectedElement());
 		}
 	};
 
+	private EventHandler deferredLoader = new EventHandler() {
+		public void handleEvent(Event event) {
+			Object element = event.getProperty(UIEvents.EventTags.ELEMENT);
+
+			if (!(element instanceof MGenericStack<?>))
+				return;
+
+			@SuppressWarnings("unchecked")
+			MGenericStack<MUIElement> stack = (MGenericStack<MUIElement>) element;
+			if (stack.getRenderer() != LazyStackRenderer.this)
+				return;
+
+			// Render the selection deferred while the stack was hidden
+			if (stack.getWidget() != null && !isDeferred(stack)
+					&& isSelectionDeferred(stack))
+				showTab(stack.getSelectedElement());
+		}
+	};
+
+	/*
+	 * The delay in milliseconds between the renderings of two stacks by
+	 * prewarm(MUIElement), so that user input is processed in between.
+	 */
+	private static final int PREWARM_DELAY = 50;
+
 	public LazyStackRenderer() {
 		super();
 	}
@@ -75,9 +109,11 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 		// Ensure that there only ever *one* listener. Each subclass
 		// will call this method
 		eventBroker.unsubscribe(lazyLoader);
+		eventBroker.unsubscribe(deferredLoader);
 
 		eventBroker.subscribe(UIEvents.ElementContainer.TOPIC_SELECTEDELEMENT,
 				lazyLoader);
+		eventBroker.subscribe(UIEvents.UIElement.TOPIC_VISIBLE, deferredLoader);
 	}
 
 	/**
@@ -85,6 +121,7 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 	 */
 	public void contextDisposed(IEventBroker eventBroker) {
 		eventBroker.unsubscribe(lazyLoader);
+		eventBroker.unsubscribe(deferredLoader);
 	}
 
 	public void postProcess(MUIElement element) {
@@ -94,7 +131,8 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 		MGenericStack<MUIElement> stack = (MGenericStack<MUIElement>) element;
 		MUIElement selPart = stack.getSelectedElement();
 		if (selPart != null) {
-			showTab(selPart);
+			if (!isDeferred(stack))
+				showTab(selPart);
 		} else if (stack.getChildren().size() > 0) {
 			// Set the selection to the first renderable element
 			for (MUIElement kid : stack.getChildren()) {
@@ -149,6 +187,129 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 	protected void createTab(MElementContainer<MUIElement> me, MUIElement part) {
 	}
 
+	/**
+	 * Returns whether the rendering of the selected element of the given stack
+	 * is deferred until the stack is shown. By default this is the case for
+	 * minimized stacks.
+	 * 
+	 * @param stack
+	 *            the stack
+	 * @return <code>true</code> if the selected element is not rendered yet
+	 */
+	protected boolean isDeferred(MGenericStack<MUIElement> stack) {
+		return !stack.isVisible()
+				&& stack.getTags().contains(IPresentationEngine.MINIMIZED);
+	}
+
+	private static boolean isSelectionDeferred(MGenericStack<?> stack) {
+		MUIElement selElement = stack.getSelectedElement();
+		return selElement != null && selElement.isToBeRendered()
+				&& selElement.getWidget() == null;
+	}
+
+	/**
+	 * Returns whether the rendering of some contents of the given rendered
+	 * stack has been deferred.
+	 * 
+	 * @param stack
+	 *            the stack
+	 * @return <code>true</code> if the stack has contents that are not
+	 *         rendered yet
+	 * @see #renderDeferredContents(MGenericStack)
+	 */
+	public boolean hasDeferredContents(MGenericStack<MUIElement> stack) {
+		return stack.getWidget() != null && isSelectionDeferred(stack);
+	}
+
+	/**
+	 * Renders contents of the given stack whose rendering has been deferred,
+	 * as it would be rendered when shown, without showing it.
+	 * 
+	 * @param stack
+	 *            the stack
+	 */
+	public void renderDeferredContents(MGenericStack<MUIElement> stack) {
+		if (stack.getWidget() != null && isSelectionDeferred(stack))
+			showTab(stack.getSelectedElement());
+	}
+
+	/**
+	 * Renders the contents deferred by lazy stacks in the given element, one
+	 * stack at a time while the display is idle, so that showing them later
+	 * does not have to wait for their rendering. The rendering stops when
+	 * everything is rendered or the element is disposed.
+	 * 
+	 * @param element
+	 *            the rendered element, typically a window
+	 */
+	public static void prewarm(final MUIElement element) {
+		if (!(element.getWidget() instanceof Widget))
+			return;
+		final Display display = ((Widget) element.getWidget()).getDisplay();
+		display.timerExec(PREWARM_DELAY, new Runnable() {
+			public void run() {
+				Object widget = element.getWidget();
+				if (widget instanceof Widget && !((Widget) widget).isDisposed()
+						&& renderNextDeferred(element))
+					display.timerExec(PREWARM_DELAY, this);
+			}
+		});
+	}
+
+	/**
+	 * Renders the deferred contents of the first stack in the given element
+	 * that has some.
+	 * 
+	 * @param element
+	 *            the rendered element
+	 * @return <code>true</code> if some contents were rendered,
+	 *         <code>false</code> if there was nothing left to render
+	 */
+	public static boolean renderNextDeferred(MUIElement element) {
+		MGenericStack<MUIElement> stack = findDeferredStack(element,
+				new HashSet<MUIElement>());
+		if (stack == null)
+			return false;
+		((LazyStackRenderer) stack.getRenderer()).renderDeferredContents(stack);
+		return true;
+	}
+
+	private static MGenericStack<MUIElement> findDeferredStack(
+			MUIElement element, Set<MUIElement> visited) {
+		if (!element.isToBeRendered() || element.getWidget() == null
+				|| !visited.add(element))
+			return null;
+
+		if (element instanceof MGenericStack<?>
+				&& element.getRenderer() instanceof LazyStackRenderer) {
+			@SuppressWarnings("unchecked")
+			MGenericStack<MUIElement> stack = (MGenericStack<MUIElement>) element;
+			if (((LazyStackRenderer) element.getRenderer())
+					.hasDeferredContents(stack))
+				return stack;
+		}
+
+		List<MUIElement> kids = new ArrayList<MUIElement>();
+		if (element instanceof MPlaceholder) {
+			MUIElement ref = ((MPlaceholder) element).getRef();
+			if (ref != null && ref.getCurSharedRef() == element)
+				kids.add(ref);
+		} else if (element instanceof MElementContainer<?>) {
+			kids.addAll(((MElementContainer<?>) element).getChildren());
+		}
+		if (element instanceof MWindow) {
+			kids.addAll(((MWindow) element).getWindows());
+		} else if (element instanceof MPerspective) {
+			kids.addAll(((MPerspective) element).getWindows());
+		}
+		for (MUIElement kid : kids) {
+			MGenericStack<MUIElement> stack = findDeferredStack(kid, visited);
+			if (stack != null)
+				return stack;
+		}
+		return null;
+	}
+
 	protected void showTab(MUIElement element) {
 		// Now process any newly visible elements
 		MUIElement curSel = element.getParent().getSelectedElement();
@@ -207,7 +368,8 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 			return;
 
 		if (element instanceof MPartStack
-				&& element.getRenderer() instanceof StackRenderer) {
+				&& element.getRenderer() instanceof StackRenderer
+				&& !isSelectionDeferred((MPartStack) element)) {
 			MPartStack stackModel = (MPartStack) element;
 			StackRenderer sr = (StackRenderer) element.getRenderer();
 			CTabFolder ctf = (CTabFolder) element.getWidget();
@@ -15,6 +15,7 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.model.application.ui.MGenericStack;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
@@ -87,6 +88,58 @@ public class PerspectiveStackRenderer extends LazyStackRenderer {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.e4.ui.workbench.renderers.swt.LazyStackRenderer#hasDeferredContents
+	 * (org.eclipse.e4.ui.model.application.ui.MGenericStack)
+	 */
+	@Override
+	public boolean hasDeferredContents(MGenericStack<MUIElement> stack) {
+		return super.hasDeferredContents(stack)
+				|| (stack.getWidget() != null && findInactivePerspective(stack) != null);
+	}
+
+	/**
+	 * Renders the selected perspective if it has not been rendered yet,
+	 * otherwise the first inactive perspective that has not been rendered
+	 * yet. Inactive perspectives are kept hidden in the 'limbo' shell until
+	 * they are shown, and the shared elements they took over while being
+	 * rendered are given back to the selected perspective.
+	 */
+	@Override
+	public void renderDeferredContents(MGenericStack<MUIElement> stack) {
+		if (super.hasDeferredContents(stack)) {
+			super.renderDeferredContents(stack);
+			return;
+		}
+
+		MUIElement persp = findInactivePerspective(stack);
+		if (persp == null)
+			return;
+		Control ctrl = (Control) renderer.createGui(persp);
+		if (ctrl != null) {
+			Shell limbo = (Shell) ((MPerspective) persp).getContext().get(
+					"limbo"); //$NON-NLS-1$
+			ctrl.setParent(limbo);
+		}
+
+		// Reparent the shared elements back into the selected perspective
+		MUIElement selected = stack.getSelectedElement();
+		if (selected != null && selected.getWidget() != null)
+			super.showTab(selected);
+	}
+
+	private MUIElement findInactivePerspective(MGenericStack<MUIElement> stack) {
+		for (MUIElement persp : stack.getChildren()) {
+			if (persp != stack.getSelectedElement() && persp.isToBeRendered()
+					&& persp.getWidget() == null)
+				return persp;
+		}
+		return null;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -53,6 +53,7 @@ import org.eclipse.e4.ui.internal.workbench.ReflectionContributionFactory;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
 import org.eclipse.e4.ui.internal.workbench.SelectionAggregator;
 import org.eclipse.e4.ui.internal.workbench.SelectionServiceImpl;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.internal.workbench.WorkbenchLogger;
 import org.eclipse.e4.ui.model.application.MAddon;
 import org.eclipse.e4.ui.model.application.MApplication;
@@ -193,6 +194,8 @@ public class E4Application implements IApplication {
 
 	public E4Workbench createE4Workbench(
 			IApplicationContext applicationContext, final Display display) {
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
 		args = (String[]) applicationContext.getArguments().get(
 				IApplicationContext.APPLICATION_ARGS);
 
@@ -321,7 +324,10 @@ public class E4Application implements IApplication {
 
 		// Instantiate the Workbench (which is responsible for
 		// 'running' the UI (if any)...
-		return workbench = new E4Workbench(appModel, appContext);
+		workbench = new E4Workbench(appModel, appContext);
+		tracer.end(StartupTracer.PHASE, "E4Application.createE4Workbench", //$NON-NLS-1$
+				start);
+		return workbench;
 	}
 
 	private MApplication loadApplicationModel(IApplicationContext appContext,
@@ -377,6 +383,11 @@ public class E4Application implements IApplication {
 		eclipseContext.set(E4Workbench.DELTA_RESTORE,
 				Boolean.valueOf(deltaRestore));
 
+		// Binary model persistence
+		value = getArgValue(E4Workbench.BINARY_MODEL, appContext, true);
+		eclipseContext.set(E4Workbench.BINARY_MODEL,
+				Boolean.valueOf(value != null && Boolean.parseBoolean(value)));
+
 		String resourceHandler = getArgValue(IWorkbench.MODEL_RESOURCE_HANDLER,
 				appContext, false);
 
@@ -392,7 +403,11 @@ public class E4Application implements IApplication {
 				eclipseContext);
 		eclipseContext.set(IModelResourceHandler.class, handler);
 
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
 		Resource resource = handler.loadMostRecentModel();
+		tracer.end(StartupTracer.PHASE,
+				"ResourceHandler.loadMostRecentModel", start); //$NON-NLS-1$
 		theApp = (MApplication) resource.getContents().get(0);
 
 		return theApp;
@@ -45,6 +45,7 @@ import org.eclipse.e4.ui.di.PersistState;
 import org.eclipse.e4.ui.internal.workbench.Activator;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.Policy;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.MContribution;
@@ -54,6 +55,7 @@ import org.eclipse.e4.ui.model.application.ui.MGenericStack;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
@@ -77,6 +79,8 @@ import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Widget;
 import org.eclipse.ui.testing.TestableObject;
@@ -629,6 +633,9 @@ public class PartRenderingEngine implements IPresentationEngine {
 			}
 		}
 
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
+
 		// Create a control appropriate to the part
 		Object newWidget = createWidget(element, parentWidget);
 
@@ -668,6 +675,9 @@ public class PartRenderingEngine implements IPresentationEngine {
 			}
 		}
 
+		if (element instanceof MPart && tracer.isRecording()) {
+			tracer.end(StartupTracer.PART, element.getElementId(), start);
+		}
 		return newWidget;
 	}
 
@@ -997,7 +1007,11 @@ public class PartRenderingEngine implements IPresentationEngine {
 		Realm.runWithDefault(SWTObservables.getRealm(display), new Runnable() {
 
 			public void run() {
+				final StartupTracer tracer = StartupTracer.getDefault();
+				long start = tracer.begin();
 				initializeStyling(display, runContext);
+				tracer.end(StartupTracer.PHASE,
+						"PartRenderingEngine.initializeStyling", start); //$NON-NLS-1$
 
 				// Register an SWT resource handler
 				runContext.set(IResourceUtilities.class.getName(),
@@ -1031,7 +1045,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 					display.addFilter(SWT.Deactivate, shellDialogListener);
 					spinOnce = false; // loop until the app closes
 					theApp = (MApplication) uiRoot;
-					// long startTime = System.currentTimeMillis();
+					start = tracer.begin();
 					MWindow selected = theApp.getSelectedElement();
 					if (selected == null) {
 						for (MWindow window : theApp.getChildren()) {
@@ -1046,8 +1060,18 @@ public class PartRenderingEngine implements IPresentationEngine {
 							}
 						}
 					}
-					// long endTime = System.currentTimeMillis();
-					// System.out.println("Render: " + (endTime - startTime));
+					tracer.end(StartupTracer.PHASE,
+							"PartRenderingEngine.createGui", start); //$NON-NLS-1$
+					if (tracer.isRecording()) {
+						// the startup is finished once the first window
+						// is painted
+						display.addFilter(SWT.Paint, new Listener() {
+							public void handleEvent(Event event) {
+								display.removeFilter(SWT.Paint, this);
+								tracer.finish();
+							}
+						});
+					}
 					// tell the app context we are starting so the splash is
 					// torn down
 					IApplicationContext ac = appContext
@@ -115,9 +115,11 @@ public class Activator implements BundleActivator {
 	public void start(BundleContext context) throws Exception {
 		activator = this;
 		this.context = context;
+		StartupTracer.getDefault().trackBundles(context);
 	}
 
 	public void stop(BundleContext context) throws Exception {
+		StartupTracer.getDefault().untrackBundles();
 		if (pkgAdminTracker != null) {
 			pkgAdminTracker.close();
 			pkgAdminTracker = null;
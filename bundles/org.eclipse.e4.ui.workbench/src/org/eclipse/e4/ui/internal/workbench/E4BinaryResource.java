@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+
+/**
+ * A resource storing the application model in the EMF binary format, which is
+ * smaller and much faster to read and write than XMI. The ids of the elements
+ * are stored along with the model, so the resource can be used wherever an
+ * {@link E4XMIResource} is expected.
+ * <p>
+ * The file starts with a header naming the format version and the namespace of
+ * the model it was written with. The namespace changes with the schema of the
+ * model but not with the builds of the model bundle, so the file is still
+ * restored after a product update. Loading a file written with another format
+ * or model namespace fails with an {@link IOException}, and the workbench then
+ * falls back to its XMI file.
+ * </p>
+ */
+public class E4BinaryResource extends E4XMIResource {
+
+	/**
+	 * The extension of the binary model files.
+	 */
+	public static final String FILE_EXTENSION = "e4bin"; //$NON-NLS-1$
+
+	private static final int SIGNATURE = 0xE4B1E4B1;
+
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The version of the model the files depend on. The binary format refers to
+	 * the classes and features by name, so it only changes with the schema.
+	 */
+	private static final String MODEL_VERSION = ApplicationPackageImpl.eNS_URI;
+
+	public E4BinaryResource() {
+	}
+
+	public E4BinaryResource(URI uri) {
+		super(uri);
+	}
+
+	@Override
+	public void doSave(OutputStream outputStream, Map<?, ?> options) throws IOException {
+		// the ids come first as the model stream reads ahead of what it needs when loading
+		List<String> ids = new ArrayList<String>();
+		for (TreeIterator<EObject> it = getAllContents(); it.hasNext();) {
+			EObject eObject = it.next();
+			String id = eObject instanceof Entry<?, ?> ? null : getID(eObject);
+			ids.add(id == null ? "" : id); //$NON-NLS-1$
+		}
+
+		DataOutputStream header = new DataOutputStream(outputStream);
+		header.writeInt(SIGNATURE);
+		header.writeInt(FORMAT_VERSION);
+		header.writeUTF(MODEL_VERSION);
+		header.writeInt(ids.size());
+		for (String id : ids) {
+			header.writeUTF(id);
+		}
+		header.flush();
+
+		BinaryResourceImpl.EObjectOutputStream modelStream = new BinaryResourceImpl.EObjectOutputStream(
+				outputStream, options);
+		modelStream.saveResource(this);
+		modelStream.flush();
+	}
+
+	@Override
+	public void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+		// DataInputStream does not buffer, the model is read from where the ids end
+		DataInputStream header = new DataInputStream(inputStream);
+		if (header.readInt() != SIGNATURE) {
+			throw new IOException("Not a binary workbench model: " + getURI()); //$NON-NLS-1$
+		}
+		int formatVersion = header.readInt();
+		String version = header.readUTF();
+		if (formatVersion != FORMAT_VERSION || !version.equals(MODEL_VERSION)) {
+			throw new IOException("Binary workbench model " + getURI() //$NON-NLS-1$
+					+ " was written with format " + formatVersion + " and model " + version); //$NON-NLS-1$//$NON-NLS-2$
+		}
+		String[] ids = new String[header.readInt()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = header.readUTF();
+		}
+
+		BinaryResourceImpl.EObjectInputStream modelStream = new BinaryResourceImpl.EObjectInputStream(
+				inputStream, options);
+		modelStream.loadResource(this);
+
+		int i = 0;
+		for (TreeIterator<EObject> it = getAllContents(); it.hasNext() && i < ids.length; i++) {
+			EObject eObject = it.next();
+			if (ids[i].length() > 0) {
+				setID(eObject, ids[i]);
+			}
+		}
+	}
+}
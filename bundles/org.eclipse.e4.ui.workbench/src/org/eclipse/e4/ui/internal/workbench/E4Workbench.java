@@ -65,6 +65,12 @@ public class E4Workbench implements IWorkbench {
 	 * @deprecated
 	 */
 	public static final String DELTA_RESTORE = "deltaRestore"; //$NON-NLS-1$
+	/**
+	 * The argument for persisting the workbench model in a binary file instead of XMI <br>
+	 * <br>
+	 * Value is: <code>binaryModel</code>
+	 */
+	public static final String BINARY_MODEL = "binaryModel"; //$NON-NLS-1$
 	/**
 	 * The argument for setting RTL mode <br>
 	 * <br>
@@ -98,6 +104,8 @@ public class E4Workbench implements IWorkbench {
 	 *            the root context
 	 */
 	public E4Workbench(MApplicationElement uiRoot, IEclipseContext applicationContext) {
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
 		id = createId();
 		appContext = applicationContext;
 		appContext.set(IWorkbench.class.getName(), this);
@@ -117,6 +125,7 @@ public class E4Workbench implements IWorkbench {
 
 		osgiRegistration = Activator.getDefault().getContext()
 				.registerService(IWorkbench.class.getName(), this, properties);
+		tracer.end(StartupTracer.PHASE, "E4Workbench", start); //$NON-NLS-1$
 	}
 
 	public final String getId() {
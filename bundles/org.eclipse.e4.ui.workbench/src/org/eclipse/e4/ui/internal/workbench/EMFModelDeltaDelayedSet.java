@@ -11,7 +11,6 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
-import java.util.List;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.emf.ecore.EStructuralFeature;
@@ -36,8 +35,7 @@ public class EMFModelDeltaDelayedSet extends EMFModelDeltaSet {
 
 	@Override
 	public IStatus apply() {
-		List<Object> references = XMLModelReconciler.getReferences(root);
-		value = XMLModelReconciler.findReference(references, id);
+		value = XMLModelReconciler.findReference(root, id);
 		if (value == null) {
 			return Status.CANCEL_STATUS;
 		}
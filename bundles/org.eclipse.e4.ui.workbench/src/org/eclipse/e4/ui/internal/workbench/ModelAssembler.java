@@ -69,6 +69,8 @@ public class ModelAssembler {
 	 * Process the model
 	 */
 	public void processModel() {
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
 		IExtensionRegistry registry = RegistryFactory.getRegistry();
 		IExtensionPoint extPoint = registry.getExtensionPoint(extensionPointID);
 		IExtension[] extensions = topoSort(extPoint.getExtensions());
@@ -195,6 +197,7 @@ public class ModelAssembler {
 		}
 
 		resolveImports(imports, addedElements);
+		tracer.end(StartupTracer.PHASE, "ModelAssembler.processModel", start); //$NON-NLS-1$
 	}
 
 	private void runProcessor(IConfigurationElement ce) {
@@ -221,6 +224,8 @@ public class ModelAssembler {
 			localContext.set(key, el);
 		}
 
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
 		try {
 			Object o = factory
 					.create("bundleclass://" + ce.getContributor().getName() + "/" + ce.getAttribute("class"), //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
@@ -233,6 +238,9 @@ public class ModelAssembler {
 		} catch (Exception e) {
 			logger.warn(e, "Could not run processor"); //$NON-NLS-1$
 		}
+		if (tracer.isRecording()) {
+			tracer.end(StartupTracer.EXTENSION, "processor " + ce.getAttribute("class"), start); //$NON-NLS-1$ //$NON-NLS-2$
+		}
 	}
 
 	private void resolveImports(List<MApplicationElement> imports,
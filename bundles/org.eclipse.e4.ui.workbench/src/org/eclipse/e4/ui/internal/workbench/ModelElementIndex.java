@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.impl.UiPackageImpl;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+/**
+ * An index of the UI elements of an application by element id, tag and type.
+ * It is an {@link EContentAdapter} of the application, so it follows the
+ * elements added to and removed from the model as well as the changes of
+ * their id, tags and placeholder references.
+ * <p>
+ * The index answers the searches of the whole application for
+ * {@link ModelServiceImpl#findElements(MUIElement, String, Class, List)}: it
+ * returns the same elements, in the order a walk of the model would find them.
+ * </p>
+ */
+class ModelElementIndex extends EContentAdapter {
+
+	private static final Object[] NO_STEPS = new Object[0];
+
+	private final MApplication application;
+
+	private final Map<String, Set<MUIElement>> elementsById = new HashMap<String, Set<MUIElement>>();
+
+	private final Map<String, Set<MUIElement>> elementsByTag = new HashMap<String, Set<MUIElement>>();
+
+	private final Map<EClass, Set<MUIElement>> elementsByType = new HashMap<EClass, Set<MUIElement>>();
+
+	private final Map<MUIElement, Set<MPlaceholder>> placeholdersByRef = new HashMap<MUIElement, Set<MPlaceholder>>();
+
+	/**
+	 * Returns the index of the given application, creating it on first use.
+	 */
+	static ModelElementIndex getIndex(MApplication application) {
+		EObject eApplication = (EObject) application;
+		for (Object adapter : eApplication.eAdapters()) {
+			if (adapter instanceof ModelElementIndex) {
+				return (ModelElementIndex) adapter;
+			}
+		}
+		ModelElementIndex index = new ModelElementIndex(application);
+		eApplication.eAdapters().add(index);
+		return index;
+	}
+
+	private ModelElementIndex(MApplication application) {
+		this.application = application;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.EContentAdapter#setTarget(org.eclipse.emf.common.notify.Notifier)
+	 */
+	public void setTarget(Notifier target) {
+		super.setTarget(target);
+		if (target instanceof MUIElement) {
+			MUIElement element = (MUIElement) target;
+			add(elementsById, element.getElementId(), element);
+			for (String tag : element.getTags()) {
+				add(elementsByTag, tag, element);
+			}
+			add(elementsByType, ((EObject) element).eClass(), element);
+			if (element instanceof MPlaceholder) {
+				add(placeholdersByRef, ((MPlaceholder) element).getRef(), (MPlaceholder) element);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.ecore.util.EContentAdapter#unsetTarget(org.eclipse.emf.common.notify.Notifier)
+	 */
+	public void unsetTarget(Notifier target) {
+		super.unsetTarget(target);
+		if (target instanceof MUIElement) {
+			MUIElement element = (MUIElement) target;
+			remove(elementsById, element.getElementId(), element);
+			for (String tag : element.getTags()) {
+				remove(elementsByTag, tag, element);
+			}
+			remove(elementsByType, ((EObject) element).eClass(), element);
+			if (element instanceof MPlaceholder) {
+				remove(placeholdersByRef, ((MPlaceholder) element).getRef(),
+						(MPlaceholder) element);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.ecore.util.EContentAdapter#notifyChanged(org.eclipse.emf.common.notify.Notification
+	 * )
+	 */
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		if (notification.isTouch() || !(notification.getNotifier() instanceof MUIElement)) {
+			return;
+		}
+
+		MUIElement element = (MUIElement) notification.getNotifier();
+		if (!((EObject) element).eAdapters().contains(this)) {
+			// not in the model anymore
+			return;
+		}
+		Object feature = notification.getFeature();
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID) {
+			remove(elementsById, (String) notification.getOldValue(), element);
+			add(elementsById, (String) notification.getNewValue(), element);
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			tagsChanged(element, notification);
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			MPlaceholder placeholder = (MPlaceholder) element;
+			remove(placeholdersByRef, (MUIElement) notification.getOldValue(), placeholder);
+			add(placeholdersByRef, (MUIElement) notification.getNewValue(), placeholder);
+		}
+	}
+
+	private void tagsChanged(MUIElement element, Notification notification) {
+		List<String> tags = element.getTags();
+		for (Object tag : getValues(notification.getOldValue(), notification.getEventType())) {
+			// the tag may still be there if it was listed twice
+			if (tag instanceof String && !tags.contains(tag)) {
+				remove(elementsByTag, (String) tag, element);
+			}
+		}
+		for (Object tag : getValues(notification.getNewValue(), notification.getEventType())) {
+			if (tag instanceof String) {
+				add(elementsByTag, (String) tag, element);
+			}
+		}
+	}
+
+	private static Collection<?> getValues(Object value, int eventType) {
+		switch (eventType) {
+		case Notification.ADD:
+		case Notification.REMOVE:
+		case Notification.SET:
+		case Notification.UNSET:
+			return value == null ? Collections.emptyList() : Collections.singletonList(value);
+		case Notification.ADD_MANY:
+		case Notification.REMOVE_MANY:
+			// the new value of REMOVE_MANY is the positions of the removed tags
+			return value instanceof Collection<?> ? (Collection<?>) value : Collections
+					.emptyList();
+		default:
+			return Collections.emptyList();
+		}
+	}
+
+	private static <K, V> void add(Map<K, Set<V>> map, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = map.get(key);
+		if (values == null) {
+			values = new LinkedHashSet<V>(2);
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
+	private static <K, V> void remove(Map<K, Set<V>> map, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = map.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the application elements matching the given criteria, in the
+	 * order a walk of the whole model would find them.
+	 *
+	 * @return the matching elements, or <code>null</code> if the criteria do
+	 *         not narrow the search and walking the model is cheaper
+	 */
+	<T> List<T> findElements(String id, Class<T> clazz, List<String> tagsToMatch) {
+		Collection<MUIElement> candidates = getCandidates(id, clazz, tagsToMatch);
+		if (candidates == null) {
+			return null;
+		}
+
+		final Map<MUIElement, Object[]> paths = new IdentityHashMap<MUIElement, Object[]>();
+		List<MUIElement> matches = new ArrayList<MUIElement>();
+		for (MUIElement candidate : candidates) {
+			if (ModelServiceImpl.match(candidate, id, clazz, tagsToMatch)
+					&& getPath(candidate, paths, new HashSet<MUIElement>()) != null) {
+				matches.add(candidate);
+			}
+		}
+		if (matches.size() > 1) {
+			Collections.sort(matches, new Comparator<MUIElement>() {
+				public int compare(MUIElement element1, MUIElement element2) {
+					return comparePaths(paths.get(element1), paths.get(element2));
+				}
+			});
+		}
+
+		List<T> elements = new ArrayList<T>(matches.size());
+		for (MUIElement match : matches) {
+			elements.add(clazz == null ? (T) match : clazz.cast(match));
+		}
+		return elements;
+	}
+
+	private Collection<MUIElement> getCandidates(String id, Class<?> clazz,
+			List<String> tagsToMatch) {
+		if (id != null) {
+			return getElements(elementsById, id);
+		}
+		if (tagsToMatch != null && !tagsToMatch.isEmpty()) {
+			Collection<MUIElement> smallest = null;
+			for (String tag : tagsToMatch) {
+				Collection<MUIElement> tagged = getElements(elementsByTag, tag);
+				if (smallest == null || tagged.size() < smallest.size()) {
+					smallest = tagged;
+				}
+			}
+			return smallest;
+		}
+		if (clazz != null && clazz != MUIElement.class && clazz != Object.class) {
+			List<MUIElement> typed = new ArrayList<MUIElement>();
+			for (Map.Entry<EClass, Set<MUIElement>> entry : elementsByType.entrySet()) {
+				Class<?> instanceClass = entry.getKey().getInstanceClass();
+				if (instanceClass != null && clazz.isAssignableFrom(instanceClass)) {
+					typed.addAll(entry.getValue());
+				} else {
+					// the class may be implemented by the elements rather than
+					// by the model interface, e.g. EObject or an impl class
+					for (MUIElement element : entry.getValue()) {
+						if (clazz.isInstance(element)) {
+							typed.add(element);
+						}
+					}
+				}
+			}
+			return typed;
+		}
+		return null;
+	}
+
+	private static <K> Collection<MUIElement> getElements(Map<K, Set<MUIElement>> map, K key) {
+		Set<MUIElement> elements = map.get(key);
+		return elements == null ? Collections.<MUIElement> emptySet() : elements;
+	}
+
+	/**
+	 * Returns the steps a walk of the model takes from the application to its
+	 * first visit of the element. Each step is the rank of the followed
+	 * feature (children, trim bars, detached windows, placeholder reference)
+	 * and the index in it, packed in a long.
+	 *
+	 * @return the steps, or <code>null</code> if a walk does not reach the
+	 *         element
+	 */
+	private Object[] getPath(MUIElement element, Map<MUIElement, Object[]> paths,
+			Set<MUIElement> visiting) {
+		if (paths.containsKey(element)) {
+			return paths.get(element);
+		}
+		if (element == application) {
+			paths.put(element, NO_STEPS);
+			return NO_STEPS;
+		}
+		if (!visiting.add(element)) {
+			// a placeholder referencing one of its ancestors
+			return null;
+		}
+
+		Object[] path = null;
+		EObject eObject = (EObject) element;
+		EObject container = eObject.eContainer();
+		if (container instanceof MUIElement) {
+			int rank = getRank(eObject.eContainmentFeature());
+			if (rank != -1) {
+				Object[] containerPath = getPath((MUIElement) container, paths, visiting);
+				if (containerPath != null) {
+					List<?> siblings = (List<?>) container.eGet(eObject.eContainmentFeature());
+					path = append(containerPath, rank, siblings.indexOf(element));
+				}
+			}
+		}
+
+		Set<MPlaceholder> placeholders = placeholdersByRef.get(element);
+		if (placeholders != null) {
+			for (MPlaceholder placeholder : placeholders) {
+				Object[] placeholderPath = getPath(placeholder, paths, visiting);
+				if (placeholderPath != null) {
+					Object[] refPath = append(placeholderPath, 3, 0);
+					if (path == null || comparePaths(refPath, path) < 0) {
+						path = refPath;
+					}
+				}
+			}
+		}
+
+		visiting.remove(element);
+		paths.put(element, path);
+		return path;
+	}
+
+	/**
+	 * Returns the order in which a walk of the model follows the given
+	 * containment feature, or -1 if it does not follow it.
+	 */
+	private static int getRank(EStructuralFeature feature) {
+		if (feature == UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN) {
+			return 0;
+		}
+		if (feature == BasicPackageImpl.Literals.TRIMMED_WINDOW__TRIM_BARS) {
+			return 1;
+		}
+		if (feature == BasicPackageImpl.Literals.WINDOW__WINDOWS
+				|| feature == AdvancedPackageImpl.Literals.PERSPECTIVE__WINDOWS) {
+			return 2;
+		}
+		// shared elements are only reached through their placeholders
+		return -1;
+	}
+
+	private static Object[] append(Object[] path, int rank, int index) {
+		Object[] result = new Object[path.length + 1];
+		System.arraycopy(path, 0, result, 0, path.length);
+		result[path.length] = Long.valueOf(((long) rank << 32) | index);
+		return result;
+	}
+
+	private static int comparePaths(Object[] path1, Object[] path2) {
+		int length = Math.min(path1.length, path2.length);
+		for (int i = 0; i < length; i++) {
+			int result = ((Long) path1[i]).compareTo((Long) path2[i]);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return path1.length - path2.length;
+	}
+}
@@ -43,6 +43,8 @@ public class ModelReconcilingService implements IModelReconcilingService {
 			filters = new String[0];
 		}
 
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
 		MultiStatus multiStatus = new MultiStatus(Activator.PI_WORKBENCH, 0, "", null); //$NON-NLS-1$
 		LinkedList<ModelDelta> delayedDeltas = new LinkedList<ModelDelta>();
 
@@ -117,6 +119,7 @@ public class ModelReconcilingService implements IModelReconcilingService {
 			}
 		}
 
+		tracer.end(StartupTracer.PHASE, "ModelReconcilingService.applyDeltas", start); //$NON-NLS-1$
 		return multiStatus;
 	}
 
@@ -87,6 +87,11 @@ import org.osgi.service.event.EventHandler;
 public class ModelServiceImpl implements EModelService {
 	private static String HOSTED_ELEMENT = "HostedElement"; //$NON-NLS-1$
 
+	/**
+	 * The search flags of the searches that reach every element of the model.
+	 */
+	private static final int INDEXED_SEARCH = IN_ANY_PERSPECTIVE | IN_SHARED_AREA | IN_TRIM;
+
 	private IEclipseContext appContext;
 
 	// Cleans up after a hosted element is disposed
@@ -267,7 +272,7 @@ public class ModelServiceImpl implements EModelService {
 	 *            The tags to check, <b>all</b> the specified rags must be in the element's tags
 	 * @return <code>true</code> iff all the tests pass
 	 */
-	private boolean match(MUIElement element, String id, Class clazz, List<String> tagsToMatch) {
+	static boolean match(MUIElement element, String id, Class clazz, List<String> tagsToMatch) {
 		if (id != null && !id.equals(element.getElementId()))
 			return false;
 
@@ -371,13 +376,21 @@ public class ModelServiceImpl implements EModelService {
 	 */
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
-		List<T> elements = new ArrayList<T>();
-		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, ANYWHERE);
-		return elements;
+		return findElements(searchRoot, id, clazz, tagsToMatch, ANYWHERE);
 	}
 
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
+		// searches of the whole application are answered by its index
+		if (searchRoot instanceof MApplication
+				&& (searchFlags & INDEXED_SEARCH) == INDEXED_SEARCH) {
+			List<T> indexed = ModelElementIndex.getIndex((MApplication) searchRoot).findElements(
+					id, clazz, tagsToMatch);
+			if (indexed != null) {
+				return indexed;
+			}
+		}
+
 		List<T> elements = new ArrayList<T>();
 		findElementsRecursive(searchRoot, id, clazz, tagsToMatch, elements, searchFlags);
 		return elements;
@@ -68,7 +68,10 @@ public class ReflectionContributionFactory implements IContributionFactory {
 		Bundle bundle = getBundle(uri);
 		Object contribution;
 		if (bundle != null) {
+			StartupTracer tracer = StartupTracer.getDefault();
+			long start = tracer.begin();
 			contribution = createFromBundle(bundle, context, staticContext, uri);
+			tracer.end(StartupTracer.EXTENSION, uriString, start);
 		} else {
 			contribution = null;
 			Activator.log(LogService.LOG_ERROR, "Unable to retrieve the bundle from the URI: " //$NON-NLS-1$
@@ -88,6 +88,12 @@ public class ResourceHandler implements IModelResourceHandler {
 	final private boolean saveAndRestore;
 	final private boolean clearPersistedState;
 
+	/**
+	 * Whether the model is saved with the binary format of {@link E4BinaryResource} rather than
+	 * in XMI.
+	 */
+	private boolean binaryModel;
+
 	/**
 	 * Constructor.
 	 * 
@@ -109,6 +115,8 @@ public class ResourceHandler implements IModelResourceHandler {
 		resourceSetImpl = new ResourceSetImpl();
 		resourceSetImpl.getResourceFactoryRegistry().getExtensionToFactoryMap()
 				.put(Resource.Factory.Registry.DEFAULT_EXTENSION, new E4XMIResourceFactory());
+		resourceSetImpl.getResourceFactoryRegistry().getExtensionToFactoryMap()
+				.put(E4BinaryResource.FILE_EXTENSION, new E4BinaryResourceFactory());
 
 		resourceSetImpl.getPackageRegistry().put(ApplicationPackageImpl.eNS_URI,
 				ApplicationPackageImpl.eINSTANCE);
@@ -126,6 +134,7 @@ public class ResourceHandler implements IModelResourceHandler {
 				.put(org.eclipse.e4.ui.model.application.descriptor.basic.impl.BasicPackageImpl.eNS_URI,
 						org.eclipse.e4.ui.model.application.descriptor.basic.impl.BasicPackageImpl.eINSTANCE);
 
+		binaryModel = Boolean.TRUE.equals(context.get(E4Workbench.BINARY_MODEL));
 	}
 
 	public Resource loadMostRecentModel() {
@@ -138,7 +147,7 @@ public class ResourceHandler implements IModelResourceHandler {
 				MApplication appElement = null;
 				try {
 					// create new resource in case code below fails somewhere
-					File workbenchData = getWorkbenchSaveLocation();
+					File workbenchData = getWorkbenchSaveLocation(binaryModel);
 					URI restoreLocationNew = URI.createFileURI(workbenchData.getAbsolutePath());
 					resource = resourceSetImpl.createResource(restoreLocationNew);
 
@@ -179,29 +188,44 @@ public class ResourceHandler implements IModelResourceHandler {
 		}
 
 		File workbenchData = null;
-		URI restoreLocation = null;
+		File binaryData = null;
 
 		if (saveAndRestore) {
-			workbenchData = getWorkbenchSaveLocation();
-			restoreLocation = URI.createFileURI(workbenchData.getAbsolutePath());
+			workbenchData = getWorkbenchSaveLocation(false);
+			binaryData = getWorkbenchSaveLocation(true);
 		}
 
-		if (clearPersistedState && workbenchData != null && workbenchData.exists()) {
-			workbenchData.delete();
+		if (clearPersistedState && workbenchData != null) {
+			if (workbenchData.exists())
+				workbenchData.delete();
+			if (binaryData.exists())
+				binaryData.delete();
 		}
 
-		// last stored time-stamp
-		long restoreLastModified = restoreLocation == null ? 0L : new File(
-				restoreLocation.toFileString()).lastModified();
+		// last stored time-stamps
+		long restoreLastModified = workbenchData == null ? 0L : workbenchData.lastModified();
+		long binaryLastModified = binaryData == null ? 0L : binaryData.lastModified();
 
 		// See bug 380663, bug 381219
 		// long lastApplicationModification = getLastApplicationModification();
 		// boolean restore = restoreLastModified > lastApplicationModification;
-		boolean restore = restoreLastModified > 0;
+		boolean restore = restoreLastModified > 0 || binaryLastModified > 0;
 
 		resource = null;
 		if (restore && saveAndRestore) {
-			resource = loadResource(restoreLocation);
+			// restore the most recently saved format, whichever format is used now, but never
+			// an older model in the other format as it would restore an outdated layout
+			if (binaryLastModified > restoreLastModified) {
+				resource = loadBinaryResource(URI.createFileURI(binaryData.getAbsolutePath()));
+			} else {
+				resource = loadResource(URI.createFileURI(workbenchData.getAbsolutePath()));
+			}
+			if (resource != null && (resource instanceof E4BinaryResource) != binaryModel) {
+				// save in the format asked for from now on
+				Resource restored = resource;
+				resource = createResourceWithApp((MApplication) restored.getContents().get(0));
+				resourceSetImpl.getResources().remove(restored);
+			}
 		}
 		if (resource == null) {
 			Resource applicationResource = loadResource(applicationDefinitionInstance);
@@ -222,8 +246,14 @@ public class ResourceHandler implements IModelResourceHandler {
 	}
 
 	public void save() throws IOException {
-		if (saveAndRestore)
+		if (saveAndRestore) {
 			resource.save(null);
+			// the model saved in the other format is stale now
+			File staleData = getWorkbenchSaveLocation(!binaryModel);
+			if (staleData.exists() && !staleData.delete()) {
+				logger.warn("Unable to delete the stale model " + staleData); //$NON-NLS-1$
+			}
+		}
 	}
 
 	/**
@@ -241,13 +271,21 @@ public class ResourceHandler implements IModelResourceHandler {
 
 	private Resource createResource() {
 		if (saveAndRestore) {
-			URI saveLocation = URI.createFileURI(getWorkbenchSaveLocation().getAbsolutePath());
+			URI saveLocation = URI.createFileURI(getWorkbenchSaveLocation(binaryModel)
+					.getAbsolutePath());
 			return resourceSetImpl.createResource(saveLocation);
 		}
+		if (binaryModel) {
+			return resourceSetImpl.createResource(URI
+					.createURI("workbench." + E4BinaryResource.FILE_EXTENSION)); //$NON-NLS-1$
+		}
 		return resourceSetImpl.createResource(URI.createURI("workbench.xmi")); //$NON-NLS-1$
 	}
 
-	private File getWorkbenchSaveLocation() {
+	private File getWorkbenchSaveLocation(boolean binary) {
+		if (binary) {
+			return new File(getBaseLocation(), "workbench." + E4BinaryResource.FILE_EXTENSION); //$NON-NLS-1$
+		}
 		File workbenchData = new File(getBaseLocation(), "workbench.xmi"); //$NON-NLS-1$
 		return workbenchData;
 	}
@@ -290,6 +328,22 @@ public class ResourceHandler implements IModelResourceHandler {
 		return resource;
 	}
 
+	// Returns null if the binary model cannot be read, e.g. because it was written by another
+	// version of the model, so that the workbench starts from the application model
+	private Resource loadBinaryResource(URI uri) {
+		try {
+			return getResource(uri);
+		} catch (Exception e) {
+			logger.error(e, "Unable to load binary model " + uri.toString() //$NON-NLS-1$
+					+ ", starting from the application model"); //$NON-NLS-1$
+			Resource failed = resourceSetImpl.getResource(uri, false);
+			if (failed != null) {
+				resourceSetImpl.getResources().remove(failed);
+			}
+			return null;
+		}
+	}
+
 	private Resource getResource(URI uri) throws Exception {
 		Resource resource;
 		if (saveAndRestore) {
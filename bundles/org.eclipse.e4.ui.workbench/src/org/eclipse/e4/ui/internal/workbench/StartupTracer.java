@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.SynchronousBundleListener;
+import org.osgi.service.log.LogService;
+
+/**
+ * The StartupTracer records where the time goes while the workbench starts,
+ * from the start of the process until the first window is painted: the
+ * startup phases, the activation of bundles, the creation of extensions and
+ * contributions, and the rendering of parts.
+ * <p>
+ * Recording a span only reads the clock and appends to a bounded list, so the
+ * tracer is always on. When the startup is finished, a summary is traced with
+ * the {@link Policy#DEBUG_STARTUP} option, and the spans are written as a
+ * Chrome trace file (to be loaded in <code>chrome://tracing</code>) if the
+ * {@value #TRACE_FILE_PROPERTY} system property names a file, in which case
+ * the summary is also logged.
+ * </p>
+ */
+public final class StartupTracer {
+
+	/**
+	 * The system property naming the file the startup trace is written to.
+	 */
+	public static final String TRACE_FILE_PROPERTY = "org.eclipse.e4.ui.workbench.startupTrace"; //$NON-NLS-1$
+
+	/**
+	 * The category of the spans of startup phases.
+	 */
+	public static final String PHASE = "phase"; //$NON-NLS-1$
+
+	/**
+	 * The category of the spans of bundle activations.
+	 */
+	public static final String BUNDLE = "bundle"; //$NON-NLS-1$
+
+	/**
+	 * The category of the spans of extension and contribution creations.
+	 */
+	public static final String EXTENSION = "extension"; //$NON-NLS-1$
+
+	/**
+	 * The category of the spans of part renderings.
+	 */
+	public static final String PART = "part"; //$NON-NLS-1$
+
+	private static final String STARTUP = "Startup"; //$NON-NLS-1$
+
+	/*
+	 * The maximum number of spans recorded, so that a startup that never
+	 * finishes does not grow the trace forever.
+	 */
+	static final int MAX_SPANS = 20000;
+
+	private static final StartupTracer instance = new StartupTracer(
+			getProcessStartTime());
+
+	private final long originNanos;
+
+	private final List<Span> spans = new ArrayList<Span>();
+
+	private volatile boolean recording = true;
+
+	private BundleContext bundleContext;
+
+	private SynchronousBundleListener bundleListener;
+
+	/**
+	 * Return the tracer of the workbench startup.
+	 *
+	 * @return the startup tracer
+	 */
+	public static StartupTracer getDefault() {
+		return instance;
+	}
+
+	/**
+	 * Create a tracer whose spans are relative to the given time.
+	 *
+	 * @param startTime
+	 *            the start time in milliseconds, as returned by
+	 *            {@link System#currentTimeMillis()}
+	 */
+	public StartupTracer(long startTime) {
+		long elapsed = Math.max(0, System.currentTimeMillis() - startTime);
+		originNanos = System.nanoTime() - elapsed * 1000000L;
+	}
+
+	private static long getProcessStartTime() {
+		// set by the launcher
+		Long startTime = Long.getLong("eclipse.startTime"); //$NON-NLS-1$
+		if (startTime != null) {
+			return startTime.longValue();
+		}
+		try {
+			return ManagementFactory.getRuntimeMXBean().getStartTime();
+		} catch (RuntimeException e) {
+			return System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * @return whether spans are still recorded
+	 */
+	public boolean isRecording() {
+		return recording;
+	}
+
+	/**
+	 * Return the start of a span, to be passed to
+	 * {@link #end(String, String, long)} when the span ends.
+	 *
+	 * @return the current time in nanoseconds
+	 */
+	public long begin() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record a span ending now, if the startup is not finished yet.
+	 *
+	 * @param category
+	 *            the category of the span
+	 * @param name
+	 *            the name of the span
+	 * @param begin
+	 *            the start of the span, as returned by {@link #begin()}
+	 */
+	public void end(String category, String name, long begin) {
+		if (!recording) {
+			return;
+		}
+		long end = System.nanoTime();
+		Thread thread = Thread.currentThread();
+		Span span = new Span(category, name, begin, end, thread.getId(),
+				thread.getName());
+		synchronized (spans) {
+			if (spans.size() < MAX_SPANS) {
+				spans.add(span);
+			}
+		}
+	}
+
+	/**
+	 * Record the activation time of the bundles started from now on.
+	 *
+	 * @param context
+	 *            the context the bundle listener is added to
+	 */
+	void trackBundles(BundleContext context) {
+		if (!recording || bundleListener != null) {
+			return;
+		}
+		final Map<Bundle, Long> starting = new HashMap<Bundle, Long>();
+		bundleListener = new SynchronousBundleListener() {
+			public void bundleChanged(BundleEvent event) {
+				Bundle bundle = event.getBundle();
+				if (event.getType() == BundleEvent.STARTING) {
+					synchronized (starting) {
+						starting.put(bundle, new Long(begin()));
+					}
+				} else if (event.getType() == BundleEvent.STARTED) {
+					Long begin;
+					synchronized (starting) {
+						begin = starting.remove(bundle);
+					}
+					if (begin != null) {
+						end(BUNDLE, bundle.getSymbolicName(), begin.longValue());
+					}
+				}
+			}
+		};
+		bundleContext = context;
+		context.addBundleListener(bundleListener);
+	}
+
+	/**
+	 * Stop recording the activation time of bundles.
+	 */
+	void untrackBundles() {
+		if (bundleListener != null) {
+			try {
+				bundleContext.removeBundleListener(bundleListener);
+			} catch (IllegalStateException e) {
+				// the bundle is already stopped
+			}
+			bundleListener = null;
+			bundleContext = null;
+		}
+	}
+
+	/**
+	 * Finish the startup: record the span from the start of the process, stop
+	 * recording, and report the trace. Only the first call has an effect.
+	 */
+	public void finish() {
+		synchronized (this) {
+			if (!recording) {
+				return;
+			}
+			end(PHASE, STARTUP, originNanos);
+			recording = false;
+		}
+		untrackBundles();
+		report();
+	}
+
+	private void report() {
+		String summary = getSummary();
+		if (Activator.getDefault() != null) {
+			Activator.trace(Policy.DEBUG_STARTUP, summary, null);
+		}
+		String file = System.getProperty(TRACE_FILE_PROPERTY);
+		if (file == null || file.length() == 0) {
+			return;
+		}
+		Activator.log(LogService.LOG_INFO, summary);
+		try {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file), "UTF-8")); //$NON-NLS-1$
+			try {
+				writeChromeTrace(writer);
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			Activator.log(LogService.LOG_ERROR,
+					"Unable to write the startup trace to " + file, e); //$NON-NLS-1$
+		}
+	}
+
+	private Span[] getSpans() {
+		synchronized (spans) {
+			return spans.toArray(new Span[spans.size()]);
+		}
+	}
+
+	/**
+	 * Return a one line summary of the trace: the duration of the startup and
+	 * of each phase, and the number, total and slowest of the bundle
+	 * activations, extension creations and part renderings.
+	 *
+	 * @return the summary of the trace
+	 */
+	public String getSummary() {
+		Span[] recorded = getSpans();
+		StringBuilder summary = new StringBuilder("Startup"); //$NON-NLS-1$
+		StringBuilder phases = new StringBuilder();
+		for (Span span : recorded) {
+			if (PHASE.equals(span.category)) {
+				if (STARTUP.equals(span.name)) {
+					summary.append(" took ").append(millis(span.getDuration())).append(" ms"); //$NON-NLS-1$ //$NON-NLS-2$
+				} else {
+					phases.append(phases.length() == 0 ? ": " : ", "); //$NON-NLS-1$ //$NON-NLS-2$
+					phases.append(span.name).append(' ').append(millis(span.getDuration()))
+							.append(" ms"); //$NON-NLS-1$
+				}
+			}
+		}
+		summary.append(phases);
+		appendCategory(summary, recorded, BUNDLE, "bundles activated"); //$NON-NLS-1$
+		appendCategory(summary, recorded, EXTENSION, "extensions created"); //$NON-NLS-1$
+		appendCategory(summary, recorded, PART, "parts rendered"); //$NON-NLS-1$
+		return summary.toString();
+	}
+
+	private static void appendCategory(StringBuilder summary, Span[] recorded,
+			String category, String label) {
+		int count = 0;
+		long total = 0;
+		Span slowest = null;
+		for (Span span : recorded) {
+			if (category.equals(span.category)) {
+				count++;
+				total += span.getDuration();
+				if (slowest == null || span.getDuration() > slowest.getDuration()) {
+					slowest = span;
+				}
+			}
+		}
+		summary.append("; ").append(count).append(' ').append(label); //$NON-NLS-1$
+		if (slowest != null) {
+			summary.append(" in ").append(millis(total)).append(" ms (slowest: ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append(slowest.name).append(' ')
+					.append(millis(slowest.getDuration())).append(" ms)"); //$NON-NLS-1$
+		}
+	}
+
+	private static long millis(long nanos) {
+		return nanos / 1000000L;
+	}
+
+	/**
+	 * Write the recorded spans in the Chrome trace event format, as complete
+	 * events in microseconds since the start of the process.
+	 *
+	 * @param writer
+	 *            the writer the trace is written to
+	 * @throws IOException
+	 *             if the trace cannot be written
+	 */
+	public void writeChromeTrace(Writer writer) throws IOException {
+		Span[] recorded = getSpans();
+		writer.write("{\"traceEvents\":["); //$NON-NLS-1$
+		Map<Long, String> threads = new LinkedHashMap<Long, String>();
+		boolean first = true;
+		for (Span span : recorded) {
+			threads.put(new Long(span.threadId), span.threadName);
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("\n{\"name\":"); //$NON-NLS-1$
+			writeString(writer, span.name);
+			writer.write(",\"cat\":"); //$NON-NLS-1$
+			writeString(writer, span.category);
+			writer.write(",\"ph\":\"X\",\"ts\":"); //$NON-NLS-1$
+			writer.write(Long.toString((span.begin - originNanos) / 1000L));
+			writer.write(",\"dur\":"); //$NON-NLS-1$
+			writer.write(Long.toString(span.getDuration() / 1000L));
+			writer.write(",\"pid\":1,\"tid\":"); //$NON-NLS-1$
+			writer.write(Long.toString(span.threadId));
+			writer.write('}');
+		}
+		for (Map.Entry<Long, String> thread : threads.entrySet()) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":"); //$NON-NLS-1$
+			writer.write(thread.getKey().toString());
+			writer.write(",\"args\":{\"name\":"); //$NON-NLS-1$
+			writeString(writer, thread.getValue());
+			writer.write("}}"); //$NON-NLS-1$
+		}
+		writer.write("\n],\"displayTimeUnit\":\"ms\"}\n"); //$NON-NLS-1$
+	}
+
+	private static void writeString(Writer writer, String value)
+			throws IOException {
+		writer.write('"');
+		if (value != null) {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c == '"' || c == '\\') {
+					writer.write('\\');
+					writer.write(c);
+				} else if (c < 0x20) {
+					String hex = Integer.toHexString(c);
+					writer.write("\\u"); //$NON-NLS-1$
+					for (int j = hex.length(); j < 4; j++) {
+						writer.write('0');
+					}
+					writer.write(hex);
+				} else {
+					writer.write(c);
+				}
+			}
+		}
+		writer.write('"');
+	}
+
+	private static class Span {
+		final String category;
+		final String name;
+		final long begin;
+		final long end;
+		final long threadId;
+		final String threadName;
+
+		Span(String category, String name, long begin, long end,
+				long threadId, String threadName) {
+			this.category = category;
+			this.name = name;
+			this.begin = begin;
+			this.end = end;
+			this.threadId = threadId;
+			this.threadName = threadName;
+		}
+
+		long getDuration() {
+			return end - begin;
+		}
+	}
+}
@@ -10,7 +10,10 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.e4.core.contexts.IEclipseContext;
@@ -29,11 +32,86 @@ import org.eclipse.emf.ecore.util.EContentAdapter;
 
 /**
  * Transforms E4 MPart events into 3.x legacy events.
+ * <p>
+ * Between {@link #beginBatch()} and {@link #endBatch()} the events are collected instead of being
+ * sent. The changes of the same attribute of an element are merged into one event carrying the
+ * first old value and the last new value, and changes which end with the value they started from
+ * are dropped. The remaining events are sent in the order of their last change at the end of the
+ * batch.
+ * </p>
+ * <p>
+ * The events sent at the end of a batch and the events merged or dropped are counted per topic,
+ * and each batch is traced with the {@link Policy#DEBUG_EVENTS} option.
+ * </p>
  */
 public class UIEventPublisher extends EContentAdapter {
 
+	/**
+	 * An event collected during a batch.
+	 */
+	private static class PendingEvent {
+		final String topic;
+		final Map<String, Object> argMap;
+
+		/**
+		 * The value of the changed attribute before the batch, for the events which may be merged.
+		 */
+		final Object initialValue;
+
+		PendingEvent(String topic, Map<String, Object> argMap, Object initialValue) {
+			this.topic = topic;
+			this.argMap = argMap;
+			this.initialValue = initialValue;
+		}
+	}
+
+	/**
+	 * Identifies the changes of one attribute of one element, the notifier is compared by
+	 * identity.
+	 */
+	private static class SetKey {
+		private final Object notifier;
+		private final String topic;
+
+		SetKey(Object notifier, String topic) {
+			this.notifier = notifier;
+			this.topic = topic;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SetKey)) {
+				return false;
+			}
+			SetKey other = (SetKey) obj;
+			return notifier == other.notifier && topic.equals(other.topic);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(notifier) * 31 + topic.hashCode();
+		}
+	}
+
 	private IEclipseContext context;
 
+	private int batchDepth;
+
+	/**
+	 * The events collected during a batch, the keys of the events which cannot be merged are
+	 * unique objects.
+	 */
+	private final Map<Object, PendingEvent> pendingEvents = new LinkedHashMap<Object, PendingEvent>();
+
+	private final Map<String, int[]> sentCounts = new HashMap<String, int[]>();
+
+	private final Map<String, int[]> mergedCounts = new HashMap<String, int[]>();
+
+	/**
+	 * The number of events merged or dropped during the current batch.
+	 */
+	private int batchMerged;
+
 	/**
 	 * @param e4Context
 	 */
@@ -53,10 +131,138 @@ public class UIEventPublisher extends EContentAdapter {
 
 		String topic = formatData(notification, argMap);
 
-		if (topic != null) {
-			IEventBroker eventManager = context.get(IEventBroker.class);
-			eventManager.send(topic, argMap);
+		if (topic == null) {
+			return;
+		}
+		if (batchDepth == 0) {
+			send(topic, argMap);
+		} else if (notification.getEventType() == Notification.SET) {
+			addPendingSet(notification, topic, argMap);
+		} else {
+			pendingEvents.put(new Object(), new PendingEvent(topic, argMap, null));
+		}
+	}
+
+	private void addPendingSet(Notification notification, String topic,
+			Map<String, Object> argMap) {
+		SetKey key = new SetKey(notification.getNotifier(), topic);
+		PendingEvent previous = pendingEvents.remove(key);
+		if (previous == null) {
+			pendingEvents.put(key, new PendingEvent(topic, argMap, notification.getOldValue()));
+			return;
+		}
+
+		count(mergedCounts, topic);
+		batchMerged++;
+		Object newValue = notification.getNewValue();
+		if (previous.initialValue == null ? newValue == null : previous.initialValue
+				.equals(newValue)) {
+			// back to where the batch started, e.g. an element hidden and shown again, neither
+			// event is sent
+			count(mergedCounts, topic);
+			batchMerged++;
+			return;
+		}
+		Object oldValue = previous.argMap.get(EventTags.OLD_VALUE);
+		if (oldValue == null) {
+			argMap.remove(EventTags.OLD_VALUE);
+		} else {
+			argMap.put(EventTags.OLD_VALUE, oldValue);
+		}
+		// moved to the end so that it follows the events of the elements it refers to
+		pendingEvents.put(key, new PendingEvent(topic, argMap, previous.initialValue));
+	}
+
+	private void send(String topic, Map<String, Object> argMap) {
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		eventManager.send(topic, argMap);
+	}
+
+	private static void count(Map<String, int[]> counts, String topic) {
+		int[] count = counts.get(topic);
+		if (count == null) {
+			count = new int[1];
+			counts.put(topic, count);
+		}
+		count[0]++;
+	}
+
+	/**
+	 * Starts collecting the model events instead of sending them. Batches may be nested, the
+	 * events are sent when the outermost batch ends. Every call must be followed by a call to
+	 * {@link #endBatch()}, in a <code>finally</code> block.
+	 * <p>
+	 * Only changes whose listeners do not need to react before the batch ends should be made
+	 * within a batch, as rendering an element for instance is triggered by its events.
+	 * </p>
+	 */
+	public void beginBatch() {
+		if (batchDepth++ == 0) {
+			batchMerged = 0;
+		}
+	}
+
+	/**
+	 * Ends a batch started with {@link #beginBatch()}, sending the collected events if it is the
+	 * outermost one.
+	 */
+	public void endBatch() {
+		if (batchDepth == 0) {
+			throw new IllegalStateException("No batch of events was started"); //$NON-NLS-1$
+		}
+		if (--batchDepth > 0 || pendingEvents.isEmpty() && batchMerged == 0) {
+			return;
+		}
+
+		List<PendingEvent> events = new ArrayList<PendingEvent>(pendingEvents.values());
+		pendingEvents.clear();
+		for (PendingEvent event : events) {
+			count(sentCounts, event.topic);
+		}
+		// batches are rare, the counts are only formatted once per batch
+		Activator.trace(Policy.DEBUG_EVENTS, "Sending a batch of " + events.size() //$NON-NLS-1$
+				+ " events, " + batchMerged + " events merged or dropped; sent per topic: " //$NON-NLS-1$ //$NON-NLS-2$
+				+ getSentEventCounts() + ", merged per topic: " + getMergedEventCounts(), null); //$NON-NLS-1$
+		for (PendingEvent event : events) {
+			Object element = event.argMap.get(EventTags.ELEMENT);
+			if (element instanceof MUIElement) {
+				// the widget may have changed since the event was collected
+				event.argMap.put(EventTags.WIDGET, ((MUIElement) element).getWidget());
+			}
+			send(event.topic, event.argMap);
+		}
+	}
+
+	/**
+	 * Returns the number of events sent at the end of a batch on each topic since the counts were
+	 * last reset. The events sent outside of a batch are not counted.
+	 */
+	public Map<String, Integer> getSentEventCounts() {
+		return toCounts(sentCounts);
+	}
+
+	/**
+	 * Returns the number of events merged into another one or dropped on each topic during
+	 * batches since the counts were last reset.
+	 */
+	public Map<String, Integer> getMergedEventCounts() {
+		return toCounts(mergedCounts);
+	}
+
+	/**
+	 * Resets the counts of the events sent and merged during batches.
+	 */
+	public void resetEventCounts() {
+		sentCounts.clear();
+		mergedCounts.clear();
+	}
+
+	private static Map<String, Integer> toCounts(Map<String, int[]> counts) {
+		Map<String, Integer> result = new HashMap<String, Integer>();
+		for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+			result.put(entry.getKey(), Integer.valueOf(entry.getValue()[0]));
 		}
+		return result;
 	}
 
 	/**
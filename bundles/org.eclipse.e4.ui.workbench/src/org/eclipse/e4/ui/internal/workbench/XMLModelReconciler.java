@@ -174,19 +174,31 @@ public class XMLModelReconciler extends ModelReconciler {
 		record();
 	}
 
-	static List<Object> getReferences(Object object) {
+	/**
+	 * Returns the application elements contained in the specified object indexed by their id. If
+	 * several elements share an id, the first one in containment order is indexed.
+	 * 
+	 * @param object
+	 *            the root of the model
+	 * @return the contained application elements by id
+	 */
+	static Map<String, Object> getReferences(Object object) {
 		Iterator<EObject> it = ((EObject) object).eAllContents();
-		List<Object> references = new LinkedList<Object>();
+		Map<String, Object> references = new HashMap<String, Object>();
 		while (it.hasNext()) {
-			Object reference = it.next();
-			references.add(reference);
+			EObject reference = it.next();
+			if (reference instanceof MApplicationElement) {
+				String id = getLocalId(reference);
+				if (id != null && !references.containsKey(id)) {
+					references.put(id, reference);
+				}
+			}
 		}
 		return references;
 	}
 
 	public Collection<ModelDelta> constructDeltas(Object object, Object serializedState) {
 		rootObject = (EObject) object;
-		List<Object> references = getReferences(rootObject);
 
 		Document document = (Document) serializedState;
 
@@ -204,16 +216,27 @@ public class XMLModelReconciler extends ModelReconciler {
 			return deltas;
 		}
 
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
+		// index the model once instead of searching it for every change
+		Map<String, Object> references = getReferences(rootObject);
+		Map<String, EObject> changedObjects = new HashMap<String, EObject>();
+		collectChangeableObjects(changedObjects, rootObject);
+
 		NodeList rootNodeList = (NodeList) rootElement;
 		for (int i = 0; i < rootNodeList.getLength(); i++) {
 			Node node = rootNodeList.item(i);
 			if (node instanceof Element) {
 				Element element = (Element) node;
-				constructDeltas(deltas, references, rootObject, element,
-						element.getAttribute(APPLICATIONELEMENT_ELEMENTID_ATTNAME));
+				EObject changedObject = changedObjects.get(element
+						.getAttribute(APPLICATIONELEMENT_ELEMENTID_ATTNAME));
+				if (changedObject != null) {
+					constructDeltas(deltas, references, changedObject, element);
+				}
 			}
 		}
 
+		tracer.end(StartupTracer.PHASE, "XMLModelReconciler.constructDeltas", start); //$NON-NLS-1$
 		return deltas;
 	}
 
@@ -242,84 +265,87 @@ public class XMLModelReconciler extends ModelReconciler {
 		return null;
 	}
 
-	static Object findReference(List<Object> references, String id) {
-		for (Object reference : references) {
-			if (reference instanceof MApplicationElement && getLocalId(reference).equals(id)) {
+	/**
+	 * Returns the application element with the specified id that is contained in the given root.
+	 * 
+	 * @param root
+	 *            the root of the model
+	 * @param id
+	 *            the id of the application element
+	 * @return the first application element with the id in containment order, or
+	 *         <code>null</code> if there is none
+	 */
+	static Object findReference(Object root, String id) {
+		Iterator<EObject> it = ((EObject) root).eAllContents();
+		while (it.hasNext()) {
+			EObject reference = it.next();
+			if (reference instanceof MApplicationElement && id.equals(getLocalId(reference))) {
 				return reference;
 			}
 		}
-
 		return null;
 	}
 
-	private boolean constructDeltas(Collection<ModelDelta> deltas, List<Object> references,
-			EObject object, Element element, String id) {
+	/**
+	 * Indexes the specified object and the objects whose changes are persisted below it by their
+	 * id. If several objects share an id, the first one found is indexed.
+	 * 
+	 * @param objects
+	 *            the map to add the objects to
+	 * @param object
+	 *            the object to index, may be <code>null</code>
+	 */
+	private static void collectChangeableObjects(Map<String, EObject> objects, EObject object) {
 		if (object instanceof MApplicationElement || object instanceof MKeyBinding) {
-			if (getLocalId(object).equals(id)) {
-				constructDeltas(deltas, references, object, element);
-				return true;
+			String id = getLocalId(object);
+			if (id != null && !objects.containsKey(id)) {
+				objects.put(id, object);
 			}
 		}
 
 		if (object instanceof MElementContainer<?>) {
 			for (Object child : ((MElementContainer<?>) object).getChildren()) {
-				if (constructDeltas(deltas, references, (EObject) child, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) child);
 			}
 		}
 
 		if (object instanceof MPerspective) {
 			for (MWindow window : ((MPerspective) object).getWindows()) {
-				if (constructDeltas(deltas, references, (EObject) window, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) window);
 			}
 		}
 
 		if (object instanceof MBindingTableContainer) {
 			for (MBindingTable bindingTable : ((MBindingTableContainer) object).getBindingTables()) {
-				if (constructDeltas(deltas, references, (EObject) bindingTable, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) bindingTable);
 			}
 		}
 
 		if (object instanceof MBindingTable) {
 			for (MKeyBinding keyBinding : ((MBindingTable) object).getBindings()) {
-				if (constructDeltas(deltas, references, (EObject) keyBinding, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) keyBinding);
 			}
 		}
 
 		if (object instanceof MHandlerContainer) {
 			for (MHandler handler : ((MHandlerContainer) object).getHandlers()) {
-				if (constructDeltas(deltas, references, (EObject) handler, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) handler);
 			}
 		}
 
 		if (object instanceof MApplication) {
 			for (MCommand command : ((MApplication) object).getCommands()) {
-				if (constructDeltas(deltas, references, (EObject) command, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) command);
 			}
 
 			for (MAddon addon : ((MApplication) object).getAddons()) {
-				if (constructDeltas(deltas, references, (EObject) addon, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) addon);
 			}
 		}
 
 		if (object instanceof MPartDescriptorContainer) {
 			for (MPartDescriptor descriptor : ((MPartDescriptorContainer) object).getDescriptors()) {
-				if (constructDeltas(deltas, references, (EObject) descriptor, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) descriptor);
 			}
 		}
 
@@ -327,74 +353,56 @@ public class XMLModelReconciler extends ModelReconciler {
 			MPart part = (MPart) object;
 
 			for (MMenu menu : part.getMenus()) {
-				if (constructDeltas(deltas, references, (EObject) menu, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) menu);
 			}
 
 			MToolBar toolBar = part.getToolbar();
 			if (toolBar != null) {
-				if (constructDeltas(deltas, references, (EObject) toolBar, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) toolBar);
 			}
 		}
 
 		if (object instanceof MMenuContributions) {
 			for (MMenuContribution contribution : ((MMenuContributions) object)
 					.getMenuContributions()) {
-				if (constructDeltas(deltas, references, (EObject) contribution, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) contribution);
 			}
 		}
 
 		if (object instanceof MToolBarContributions) {
 			for (MToolBarContribution contribution : ((MToolBarContributions) object)
 					.getToolBarContributions()) {
-				if (constructDeltas(deltas, references, (EObject) contribution, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) contribution);
 			}
 		}
 
 		if (object instanceof MTrimContributions) {
 			for (MTrimContribution contribution : ((MTrimContributions) object)
 					.getTrimContributions()) {
-				if (constructDeltas(deltas, references, (EObject) contribution, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) contribution);
 			}
 		}
 
 		if (object instanceof MWindow) {
 			MWindow window = (MWindow) object;
-			if (constructDeltas(deltas, references, (EObject) window.getMainMenu(), element, id)) {
-				return true;
-			}
+			collectChangeableObjects(objects, (EObject) window.getMainMenu());
 
 			if (object instanceof MTrimmedWindow) {
 				MTrimmedWindow trimmedWindow = (MTrimmedWindow) object;
 				for (MTrimBar trimBar : trimmedWindow.getTrimBars()) {
-					if (constructDeltas(deltas, references, (EObject) trimBar, element, id)) {
-						return true;
-					}
+					collectChangeableObjects(objects, (EObject) trimBar);
 				}
 			}
 		}
 
 		if (object instanceof MHandledItem) {
 			for (MParameter parameter : ((MHandledItem) object).getParameters()) {
-				if (constructDeltas(deltas, references, (EObject) parameter, element, id)) {
-					return true;
-				}
+				collectChangeableObjects(objects, (EObject) parameter);
 			}
 		}
-
-		return false;
 	}
 
-	private void constructDeltas(Collection<ModelDelta> deltas, List<Object> references,
+	private void constructDeltas(Collection<ModelDelta> deltas, Map<String, Object> references,
 			EObject object, Element element) {
 		String elementName = element.getNodeName();
 		if (elementName.equals(CONTEXT_PROPERTIES_ATTNAME)) {
@@ -423,7 +431,7 @@ public class XMLModelReconciler extends ModelReconciler {
 		}
 	}
 
-	private void constructObjectDeltas(Collection<ModelDelta> deltas, List<Object> references,
+	private void constructObjectDeltas(Collection<ModelDelta> deltas, Map<String, Object> references,
 			EObject object, Element element) {
 		NodeList nodeList = (NodeList) element;
 		for (int i = 0; i < nodeList.getLength(); i++) {
@@ -468,12 +476,12 @@ public class XMLModelReconciler extends ModelReconciler {
 	}
 
 	private ModelDelta createDirectReferenceDelta(Collection<ModelDelta> deltas,
-			List<Object> references, EObject eObject, EStructuralFeature feature, Element node) {
+			Map<String, Object> references, EObject eObject, EStructuralFeature feature, Element node) {
 		NodeList referencedIds = (NodeList) node;
 		Element reference = getFirstElement(referencedIds);
 		String referenceId = reference.getAttribute(APPLICATIONELEMENT_ELEMENTID_ATTNAME);
 
-		Object match = findReference(references, referenceId);
+		Object match = references.get(referenceId);
 		if (match == null) {
 			// couldn't find a reference, must be a new object
 			match = createObject(deltas, reference, references);
@@ -492,14 +500,14 @@ public class XMLModelReconciler extends ModelReconciler {
 		return null;
 	}
 
-	private ModelDelta createIndirectReferenceDelta(List<Object> references, EObject eObject,
+	private ModelDelta createIndirectReferenceDelta(Map<String, Object> references, EObject eObject,
 			EStructuralFeature feature, Element node) {
 		NodeList referencedIds = (NodeList) node;
 
 		Element reference = getFirstElement(referencedIds);
 		String referenceId = reference.getAttribute(APPLICATIONELEMENT_ELEMENTID_ATTNAME);
 
-		Object match = findReference(references, referenceId);
+		Object match = references.get(referenceId);
 		if (match == null) {
 			return createDelayedDelta(eObject, feature, reference);
 		}
@@ -529,15 +537,33 @@ public class XMLModelReconciler extends ModelReconciler {
 		return new EMFModelDeltaDelayedSet(object, feature, rootObject, referenceId);
 	}
 
+	/**
+	 * Merges the references of a feature as the user left them with the references the
+	 * application currently defines. References the user removed from the original references
+	 * are removed, and references the user added are inserted next to the closest reference that
+	 * preceded them, or else followed them, in the user's list.
+	 * <p>
+	 * The merge runs in time linear to the size of the lists.
+	 * </p>
+	 * 
+	 * @param originalReferences
+	 *            the references the application originally defined
+	 * @param userReferences
+	 *            the references as the user left them
+	 * @param currentReferences
+	 *            the references the application currently defines
+	 * @return the merged references, without duplicates
+	 */
 	public static List<?> threeWayMerge(List<?> originalReferences, List<?> userReferences,
 			List<?> currentReferences) {
 		int userSize = userReferences.size();
 		int originalSize = originalReferences.size();
+		Set<Object> original = new HashSet<Object>(originalReferences);
 
 		if (userSize == 0) {
 			// the user removed all the original parts
 			List<Object> collectedReferences = new ArrayList<Object>(currentReferences);
-			collectedReferences.removeAll(originalReferences);
+			collectedReferences.removeAll(original);
 			return collectedReferences;
 		} else if (originalSize == 0) {
 			List<Object> collectedReferences = new ArrayList<Object>(userReferences);
@@ -546,110 +572,89 @@ public class XMLModelReconciler extends ModelReconciler {
 		} else if (currentReferences.isEmpty()) {
 			// currently not referencing anything, so just return what the user had exactly
 			return userReferences;
-		} else if (currentReferences.size() == originalSize
-				&& currentReferences.containsAll(originalReferences)) {
+		}
+
+		Set<Object> current = new HashSet<Object>(currentReferences);
+		if (currentReferences.size() == originalSize && current.containsAll(originalReferences)) {
 			// since both versions contain the same thing, just use whatever the user had
 			return userReferences;
 		}
 
-		if (originalReferences.containsAll(userReferences)
-				&& !userReferences.containsAll(originalReferences)) {
-			List<Object> collectedReferences2 = new ArrayList<Object>(originalReferences);
-			collectedReferences2.removeAll(userReferences);
-
-			List<Object> collectedReferences = new ArrayList<Object>(currentReferences);
-			collectedReferences.removeAll(collectedReferences2);
-
+		Set<Object> user = new HashSet<Object>(userReferences);
+		if (original.containsAll(userReferences) && !user.containsAll(originalReferences)) {
+			// the user only removed references, remove them from the current references
+			List<Object> collectedReferences = new ArrayList<Object>(currentReferences.size());
+			for (Object reference : currentReferences) {
+				if (!original.contains(reference) || user.contains(reference)) {
+					collectedReferences.add(reference);
+				}
+			}
 			return collectedReferences;
 		}
 
-		List<Position> positions = new ArrayList<Position>();
-
-		for (int i = 0; i < userReferences.size(); i++) {
-			Object user = userReferences.get(i);
-
-			Position p = getPosition(originalReferences, userReferences, currentReferences, user, i);
-			if (p != null) {
-				positions.add(p);
+		// anchor every reference added by the user to the closest reference before it, or else
+		// after it, that is still referenced
+		Object[] anchorsBefore = new Object[userSize];
+		Object anchor = null;
+		for (int i = 0; i < userSize; i++) {
+			anchorsBefore[i] = anchor;
+			Object reference = userReferences.get(i);
+			if (current.contains(reference)) {
+				anchor = reference;
+			}
+		}
+
+		Map<Object, List<Object>> insertedAfter = new HashMap<Object, List<Object>>();
+		Map<Object, List<Object>> insertedBefore = new HashMap<Object, List<Object>>();
+		anchor = null;
+		for (int i = userSize - 1; i > -1; i--) {
+			Object reference = userReferences.get(i);
+			if (!original.contains(reference)) {
+				if (anchorsBefore[i] != null) {
+					getInsertions(insertedAfter, anchorsBefore[i]).add(0, reference);
+				} else if (anchor != null) {
+					getInsertions(insertedBefore, anchor).add(0, reference);
+				}
 			}
-		}
-
-		List<Object> collectedRefs = new ArrayList<Object>(currentReferences);
-
-		for (Position position : positions) {
-			Object after = position.getAfter();
-			if (after != null) {
-				int index = currentReferences.indexOf(after);
-				collectedRefs.add(index + 1, position.getObject());
+			if (current.contains(reference)) {
+				anchor = reference;
 			}
+		}
 
-			Object before = position.getBefore();
-			if (before != null) {
-				int index = currentReferences.indexOf(before);
-				collectedRefs.add(index, position.getObject());
+		List<Object> collectedRefs = new ArrayList<Object>(currentReferences.size() + userSize);
+		Set<Object> collected = new HashSet<Object>();
+		for (Object reference : currentReferences) {
+			collect(collectedRefs, collected, insertedBefore.get(reference));
+			if (collected.add(reference)) {
+				collectedRefs.add(reference);
 			}
+			collect(collectedRefs, collected, insertedAfter.get(reference));
 		}
-
 		return collectedRefs;
 	}
 
-	private static Position getPosition(List<?> originalReferences, List<?> userReferences,
-			List<?> currentReferences, Object object, int originalIndex) {
-		int index = originalReferences.indexOf(object);
-		if (index == -1) {
-			Object after = null;
-			for (int i = originalIndex - 1; i > -1; i--) {
-				Object afterCandidate = userReferences.get(i);
-				int afterIndex = currentReferences.indexOf(afterCandidate);
-				if (afterIndex != -1) {
-					after = afterCandidate;
-					break;
-				}
-			}
-
-			Object before = null;
-			for (int i = originalIndex + 1; i < userReferences.size(); i++) {
-				Object beforeCandidate = userReferences.get(i);
-				int beforeIndex = currentReferences.indexOf(beforeCandidate);
-				if (beforeIndex != -1) {
-					before = beforeCandidate;
-					break;
-				}
-			}
-
-			return new Position(object, after, before);
+	private static List<Object> getInsertions(Map<Object, List<Object>> insertions, Object anchor) {
+		List<Object> inserted = insertions.get(anchor);
+		if (inserted == null) {
+			inserted = new LinkedList<Object>();
+			insertions.put(anchor, inserted);
 		}
-		return null;
+		return inserted;
 	}
 
-	static class Position {
-
-		private final Object object;
-		private final Object after;
-		private final Object before;
-
-		Position(Object object, Object after, Object before) {
-			this.object = object;
-			this.after = after;
-			this.before = before;
-		}
-
-		public Object getObject() {
-			return object;
-		}
-
-		public Object getBefore() {
-			return before;
-		}
-
-		public Object getAfter() {
-			return after;
+	private static void collect(List<Object> collectedRefs, Set<Object> collected,
+			List<Object> references) {
+		if (references != null) {
+			for (Object reference : references) {
+				if (collected.add(reference)) {
+					collectedRefs.add(reference);
+				}
+			}
 		}
-
 	}
 
 	private ModelDelta createMultiReferenceDelta(Collection<ModelDelta> deltas,
-			List<Object> references, EObject eObject, EStructuralFeature feature, Element node) {
+			Map<String, Object> references, EObject eObject, EStructuralFeature feature, Element node) {
 		NodeList referencedIds = (NodeList) node;
 		List<Object> originalReferences = new ArrayList<Object>();
 		List<Object> userReferences = new ArrayList<Object>();
@@ -664,7 +669,7 @@ public class XMLModelReconciler extends ModelReconciler {
 				} else {
 					String referenceId = reference
 							.getAttribute(APPLICATIONELEMENT_ELEMENTID_ATTNAME);
-					Object match = findReference(references, referenceId);
+					Object match = references.get(referenceId);
 					if (match != null) {
 						// determine if this was a reference set by the user or a reference that was
 						// originally defined by the application
@@ -696,16 +701,16 @@ public class XMLModelReconciler extends ModelReconciler {
 	}
 
 	private Object getReference(Collection<ModelDelta> deltas, Element element,
-			List<Object> references) {
+			Map<String, Object> references) {
 		String id = element.getAttribute(APPLICATIONELEMENT_ELEMENTID_ATTNAME);
 		if (!id.equals("")) { //$NON-NLS-1$
-			return findReference(references, id);
+			return references.get(id);
 		}
 		return createObject(deltas, element, references);
 	}
 
 	private Object createObject(Collection<ModelDelta> deltas, Element element,
-			List<Object> references) {
+			Map<String, Object> references) {
 		String typeName = element.getAttribute(TYPE_ATTNAME);
 		String namespace = element.getAttribute(NAMESPACE_ATTNAME);
 
@@ -727,7 +732,7 @@ public class XMLModelReconciler extends ModelReconciler {
 					if (attributeFeature != null) {
 						if (isDirectReference(attributeName)) {
 							String id = item.getAttribute(attributeName);
-							Object objectReference = findReference(references, id);
+							Object objectReference = references.get(id);
 							if (objectReference == null) {
 								objectReference = createObject(deltas,
 										getFirstElement((NodeList) item), references);
@@ -738,7 +743,7 @@ public class XMLModelReconciler extends ModelReconciler {
 							compositeDelta.add(delta);
 						} else if (isIndirectReference(attributeName)) {
 							String id = item.getAttribute(attributeName);
-							Object objectReference = findReference(references, id);
+							Object objectReference = references.get(id);
 							if (objectReference == null) {
 								NodeList list = (NodeList) item;
 								Element refElement = getFirstElement(list);
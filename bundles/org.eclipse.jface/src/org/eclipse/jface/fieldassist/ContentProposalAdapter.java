@@ -14,7 +14,9 @@ package org.eclipse.jface.fieldassist;
 import java.util.ArrayList;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.bindings.keys.KeyStroke;
 import org.eclipse.jface.dialogs.PopupDialog;
 import org.eclipse.jface.preference.JFacePreferences;
@@ -36,6 +38,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.ScrollBar;
@@ -1005,6 +1008,11 @@ public class ContentProposalAdapter {
 		 * caches. Repopulate the popup if it is open.
 		 */
 		private void recomputeProposals(String filterText) {
+			if (isAsynchronousComputation()) {
+				// The proposals are shown when they have been computed
+				requestProposals(false, false, ASYNC_COMPUTATION_DELAY);
+				return;
+			}
 			IContentProposal[] allProposals = getProposals();
 			if (allProposals == null)
 				 allProposals = getEmptyProposalArray();
@@ -1020,6 +1028,21 @@ public class ContentProposalAdapter {
 			}
 		}
 
+		/*
+		 * Show the proposals computed so far by the asynchronous provider,
+		 * filtered by any provided filter text. The popup is closed if the
+		 * computation is complete and found no proposals.
+		 */
+		private void showComputedProposals(IContentProposal[] allProposals,
+				boolean complete) {
+			if (complete && allProposals.length == 0) {
+				proposals = allProposals;
+				close();
+			} else {
+				setProposals(filterProposals(allProposals, filterText));
+			}
+		}
+
 		/*
 		 * In an async block, request the proposals. This is used when clients
 		 * are in the middle of processing an event that affects the widget
@@ -1130,6 +1153,13 @@ public class ContentProposalAdapter {
 	 */
 	private static final boolean USE_VIRTUAL = !Util.isMotif();
 
+	/*
+	 * The delay in milliseconds after a keystroke before proposals are
+	 * computed asynchronously, so that a computation is not started for every
+	 * character typed in a row.
+	 */
+	private static final int ASYNC_COMPUTATION_DELAY = 150;
+
 	/*
 	 * The delay before showing a secondary popup.
 	 */
@@ -1270,6 +1300,20 @@ public class ContentProposalAdapter {
 	 */
 	private boolean watchModify = false;
 
+	/*
+	 * A boolean indicating whether proposals of an asynchronous provider are
+	 * computed outside of the UI thread.
+	 */
+	private boolean asynchronous = false;
+
+	/*
+	 * The asynchronous computation of proposals that has not completed yet,
+	 * and the last one that completed.
+	 */
+	private ProposalComputation pendingComputation;
+
+	private ProposalComputation lastComputation;
+
 	/**
 	 * Construct a content proposal adapter that can assist the user with
 	 * choosing content for the field.
@@ -1452,6 +1496,39 @@ public class ContentProposalAdapter {
 
 	}
 
+	/**
+	 * Return whether the proposals are computed outside of the UI thread when
+	 * the proposal provider is an {@link IAsyncContentProposalProvider}.
+	 * 
+	 * @return <code>true</code> if proposals are computed asynchronously
+	 * 
+	 * @since 3.10
+	 */
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
+	/**
+	 * Set whether the proposals are computed outside of the UI thread when the
+	 * proposal provider is an {@link IAsyncContentProposalProvider}. The
+	 * proposals are then computed a short delay after typing stops, shown in
+	 * the popup as they are reported, and the computation is canceled once the
+	 * contents have changed. When the contents only extend the contents of
+	 * the last computation, the provider is first asked to refine the last
+	 * proposals. Other providers are always called in the UI thread.
+	 * 
+	 * @param asynchronous
+	 *            <code>true</code> to compute proposals asynchronously
+	 * 
+	 * @since 3.10
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+		if (!asynchronous) {
+			cancelPendingComputation();
+		}
+	}
+
 	/**
 	 * Get the integer style that indicates how an accepted proposal affects the
 	 * control's content.
@@ -1888,21 +1965,14 @@ public class ContentProposalAdapter {
 			if (popup == null) {
 				// Check whether there are any proposals to be shown.
 				recordCursorPosition(); // must be done before getting proposals
+				if (isAsynchronousComputation()) {
+					// The popup is opened when proposals are reported
+					requestProposals(true, autoActivated, 0);
+					return;
+				}
 				IContentProposal[] proposals = getProposals();
 				if (proposals.length > 0) {
-					if (DEBUG) {
-						System.out.println("POPUP OPENED BY PRECEDING EVENT"); //$NON-NLS-1$
-					}
-					recordCursorPosition();
-					popup = new ContentProposalPopup(null, proposals);
-					popup.open();
-					popup.getShell().addDisposeListener(new DisposeListener() {
-						public void widgetDisposed(DisposeEvent event) {
-							popup = null;
-						}
-					});
-					internalPopupOpened();
-					notifyPopupOpened();
+					openProposalPopup(proposals);
 				} else if (!autoActivated) {
 					getControl().getDisplay().beep();
 				}
@@ -1910,6 +1980,26 @@ public class ContentProposalAdapter {
 		}
 	}
 
+	/*
+	 * Open the popup showing the given proposals.
+	 */
+	private void openProposalPopup(IContentProposal[] proposals) {
+		if (DEBUG) {
+			System.out.println("POPUP OPENED BY PRECEDING EVENT"); //$NON-NLS-1$
+		}
+		recordCursorPosition();
+		popup = new ContentProposalPopup(null, proposals);
+		popup.open();
+		popup.getShell().addDisposeListener(new DisposeListener() {
+			public void widgetDisposed(DisposeEvent event) {
+				popup = null;
+				cancelPendingComputation();
+			}
+		});
+		internalPopupOpened();
+		notifyPopupOpened();
+	}
+
 	/**
 	 * Open the proposal popup and display the proposals provided by the
 	 * proposal provider. This method returns immediately. That is, it does not
@@ -2046,6 +2136,237 @@ public class ContentProposalAdapter {
 		return proposals;
 	}
 
+	/*
+	 * Return whether the proposals are computed outside of the UI thread.
+	 */
+	private boolean isAsynchronousComputation() {
+		return asynchronous
+				&& proposalProvider instanceof IAsyncContentProposalProvider;
+	}
+
+	/*
+	 * Request the proposals for the current contents from the asynchronous
+	 * provider, cancelling any pending computation. If the contents extend the
+	 * contents of the last computation, its proposals are refined first, by the
+	 * provider or else by the text typed since. The proposals are only computed
+	 * again if none of them is left. The popup is only opened for the proposals
+	 * if openPopup is true.
+	 */
+	private void requestProposals(boolean openPopup, boolean autoActivated,
+			int delay) {
+		if (!isValid()) {
+			return;
+		}
+		cancelPendingComputation();
+		int position = insertionPos;
+		if (position == -1) {
+			position = getControlContentAdapter().getCursorPosition(
+					getControl());
+		}
+		String contents = getControlContentAdapter().getControlContents(
+				getControl());
+		IAsyncContentProposalProvider provider = (IAsyncContentProposalProvider) proposalProvider;
+		if (lastComputation != null && lastComputation.provider == provider
+				&& lastComputation.isExtendedBy(contents, position)) {
+			IContentProposal[] refined = provider.refineProposals(
+					lastComputation.getProposals(), contents, position);
+			if (refined == null) {
+				refined = refineProposals(lastComputation.getProposals(),
+						contents.substring(lastComputation.position, position));
+			}
+			if (refined.length > 0) {
+				if (DEBUG) {
+					System.out.println(">>> refined proposals of last computation"); //$NON-NLS-1$
+				}
+				showComputedProposals(refined, true, openPopup, autoActivated);
+				return;
+			}
+		}
+		pendingComputation = new ProposalComputation(provider, contents,
+				position, openPopup, autoActivated);
+		pendingComputation.start(delay);
+	}
+
+	/*
+	 * Return the proposals whose content starts with the text typed since they
+	 * were computed, ignoring case like the filtering of the popup.
+	 */
+	private IContentProposal[] refineProposals(IContentProposal[] proposals,
+			String typed) {
+		if (typed.length() == 0) {
+			return proposals;
+		}
+		ArrayList<IContentProposal> list = new ArrayList<IContentProposal>();
+		for (int i = 0; i < proposals.length; i++) {
+			String content = proposals[i].getContent();
+			if (content != null
+					&& content.regionMatches(true, 0, typed, 0, typed.length())) {
+				list.add(proposals[i]);
+			}
+		}
+		return list.toArray(new IContentProposal[list.size()]);
+	}
+
+	/*
+	 * Cancel the pending asynchronous computation, if any.
+	 */
+	private void cancelPendingComputation() {
+		if (pendingComputation != null) {
+			pendingComputation.monitor.setCanceled(true);
+			pendingComputation = null;
+		}
+	}
+
+	/*
+	 * Show proposals computed asynchronously, opening the popup if requested.
+	 */
+	private void showComputedProposals(IContentProposal[] proposals,
+			boolean complete, boolean openPopup, boolean autoActivated) {
+		if (!isValid()) {
+			return;
+		}
+		if (popup != null) {
+			popup.showComputedProposals(proposals, complete);
+		} else if (openPopup) {
+			if (proposals.length > 0) {
+				openProposalPopup(proposals);
+			} else if (complete && !autoActivated) {
+				getControl().getDisplay().beep();
+			}
+		}
+	}
+
+	/*
+	 * A computation of proposals by an asynchronous provider. The provider
+	 * runs in its own thread, and the reported proposals are collected and
+	 * shown in the UI thread while the computation is pending.
+	 */
+	private class ProposalComputation implements Runnable,
+			IContentProposalCollector {
+
+		final IAsyncContentProposalProvider provider;
+
+		final String contents;
+
+		final int position;
+
+		final boolean openPopup;
+
+		final boolean autoActivated;
+
+		final IProgressMonitor monitor = new NullProgressMonitor();
+
+		final Display display = getControl().getDisplay();
+
+		/*
+		 * The proposals reported so far. Only accessed in the UI thread.
+		 */
+		private ArrayList<IContentProposal> proposals = new ArrayList<IContentProposal>();
+
+		ProposalComputation(IAsyncContentProposalProvider provider,
+				String contents, int position, boolean openPopup,
+				boolean autoActivated) {
+			this.provider = provider;
+			this.contents = contents;
+			this.position = position;
+			this.openPopup = openPopup;
+			this.autoActivated = autoActivated;
+		}
+
+		/*
+		 * Start computing in a new thread, after the given delay unless
+		 * canceled meanwhile.
+		 */
+		void start(int delay) {
+			if (delay <= 0) {
+				new Thread(this).start();
+				return;
+			}
+			display.timerExec(delay, new Runnable() {
+				public void run() {
+					if (!monitor.isCanceled()) {
+						new Thread(ProposalComputation.this).start();
+					}
+				}
+			});
+		}
+
+		/*
+		 * Compute the proposals, outside of the UI thread.
+		 */
+		public void run() {
+			if (DEBUG) {
+				System.out.println(">>> computing proposals asynchronously"); //$NON-NLS-1$
+			}
+			try {
+				provider.computeProposals(contents, position, this, monitor);
+			} finally {
+				asyncExec(new Runnable() {
+					public void run() {
+						lastComputation = ProposalComputation.this;
+						pendingComputation = null;
+						showComputedProposals(getProposals(), true, openPopup,
+								autoActivated);
+					}
+				});
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.eclipse.jface.fieldassist.IContentProposalCollector#addProposals(org.eclipse.jface.fieldassist.IContentProposal[])
+		 */
+		public void addProposals(final IContentProposal[] newProposals) {
+			if (newProposals.length == 0) {
+				return;
+			}
+			asyncExec(new Runnable() {
+				public void run() {
+					for (int i = 0; i < newProposals.length; i++) {
+						proposals.add(newProposals[i]);
+					}
+					showComputedProposals(getProposals(), false, openPopup,
+							autoActivated);
+				}
+			});
+		}
+
+		/*
+		 * Run the runnable in the UI thread if the computation is still
+		 * pending by then.
+		 */
+		private void asyncExec(final Runnable runnable) {
+			if (monitor.isCanceled() || display.isDisposed()) {
+				return;
+			}
+			display.asyncExec(new Runnable() {
+				public void run() {
+					if (pendingComputation == ProposalComputation.this
+							&& !monitor.isCanceled()) {
+						runnable.run();
+					}
+				}
+			});
+		}
+
+		IContentProposal[] getProposals() {
+			return proposals.toArray(new IContentProposal[proposals.size()]);
+		}
+
+		/*
+		 * Return whether the contents were obtained by typing text at the
+		 * position of this computation.
+		 */
+		boolean isExtendedBy(String newContents, int newPosition) {
+			int typed = newPosition - position;
+			return typed >= 0
+					&& newContents.length() == contents.length() + typed
+					&& newContents.startsWith(contents.substring(0, position))
+					&& newContents.endsWith(contents.substring(position));
+		}
+	}
+
 	/**
 	 * Autoactivation has been triggered. Open the popup using any specified
 	 * delay.
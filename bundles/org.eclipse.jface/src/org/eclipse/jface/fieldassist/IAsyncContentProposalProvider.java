@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.fieldassist;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * IAsyncContentProposalProvider computes content proposals outside of the UI
+ * thread, for providers that are too slow to be asked for proposals on every
+ * keystroke. A {@link ContentProposalAdapter} in asynchronous mode asks the
+ * provider to compute the proposals in a background thread, shows them as they
+ * are reported, and cancels the computation once the contents have changed.
+ * When the contents only extend the contents the last proposals were computed
+ * for, those proposals are refined instead, by the provider or else by the
+ * adapter.
+ *
+ * @since 3.10
+ *
+ * @see ContentProposalAdapter#setAsynchronous(boolean)
+ */
+public interface IAsyncContentProposalProvider extends IContentProposalProvider {
+
+	/**
+	 * Compute the content proposals for a field, reporting them to the
+	 * collector as they are found. This method is called outside of the UI
+	 * thread and should return as soon as the monitor is canceled.
+	 *
+	 * @param contents
+	 *            the contents of the text field when the computation was
+	 *            requested
+	 * @param position
+	 *            the position of the cursor in the contents
+	 * @param collector
+	 *            the collector the proposals are reported to
+	 * @param monitor
+	 *            the monitor canceled when the proposals are no longer needed
+	 */
+	void computeProposals(String contents, int position,
+			IContentProposalCollector collector, IProgressMonitor monitor);
+
+	/**
+	 * Return the proposals, among the given proposals computed for previous
+	 * contents, that are still valid for the current contents. This method is
+	 * only called in the UI thread when the current contents were obtained by
+	 * typing text at the previous cursor position, and should be fast.
+	 * <p>
+	 * If this method returns <code>null</code>, the adapter keeps the proposals
+	 * whose content starts with the text typed since they were computed,
+	 * ignoring case. Providers whose proposal contents do not start at the
+	 * previous cursor position should refine the proposals themselves. In
+	 * either case the proposals are computed again if none of them is left.
+	 * </p>
+	 *
+	 * @param proposals
+	 *            the proposals computed for the previous contents
+	 * @param contents
+	 *            the current contents of the text field
+	 * @param position
+	 *            the current position of the cursor in the contents
+	 * @return the proposals that are still valid, or <code>null</code> to let
+	 *         the adapter filter the proposals
+	 */
+	IContentProposal[] refineProposals(IContentProposal[] proposals,
+			String contents, int position);
+}
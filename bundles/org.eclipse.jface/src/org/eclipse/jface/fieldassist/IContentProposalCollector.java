@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.fieldassist;
+
+/**
+ * IContentProposalCollector receives the content proposals computed by an
+ * {@link IAsyncContentProposalProvider}. Proposals may be reported in several
+ * batches, from any thread.
+ *
+ * @since 3.10
+ *
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface IContentProposalCollector {
+
+	/**
+	 * Report proposals in addition to the proposals already reported.
+	 *
+	 * @param proposals
+	 *            the additional proposals
+	 */
+	void addProposals(IContentProposal[] proposals);
+}
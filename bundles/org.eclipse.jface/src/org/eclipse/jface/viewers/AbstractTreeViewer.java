@@ -75,6 +75,12 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	public static final int ALL_LEVELS = -1;
 
+	/**
+	 * The number of added elements from which the tree is not redrawn while
+	 * their items are created.
+	 */
+	private static final int BULK_ADD_THRESHOLD = 100;
+
 	/**
 	 * List of registered tree listeners (element type:
 	 * <code>TreeListener</code>).
@@ -323,6 +329,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	/**
 	 * Create the new elements in the parent widget. If the child already exists
 	 * do nothing.
+	 * <p>
+	 * The sorted elements are merged with the sorted items in a single pass,
+	 * and the tree is not redrawn while many items are created.
+	 * </p>
 	 *
 	 * @param widget
 	 * @param elements
@@ -336,6 +346,21 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 		}
 
+		Control tree = getControl();
+		boolean bulk = elements.length >= BULK_ADD_THRESHOLD;
+		if (bulk) {
+			tree.setRedraw(false);
+		}
+		try {
+			internalCreateAddedElements(widget, elements);
+		} finally {
+			if (bulk) {
+				tree.setRedraw(true);
+			}
+		}
+	}
+
+	private void internalCreateAddedElements(Widget widget, Object[] elements) {
 		ViewerComparator comparator = getComparator();
 		TreePath parentPath = internalGetSorterParentPath(widget, comparator);
 		Item[] items = getChildren(widget);
@@ -350,9 +375,20 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 		// Optimize for no comparator
 		if (comparator == null) {
+			// Without an element map, hash the existing items once instead of
+			// searching them for every element
+			CustomHashtable itemData = null;
+			if (!usingElementMap() && elements.length > 1) {
+				itemData = newHashtable(items.length * 2 + 1);
+				for (int i = 0; i < items.length; i++) {
+					Object data = items[i].getData();
+					itemData.put(data, data);
+				}
+			}
 			for (int i = 0; i < elements.length; i++) {
 				Object element = elements[i];
-				if (itemExists(items, element)) {
+				if (itemData == null ? itemExists(items, element) : itemData
+						.containsKey(element)) {
 					internalRefresh(element);
 				} else {
 					createTreeItem(widget, element, -1);
@@ -373,45 +409,36 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			// update the index relative to the original item array
 			indexInItems = insertionPosition(items, comparator,
 					indexInItems, element, parentPath);
-			if (indexInItems == items.length) {
+
+			// Search for an item for the element. The comparator might
+			// regard elements as equal when they are not.
+
+			// Use a separate index variable to search within the existing
+			// elements that compare equally, see
+			// TreeViewerTestBug205700.testAddEquallySortedElements.
+			int insertionIndexInItems = indexInItems;
+			while (insertionIndexInItems < items.length
+					&& internalCompare(comparator, parentPath, element,
+							items[insertionIndexInItems].getData()) == 0) {
+				if (items[insertionIndexInItems].getData().equals(element)) {
+					// Found the item for the element.
+					// Refresh the element in case it has new children.
+					internalRefresh(element);
+					// Do not create a new item - continue with the next element.
+					continue elementloop;
+				}
+				insertionIndexInItems++;
+			}
+			// Did we get to the end?
+			if (insertionIndexInItems == items.length) {
 				createTreeItem(widget, element, -1);
-				newItems++;
 			} else {
-				// Search for an item for the element. The comparator might
-				// regard elements as equal when they are not.
-
-				// Use a separate index variable to search within the existing
-				// elements that compare equally, see
-				// TreeViewerTestBug205700.testAddEquallySortedElements.
-				int insertionIndexInItems = indexInItems;
-				while( insertionIndexInItems < items.length
-						&& internalCompare(comparator, parentPath, element,
-								items[insertionIndexInItems].getData()) == 0) {
-					// As we cannot assume the sorter is consistent with
-					// equals() - therefore we can
-					// just check against the item prior to this index (if
-					// any)
-					if (items[insertionIndexInItems].getData().equals(element)) {
-						// Found the item for the element.
-						// Refresh the element in case it has new children.
-						internalRefresh(element);
-						// Do not create a new item - continue with the next element.
-						continue elementloop;
-					}
-					insertionIndexInItems++;
-				}
-				// Did we get to the end?
-				if (insertionIndexInItems == items.length) {
-					createTreeItem(widget, element, -1);
-					newItems++;
-				} else {
-					// InsertionIndexInItems is the index in the original array. We
-					// need to correct by the number of new items we have
-					// created. See bug 205700.
-					createTreeItem(widget, element, insertionIndexInItems + newItems);
-					newItems++;
-				}
+				// InsertionIndexInItems is the index in the original array. We
+				// need to correct by the number of new items we have
+				// created. See bug 205700.
+				createTreeItem(widget, element, insertionIndexInItems + newItems);
 			}
+			newItems++;
 		}
 	}
 
@@ -447,6 +474,11 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 * Returns the index where the item should be inserted. It uses sorter to
 	 * determine the correct position, if sorter is not assigned, returns the
 	 * index of the element after the last.
+	 * <p>
+	 * The search gallops from <code>lastInsertion</code> before bisecting, so
+	 * merging sorted elements into the items costs a number of comparisons
+	 * logarithmic in the distance between successive insertions.
+	 * </p>
 	 *
 	 * @param items
 	 *            the items to search
@@ -462,7 +494,8 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 *            the tree path for the element's parent or <code>null</code>
 	 *            if the element is a root element or the sorter is not a
 	 *            {@link TreePathViewerSorter}
-	 * @return the index to use when inserting the element.
+	 * @return the index of the first item that does not sort before the
+	 *         element.
 	 *
 	 */
 
@@ -473,16 +506,20 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		if (comparator == null) {
 			return size;
 		}
-		int min = lastInsertion, max = size - 1;
+		int min = lastInsertion, bound = lastInsertion, step = 1;
+		while (bound < size
+				&& internalCompare(comparator, parentPath, items[bound]
+						.getData(), element) < 0) {
+			min = bound + 1;
+			bound += step;
+			step <<= 1;
+		}
+		int max = Math.min(bound, size) - 1;
 
 		while (min <= max) {
-			int mid = (min + max) / 2;
+			int mid = (min + max) >>> 1;
 			Object data = items[mid].getData();
-			int compare = internalCompare(comparator, parentPath, data, element);
-			if (compare == 0) {
-				return mid;// Return if we already match
-			}
-			if (compare < 0) {
+			if (internalCompare(comparator, parentPath, data, element) < 0) {
 				min = mid + 1;
 			} else {
 				max = mid - 1;
@@ -534,24 +571,12 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 		int min = 0, max = count - 1;
 
+		// find first item > element
 		while (min <= max) {
-			int mid = (min + max) / 2;
+			int mid = (min + max) >>> 1;
 			Object data = items[mid].getData();
 			int compare = internalCompare(comparator, parentPath, data, element);
-			if (compare == 0) {
-				// find first item > element
-				while (compare == 0) {
-					++mid;
-					if (mid >= count) {
-						break;
-					}
-					data = items[mid].getData();
-					compare = internalCompare(comparator, parentPath, data,
-							element);
-				}
-				return mid;
-			}
-			if (compare < 0) {
+			if (compare <= 0) {
 				min = mid + 1;
 			} else {
 				max = mid - 1;
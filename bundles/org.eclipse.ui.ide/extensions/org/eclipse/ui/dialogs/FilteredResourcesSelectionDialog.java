@@ -1058,6 +1058,26 @@ public class FilteredResourcesSelectionDialog extends
 			return matches(name);
 		}
 
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.eclipse.ui.dialogs.FilteredItemsSelectionDialog.ItemsFilter#requiresElementNameMatch()
+		 */
+		public boolean requiresElementNameMatch() {
+			// a split name and extension pattern can match names the
+			// pattern matcher itself does not match
+			return namePattern == null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.eclipse.ui.dialogs.FilteredItemsSelectionDialog.ItemsFilter#supportsConcurrentMatching()
+		 */
+		public boolean supportsConcurrentMatching() {
+			return true;
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * 
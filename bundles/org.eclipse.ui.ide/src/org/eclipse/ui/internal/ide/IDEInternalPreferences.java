@@ -115,6 +115,9 @@ public interface IDEInternalPreferences {
     // Always show this import window
     public static final String IMPORT_FILES_AND_FOLDERS_SHOW_DIALOG = "IMPORT_FILES_AND_FOLDERS_SHOW_DIALOG"; //$NON-NLS-1$
 
+    // (string) Comma separated patterns of the folders not searched for projects to import
+    public static final String IMPORT_PROJECTS_EXCLUDED_FOLDERS = "IMPORT_PROJECTS_EXCLUDED_FOLDERS"; //$NON-NLS-1$
+
     /**
      * Workspace name, will be displayed in the window title.
      */
@@ -87,6 +87,7 @@ public class IDEPreferenceInitializer extends AbstractPreferenceInitializer {
 		
 		node.put(IDEInternalPreferences.IMPORT_FILES_AND_FOLDERS_MODE, IDEInternalPreferences.IMPORT_FILES_AND_FOLDERS_MODE_PROMPT);
 		node.put(IDEInternalPreferences.IMPORT_FILES_AND_FOLDERS_VIRTUAL_FOLDER_MODE, IDEInternalPreferences.IMPORT_FILES_AND_FOLDERS_MODE_PROMPT);
+		node.put(IDEInternalPreferences.IMPORT_PROJECTS_EXCLUDED_FOLDERS, ".git,node_modules,target"); //$NON-NLS-1$
 	}
 
 	private String getHelpSeparatorKey(String groupId) {
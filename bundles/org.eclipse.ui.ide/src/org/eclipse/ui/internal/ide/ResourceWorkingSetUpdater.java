@@ -12,8 +12,12 @@ package org.eclipse.ui.internal.ide;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -22,6 +26,7 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.IWorkingSetUpdater;
 
@@ -37,10 +42,22 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 	 * Utility class used to help process incoming resource deltas.
 	 */
 	private static class WorkingSetDelta {
+		/**
+		 * Marks the position of an element removed from the list of known
+		 * elements until the list is compacted.
+		 */
+		private static final Object REMOVED = new Object();
+
 		private IWorkingSet fWorkingSet;
 
 		private List fElements;
 
+		/**
+		 * Maps the known elements to their position in the list of known
+		 * elements.
+		 */
+		private Map fPositions;
+
 		private boolean fChanged;
 
 		/**
@@ -52,6 +69,42 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 		public WorkingSetDelta(IWorkingSet workingSet) {
 			fWorkingSet = workingSet;
 			fElements = new ArrayList(Arrays.asList(workingSet.getElements()));
+			fPositions = new HashMap();
+			for (int i = 0; i < fElements.size(); i++) {
+				Object element = fElements.get(i);
+				if (element != null && !fPositions.containsKey(element)) {
+					fPositions.put(element, new Integer(i));
+				}
+			}
+		}
+
+		/**
+		 * Register this delta for the resources among the known elements.
+		 * 
+		 * @param deltas
+		 *            the map from resources to the list of deltas tracking
+		 *            them
+		 * @param paths
+		 *            the set of paths of the resources and of all their
+		 *            ancestors
+		 */
+		public void register(Map deltas, Set paths) {
+			for (Iterator iter = fPositions.keySet().iterator(); iter.hasNext();) {
+				Object element = iter.next();
+				if (!(element instanceof IResource)) {
+					continue;
+				}
+				List list = (List) deltas.get(element);
+				if (list == null) {
+					list = new ArrayList(1);
+					deltas.put(element, list);
+				}
+				list.add(this);
+				IPath path = ((IResource) element).getFullPath();
+				while (paths.add(path) && path.segmentCount() > 0) {
+					path = path.removeLastSegments(1);
+				}
+			}
 		}
 
 		/**
@@ -62,7 +115,8 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 		 * @return the index, or -1 if unknown.
 		 */
 		public int indexOf(Object element) {
-			return fElements.indexOf(element);
+			Integer index = (Integer) fPositions.get(element);
+			return index == null ? -1 : index.intValue();
 		}
 
 		/**
@@ -74,7 +128,10 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 		 *            the element to set
 		 */
 		public void set(int index, Object element) {
-			fElements.set(index, element);
+			fPositions.remove(fElements.set(index, element));
+			if (element != null && !fPositions.containsKey(element)) {
+				fPositions.put(element, new Integer(index));
+			}
 			fChanged = true;
 		}
 
@@ -85,7 +142,9 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 		 *            the index of the element to remove
 		 */
 		public void remove(int index) {
-			if (fElements.remove(index) != null) {
+			Object element = fElements.set(index, REMOVED);
+			if (element != null) {
+				fPositions.remove(element);
 				fChanged = true;
 			}
 		}
@@ -96,8 +155,15 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 		 */
 		public void process() {
 			if (fChanged) {
-				fWorkingSet.setElements((IAdaptable[]) fElements
-						.toArray(new IAdaptable[fElements.size()]));
+				List elements = new ArrayList(fElements.size());
+				for (Iterator iter = fElements.iterator(); iter.hasNext();) {
+					Object element = iter.next();
+					if (element != REMOVED) {
+						elements.add(element);
+					}
+				}
+				fWorkingSet.setElements((IAdaptable[]) elements
+						.toArray(new IAdaptable[elements.size()]));
 			}
 		}
 	}
@@ -152,33 +218,48 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 			workingSets = (IWorkingSet[]) fWorkingSets
 					.toArray(new IWorkingSet[fWorkingSets.size()]);
 		}
+		// Walk the delta once for all the working sets, only descending
+		// towards the resources they contain
+		WorkingSetDelta[] workingSetDeltas = new WorkingSetDelta[workingSets.length];
+		Map deltas = new HashMap();
+		Set paths = new HashSet();
 		for (int w = 0; w < workingSets.length; w++) {
-			WorkingSetDelta workingSetDelta = new WorkingSetDelta(
-					workingSets[w]);
-			processResourceDelta(workingSetDelta, delta);
-			workingSetDelta.process();
+			workingSetDeltas[w] = new WorkingSetDelta(workingSets[w]);
+			workingSetDeltas[w].register(deltas, paths);
+		}
+		if (!deltas.isEmpty()) {
+			processResourceDelta(deltas, paths, delta);
+		}
+		for (int w = 0; w < workingSetDeltas.length; w++) {
+			workingSetDeltas[w].process();
 		}
 	}
 
-	private void processResourceDelta(WorkingSetDelta result,
+	private void processResourceDelta(Map deltas, Set paths,
 			IResourceDelta delta) {
 		IResource resource = delta.getResource();
 		int type = resource.getType();
-		int index = result.indexOf(resource);
 		int kind = delta.getKind();
 		int flags = delta.getFlags();
-		if (kind == IResourceDelta.CHANGED && type == IResource.PROJECT
-				&& index != -1) {
-			if ((flags & IResourceDelta.OPEN) != 0) {
-				result.set(index, resource);
-			}
-		}
-		if (index != -1 && kind == IResourceDelta.REMOVED) {
-			if ((flags & IResourceDelta.MOVED_TO) != 0) {
-				result.set(index, ResourcesPlugin.getWorkspace().getRoot()
-						.findMember(delta.getMovedToPath()));
-			} else {
-				result.remove(index);
+		List results = (List) deltas.get(resource);
+		if (results != null) {
+			for (Iterator iter = results.iterator(); iter.hasNext();) {
+				WorkingSetDelta result = (WorkingSetDelta) iter.next();
+				int index = result.indexOf(resource);
+				if (kind == IResourceDelta.CHANGED && type == IResource.PROJECT
+						&& index != -1) {
+					if ((flags & IResourceDelta.OPEN) != 0) {
+						result.set(index, resource);
+					}
+				}
+				if (index != -1 && kind == IResourceDelta.REMOVED) {
+					if ((flags & IResourceDelta.MOVED_TO) != 0) {
+						result.set(index, ResourcesPlugin.getWorkspace()
+								.getRoot().findMember(delta.getMovedToPath()));
+					} else {
+						result.remove(index);
+					}
+				}
 			}
 		}
 
@@ -189,7 +270,9 @@ public class ResourceWorkingSetUpdater implements IWorkingSetUpdater,
 
 		IResourceDelta[] children = delta.getAffectedChildren();
 		for (int i = 0; i < children.length; i++) {
-			processResourceDelta(result, children[i]);
+			if (paths.contains(children[i].getFullPath())) {
+				processResourceDelta(deltas, paths, children[i]);
+			}
 		}
 	}
 
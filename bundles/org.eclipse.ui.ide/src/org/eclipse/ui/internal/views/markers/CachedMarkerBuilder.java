@@ -16,6 +16,7 @@ import java.util.Iterator;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -42,6 +43,19 @@ public class CachedMarkerBuilder {
 	private static final String TAG_CATEGORY_GROUP = "categoryGroup"; //$NON-NLS-1$
 	private static final String VALUE_NONE = "none"; //$NON-NLS-1$
 
+	/**
+	 * The number of queued marker changes after which the markers are gathered
+	 * again instead of being updated incrementally.
+	 */
+	static final int INCREMENTAL_UPDATE_LIMIT = 5000;
+
+	/**
+	 * Set this system property to <code>true</code> to always gather all of
+	 * the markers on a marker change.
+	 */
+	private static final boolean INCREMENTAL_UPDATES = !Boolean
+			.getBoolean("org.eclipse.ui.views.markers.disableIncrementalUpdate"); //$NON-NLS-1$
+
 	// The MarkerContentGenerator we are using for building
 	private MarkerContentGenerator generator; 
 	private MarkerUpdateJob updateJob;
@@ -54,6 +68,22 @@ public class CachedMarkerBuilder {
 	final Object MARKER_INCREMENTAL_UPDATE_FAMILY =new Object();
 	final Object CACHE_UPDATE_FAMILY = new Object();
 	final Object MARKERSVIEW_UPDATE_JOB_FAMILY;
+
+	/*
+	 * The rule of the jobs that update the markers. An incremental update must
+	 * not be applied while the markers are gathered, or the gathered markers
+	 * would replace it. The updates queued meanwhile are applied once the
+	 * gathered markers are installed.
+	 */
+	private final ISchedulingRule updateRule = new ISchedulingRule() {
+		public boolean contains(ISchedulingRule rule) {
+			return rule == this;
+		}
+
+		public boolean isConflicting(ISchedulingRule rule) {
+			return rule == this;
+		}
+	};
 	
 	private IWorkbenchSiteProgressService progressService;
 
@@ -466,13 +496,10 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
 				updateJob = new MarkerUpdateJob(this);
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
+				updateJob.setRule(updateRule);
 			}
 			if (clean) {
 				updateJob.setClean();
@@ -615,18 +642,13 @@ public class CachedMarkerBuilder {
 ///////	<Incremental update code>///////
 		private IncrementUpdateJob incrementJob;
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should apply marker changes incrementally
+	 * rather than gathering all of the markers again.
 	 * 
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have 
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return INCREMENTAL_UPDATES;
 	}
 	
 	/**
@@ -652,16 +674,60 @@ public class CachedMarkerBuilder {
 	}
 
 	/**
-	 * Handles an incremental update
+	 * Handles an incremental update. The update is queued for the
+	 * {@link IncrementUpdateJob} unless no markers have been gathered yet or
+	 * too many changes are waiting, in which case a full update is scheduled.
+	 * 
 	 * @param update
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
+		IncrementUpdateJob job;
 		synchronized (getUpdateScheduler().getSchedulingLock()) {
+			if (generator == null || !active) {
+				return;
+			}
+			if (getLastUpdateTime() == -1) {
+				// nothing to update yet
+				getUpdateScheduler().scheduleUpdate();
+				return;
+			}
 			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
+				incrementJob = new IncrementUpdateJob(this);
+				incrementJob.setPriority(Job.LONG);
+				incrementJob.setSystem(true);
+				incrementJob.setRule(updateRule);
 			}
+			job = incrementJob;
 		}
-		incrementJob.addUpdate(update);
+		if (job.addUpdate(update) > INCREMENTAL_UPDATE_LIMIT) {
+			job.clearEntries();
+			getUpdateScheduler().scheduleUpdate();
+			return;
+		}
+		if (progressService != null) {
+			progressService.schedule(job, MarkerUpdateScheduler.SHORT_DELAY);
+		} else {
+			job.schedule(MarkerUpdateScheduler.SHORT_DELAY);
+		}
+	}
+
+	/**
+	 * Discard the queued incremental updates as the markers are about to be
+	 * gathered again. The updates queued from now on are applied to the
+	 * gathered markers.
+	 */
+	void clearIncrementalUpdates() {
+		synchronized (getUpdateScheduler().getSchedulingLock()) {
+			if (incrementJob != null) {
+				incrementJob.clearEntries();
+			}
+		}
+	}
+	/**
+	 * @return the rule shared by the jobs that update the markers
+	 */
+	ISchedulingRule getUpdateRule() {
+		return updateRule;
 	}
 ///////	</Incremental update code>///////
 	
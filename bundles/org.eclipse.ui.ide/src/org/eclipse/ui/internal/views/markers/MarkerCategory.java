@@ -14,6 +14,7 @@ package org.eclipse.ui.internal.views.markers;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.views.markers.MarkerItem;
+import org.eclipse.ui.views.markers.internal.MarkerGroupingEntry;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 class MarkerCategory extends MarkerSupportItem {
@@ -26,6 +27,10 @@ class MarkerCategory extends MarkerSupportItem {
 
 	MarkerEntry[] children;
 
+	// the grouping entry the children were grouped by, used to find the
+	// category again during incremental updates
+	MarkerGroupingEntry groupingEntry;
+
 	private String name;
 
 	private int severity = -1;
@@ -11,9 +11,11 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.views.markers.MarkerField;
@@ -26,7 +28,24 @@ import org.eclipse.ui.views.markers.MarkerItem;
  * @since 3.4
  * 
  */
-class MarkerComparator implements Comparator {
+class MarkerComparator implements MarkerSortUtil.ThreadSafeComparator {
+
+	/*
+	 * The classes of the built-in fields that compare distinct entries safely
+	 * from several threads. Contributed fields were never required to be
+	 * thread safe, so the entries are only sorted in parallel if every field
+	 * is one of these.
+	 */
+	private static final Set THREAD_SAFE_FIELDS = new HashSet(Arrays
+			.asList(new Class[] { MarkerCompletionField.class,
+					MarkerCreationTimeField.class,
+					MarkerDescriptionField.class, MarkerIDField.class,
+					MarkerLocationField.class, MarkerPathField.class,
+					MarkerPriorityField.class,
+					MarkerProblemSeverityAndMessageField.class,
+					MarkerResourceField.class,
+					MarkerSeverityAndDescriptionField.class,
+					MarkerSeverityField.class, MarkerTypeField.class }));
 
 	private MarkerField category;
 
@@ -128,13 +147,44 @@ class MarkerComparator implements Comparator {
 	 * @return Comparator
 	 */
 	Comparator getFieldsComparator(){
-		return new Comparator(){
+		return new MarkerSortUtil.ThreadSafeComparator(){
 			public int compare(Object o1, Object o2) {
 				return compareFields(o1, o2);
-			}			
+			}
+
+			public boolean isThreadSafe() {
+				return areFieldsThreadSafe();
+			}
 		};
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ui.internal.views.markers.MarkerSortUtil.ThreadSafeComparator#isThreadSafe()
+	 */
+	public boolean isThreadSafe() {
+		return (category == null || THREAD_SAFE_FIELDS.contains(category
+				.getClass()))
+				&& areFieldsThreadSafe();
+	}
+
+	/**
+	 * Return whether all of the sort fields are built-in fields known to be
+	 * thread safe.
+	 * 
+	 * @return boolean
+	 */
+	private boolean areFieldsThreadSafe() {
+		MarkerField[] sortFields = fields;
+		for (int i = 0; i < sortFields.length; i++) {
+			if (!THREAD_SAFE_FIELDS.contains(sortFields[i].getClass())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Switch the priority of the field from ascending to descending or vice
 	 * versa.
@@ -32,7 +32,11 @@ import java.util.Arrays;
 import java.util.Comparator;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 /**
  * @since 3.5
@@ -63,6 +67,28 @@ public class MarkerSortUtil {
 	 */
 	private static float MERGE_OR_HEAP_SWITCH=1.5f;
 
+	/*
+	 * Ranges of more than twice this number of entries are split into chunks
+	 * of at least this size, one per processor, if the comparator is a
+	 * ThreadSafeComparator. The chunks are partially sorted by system jobs and
+	 * their first entries merged. Each job only touches the caches of the
+	 * entries of its own chunk.
+	 */
+	private static int PARALLEL_CHUNK_SIZE = 25000;
+
+	/**
+	 * A comparator that tells whether it may compare distinct entries from
+	 * several threads at once. Other comparators are always called from the
+	 * sorting thread only.
+	 */
+	public interface ThreadSafeComparator extends Comparator {
+
+		/**
+		 * @return whether distinct entries may be compared concurrently
+		 */
+		boolean isThreadSafe();
+	}
+
 	/**
 	 * Sorts [first,middle] in the array of [first,last] using a variant of
 	 * modified heapsort, such that
@@ -298,7 +324,9 @@ public class MarkerSortUtil {
 	 * array[from+k-1]<arra[from+k||from+k+1||from+k+2|| ....to]
 	 * 
 	 * Note: if k is greater than a number,the sorting happens in batches of
-	 * that number, this for performance reasons.
+	 * that number, this for performance reasons. Large ranges are sorted in
+	 * parallel if the comparator is a {@link ThreadSafeComparator} that is
+	 * thread safe.
 	 * 
 	 * @param entries
 	 * @param comparator
@@ -314,6 +342,136 @@ public class MarkerSortUtil {
 		if (entries.length == 0 || from < 0 || from >= to || last < from
 				|| last > to || to > entries.length - 1 || to < 0)
 			return;
+		int chunkCount = Math.min(Runtime.getRuntime().availableProcessors(),
+				(to - from + 1) / PARALLEL_CHUNK_SIZE);
+		if (chunkCount > 1 && comparator instanceof ThreadSafeComparator
+				&& ((ThreadSafeComparator) comparator).isThreadSafe()) {
+			sortInChunks(entries, comparator, from, to, k, chunkCount, monitor);
+		} else {
+			sortSequentially(entries, comparator, from, to, k, monitor);
+		}
+	}
+
+	/**
+	 * Partially sorts the chunks of [from,to] in parallel, then merges their
+	 * sorted first entries into [from,from+k-1].
+	 * 
+	 * @param entries
+	 * @param comparator
+	 * @param from
+	 * @param to
+	 * @param k
+	 * @param chunkCount
+	 * @param monitor
+	 */
+	private static void sortInChunks(final MarkerEntry[] entries,
+			final Comparator comparator, int from, int to, int k,
+			int chunkCount, final IProgressMonitor monitor) {
+		int n = to - from + 1;
+		int[] starts = new int[chunkCount + 1];
+		int[] limits = new int[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			starts[i] = from + (int) ((long) n * i / chunkCount);
+		}
+		starts[chunkCount] = to + 1;
+
+		final Throwable[] failure = new Throwable[1];
+		Job[] workers = new Job[chunkCount - 1];
+		for (int i = 0; i < chunkCount; i++) {
+			final int chunkFrom = starts[i];
+			final int chunkTo = starts[i + 1] - 1;
+			final int chunkLimit = Math.min(k, chunkTo - chunkFrom + 1);
+			limits[i] = chunkLimit;
+			if (i < workers.length) {
+				workers[i] = new Job(MarkerMessages.SortUtil_sorting_chunk) {
+					protected IStatus run(IProgressMonitor jobMonitor) {
+						try {
+							sortSequentially(entries, comparator, chunkFrom,
+									chunkTo, chunkLimit, monitor);
+						} catch (RuntimeException e) {
+							failure[0] = e;
+						} catch (Error e) {
+							failure[0] = e;
+						}
+						return Status.OK_STATUS;
+					}
+				};
+				workers[i].setSystem(true);
+				workers[i].schedule();
+			} else {
+				// the calling thread sorts the last chunk
+				sortSequentially(entries, comparator, chunkFrom, chunkTo,
+						chunkLimit, monitor);
+			}
+		}
+		boolean interrupted = false;
+		for (int i = 0; i < workers.length; i++) {
+			while (true) {
+				try {
+					workers[i].join();
+					break;
+				} catch (InterruptedException e) {
+					// keep waiting, the chunks must not be touched concurrently
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure[0] instanceof RuntimeException) {
+			throw (RuntimeException) failure[0];
+		}
+		if (failure[0] instanceof Error) {
+			throw (Error) failure[0];
+		}
+		if (monitor.isCanceled()) {
+			return;
+		}
+
+		// merge the sorted starts of the chunks, the rest follows unsorted
+		MarkerEntry[] merged = new MarkerEntry[n];
+		int[] heads = new int[chunkCount];
+		System.arraycopy(starts, 0, heads, 0, chunkCount);
+		int count = 0;
+		while (count < k) {
+			int best = -1;
+			for (int i = 0; i < chunkCount; i++) {
+				if (heads[i] < starts[i] + limits[i]
+						&& (best == -1 || comparator.compare(entries[heads[i]],
+								entries[heads[best]]) < 0)) {
+					best = i;
+				}
+			}
+			merged[count++] = entries[heads[best]++];
+		}
+		for (int i = 0; i < chunkCount; i++) {
+			for (int j = heads[i]; j < starts[i + 1]; j++) {
+				merged[count++] = entries[j];
+			}
+		}
+		System.arraycopy(merged, 0, entries, from, n);
+		for (int i = from; i < from + k; i++) {
+			entries[i].clearCache();
+		}
+	}
+
+	/**
+	 * Sorts [from,first+k-1] in the array of [from,to] in the calling thread.
+	 * 
+	 * @param entries
+	 * @param comparator
+	 * @param from
+	 * @param to
+	 * @param k
+	 * @param monitor
+	 */
+	private static void sortSequentially(MarkerEntry[] entries,
+			Comparator comparator, int from, int to, int k,
+			IProgressMonitor monitor) {
+		int last = from + k - 1;
+		if (from >= to || last < from)
+			return;
 		int n=to-from+1;
 		if (n <= BATCH_SIZE && (((float) n / k) <= MERGE_OR_HEAP_SWITCH)
 				/*|| ((float) n / k) <= MERGE_OR_HEAP_SWITCH*/) { 
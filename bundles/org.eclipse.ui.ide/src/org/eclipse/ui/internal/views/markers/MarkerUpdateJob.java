@@ -113,6 +113,10 @@ class MarkerUpdateJob extends Job {
 		if (monitor.isCanceled() || generator == null) {
 			return false;
 		}
+		// the queued marker changes are covered by gathering again, the
+		// changes queued while gathering are applied to the gathered markers
+		// once this job releases the update rule
+		builder.clearIncrementalUpdates();
 		builder.registerTypesToListener();
 		return generator.generateMarkerEntries(markerEntries, monitor);
 	}
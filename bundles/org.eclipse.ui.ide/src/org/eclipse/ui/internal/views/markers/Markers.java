@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2011 IBM Corporation and others.
+ * Copyright (c) 2009, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
 package org.eclipse.ui.internal.views.markers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -44,6 +45,9 @@ class Markers {
 	private MarkerEntry[] markerEntryArray = EMPTY_ENTRY_ARRAY;
 	// the categories
 	private MarkerCategory[] categories = EMPTY_CATEGORY_ARRAY;
+	// when not showing a hierarchy, the number of leading entries left sorted
+	// by the last sort; all of the other entries are greater
+	private int sortedCount = 0;
 
 	private CachedMarkerBuilder builder;
 
@@ -78,6 +82,7 @@ class Markers {
 				markerToEntryMap = null;
 			}
 			markerCounts = null;
+			sortedCount = 0;
 			if (markerEntries.size() == 0) {
 				categories = EMPTY_CATEGORY_ARRAY;
 				markerEntryArray = EMPTY_ENTRY_ARRAY;
@@ -145,6 +150,7 @@ class Markers {
 		boolean initialVal = inChange;
 		try {
 			inChange = true;
+			sortedCount = 0;
 			if (builder.isShowingHierarchy()) {
 				Comparator comparator = builder.getComparator()
 						.getFieldsComparator();
@@ -169,6 +175,11 @@ class Markers {
 				int effLimit = getShowingLimit(avaialble);
 				MarkerSortUtil.sortStartingKElement(markerEntryArray,
 						builder.getComparator(), effLimit, monitor);
+				if (monitor.isCanceled()) {
+					return false;
+				}
+				sortedCount = effLimit >= avaialble ? markerEntryArray.length
+						: effLimit;
 			}
 			if (monitor.isCanceled()) {
 				return false;
@@ -219,14 +230,315 @@ class Markers {
 		while (iterator.hasNext()) {
 			Object key = iterator.next();
 			end = ((Integer) boundaryInfoMap.get(key)).intValue();
-			markerCategories[i++] = new MarkerCategory(this, start, end,
+			markerCategories[i] = new MarkerCategory(this, start, end,
 					builder.getCategoryGroup().getMarkerField()
 							.getValue(newMarkers[start]));
+			markerCategories[i++].groupingEntry = (MarkerGroupingEntry) key;
 			start = end + 1;
 		}
 		return markerCategories;
 	}
 
+	/**
+	 * Apply marker changes to the current entries without gathering all of
+	 * the markers again. Removed and changed markers are taken out, added and
+	 * changed markers are put back if they are selected by the generator.
+	 * When showing a hierarchy only the categories that were affected are
+	 * sorted again, otherwise the new entries are merged into the sorted
+	 * ones.
+	 * 
+	 * @param added
+	 *            the {@link MarkerEntry}s of added markers
+	 * @param removed
+	 *            the {@link MarkerEntry}s of removed markers
+	 * @param changed
+	 *            the {@link MarkerEntry}s of changed markers
+	 * @param monitor
+	 * @return <code>true</code> if the update was applied, <code>false</code>
+	 *         if it was cancelled or could not be applied and a full update
+	 *         is required
+	 */
+	synchronized boolean applyIncrementalUpdate(Collection added,
+			Collection removed, Collection changed, IProgressMonitor monitor) {
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			MarkerContentGenerator generator = builder.getGenerator();
+			if (generator == null || monitor.isCanceled()) {
+				return false;
+			}
+			Map positions = new HashMap(markerEntryArray.length);
+			for (int i = 0; i < markerEntryArray.length; i++) {
+				IMarker marker = markerEntryArray[i].getMarker();
+				if (marker != null) {
+					positions.put(marker, new Integer(i));
+				}
+			}
+			boolean[] removedAt = new boolean[markerEntryArray.length];
+			// Added markers may already have been gathered by a full update,
+			// so treat them like changed markers
+			markRemoved(removed, positions, removedAt);
+			markRemoved(changed, positions, removedAt);
+			markRemoved(added, positions, removedAt);
+
+			List selected = new ArrayList(added.size() + changed.size());
+			selectEntries(added, generator, selected);
+			selectEntries(changed, generator, selected);
+			if (monitor.isCanceled()) {
+				return false;
+			}
+
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			if (builder.isShowingHierarchy()) {
+				return regroupCategories(selected, removedAt, monitor);
+			}
+			categories = EMPTY_CATEGORY_ARRAY;
+			return mergeSortedEntries(selected, removedAt, monitor);
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Merge the new entries into the entries left sorted by the last sort,
+	 * dropping the removed entries, so that only the new entries are sorted.
+	 * When the marker limit left the last entries unsorted, the new entries
+	 * greater than the sorted ones are appended to the unsorted ones, and all
+	 * of the entries are sorted again if removals left fewer sorted entries
+	 * than the limit.
+	 * 
+	 * @param selected
+	 *            the new entries
+	 * @param removedAt
+	 *            the positions of entries to drop
+	 * @param monitor
+	 * @return <code>true</code> if the entries were merged
+	 */
+	private boolean mergeSortedEntries(List selected, boolean[] removedAt,
+			IProgressMonitor monitor) {
+		int length = markerEntryArray.length;
+		int remaining = 0;
+		for (int i = 0; i < length; i++) {
+			if (!removedAt[i]) {
+				remaining++;
+			}
+		}
+		MarkerEntry[] entries = new MarkerEntry[remaining + selected.size()];
+		if (sortedCount < length
+				&& (sortedCount == 0 || removedAt[sortedCount - 1])) {
+			// the sort order is not known, or the boundary of the sorted
+			// entries changed
+			int count = 0;
+			for (int i = 0; i < length; i++) {
+				if (!removedAt[i]) {
+					entries[count++] = markerEntryArray[i];
+				}
+			}
+			for (Iterator iterator = selected.iterator(); iterator.hasNext();) {
+				entries[count++] = (MarkerEntry) iterator.next();
+			}
+			markerEntryArray = entries;
+			return sortMarkerEntries(monitor);
+		}
+
+		Comparator comparator = builder.getComparator();
+		MarkerEntry[] additions = new MarkerEntry[selected.size()];
+		selected.toArray(additions);
+		Arrays.sort(additions, comparator);
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		// the greatest sorted entry, if some entries are not sorted
+		MarkerEntry boundary = sortedCount < length ? markerEntryArray[sortedCount - 1]
+				: null;
+		int count = 0;
+		int next = 0;
+		for (int i = 0; i < sortedCount; i++) {
+			if (removedAt[i]) {
+				continue;
+			}
+			MarkerEntry entry = markerEntryArray[i];
+			while (next < additions.length
+					&& (boundary == null || comparator.compare(
+							additions[next], boundary) <= 0)
+					&& comparator.compare(additions[next], entry) < 0) {
+				entries[count++] = additions[next++];
+			}
+			entries[count++] = entry;
+		}
+		while (next < additions.length
+				&& (boundary == null || comparator.compare(additions[next],
+						boundary) <= 0)) {
+			entries[count++] = additions[next++];
+		}
+		int merged = count;
+		for (int i = sortedCount; i < length; i++) {
+			if (!removedAt[i]) {
+				entries[count++] = markerEntryArray[i];
+			}
+		}
+		while (next < additions.length) {
+			entries[count++] = additions[next++];
+		}
+		for (int i = 0; i < additions.length; i++) {
+			additions[i].clearCache();
+		}
+
+		markerEntryArray = entries;
+		if (merged == entries.length) {
+			sortedCount = merged;
+		} else if (merged >= getShowingLimit(entries.length - 1)) {
+			// the entries shown are still the sorted ones
+			sortedCount = merged;
+		} else {
+			return sortMarkerEntries(monitor);
+		}
+		return true;
+	}
+
+	/**
+	 * Flag the positions of the markers of entries as removed.
+	 */
+	private void markRemoved(Collection entries, Map positions,
+			boolean[] removedAt) {
+		Iterator iterator = entries.iterator();
+		while (iterator.hasNext()) {
+			IMarker marker = ((MarkerEntry) iterator.next()).getMarker();
+			Integer position = (Integer) positions.get(marker);
+			if (position != null) {
+				removedAt[position.intValue()] = true;
+			}
+		}
+	}
+
+	/**
+	 * Add the entries that are selected by generator to result.
+	 */
+	private void selectEntries(Collection entries,
+			MarkerContentGenerator generator, Collection result) {
+		Iterator iterator = entries.iterator();
+		while (iterator.hasNext()) {
+			MarkerEntry entry = (MarkerEntry) iterator.next();
+			IMarker marker = entry.getMarker();
+			if (marker != null && marker.exists() && generator.select(entry)) {
+				result.add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Rebuild the categories from the current ones, dropping the removed
+	 * entries and adding the selected ones. Categories that are not affected
+	 * keep their order and are not sorted again.
+	 * 
+	 * @param selected
+	 *            the new entries
+	 * @param removedAt
+	 *            the positions of entries to drop
+	 * @param monitor
+	 * @return <code>true</code> if the categories were rebuilt
+	 */
+	private boolean regroupCategories(List selected, boolean[] removedAt,
+			IProgressMonitor monitor) {
+		MarkerGroup group = builder.getCategoryGroup();
+		TreeMap order = new TreeMap(group.getEntriesComparator());
+		for (int i = 0; i < categories.length; i++) {
+			if (categories[i].groupingEntry == null) {
+				// not created by grouping, start from scratch
+				return false;
+			}
+			order.put(categories[i].groupingEntry, new Integer(i));
+		}
+		Map additions = new TreeMap(group.getEntriesComparator());
+		Iterator iterator = selected.iterator();
+		while (iterator.hasNext()) {
+			MarkerEntry entry = (MarkerEntry) iterator.next();
+			IMarker marker = entry.getMarker();
+			MarkerGroupingEntry groupingEntry;
+			try {
+				groupingEntry = group.findGroupValue(marker.getType(), marker);
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+				continue;// skip stale markers
+			}
+			if (!order.containsKey(groupingEntry)) {
+				order.put(groupingEntry, null);
+			}
+			List list = (List) additions.get(groupingEntry);
+			if (list == null) {
+				list = new ArrayList();
+				additions.put(groupingEntry, list);
+			}
+			list.add(entry);
+		}
+		if (monitor.isCanceled()) {
+			return false;
+		}
+
+		List entries = new ArrayList(markerEntryArray.length
+				+ selected.size());
+		List newCategories = new ArrayList(order.size());
+		List dirty = new ArrayList();
+		iterator = order.keySet().iterator();
+		while (iterator.hasNext()) {
+			MarkerGroupingEntry key = (MarkerGroupingEntry) iterator.next();
+			Integer index = (Integer) order.get(key);
+			List adds = (List) additions.get(key);
+			MarkerCategory old = index == null ? null : categories[index
+					.intValue()];
+			boolean changed = adds != null;
+			int start = entries.size();
+			if (old != null) {
+				for (int i = old.start; i <= old.end; i++) {
+					if (removedAt[i]) {
+						changed = true;
+					} else {
+						entries.add(markerEntryArray[i]);
+					}
+				}
+			}
+			if (adds != null) {
+				entries.addAll(adds);
+			}
+			int end = entries.size() - 1;
+			if (end < start) {
+				continue;// all of the category was removed
+			}
+			String name = old == null ? group.getMarkerField().getValue(
+					(MarkerEntry) entries.get(start)) : old.getName();
+			MarkerCategory category = new MarkerCategory(this, start, end,
+					name);
+			category.groupingEntry = key;
+			newCategories.add(category);
+			if (changed) {
+				dirty.add(category);
+			}
+		}
+		markerEntryArray = new MarkerEntry[entries.size()];
+		entries.toArray(markerEntryArray);
+		categories = new MarkerCategory[newCategories.size()];
+		newCategories.toArray(categories);
+
+		// sort only the categories that changed
+		Comparator comparator = builder.getComparator().getFieldsComparator();
+		iterator = dirty.iterator();
+		while (iterator.hasNext()) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			MarkerCategory category = (MarkerCategory) iterator.next();
+			int avaliable = category.end - category.start + 1;
+			int effLimit = getShowingLimit(avaliable);
+			MarkerSortUtil.sortStartingKElement(markerEntryArray, comparator,
+					category.start, category.end, effLimit, monitor);
+		}
+		return !monitor.isCanceled();
+	}
+
 	/**
 	 * Sorts/groups the markers in O(N) comparisons and returns the boundary
 	 * indices in the map. The O(N) complexity requires the use of a few data
@@ -184,10 +184,10 @@ class MarkersChangeListener implements IResourceChangeListener {
 	 * of the markers that were gathered initially, and keeps them synched at
 	 * any point with the markers of interest in Workspace. Unfortunately marker
 	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
+	 * marker deltas is not possible, applying a change twice is harmless
+	 * though.
 	 * 
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * Large changes are handled by gathering all of the markers again.
 	 * 
 	 * @param event
 	 */
@@ -196,6 +196,10 @@ class MarkersChangeListener implements IResourceChangeListener {
 		if (markerDeltas.length == 0) {
 			return;
 		}
+		if (markerDeltas.length > CachedMarkerBuilder.INCREMENTAL_UPDATE_LIMIT) {
+			handleMarkerChange(event);
+			return;
+		}
 		Collection removed = new LinkedList(), added = new LinkedList(), changed = new LinkedList();
 		String[] types = listeningTypes;
 		for (int i = 0; i < markerDeltas.length; i++) {
@@ -208,7 +212,8 @@ class MarkersChangeListener implements IResourceChangeListener {
 				MarkerEntry markerEntry = new MarkerEntry(marker);
 				switch (markerDeltas[i].getKind()) {
 				case IResourceDelta.REMOVED: {
-					removed.add(markerEntry);
+					// the marker is gone, use the attributes from the delta
+					removed.add(new DeltaMarkerEntry(markerDeltas[i]));
 					break;
 				}
 				case IResourceDelta.ADDED: {
@@ -231,7 +236,6 @@ class MarkersChangeListener implements IResourceChangeListener {
 		if (removed.size() > 0 || added.size() > 0 || changed.size() > 0) {
 			MarkerUpdate update = new MarkerUpdate(added, removed, changed);
 			builder.incrementalUpdate(update);
-			builder.getUpdateScheduler().scheduleUpdate();
 		} else {
 			handleNoMarkerChange();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,6 +53,8 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
     
     private boolean useTarFormat = false;
 
+    private boolean storeCompressedFiles = false;
+
     private boolean createLeadupStructure = true;
 
     /**
@@ -113,6 +115,23 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
                 IDEWorkbenchPlugin.IDE_WORKBENCH, 0, message, e));
     }
 
+    /**
+     * Add the resources the exporter failed to write since the last call to
+     * the error table. The pipelined exporters write the resources
+     * asynchronously and so report their failures later.
+     */
+    private void addExporterErrors() {
+        if (!(exporter instanceof PipelinedFileExporter)) {
+            return;
+        }
+        PipelinedFileExporter.Entry[] failures = ((PipelinedFileExporter) exporter)
+                .getFailures();
+        for (int i = 0; i < failures.length; i++) {
+            Exception e = failures[i].error;
+            addError(NLS.bind(DataTransferMessages.DataTransfer_errorExporting, failures[i].resource.getFullPath().makeRelative(), e.getMessage()), e);
+        }
+    }
+
     /**
      *  Answer the total number of file resources that exist at or below self
      *  in the resources hierarchy.
@@ -201,8 +220,12 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
             } catch (CoreException e) {
                 addError(NLS.bind(DataTransferMessages.DataTransfer_errorExporting, exportResource.getFullPath().makeRelative(), e.getMessage()), e);
             }
+            addExporterErrors();
 
-            monitor.worked(1);
+            if (!(exporter instanceof PipelinedFileExporter)) {
+                // the pipelined exporters report the files they have written
+                monitor.worked(1);
+            }
             ModalContext.checkCanceled(monitor);
         } else {
             IResource[] children = null;
@@ -271,7 +294,9 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
     	if(useTarFormat) {
     		exporter = new TarFileExporter(destinationFilename, useCompression);
     	} else {
-        	exporter = new ZipFileExporter(destinationFilename, useCompression);
+    		ZipFileExporter zipExporter = new ZipFileExporter(destinationFilename, useCompression);
+    		zipExporter.setStoreCompressedFiles(storeCompressedFiles);
+    		exporter = zipExporter;
     	}
     }
 
@@ -310,6 +335,7 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
             throw new InvocationTargetException(e, NLS.bind(DataTransferMessages.ZipExport_cannotOpen, e.getMessage()));
         }
 
+        boolean finished = false;
         try {
             // ie.- a single resource for recursive export was specified
             int totalWork = IProgressMonitor.UNKNOWN;
@@ -323,6 +349,9 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
                 // Should not happen
             }
             monitor.beginTask(DataTransferMessages.DataTransfer_exportingTitle, totalWork);
+            if (exporter instanceof PipelinedFileExporter) {
+                ((PipelinedFileExporter) exporter).setProgressMonitor(monitor);
+            }
             if (resourcesToExport == null) {
                 exportResource(resource);
             } else {
@@ -331,13 +360,22 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
             }
 
             try {
+                finished = true;
+                // aborts the export if canceled while the last entries are written
                 exporter.finished();
+                ModalContext.checkCanceled(monitor);
             } catch (IOException e) {
                 throw new InvocationTargetException(
                         e,
                         NLS.bind(DataTransferMessages.ZipExport_cannotClose, e.getMessage()));
+            } finally {
+                addExporterErrors();
             }
         } finally {
+            if (!finished && exporter instanceof PipelinedFileExporter) {
+                // canceled, stop the threads writing the archive
+                ((PipelinedFileExporter) exporter).abort();
+            }
             monitor.done();
         }
     }
@@ -371,4 +409,16 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
     public void setUseTarFormat(boolean value) {
     	useTarFormat = value;
     }
+
+    /**
+     * Set this boolean indicating whether the files which are compressed
+     * already, such as .jar or .png files, should be stored in .zip
+     * files rather than compressed again.
+     * 
+     * @param value boolean
+     * @since 3.10
+     */
+    public void setStoreCompressedFiles(boolean value) {
+    	storeCompressedFiles = value;
+    }
 }
@@ -0,0 +1,573 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Exports resources to an archive using several threads. Worker threads read
+ * and compress the small files into memory buffers while a single writer
+ * thread appends the entries to the archive in the order they were passed to
+ * the exporter. Larger files are not buffered but streamed to the archive by
+ * the writer thread.
+ * <p>
+ * As the entries are written asynchronously, the failures to export a
+ * resource are not thrown by the <code>write</code> methods but collected and
+ * returned by {@link #getFailures()}. If the export is not
+ * {@link #finished()}, it must be stopped with {@link #abort()}. An error
+ * ending one of the threads aborts the export, and is thrown by
+ * {@link #finished()}.
+ * </p>
+ * <p>
+ * The progress monitor set with {@link #setProgressMonitor(IProgressMonitor)}
+ * is told about the files written by the writer thread, one unit of work per
+ * file. It is only called by the thread passing the resources to the
+ * exporter, which also polls it for cancellation while waiting for the
+ * writer thread.
+ * </p>
+ *
+ * @since 3.10
+ */
+abstract class PipelinedFileExporter implements IFileExporter {
+
+	/**
+	 * The size of the largest file read by the worker threads.
+	 */
+	static final int MAX_BUFFERED_FILE_SIZE = 1024 * 1024;
+
+	/**
+	 * About the maximum number of bytes held by the entries waiting to be
+	 * written.
+	 */
+	private static final long MAX_BUFFERED_SIZE = 32 * 1024 * 1024;
+
+	/**
+	 * The maximum number of entries waiting to be written.
+	 */
+	private static final int MAX_PENDING_ENTRIES = 4096;
+
+	/**
+	 * The time in milliseconds between two checks of the progress monitor
+	 * while waiting for the writer thread.
+	 */
+	private static final long POLL_INTERVAL = 100;
+
+	/**
+	 * A resource to write to the archive.
+	 */
+	static class Entry {
+		final IResource resource;
+
+		final String destinationPath;
+
+		/**
+		 * The contents prepared by
+		 * {@link PipelinedFileExporter#prepare(IFile, long)}, or
+		 * <code>null</code> if the resource is written by the writer thread
+		 * alone.
+		 */
+		Object contents;
+
+		/**
+		 * The failure to export the resource, if any.
+		 */
+		Exception error;
+
+		boolean prepared;
+
+		long reserved;
+
+		Entry(IResource resource, String destinationPath) {
+			this.resource = resource;
+			this.destinationPath = destinationPath;
+		}
+	}
+
+	/**
+	 * A byte array output stream giving access to its buffer.
+	 */
+	static class Buffer extends ByteArrayOutputStream {
+		Buffer(int size) {
+			super(size);
+		}
+
+		byte[] getBuffer() {
+			return buf;
+		}
+	}
+
+	/**
+	 * The entries not written yet, in order, guarded by the exporter itself.
+	 */
+	private final LinkedList pending = new LinkedList();
+
+	/**
+	 * The files not taken by a worker thread yet, in order.
+	 */
+	private final LinkedList unprepared = new LinkedList();
+
+	private final List failures = new ArrayList();
+
+	private long bufferedSize;
+
+	private boolean closed;
+
+	private boolean aborted;
+
+	private Thread[] threads;
+
+	private IProgressMonitor monitor;
+
+	/**
+	 * The number of files written, and the number reported to the monitor.
+	 */
+	private int writtenFiles;
+
+	private int reportedFiles;
+
+	/**
+	 * The error which ended one of the threads, if any.
+	 */
+	private Throwable threadFailure;
+
+	/**
+	 * Read and compress the file into memory. This method is called by the
+	 * worker threads for files of at most {@link #MAX_BUFFERED_FILE_SIZE}
+	 * bytes.
+	 *
+	 * @param file
+	 *            the file to prepare
+	 * @param length
+	 *            the size of the file
+	 * @return the prepared contents passed to {@link #write(Entry)}
+	 * @throws IOException
+	 * @throws CoreException
+	 */
+	protected abstract Object prepare(IFile file, long length)
+			throws IOException, CoreException;
+
+	/**
+	 * Write the entry to the archive. This method is called by the writer
+	 * thread, in the order the resources were passed to the exporter.
+	 *
+	 * @param entry
+	 *            the entry, with the contents returned by
+	 *            {@link #prepare(IFile, long)} if the resource is a file that
+	 *            was prepared
+	 * @throws IOException
+	 * @throws CoreException
+	 */
+	protected abstract void write(Entry entry) throws IOException,
+			CoreException;
+
+	/**
+	 * Complete and close the archive.
+	 *
+	 * @throws IOException
+	 */
+	protected abstract void close() throws IOException;
+
+	/**
+	 * Set the monitor told about the files written and polled for
+	 * cancellation.
+	 *
+	 * @param monitor
+	 *            the monitor, or <code>null</code>
+	 */
+	void setProgressMonitor(IProgressMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	public void write(IContainer container, String destinationPath)
+			throws IOException {
+		add(new Entry(container, destinationPath));
+	}
+
+	public void write(IFile file, String destinationPath) throws IOException {
+		add(new Entry(file, destinationPath));
+	}
+
+	/**
+	 * Wait until all the entries are written, then close the archive. If the
+	 * progress monitor is canceled meanwhile, the export is aborted instead.
+	 *
+	 * @exception java.io.IOException
+	 *                if the archive could not be closed or a thread failed
+	 */
+	public void finished() throws IOException {
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+		}
+		if (!join(true)) {
+			abort();
+			return;
+		}
+		Throwable failure;
+		synchronized (this) {
+			failure = threadFailure;
+		}
+		if (failure != null) {
+			try {
+				close();
+			} catch (IOException e) {
+				// the archive is incomplete anyway
+			}
+			IOException e = new IOException(failure.toString());
+			e.initCause(failure);
+			throw e;
+		}
+		close();
+	}
+
+	/**
+	 * Stop writing the entries and close the archive, which is left
+	 * incomplete.
+	 */
+	void abort() {
+		synchronized (this) {
+			aborted = true;
+			notifyAll();
+		}
+		try {
+			join(false);
+		} catch (InterruptedIOException e) {
+			// the threads stop on their own once aborted
+		}
+		try {
+			close();
+		} catch (IOException e) {
+			// the archive is incomplete anyway
+		}
+	}
+
+	/**
+	 * Return the entries which could not be written since the last call, in
+	 * the order they were passed to the exporter.
+	 *
+	 * @return the entries with an {@link Entry#error}
+	 */
+	synchronized Entry[] getFailures() {
+		Entry[] result = (Entry[]) failures.toArray(new Entry[failures
+				.size()]);
+		failures.clear();
+		return result;
+	}
+
+	/**
+	 * Return the size of the file.
+	 *
+	 * @param file
+	 * @return the size in bytes
+	 * @throws IOException
+	 * @throws CoreException
+	 */
+	static long getLength(IFile file) throws IOException, CoreException {
+		URI location = file.getLocationURI();
+		if (location == null) {
+			throw new FileNotFoundException(file.getFullPath().toOSString());
+		}
+		return EFS.getStore(location).fetchInfo().getLength();
+	}
+
+	/**
+	 * Read the contents of the file into memory.
+	 *
+	 * @param file
+	 * @param length
+	 *            the expected size of the file
+	 * @return the buffer holding the contents
+	 * @throws IOException
+	 * @throws CoreException
+	 */
+	static Buffer read(IFile file, long length) throws IOException,
+			CoreException {
+		Buffer buffer = new Buffer((int) Math.min(length,
+				MAX_BUFFERED_FILE_SIZE) + 1);
+		InputStream contentStream = file.getContents(false);
+		try {
+			byte[] readBuffer = new byte[8192];
+			int n;
+			while ((n = contentStream.read(readBuffer)) > 0) {
+				buffer.write(readBuffer, 0, n);
+			}
+		} finally {
+			contentStream.close();
+		}
+		return buffer;
+	}
+
+	private void add(Entry entry) throws IOException {
+		while (!offer(entry)) {
+			reportProgress();
+			if (isCanceled()) {
+				// the caller checks the monitor and aborts the export
+				return;
+			}
+		}
+		reportProgress();
+	}
+
+	/**
+	 * Queue the entry, waiting a while for the writer thread if too many
+	 * entries are waiting. Entries are dropped once the export is aborted.
+	 *
+	 * @return <code>false</code> if the entry could not be queued yet
+	 */
+	private synchronized boolean offer(Entry entry) throws InterruptedIOException {
+		if (threads == null) {
+			start();
+		}
+		if (pending.size() >= MAX_PENDING_ENTRIES && !aborted) {
+			try {
+				wait(POLL_INTERVAL);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+			if (pending.size() >= MAX_PENDING_ENTRIES && !aborted) {
+				return false;
+			}
+		}
+		if (aborted) {
+			return true;
+		}
+		pending.add(entry);
+		if (entry.resource.getType() == IResource.FILE) {
+			unprepared.add(entry);
+		} else {
+			entry.prepared = true;
+		}
+		notifyAll();
+		return true;
+	}
+
+	/**
+	 * Tell the monitor about the files written since the last call.
+	 */
+	private void reportProgress() {
+		if (monitor == null) {
+			return;
+		}
+		int worked;
+		synchronized (this) {
+			worked = writtenFiles - reportedFiles;
+			reportedFiles = writtenFiles;
+		}
+		if (worked > 0) {
+			monitor.worked(worked);
+		}
+	}
+
+	private boolean isCanceled() {
+		return monitor != null && monitor.isCanceled();
+	}
+
+	/**
+	 * Abort the export after an error ended one of the threads.
+	 *
+	 * @param failure
+	 */
+	private synchronized void threadFailed(Throwable failure) {
+		if (threadFailure == null) {
+			threadFailure = failure;
+		}
+		aborted = true;
+		notifyAll();
+	}
+
+	private void start() {
+		int count = Math.max(1, Runtime.getRuntime().availableProcessors());
+		threads = new Thread[count + 1];
+		threads[0] = new Thread("Archive Export Writer") { //$NON-NLS-1$
+			public void run() {
+				try {
+					writeEntries();
+				} catch (Error e) {
+					threadFailed(e);
+					throw e;
+				}
+			}
+		};
+		for (int i = 1; i < threads.length; i++) {
+			threads[i] = new Thread("Archive Export Worker") { //$NON-NLS-1$
+				public void run() {
+					try {
+						prepareEntries();
+					} catch (Error e) {
+						threadFailed(e);
+						throw e;
+					}
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+	}
+
+	/**
+	 * Wait for the threads to end.
+	 *
+	 * @param poll
+	 *            whether to report the progress and poll the monitor while
+	 *            waiting
+	 * @return <code>false</code> if the monitor was canceled before the
+	 *         threads ended
+	 * @throws InterruptedIOException
+	 */
+	private boolean join(boolean poll) throws InterruptedIOException {
+		Thread[] toJoin;
+		synchronized (this) {
+			toJoin = threads;
+		}
+		if (toJoin == null) {
+			return true;
+		}
+		for (int i = 0; i < toJoin.length; i++) {
+			try {
+				while (toJoin[i].isAlive()) {
+					toJoin[i].join(poll ? POLL_INTERVAL : 0);
+					if (poll) {
+						reportProgress();
+						if (isCanceled()) {
+							return false;
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				synchronized (this) {
+					aborted = true;
+					notifyAll();
+				}
+				throw new InterruptedIOException();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Prepare the files in order until there are none left. The files too
+	 * large to be buffered are left to the writer thread. The prepared
+	 * contents are limited to {@link #MAX_BUFFERED_SIZE}, except for the
+	 * first entry waiting to be written.
+	 */
+	private void prepareEntries() {
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				while (unprepared.isEmpty() && !closed && !aborted) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (unprepared.isEmpty() || aborted) {
+					return;
+				}
+				entry = (Entry) unprepared.removeFirst();
+			}
+
+			IFile file = (IFile) entry.resource;
+			try {
+				long length = getLength(file);
+				if (length <= MAX_BUFFERED_FILE_SIZE && reserve(entry, length)) {
+					entry.contents = prepare(file, length);
+				}
+			} catch (Exception e) {
+				entry.error = e;
+			} finally {
+				synchronized (this) {
+					entry.prepared = true;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	private synchronized boolean reserve(Entry entry, long length) {
+		while (bufferedSize + length > MAX_BUFFERED_SIZE
+				&& pending.getFirst() != entry && !aborted) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				return false;
+			}
+		}
+		if (aborted) {
+			return false;
+		}
+		bufferedSize += length;
+		entry.reserved = length;
+		return true;
+	}
+
+	/**
+	 * Write the entries in order as soon as they are prepared.
+	 */
+	private void writeEntries() {
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				while (!aborted
+						&& (pending.isEmpty() ? !closed
+								: !((Entry) pending.getFirst()).prepared)) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (aborted || pending.isEmpty()) {
+					return;
+				}
+				entry = (Entry) pending.getFirst();
+			}
+
+			try {
+				if (entry.error == null) {
+					write(entry);
+				}
+			} catch (Exception e) {
+				entry.error = e;
+			} finally {
+				synchronized (this) {
+					pending.removeFirst();
+					bufferedSize -= entry.reserved;
+					entry.contents = null;
+					if (entry.error != null) {
+						failures.add(entry);
+					}
+					if (entry.resource.getType() == IResource.FILE) {
+						writtenFiles++;
+					}
+					notifyAll();
+				}
+			}
+		}
+	}
+}
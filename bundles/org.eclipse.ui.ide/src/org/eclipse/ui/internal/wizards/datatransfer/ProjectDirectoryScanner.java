@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.internal.ide.StatusUtil;
+import org.eclipse.ui.internal.ide.StringMatcher;
+import org.eclipse.ui.statushandlers.StatusManager;
+
+/**
+ * Searches a directory tree for project description files using several
+ * threads. The directories are listed by worker threads while the calling
+ * thread reports the progress and polls the monitor for cancelation. Each
+ * project description file is reported to {@link #projectFound(File)} as
+ * soon as it is found.
+ *
+ * @since 3.10
+ */
+class ProjectDirectoryScanner {
+
+	/**
+	 * The maximum number of threads listing directories. Listing directories
+	 * mostly waits for the file system, so there are more threads than
+	 * processors.
+	 */
+	private static final int MAX_THREADS = 8;
+
+	private final boolean nestedProjects;
+
+	private final StringMatcher[] excludedFolders;
+
+	/**
+	 * The directories left to list, guarded by the scanner itself.
+	 */
+	private final List directories = new ArrayList();
+
+	/**
+	 * Canonical paths of the directories already queued, used as recursion
+	 * guard for recursive symbolic links.
+	 */
+	private final Set directoriesVisited = new HashSet();
+
+	private int activeThreads;
+
+	private boolean canceled;
+
+	private volatile File currentDirectory;
+
+	/**
+	 * Create a scanner.
+	 *
+	 * @param nestedProjects
+	 *            whether to search the sub-directories of the directories
+	 *            containing a project description file
+	 * @param excludedFolders
+	 *            comma separated patterns of the names of the folders not to
+	 *            search, or <code>null</code>
+	 */
+	ProjectDirectoryScanner(boolean nestedProjects, String excludedFolders) {
+		this.nestedProjects = nestedProjects;
+		List matchers = new ArrayList();
+		matchers.add(new StringMatcher(
+				WizardProjectsImportPage.METADATA_FOLDER, false, true));
+		if (excludedFolders != null) {
+			StringTokenizer tokenizer = new StringTokenizer(excludedFolders,
+					","); //$NON-NLS-1$
+			while (tokenizer.hasMoreTokens()) {
+				String pattern = tokenizer.nextToken().trim();
+				if (pattern.length() > 0) {
+					matchers.add(new StringMatcher(pattern, false, false));
+				}
+			}
+		}
+		this.excludedFolders = (StringMatcher[]) matchers
+				.toArray(new StringMatcher[matchers.size()]);
+	}
+
+	/**
+	 * Search the directory tree for project description files.
+	 *
+	 * @param directory
+	 *            the root of the directory tree
+	 * @param monitor
+	 *            the monitor to report to
+	 * @return <code>true</code> if the search was completed.
+	 */
+	boolean scan(File directory, IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		try {
+			directoriesVisited.add(directory.getCanonicalPath());
+		} catch (IOException exception) {
+			StatusManager.getManager().handle(
+					StatusUtil.newStatus(IStatus.ERROR, exception
+							.getLocalizedMessage(), exception));
+		}
+		monitor.subTask(NLS.bind(
+				DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
+				directory.getPath()));
+		if (!visit(directory)) {
+			return false;
+		}
+
+		int count;
+		synchronized (this) {
+			count = Math.min(directories.size(), getThreadCount());
+		}
+		Thread[] threads = new Thread[count];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread("Project Directory Scanner") { //$NON-NLS-1$
+				public void run() {
+					work();
+				}
+			};
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+
+		File reported = directory;
+		synchronized (this) {
+			while (!directories.isEmpty() || activeThreads > 0) {
+				if (monitor.isCanceled()) {
+					canceled = true;
+					notifyAll();
+					break;
+				}
+				File current = currentDirectory;
+				if (current != null && current != reported) {
+					reported = current;
+					monitor.subTask(NLS.bind(
+							DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
+							current.getPath()));
+				}
+				try {
+					wait(100);
+				} catch (InterruptedException e) {
+					canceled = true;
+					notifyAll();
+					break;
+				}
+			}
+		}
+
+		for (int i = 0; i < threads.length; i++) {
+			try {
+				threads[i].join();
+			} catch (InterruptedException e) {
+				// the threads stop on their own once canceled
+			}
+		}
+		return !canceled;
+	}
+
+	/**
+	 * Report a project description file. This method is called by the
+	 * scanning threads and does nothing by default.
+	 *
+	 * @param file
+	 *            the project description file
+	 */
+	protected void projectFound(File file) {
+		// subclasses may override
+	}
+
+	private int getThreadCount() {
+		return Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime()
+				.availableProcessors() * 2));
+	}
+
+	/**
+	 * List the queued directories until there are none left.
+	 */
+	private void work() {
+		while (true) {
+			File directory;
+			synchronized (this) {
+				while (directories.isEmpty() && activeThreads > 0
+						&& !canceled) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (directories.isEmpty() || canceled) {
+					notifyAll();
+					return;
+				}
+				directory = (File) directories.remove(directories.size() - 1);
+				activeThreads++;
+			}
+			try {
+				currentDirectory = directory;
+				visit(directory);
+			} finally {
+				synchronized (this) {
+					activeThreads--;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Look for a project description file in the directory and queue its
+	 * sub-directories.
+	 *
+	 * @param directory
+	 *            the directory to list
+	 * @return <code>false</code> if the directory could not be listed.
+	 */
+	private boolean visit(File directory) {
+		File[] contents = directory.listFiles();
+		if (contents == null) {
+			return false;
+		}
+
+		// first look for project description files
+		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
+		for (int i = 0; i < contents.length; i++) {
+			File file = contents[i];
+			if (file.getName().equals(dotProject) && file.isFile()) {
+				projectFound(file);
+				if (!nestedProjects) {
+					// don't search sub-directories since we can't have nested
+					// projects
+					return true;
+				}
+			}
+		}
+		// no project description found or search for nested projects enabled,
+		// so queue the sub-directories
+		List subdirectories = new ArrayList();
+		for (int i = 0; i < contents.length; i++) {
+			if (!isExcluded(contents[i].getName())
+					&& contents[i].isDirectory()) {
+				try {
+					String canonicalPath = contents[i].getCanonicalPath();
+					synchronized (directoriesVisited) {
+						if (!directoriesVisited.add(canonicalPath)) {
+							// already been here --> do not recurse
+							continue;
+						}
+					}
+				} catch (IOException exception) {
+					StatusManager.getManager().handle(
+							StatusUtil.newStatus(IStatus.ERROR, exception
+									.getLocalizedMessage(), exception));
+				}
+				subdirectories.add(contents[i]);
+			}
+		}
+		if (!subdirectories.isEmpty()) {
+			synchronized (this) {
+				directories.addAll(subdirectories);
+				notifyAll();
+			}
+		}
+		return true;
+	}
+
+	private boolean isExcluded(String name) {
+		for (int i = 0; i < excludedFolders.length; i++) {
+			if (excludedFolders[i].match(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -28,6 +28,7 @@ import java.util.zip.GZIPInputStream;
  */
 public class TarFile {
 	private File file;
+	private boolean compressed;
 	private TarInputStream entryEnumerationStream;
 	private TarEntry curEntry;
 	private TarInputStream entryStream;
@@ -48,6 +49,7 @@ public class TarFile {
 		// First, check if it's a GZIPInputStream.
 		try {
 			in = new GZIPInputStream(in);
+			compressed = true;
 		} catch(IOException e) {
 			//If it is not compressed we close
 			//the old one and recreate
@@ -113,6 +115,13 @@ public class TarFile {
 
 	/**
 	 * Returns a new InputStream for the given file in the tar archive.
+	 * <p>
+	 * The entries of an uncompressed archive are read by seeking to their
+	 * position in the file. The entries of a compressed archive are read by
+	 * skipping ahead in the decompressed stream, which is read again from the
+	 * start whenever an entry before the current one is requested, so they
+	 * should be requested in the order of {@link #entries()}.
+	 * </p>
 	 * 
 	 * @param entry
 	 * @return an input stream for the given file
@@ -120,19 +129,19 @@ public class TarFile {
 	 * @throws IOException
 	 */
 	public InputStream getInputStream(TarEntry entry) throws TarException, IOException {
+		if(entryStream != null && !compressed) {
+			((FileInputStream) internalEntryStream).getChannel().position(
+					entry.filepos);
+			entryStream.seekToEntry(entry);
+			return entryStream;
+		}
 		if(entryStream == null || !entryStream.skipToEntry(entry)) {
 			if (internalEntryStream != null) {
 				internalEntryStream.close();
 			}
 			internalEntryStream = new FileInputStream(file);
-			// First, check if it's a GZIPInputStream.
-			try {
+			if (compressed) {
 				internalEntryStream = new GZIPInputStream(internalEntryStream);
-			} catch(IOException e) {
-				//If it is not compressed we close
-				//the old one and recreate
-				internalEntryStream.close();
-				internalEntryStream = new FileInputStream(file);
 			}
 			entryStream = new TarInputStream(internalEntryStream, entry) {
 				public void close() {
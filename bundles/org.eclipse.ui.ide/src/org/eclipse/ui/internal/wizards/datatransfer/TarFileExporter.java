@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,26 +11,24 @@
 package org.eclipse.ui.internal.wizards.datatransfer;
 
 import java.io.BufferedOutputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
 import java.util.zip.GZIPOutputStream;
 
-import org.eclipse.core.filesystem.EFS;
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourceAttributes;
 import org.eclipse.core.runtime.CoreException;
 
 /**
- * Exports resources to a .tar.gz file.
+ * Exports resources to a .tar.gz file. The files are read by the worker
+ * threads of the {@link PipelinedFileExporter}, but the archive is compressed
+ * by the writer thread alone since it is compressed as a whole.
  *
  * @since 3.1
  */
-public class TarFileExporter implements IFileExporter {
+public class TarFileExporter extends PipelinedFileExporter {
     private TarOutputStream outputStream;
     private GZIPOutputStream gzipOutputStream;
     
@@ -57,7 +55,7 @@ public class TarFileExporter implements IFileExporter {
      *
      *	@exception java.io.IOException
      */
-    public void finished() throws IOException {
+    protected void close() throws IOException {
         outputStream.close();
         if(gzipOutputStream != null) {
         	gzipOutputStream.close();
@@ -73,13 +71,9 @@ public class TarFileExporter implements IFileExporter {
      *  @exception org.eclipse.core.runtime.CoreException
      */
     private void write(TarEntry entry, IFile contents) throws IOException, CoreException {
-		final URI location = contents.getLocationURI();
-		if (location == null) {
-			throw new FileNotFoundException(contents.getFullPath().toOSString());
-		}
-    	
+    	long length = getLength(contents);
     	InputStream contentStream = contents.getContents(false);
-    	entry.setSize(EFS.getStore(location).fetchInfo().getLength());
+    	entry.setSize(length);
     	outputStream.putNextEntry(entry);
         try {
             int n;
@@ -96,7 +90,27 @@ public class TarFileExporter implements IFileExporter {
     	outputStream.closeEntry();    	
     }
 
-    public void write(IContainer container, String destinationPath)
+    /* (non-Javadoc)
+     * @see org.eclipse.ui.internal.wizards.datatransfer.PipelinedFileExporter#prepare(org.eclipse.core.resources.IFile, long)
+     */
+    protected Object prepare(IFile file, long length) throws IOException,
+            CoreException {
+        return read(file, length);
+    }
+
+    /* (non-Javadoc)
+     * @see org.eclipse.ui.internal.wizards.datatransfer.PipelinedFileExporter#write(org.eclipse.ui.internal.wizards.datatransfer.PipelinedFileExporter.Entry)
+     */
+    protected void write(Entry entry) throws IOException, CoreException {
+        if (entry.resource.getType() != IResource.FILE) {
+            writeContainer(entry.resource, entry.destinationPath);
+        } else {
+            write((IFile) entry.resource, entry.destinationPath,
+                    (Buffer) entry.contents);
+        }
+    }
+
+    private void writeContainer(IResource container, String destinationPath)
             throws IOException {
         TarEntry newEntry = new TarEntry(destinationPath);
         if(container.getLocalTimeStamp() != IResource.NULL_STAMP) {
@@ -118,10 +132,12 @@ public class TarFileExporter implements IFileExporter {
      *
      *  @param resource org.eclipse.core.resources.IFile
      *  @param destinationPath java.lang.String
+     *  @param contents the contents read by a worker thread, or
+     *  <code>null</code> if the file is too large to be read into memory
      *  @exception java.io.IOException
      *  @exception org.eclipse.core.runtime.CoreException
      */
-    public void write(IFile resource, String destinationPath)
+    private void write(IFile resource, String destinationPath, Buffer contents)
             throws IOException, CoreException {
 
         TarEntry newEntry = new TarEntry(destinationPath);
@@ -135,6 +151,13 @@ public class TarFileExporter implements IFileExporter {
         if (attributes != null && attributes.isReadOnly()) {
         	newEntry.setMode(newEntry.getMode() & ~0222);
         }
-        write(newEntry, resource);
+        if (contents == null) {
+        	write(newEntry, resource);
+        	return;
+        }
+        newEntry.setSize(contents.size());
+        outputStream.putNextEntry(newEntry);
+        outputStream.write(contents.getBuffer(), 0, contents.size());
+        outputStream.closeEntry();
     }
 }
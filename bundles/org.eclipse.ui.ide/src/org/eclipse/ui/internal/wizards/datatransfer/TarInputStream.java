@@ -23,10 +23,10 @@ import java.io.InputStream;
  */
 public class TarInputStream extends FilterInputStream
 {
-	private int nextEntry = 0;
-	private int nextEOF = 0;
-	private int filepos = 0;
-	private int bytesread = 0;
+	private long nextEntry = 0;
+	private long nextEOF = 0;
+	private long filepos = 0;
+	private long bytesread = 0;
 	private TarEntry firstEntry = null;
 	private String longLinkName = null;
 
@@ -83,7 +83,7 @@ public class TarInputStream extends FilterInputStream
 	 * @throws IOException
 	 */
 	boolean skipToEntry(TarEntry entry) throws TarException, IOException {
-		int bytestoskip = entry.filepos - bytesread;
+		long bytestoskip = entry.filepos - bytesread;
 		if(bytestoskip < 0) {
 			return false;
 		}
@@ -103,6 +103,19 @@ public class TarInputStream extends FilterInputStream
 		return true;
 	}
 
+	/**
+	 * Moves to the position of the given entry once the underlying stream
+	 * was positioned on the header of the entry.
+	 * 
+	 * @param entry
+	 * @throws TarException
+	 * @throws IOException
+	 */
+	void seekToEntry(TarEntry entry) throws TarException, IOException {
+		bytesread = entry.filepos;
+		skipToEntry(entry);
+	}
+
 	/**
 	 * Returns true if the header checksum is correct.
 	 * 
@@ -260,9 +273,9 @@ public class TarInputStream extends FilterInputStream
 		if(size.charAt(0) != '0') {
 			size.insert(0, '0');
 		}
-		int fileSize;
+		long fileSize;
 		try {
-			fileSize = Integer.decode(size.toString()).intValue();
+			fileSize = Long.decode(size.toString()).longValue();
 		} catch(NumberFormatException nfe) {
 			throw new TarException(DataTransferMessages.TarImport_invalid_tar_format, nfe);
 		}
@@ -321,7 +334,7 @@ public class TarInputStream extends FilterInputStream
 			return -1;
 		}
 		if(len > nextEOF) {
-			len = nextEOF;
+			len = (int) nextEOF;
 		}
 		int size = super.read(b, off, len);
 		nextEntry -= size;
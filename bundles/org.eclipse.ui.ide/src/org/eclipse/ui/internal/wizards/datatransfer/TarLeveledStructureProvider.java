@@ -170,6 +170,18 @@ public class TarLeveledStructureProvider implements
 		return root;
 	}
 
+	/**
+	 * Returns the position of the given entry in the tar file. The contents of
+	 * the entries are read faster in the order of their position.
+	 * 
+	 * @param element
+	 *            the tar entry
+	 * @return the position of the entry in bytes
+	 */
+	public long getPosition(Object element) {
+		return ((TarEntry) element).filepos;
+	}
+
 	/**
 	 * Returns the tar file that this provider provides structure for.
 	 * 
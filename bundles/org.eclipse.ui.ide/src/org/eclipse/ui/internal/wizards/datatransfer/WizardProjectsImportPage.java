@@ -29,10 +29,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -80,6 +78,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
@@ -90,9 +89,8 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.actions.WorkspaceModifyOperation;
 import org.eclipse.ui.dialogs.WizardDataTransferPage;
 import org.eclipse.ui.dialogs.WorkingSetGroup;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
-import org.eclipse.ui.internal.ide.StatusUtil;
-import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.ui.wizards.datatransfer.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
 
@@ -286,6 +284,89 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 		}
 	}
 
+	/**
+	 * Searches a directory for projects, showing the projects in the list as
+	 * they are found.
+	 */
+	private class DirectorySearch extends ProjectDirectoryScanner {
+
+		private final Display display;
+
+		private final List records = new ArrayList();
+
+		private boolean updatePending;
+
+		/**
+		 * Whether the whole directory was searched.
+		 */
+		volatile boolean completed;
+
+		/**
+		 * Whether the projects found are no longer shown as they are found.
+		 * Only accessed in the UI thread.
+		 */
+		boolean finished;
+
+		DirectorySearch() {
+			super(nestedProjects, IDEWorkbenchPlugin.getDefault()
+					.getPreferenceStore().getString(
+							IDEInternalPreferences.IMPORT_PROJECTS_EXCLUDED_FOLDERS));
+			display = projectsList.getControl().getDisplay();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * org.eclipse.ui.internal.wizards.datatransfer.ProjectDirectoryScanner
+		 * #projectFound(java.io.File)
+		 */
+		protected void projectFound(File file) {
+			ProjectRecord record = new ProjectRecord(file);
+			synchronized (records) {
+				records.add(record);
+				if (updatePending) {
+					return;
+				}
+				updatePending = true;
+			}
+			display.asyncExec(new Runnable() {
+				public void run() {
+					showFoundProjects();
+				}
+			});
+		}
+
+		/**
+		 * @return the projects found so far, in the order they were found
+		 */
+		ProjectRecord[] getFoundProjects() {
+			synchronized (records) {
+				updatePending = false;
+				return (ProjectRecord[]) records
+						.toArray(new ProjectRecord[records.size()]);
+			}
+		}
+
+		/**
+		 * Add the projects found since the last update to the list.
+		 */
+		private void showFoundProjects() {
+			ProjectRecord[] found = getFoundProjects();
+			if (finished || projectsList.getControl().isDisposed()) {
+				return;
+			}
+			int shown = selectedProjects.length;
+			selectedProjects = found;
+			projectsList.refresh(true);
+			for (int i = shown; i < found.length; i++) {
+				if (!updateConflicts(found[i])) {
+					projectsList.setChecked(found[i], true);
+				}
+			}
+		}
+	}
+
 	// dialog store id constants
     private final static String STORE_DIRECTORIES = "WizardProjectsImportPage.STORE_DIRECTORIES";//$NON-NLS-1$
     private final static String STORE_ARCHIVES = "WizardProjectsImportPage.STORE_ARCHIVES";//$NON-NLS-1$
@@ -906,6 +987,8 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 		// status beforehand
 		final boolean dirSelected = this.projectFromDirectoryRadio
 				.getSelection();
+		final DirectorySearch search = dirSelected ? new DirectorySearch()
+				: null;
 		try {
 			getContainer().run(true, true, new IRunnableWithProgress() {
 
@@ -978,21 +1061,11 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 
 					else if (dirSelected && directory.isDirectory()) {
 
-						if (!collectProjectFilesFromDirectory(files, directory,
-								null, monitor)) {
+						if (!search.scan(directory, monitor)) {
 							return;
 						}
-						Iterator filesIterator = files.iterator();
-						selectedProjects = new ProjectRecord[files.size()];
-						int index = 0;
+						search.completed = true;
 						monitor.worked(50);
-						monitor
-								.subTask(DataTransferMessages.WizardProjectsImportPage_ProcessingMessage);
-						while (filesIterator.hasNext()) {
-							File file = (File) filesIterator.next();
-							selectedProjects[index] = new ProjectRecord(file);
-							index++;
-						}
 					} else {
 						monitor.worked(60);
 					}
@@ -1006,6 +1079,12 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 			// Nothing to do if the user interrupts.
 		}
 
+		if (search != null) {
+			// ignore the projects still waiting to be shown
+			search.finished = true;
+			selectedProjects = search.completed ? search.getFoundProjects()
+					: new ProjectRecord[0];
+		}
 		projectsList.refresh(true);
 		ProjectRecord[] projects = getProjectRecords();
 		boolean displayWarning = false;
@@ -1013,6 +1092,7 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 			if(projects[i].hasConflicts) {
 				displayWarning = true;
 				projectsList.setGrayed(projects[i], true);
+				projectsList.setChecked(projects[i], false);
 			}else {
 				projectsList.setChecked(projects[i], true);
 			}
@@ -1075,80 +1155,6 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 		return null;
 	}
 
-	/**
-	 * Collect the list of .project files that are under directory into files.
-	 * 
-	 * @param files
-	 * @param directory
-	 * @param directoriesVisited
-	 * 		Set of canonical paths of directories, used as recursion guard
-	 * @param monitor
-	 * 		The monitor to report to
-	 * @return boolean <code>true</code> if the operation was completed.
-	 */
-	private boolean collectProjectFilesFromDirectory(Collection files,
-			File directory, Set directoriesVisited, IProgressMonitor monitor) {
-
-		if (monitor.isCanceled()) {
-			return false;
-		}
-		monitor.subTask(NLS.bind(
-				DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
-				directory.getPath()));
-		File[] contents = directory.listFiles();
-		if (contents == null)
-			return false;
-
-		// Initialize recursion guard for recursive symbolic links
-		if (directoriesVisited == null) {
-			directoriesVisited = new HashSet();
-			try {
-				directoriesVisited.add(directory.getCanonicalPath());
-			} catch (IOException exception) {
-				StatusManager.getManager().handle(
-						StatusUtil.newStatus(IStatus.ERROR, exception
-								.getLocalizedMessage(), exception));
-			}
-		}
-
-		// first look for project description files
-		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
-		for (int i = 0; i < contents.length; i++) {
-			File file = contents[i];
-			if (file.isFile() && file.getName().equals(dotProject)) {
-				files.add(file);
-				if (!nestedProjects) {
-					// don't search sub-directories since we can't have nested
-					// projects
-					return true;
-				}
-			}
-		}
-		// no project description found or search for nested projects enabled,
-		// so recurse into sub-directories
-		for (int i = 0; i < contents.length; i++) {
-			if (contents[i].isDirectory()) {
-				if (!contents[i].getName().equals(METADATA_FOLDER)) {
-					try {
-						String canonicalPath = contents[i].getCanonicalPath();
-						if (!directoriesVisited.add(canonicalPath)) {
-							// already been here --> do not recurse
-							continue;
-						}
-					} catch (IOException exception) {
-						StatusManager.getManager().handle(
-								StatusUtil.newStatus(IStatus.ERROR, exception
-										.getLocalizedMessage(), exception));
-
-					}
-					collectProjectFilesFromDirectory(files, contents[i],
-							directoriesVisited, monitor);
-				}
-			}
-		}
-		return true;
-	}
-
 	/**
 	 * Collect the list of .project files that are under directory into files.
 	 * 
@@ -1485,16 +1491,30 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 	public ProjectRecord[] getProjectRecords() {
 		List projectRecords = new ArrayList();
 		for (int i = 0; i < selectedProjects.length; i++) {
-			if ( (isProjectInWorkspacePath(selectedProjects[i].getProjectName()) && copyFiles)||
-					isProjectInWorkspace(selectedProjects[i].getProjectName())) {
-				selectedProjects[i].hasConflicts = true;
-			}
+			updateConflicts(selectedProjects[i]);
 			projectRecords.add(selectedProjects[i]);
 		}
 		return (ProjectRecord[]) projectRecords
 				.toArray(new ProjectRecord[projectRecords.size()]);
 	}
 
+	/**
+	 * Set the hasConflicts flag of the project record if a project with the
+	 * same name is in the workspace, or its directory is in the workspace
+	 * location and the files are copied.
+	 * 
+	 * @param record
+	 *            the project record to check
+	 * @return whether the project record has conflicts
+	 */
+	private boolean updateConflicts(ProjectRecord record) {
+		if ((isProjectInWorkspacePath(record.getProjectName()) && copyFiles)
+				|| isProjectInWorkspace(record.getProjectName())) {
+			record.hasConflicts = true;
+		}
+		return record.hasConflicts;
+	}
+
 	/**
 	 * Determine if there is a directory with the project name in the workspace path.
 	 * 
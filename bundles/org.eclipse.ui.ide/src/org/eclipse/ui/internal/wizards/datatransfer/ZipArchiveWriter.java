@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Writes the entries of a .zip file whose contents are compressed by the
+ * caller, so that the entries can be compressed by other threads than the one
+ * writing the file. Only the ZIP64 records needed for more than 65535 entries
+ * or archives larger than 4 GB are written; a single entry must be smaller
+ * than 4 GB.
+ *
+ * @since 3.10
+ */
+class ZipArchiveWriter {
+
+	private static final int LOCAL_HEADER = 0x04034b50;
+
+	private static final int DATA_DESCRIPTOR = 0x08074b50;
+
+	private static final int CENTRAL_HEADER = 0x02014b50;
+
+	private static final int ZIP64_END = 0x06064b50;
+
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+
+	private static final int END = 0x06054b50;
+
+	private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+
+	private static final int FLAG_UTF8 = 0x800;
+
+	private static final int VERSION = 20;
+
+	private static final int VERSION_ZIP64 = 45;
+
+	private static final long MAX_32 = 0xFFFFFFFFL;
+
+	private static final int MAX_16 = 0xFFFF;
+
+	/**
+	 * The central directory record of an entry.
+	 */
+	private static class Record {
+		byte[] name;
+
+		int flags;
+
+		int method;
+
+		int time;
+
+		long crc;
+
+		long compressedSize;
+
+		long size;
+
+		long offset;
+	}
+
+	private final OutputStream out;
+
+	private final List records = new ArrayList();
+
+	private final Set names = new HashSet();
+
+	private final byte[] header = new byte[46];
+
+	private Record current;
+
+	private long written;
+
+	/**
+	 * Create a writer for the given stream.
+	 *
+	 * @param out
+	 *            the stream of the archive, closed by {@link #close()}
+	 */
+	ZipArchiveWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Start a new entry. When the checksum and the sizes are not known yet,
+	 * they are written after the contents of the entry by
+	 * {@link #closeEntry(long, long, long)}. An entry which was not closed is
+	 * left out of the central directory. Entries which are too large or whose
+	 * name was used already are rejected before anything is written.
+	 *
+	 * @param name
+	 *            the name of the entry
+	 * @param time
+	 *            the modification time of the entry in milliseconds
+	 * @param method
+	 *            {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+	 * @param crc
+	 *            the CRC-32 of the uncompressed contents, or -1 if not known
+	 * @param compressedSize
+	 *            the size of the contents as written
+	 * @param size
+	 *            the size of the uncompressed contents, or the expected size
+	 *            if the checksum is not known
+	 * @throws IOException
+	 */
+	void putNextEntry(String name, long time, int method, long crc,
+			long compressedSize, long size) throws IOException {
+		current = null;
+		Record record = new Record();
+		record.name = name.getBytes("UTF8"); //$NON-NLS-1$
+		record.method = method;
+		record.time = toDosTime(time);
+		record.offset = written;
+		if (!isAscii(name)) {
+			record.flags |= FLAG_UTF8;
+		}
+		if (size >= MAX_32 || crc != -1 && compressedSize >= MAX_32) {
+			throw new ZipException("entry too large: " + name); //$NON-NLS-1$
+		}
+		if (crc == -1) {
+			record.flags |= FLAG_DATA_DESCRIPTOR;
+		} else {
+			record.crc = crc;
+			record.compressedSize = compressedSize;
+			record.size = size;
+		}
+		if (!names.add(name)) {
+			throw new ZipException("duplicate entry: " + name); //$NON-NLS-1$
+		}
+
+		putInt(0, LOCAL_HEADER);
+		putShort(4, VERSION);
+		putShort(6, record.flags);
+		putShort(8, record.method);
+		putInt(10, record.time);
+		putInt(14, record.crc);
+		putInt(18, record.compressedSize);
+		putInt(22, record.size);
+		putShort(26, record.name.length);
+		putShort(28, 0);
+		writeHeader(30);
+		write(record.name, 0, record.name.length);
+		current = record;
+	}
+
+	/**
+	 * Write contents of the current entry, as they are to be stored in the
+	 * archive.
+	 *
+	 * @param b
+	 * @param off
+	 * @param len
+	 * @throws IOException
+	 */
+	void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		written += len;
+	}
+
+	/**
+	 * Close the current entry.
+	 *
+	 * @param crc
+	 *            the CRC-32 of the uncompressed contents
+	 * @param compressedSize
+	 *            the size of the contents as written
+	 * @param size
+	 *            the size of the uncompressed contents
+	 * @throws IOException
+	 */
+	void closeEntry(long crc, long compressedSize, long size)
+			throws IOException {
+		Record record = current;
+		current = null;
+		if ((record.flags & FLAG_DATA_DESCRIPTOR) != 0) {
+			if (compressedSize >= MAX_32 || size >= MAX_32) {
+				throw new ZipException("entry too large"); //$NON-NLS-1$
+			}
+			record.crc = crc;
+			record.compressedSize = compressedSize;
+			record.size = size;
+			putInt(0, DATA_DESCRIPTOR);
+			putInt(4, crc);
+			putInt(8, compressedSize);
+			putInt(12, size);
+			writeHeader(16);
+		}
+		records.add(record);
+	}
+
+	/**
+	 * Write the central directory and close the archive.
+	 *
+	 * @throws IOException
+	 */
+	void close() throws IOException {
+		try {
+			long start = written;
+			for (Iterator i = records.iterator(); i.hasNext();) {
+				Record record = (Record) i.next();
+				boolean zip64 = record.offset >= MAX_32;
+				putInt(0, CENTRAL_HEADER);
+				putShort(4, zip64 ? VERSION_ZIP64 : VERSION);
+				putShort(6, zip64 ? VERSION_ZIP64 : VERSION);
+				putShort(8, record.flags);
+				putShort(10, record.method);
+				putInt(12, record.time);
+				putInt(16, record.crc);
+				putInt(20, record.compressedSize);
+				putInt(24, record.size);
+				putShort(28, record.name.length);
+				putShort(30, zip64 ? 12 : 0);
+				putShort(32, 0);
+				putShort(34, 0);
+				putShort(36, 0);
+				putInt(38, record.name.length > 0
+						&& record.name[record.name.length - 1] == '/' ? 0x10
+						: 0);
+				putInt(42, zip64 ? MAX_32 : record.offset);
+				writeHeader(46);
+				write(record.name, 0, record.name.length);
+				if (zip64) {
+					putShort(0, 1);
+					putShort(2, 8);
+					putLong(4, record.offset);
+					writeHeader(12);
+				}
+			}
+			long size = written - start;
+			int count = records.size();
+			if (count >= MAX_16 || start >= MAX_32 || size >= MAX_32) {
+				long end = written;
+				putInt(0, ZIP64_END);
+				putLong(4, 44);
+				putShort(12, VERSION_ZIP64);
+				putShort(14, VERSION_ZIP64);
+				putInt(16, 0);
+				putInt(20, 0);
+				putLong(24, count);
+				putLong(32, count);
+				writeHeader(40);
+				putLong(0, size);
+				putLong(8, start);
+				writeHeader(16);
+				putInt(0, ZIP64_LOCATOR);
+				putInt(4, 0);
+				putLong(8, end);
+				putInt(16, 1);
+				writeHeader(20);
+			}
+			putInt(0, END);
+			putShort(4, 0);
+			putShort(6, 0);
+			putShort(8, Math.min(count, MAX_16));
+			putShort(10, Math.min(count, MAX_16));
+			putInt(12, Math.min(size, MAX_32));
+			putInt(16, Math.min(start, MAX_32));
+			putShort(20, 0);
+			writeHeader(22);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeHeader(int length) throws IOException {
+		write(header, 0, length);
+	}
+
+	private void putShort(int pos, int value) {
+		header[pos] = (byte) value;
+		header[pos + 1] = (byte) (value >> 8);
+	}
+
+	private void putInt(int pos, long value) {
+		putShort(pos, (int) value);
+		putShort(pos + 2, (int) (value >> 16));
+	}
+
+	private void putLong(int pos, long value) {
+		putInt(pos, value);
+		putInt(pos + 4, value >> 32);
+	}
+
+	private static boolean isAscii(String name) {
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) > 0x7F) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a Java time to the MS-DOS date and time format of the zip
+	 * entries.
+	 */
+	private static int toDosTime(long time) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(time);
+		int year = calendar.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return (year - 1980) << 25
+				| (calendar.get(Calendar.MONTH) + 1) << 21
+				| calendar.get(Calendar.DAY_OF_MONTH) << 16
+				| calendar.get(Calendar.HOUR_OF_DAY) << 11
+				| calendar.get(Calendar.MINUTE) << 5
+				| calendar.get(Calendar.SECOND) >> 1;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,27 +10,61 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.wizards.datatransfer;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipException;
 
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 
 
 /**
- *	Exports resources to a .zip file
+ *	Exports resources to a .zip file. The files are compressed by the
+ *	worker threads of the {@link PipelinedFileExporter}.
  */
-public class ZipFileExporter implements IFileExporter {
-    private ZipOutputStream outputStream;
+public class ZipFileExporter extends PipelinedFileExporter {
+
+    /**
+     * The extensions of the file formats which are compressed already, sorted.
+     */
+    private static final String[] COMPRESSED_EXTENSIONS = { "7z", "bz2", //$NON-NLS-1$ //$NON-NLS-2$
+            "ear", "gif", "gz", "jar", "jpeg", "jpg", "mp3", "mp4", "png", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+            "tgz", "war", "xz", "zip" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    /**
+     * The deflated form of no data.
+     */
+    private static final byte[] EMPTY_DEFLATED = { 3, 0 };
+
+    private ZipArchiveWriter outputStream;
 
     private boolean useCompression = true;
 
+    private boolean storeCompressedFiles = false;
+
+    /**
+     * The contents of a file as written to the archive.
+     */
+    private static class Contents {
+        byte[] data;
+
+        int length;
+
+        int method;
+
+        long crc;
+
+        long size;
+    }
+
     /**
      *	Create an instance of this class.
      *
@@ -39,36 +73,112 @@ public class ZipFileExporter implements IFileExporter {
      *	@exception java.io.IOException
      */
     public ZipFileExporter(String filename, boolean compress) throws IOException {
-        outputStream = new ZipOutputStream(new FileOutputStream(filename));
+        outputStream = new ZipArchiveWriter(new BufferedOutputStream(
+                new FileOutputStream(filename)));
         useCompression = compress;
     }
 
+    /**
+     *	Set whether the files in a compressed format, such as .jar or .png
+     *	files, are stored rather than compressed again. Has no effect if the
+     *	files are not compressed.
+     *
+     *	@param value boolean
+     */
+    public void setStoreCompressedFiles(boolean value) {
+        storeCompressedFiles = value;
+    }
+
     /**
      *	Do all required cleanup now that we're finished with the
      *	currently-open .zip
      *
      *	@exception java.io.IOException
      */
-    public void finished() throws IOException {
+    protected void close() throws IOException {
         outputStream.close();
     }
 
+    /* (non-Javadoc)
+     * @see org.eclipse.ui.internal.wizards.datatransfer.PipelinedFileExporter#prepare(org.eclipse.core.resources.IFile, long)
+     */
+    protected Object prepare(IFile file, long length) throws IOException,
+            CoreException {
+        Buffer buffer = read(file, length);
+        CRC32 checksumCalculator = new CRC32();
+        checksumCalculator.update(buffer.getBuffer(), 0, buffer.size());
+
+        Contents contents = new Contents();
+        contents.crc = checksumCalculator.getValue();
+        contents.size = buffer.size();
+        if (isDeflated(file)) {
+            Buffer deflated = new Buffer(buffer.size() / 2 + 64);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream deflaterStream = new DeflaterOutputStream(
+                        deflated, deflater);
+                deflaterStream.write(buffer.getBuffer(), 0, buffer.size());
+                deflaterStream.finish();
+            } finally {
+                deflater.end();
+            }
+            contents.method = ZipEntry.DEFLATED;
+            contents.data = deflated.getBuffer();
+            contents.length = deflated.size();
+        } else {
+            contents.method = ZipEntry.STORED;
+            contents.data = buffer.getBuffer();
+            contents.length = buffer.size();
+        }
+        return contents;
+    }
+
+    /* (non-Javadoc)
+     * @see org.eclipse.ui.internal.wizards.datatransfer.PipelinedFileExporter#write(org.eclipse.ui.internal.wizards.datatransfer.PipelinedFileExporter.Entry)
+     */
+    protected void write(Entry entry) throws IOException, CoreException {
+        if (entry.resource.getType() != IResource.FILE) {
+            long time = System.currentTimeMillis();
+            if (useCompression) {
+                outputStream.putNextEntry(entry.destinationPath, time,
+                        ZipEntry.DEFLATED, 0, EMPTY_DEFLATED.length, 0);
+                outputStream.write(EMPTY_DEFLATED, 0, EMPTY_DEFLATED.length);
+                outputStream.closeEntry(0, EMPTY_DEFLATED.length, 0);
+            } else {
+                outputStream.putNextEntry(entry.destinationPath, time,
+                        ZipEntry.STORED, 0, 0, 0);
+                outputStream.closeEntry(0, 0, 0);
+            }
+        } else if (entry.contents != null) {
+            Contents contents = (Contents) entry.contents;
+            outputStream.putNextEntry(entry.destinationPath,
+                    getTime(entry.resource), contents.method, contents.crc,
+                    contents.length, contents.size);
+            outputStream.write(contents.data, 0, contents.length);
+            outputStream.closeEntry(contents.crc, contents.length,
+                    contents.size);
+        } else {
+            write(entry.destinationPath, (IFile) entry.resource);
+        }
+    }
+
     /**
-     *	Write the contents of the file to the tar archive.
+     *	Write the contents of a file too large to be prepared to the zip
+     *	archive.
      *
-     *	@param entry
+     *	@param name
      *	@param contents
      *  @exception java.io.IOException
      *  @exception org.eclipse.core.runtime.CoreException
      */
-    private void write(ZipEntry entry, IFile contents) throws IOException, CoreException {
-        byte[] readBuffer = new byte[4096];
+    private void write(String name, IFile contents) throws IOException, CoreException {
+        byte[] readBuffer = new byte[8192];
+        long time = getTime(contents);
 
-        // If the contents are being compressed then we get the below for free.
-        if (!useCompression) {
-            entry.setMethod(ZipEntry.STORED);
-        	InputStream contentStream = contents.getContents(false);
-        	int length = 0;
+        if (!isDeflated(contents)) {
+            // the checksum is written before the data, so read the file twice
+            InputStream contentStream = contents.getContents(false);
+            long length = 0;
             CRC32 checksumCalculator = new CRC32();
             try {
                 int n;
@@ -77,52 +187,104 @@ public class ZipFileExporter implements IFileExporter {
                     length += n;
                 }
             } finally {
-                if (contentStream != null) {
-					contentStream.close();
-				}
+                contentStream.close();
             }
 
-            entry.setSize(length);
-            entry.setCrc(checksumCalculator.getValue());
+            long crc = checksumCalculator.getValue();
+            contentStream = contents.getContents(false);
+            checksumCalculator.reset();
+            long written = 0;
+            try {
+                outputStream.putNextEntry(name, time, ZipEntry.STORED, crc,
+                        length, length);
+                int n;
+                while ((n = contentStream.read(readBuffer)) > 0) {
+                    checksumCalculator.update(readBuffer, 0, n);
+                    n = (int) Math.min(n, length - written);
+                    outputStream.write(readBuffer, 0, n);
+                    written += n;
+                }
+            } finally {
+                // keep the size written in the header if the file changed,
+                // so that the archive can still be read sequentially
+                Arrays.fill(readBuffer, (byte) 0);
+                while (written < length) {
+                    int n = (int) Math.min(readBuffer.length, length - written);
+                    outputStream.write(readBuffer, 0, n);
+                    written += n;
+                }
+                contentStream.close();
+            }
+            if (checksumCalculator.getValue() != crc) {
+                // the entry is left out of the central directory
+                throw new ZipException("invalid entry crc-32 of " + name //$NON-NLS-1$
+                        + ", the file changed while it was written"); //$NON-NLS-1$
+            }
+            outputStream.closeEntry(crc, length, length);
+            return;
         }
 
-        // set the timestamp
-        long localTimeStamp = contents.getLocalTimeStamp();
-        if(localTimeStamp != IResource.NULL_STAMP)
-        	entry.setTime(localTimeStamp);
-        
-        outputStream.putNextEntry(entry);
-    	InputStream contentStream = contents.getContents(false);
+        // entries of 4 GB or more are rejected before anything is written
+        long expectedLength = getLength(contents);
+        InputStream contentStream = contents.getContents(false);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
         try {
-            int n;
-            while ((n = contentStream.read(readBuffer)) > 0) {
-                outputStream.write(readBuffer, 0, n);
+            outputStream.putNextEntry(name, time, ZipEntry.DEFLATED, -1, 0,
+                    expectedLength);
+            byte[] deflateBuffer = new byte[8192];
+            CRC32 checksumCalculator = new CRC32();
+            long length = 0;
+            long compressedLength = 0;
+            try {
+                int n;
+                while ((n = contentStream.read(readBuffer)) > 0) {
+                    checksumCalculator.update(readBuffer, 0, n);
+                    length += n;
+                    deflater.setInput(readBuffer, 0, n);
+                    while (!deflater.needsInput()) {
+                        compressedLength += deflate(deflater, deflateBuffer);
+                    }
+                }
+            } finally {
+                // complete the entry even if the file could not be read,
+                // so that the archive can still be read sequentially
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressedLength += deflate(deflater, deflateBuffer);
+                }
+                outputStream.closeEntry(checksumCalculator.getValue(),
+                        compressedLength, length);
             }
         } finally {
-            if (contentStream != null) {
-				contentStream.close();
-			}
+            deflater.end();
+            contentStream.close();
         }
-        outputStream.closeEntry();
     }
 
-    public void write(IContainer container, String destinationPath)
-            throws IOException {
-        ZipEntry newEntry = new ZipEntry(destinationPath);
-        outputStream.putNextEntry(newEntry);
+    private int deflate(Deflater deflater, byte[] buffer) throws IOException {
+        int deflated = deflater.deflate(buffer);
+        outputStream.write(buffer, 0, deflated);
+        return deflated;
     }
 
-    /**
-     *  Write the passed resource to the current archive.
-     *
-     *  @param resource org.eclipse.core.resources.IFile
-     *  @param destinationPath java.lang.String
-     *  @exception java.io.IOException
-     *  @exception org.eclipse.core.runtime.CoreException
-     */
-    public void write(IFile resource, String destinationPath)
-            throws IOException, CoreException {
-        ZipEntry newEntry = new ZipEntry(destinationPath);
-        write(newEntry, resource);
+    private boolean isDeflated(IFile file) {
+        if (!useCompression) {
+            return false;
+        }
+        if (!storeCompressedFiles) {
+            return true;
+        }
+        String extension = file.getFileExtension();
+        return extension == null
+                || Arrays.binarySearch(COMPRESSED_EXTENSIONS, extension
+                        .toLowerCase()) < 0;
+    }
+
+    private static long getTime(IResource resource) {
+        long localTimeStamp = resource.getLocalTimeStamp();
+        if (localTimeStamp != IResource.NULL_STAMP) {
+            return localTimeStamp;
+        }
+        return System.currentTimeMillis();
     }
 }
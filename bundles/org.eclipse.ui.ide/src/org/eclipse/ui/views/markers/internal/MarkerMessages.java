@@ -202,6 +202,7 @@ public class MarkerMessages extends NLS {
 	public static String MarkerView_19;
 	public static String SortUtil_finding_first;
 	public static String SortUtil_partitioning;
+	public static String SortUtil_sorting_chunk;
 	public static String OpenMarker_errorTitle;
 	public static String PasteMarker_errorTitle;
 	public static String RemoveMarker_errorTitle;
@@ -16,6 +16,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -106,6 +108,15 @@ public class ImportOperation extends WorkspaceModifyOperation {
 
 	private static final String ABSOLUTE_PATH = "<Absolute Path>"; //$NON-NLS-1$
 
+    /**
+     * The files to import once all the folders are imported, paired with
+     * their import policy, or <code>null</code> if the files are imported as
+     * they are found. The files of a tar archive are imported in the order
+     * they are stored in the archive, so that a compressed archive is read
+     * in a single pass.
+     */
+    private List deferredFiles;
+
 	/**
      * Creates a new operation that recursively imports the entire contents of the
      * specified root file system object.
@@ -390,7 +401,9 @@ public class ImportOperation extends WorkspaceModifyOperation {
                 monitor.worked(50);
                 destinationContainer = generator
                         .generateContainer(new SubProgressMonitor(monitor, 50));
+                deferFiles();
                 importRecursivelyFrom(source, POLICY_DEFAULT);
+                importDeferredFiles();
                 //Be sure it finishes
                 monitor.worked(90);
             } else {
@@ -404,16 +417,59 @@ public class ImportOperation extends WorkspaceModifyOperation {
                 monitor.worked(50);
                 destinationContainer = generator
                         .generateContainer(new SubProgressMonitor(monitor, 50));
+                deferFiles();
                 importFileSystemObjects(selectedFiles);
+                importDeferredFiles();
                 monitor.done();
             }
         } catch (CoreException e) {
             errorTable.add(e.getStatus());
         } finally {
+            deferredFiles = null;
             monitor.done();
         }
     }
 
+    /**
+     * Starts deferring the import of the files when the provider reads their
+     * contents faster in archive order.
+     */
+    private void deferFiles() {
+        if (provider instanceof TarLeveledStructureProvider) {
+            deferredFiles = new ArrayList();
+        }
+    }
+
+    /**
+     * Imports the files whose import was deferred, in the order they are
+     * stored in the archive.
+     * 
+     * @exception OperationCanceledException if canceled
+     */
+    private void importDeferredFiles() {
+        if (deferredFiles == null) {
+            return;
+        }
+        List files = deferredFiles;
+        deferredFiles = null;
+        final TarLeveledStructureProvider tarProvider = (TarLeveledStructureProvider) provider;
+        Collections.sort(files, new Comparator() {
+            public int compare(Object o1, Object o2) {
+                long position1 = tarProvider.getPosition(((Object[]) o1)[0]);
+                long position2 = tarProvider.getPosition(((Object[]) o2)[0]);
+                return position1 < position2 ? -1 : (position1 == position2 ? 0 : 1);
+            }
+        });
+        Iterator filesEnum = files.iterator();
+        while (filesEnum.hasNext()) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            Object[] file = (Object[]) filesEnum.next();
+            importFile(file[0], ((Integer) file[1]).intValue());
+        }
+    }
+
     /**
      * Returns the container resource that the passed file system object should be
      * imported into.
@@ -787,7 +843,12 @@ public class ImportOperation extends WorkspaceModifyOperation {
 		}
 
         if (!provider.isFolder(fileSystemObject)) {
-            importFile(fileSystemObject, policy);
+            if (deferredFiles != null) {
+                deferredFiles.add(new Object[] { fileSystemObject,
+                        new Integer(policy) });
+            } else {
+                importFile(fileSystemObject, policy);
+            }
             return;
         }
 
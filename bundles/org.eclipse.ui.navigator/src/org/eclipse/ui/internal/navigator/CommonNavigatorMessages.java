@@ -127,6 +127,9 @@ public class CommonNavigatorMessages extends NLS {
 	/** */
 	public static String NavigatorContentServiceLabelProvider_Error_no_label_provider_for_0_;
 
+	/** */
+	public static String NavigatorContentServiceContentProvider_Fetching_children_of_0_;
+
 	/** */
 	public static String CommonViewerSorter_NoContentExtensionForObject;
 	
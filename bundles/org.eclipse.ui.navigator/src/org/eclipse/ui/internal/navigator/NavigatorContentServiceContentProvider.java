@@ -16,18 +16,29 @@ package org.eclipse.ui.internal.navigator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.ITreePathContentProvider;
+import org.eclipse.jface.viewers.ITreeViewerListener;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentExtension;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorViewerDescriptor;
@@ -37,6 +48,8 @@ import org.eclipse.ui.navigator.INavigatorContentDescriptor;
 import org.eclipse.ui.navigator.INavigatorViewerDescriptor;
 import org.eclipse.ui.navigator.IPipelinedTreeContentProvider;
 import org.eclipse.ui.navigator.OverridePolicy;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.progress.WorkbenchJob;
 
 /**
  * <p>
@@ -53,6 +66,16 @@ import org.eclipse.ui.navigator.OverridePolicy;
  * functionality (filters, sorting, etc) may choose to use this class, in effect
  * using an extensible, aggregating, delegate content provider.
  * </p>
+ * <p>
+ * When the viewer descriptor sets
+ * {@link NavigatorViewerDescriptor#PROP_ASYNCHRONOUS_CONTENT}, the children
+ * requested by a tree viewer in the UI thread are computed by a background job
+ * running the content extensions and their pipeline. The trigger points and
+ * the visibility of the extensions are evaluated in the UI thread before the
+ * job is scheduled, so that the job only calls the content providers. A
+ * pending node is shown until the job refreshes the parent with the children.
+ * Collapsing the parent cancels the job.
+ * </p>
  * 
  * @see org.eclipse.ui.internal.navigator.NavigatorContentService
  * @see org.eclipse.ui.internal.navigator.NavigatorContentServiceLabelProvider
@@ -64,14 +87,35 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private static final Object[] NO_CHILDREN = new Object[0];
 
+	private static final NavigatorContentExtension[] NO_EXTENSIONS = new NavigatorContentExtension[0];
+
 	private final NavigatorContentService contentService;
 
 	private boolean disposeContentService;
 
 	private final boolean enforceHasChildren;
 
+	private final boolean asynchronous;
+
 	private Viewer viewer;
 
+	/*
+	 * The jobs fetching children in the background and the children they
+	 * fetched, keyed by parent element or path. Only accessed in the UI thread.
+	 */
+	private final Map fetchJobs = new HashMap();
+
+	private final Map fetchedChildren = new HashMap();
+
+	private final ITreeViewerListener collapseListener = new ITreeViewerListener() {
+		public void treeCollapsed(TreeExpansionEvent event) {
+			cancelFetchJobs(event.getElement());
+		}
+
+		public void treeExpanded(TreeExpansionEvent event) {
+		}
+	};
+
 	/**
 	 * <p>
 	 * Creates a cached {@link NavigatorContentService}&nbsp;from the given
@@ -102,56 +146,251 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		contentService = aContentService;
 		INavigatorViewerDescriptor vDesc = contentService.getViewerDescriptor();
 		enforceHasChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ENFORCE_HAS_CHILDREN);
+		asynchronous = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ASYNCHRONOUS_CONTENT);
 	}
 
 	public void inputChanged(Viewer aViewer, Object anOldInput, Object aNewInput) {
+		cancelFetchJobs(null);
+		if (asynchronous && aViewer != viewer) {
+			if (viewer instanceof AbstractTreeViewer) {
+				((AbstractTreeViewer) viewer).removeTreeListener(collapseListener);
+			}
+			if (aViewer instanceof AbstractTreeViewer) {
+				((AbstractTreeViewer) aViewer).addTreeListener(collapseListener);
+			}
+		}
 		viewer = aViewer;
 		contentService.updateService(aViewer, anOldInput, aNewInput);
 	}
 
 	public Object[] getElements(Object anInputElement) {
 		Set rootContentExtensions = contentService.findRootContentExtensions(anInputElement);
-		return internalGetChildren(anInputElement, anInputElement, rootContentExtensions, ELEMENTS);
+		return internalGetChildren(anInputElement, anInputElement, rootContentExtensions, null,
+				ELEMENTS, new NullProgressMonitor());
 	}
 
 	public Object[] getChildren(Object aParentElement) {
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
-		return internalGetChildren(aParentElement, aParentElement, enabledExtensions, !ELEMENTS);
+		if (isFetchedInBackground(enabledExtensions)) {
+			return getChildrenInBackground(aParentElement, aParentElement, enabledExtensions);
+		}
+		return internalGetChildren(aParentElement, aParentElement, enabledExtensions, null,
+				!ELEMENTS, new NullProgressMonitor());
 	}
 
 	public Object[] getChildren(TreePath parentPath) {
 		Object aParentElement = internalAsElement(parentPath);
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
-		return internalGetChildren(aParentElement, parentPath, enabledExtensions, !ELEMENTS);
+		if (isFetchedInBackground(enabledExtensions)) {
+			return getChildrenInBackground(aParentElement, parentPath, enabledExtensions);
+		}
+		return internalGetChildren(aParentElement, parentPath, enabledExtensions, null,
+				!ELEMENTS, new NullProgressMonitor());
 	}
 	
 	private static final boolean ELEMENTS = true;
 
+	private boolean isFetchedInBackground(Set enabledExtensions) {
+		return asynchronous && enabledExtensions.size() > 0
+				&& viewer instanceof AbstractTreeViewer
+				&& Display.getCurrent() != null
+				&& !viewer.getControl().isDisposed();
+	}
+
+	/**
+	 * Return the children fetched for the parent if the viewer is being
+	 * refreshed with them, or a pending node while a job fetches them.
+	 */
+	private Object[] getChildrenInBackground(Object aParentElement, Object aParentElementOrPath,
+			Set enabledExtensions) {
+		Object[] children = (Object[]) fetchedChildren.get(aParentElementOrPath);
+		if (children != null) {
+			return children;
+		}
+		FetchChildrenJob job = (FetchChildrenJob) fetchJobs.get(aParentElementOrPath);
+		if (job == null) {
+			// content providers may hook the viewer when they are created
+			for (Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+				((NavigatorContentExtension) itr.next()).internalGetContentProvider();
+			}
+			Map overridingExtensions = findOverridingExtensions(aParentElement, enabledExtensions);
+			job = new FetchChildrenJob(aParentElement, aParentElementOrPath, enabledExtensions,
+					overridingExtensions);
+			fetchJobs.put(aParentElementOrPath, job);
+			job.schedule();
+		}
+		return new Object[] { job.placeholder };
+	}
+
+	/**
+	 * Evaluate the trigger points of the extensions overriding the enabled
+	 * extensions for the parent, so that the job fetching the children only
+	 * calls the content providers. The extensions overriding another enabled
+	 * extension, which are not invoked as first class extensions, are left
+	 * out of the returned map.
+	 * 
+	 * @return The overriding extensions of each extension to invoke, keyed by
+	 *         extension
+	 */
+	private Map findOverridingExtensions(final Object aParentElement, final Set enabledExtensions) {
+		final Map overridingExtensions = new HashMap();
+		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			SafeRunner.run(new NavigatorSafeRunnable() {
+				NavigatorContentExtension foundExtension = (NavigatorContentExtension) itr.next();
+
+				public void run() throws Exception {
+					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
+							enabledExtensions)) {
+						findOverridingExtensions(aParentElement, foundExtension,
+								overridingExtensions);
+					}
+				}
+
+				public void handleException(Throwable e) {
+					NavigatorPlugin.logError(0, NLS.bind(
+							CommonNavigatorMessages.Exception_Invoking_Extension, new Object[] {
+									foundExtension.getDescriptor().getId(), aParentElement }), e);
+				}
+			});
+		}
+		return overridingExtensions;
+	}
+
+	private void findOverridingExtensions(Object aParentElement,
+			NavigatorContentExtension anExtension, Map theOverridingExtensions) {
+		if (theOverridingExtensions.containsKey(anExtension)) {
+			return;
+		}
+		NavigatorContentExtension[] overridingExtensions = anExtension
+				.getOverridingExtensionsForTriggerPoint(aParentElement);
+		theOverridingExtensions.put(anExtension, overridingExtensions);
+		for (int i = 0; i < overridingExtensions.length; i++) {
+			if (overridingExtensions[i].internalGetContentProvider().isPipelined()) {
+				findOverridingExtensions(aParentElement, overridingExtensions[i],
+						theOverridingExtensions);
+			}
+		}
+	}
+
+	/**
+	 * Cancel the jobs fetching the children of the given element, or all jobs
+	 * if the element is <code>null</code>. The pending nodes of the cancelled
+	 * jobs are removed by refreshing their parent.
+	 */
+	private void cancelFetchJobs(Object anElement) {
+		if (fetchJobs.isEmpty()) {
+			return;
+		}
+		for (Iterator itr = fetchJobs.values().iterator(); itr.hasNext();) {
+			final FetchChildrenJob job = (FetchChildrenJob) itr.next();
+			if (anElement == null || anElement.equals(job.parentElement)) {
+				itr.remove();
+				job.cancel();
+				if (anElement != null) {
+					viewer.getControl().getDisplay().asyncExec(new Runnable() {
+						public void run() {
+							if (!viewer.getControl().isDisposed()) {
+								((AbstractTreeViewer) viewer).refresh(job.parentElement);
+							}
+						}
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the content extensions and their pipeline for a parent outside of
+	 * the UI thread, then refreshes the parent with the fetched children. The
+	 * overriding extensions of the pipeline are found before the job is
+	 * scheduled.
+	 */
+	private class FetchChildrenJob extends Job {
+
+		final Object parentElement;
+
+		final Object parentElementOrPath;
+
+		final Set enabledExtensions;
+
+		final Map overridingExtensions;
+
+		final PendingUpdateAdapter placeholder = new PendingUpdateAdapter();
+
+		final AbstractTreeViewer treeViewer = (AbstractTreeViewer) viewer;
+
+		final Display display = Display.getCurrent();
+
+		FetchChildrenJob(Object aParentElement, Object aParentElementOrPath, Set theEnabledExtensions,
+				Map theOverridingExtensions) {
+			super(NLS.bind(CommonNavigatorMessages.NavigatorContentServiceContentProvider_Fetching_children_of_0_,
+					aParentElement));
+			parentElement = aParentElement;
+			parentElementOrPath = aParentElementOrPath;
+			enabledExtensions = theEnabledExtensions;
+			overridingExtensions = theOverridingExtensions;
+		}
+
+		protected IStatus run(IProgressMonitor monitor) {
+			monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+			final Object[] children = internalGetChildren(parentElement, parentElementOrPath,
+					enabledExtensions, overridingExtensions, !ELEMENTS, monitor);
+			monitor.done();
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			WorkbenchJob updateJob = new WorkbenchJob(display, getName()) {
+				public IStatus runInUIThread(IProgressMonitor updateMonitor) {
+					if (fetchJobs.get(parentElementOrPath) != FetchChildrenJob.this
+							|| treeViewer.getControl().isDisposed()) {
+						return Status.CANCEL_STATUS;
+					}
+					fetchJobs.remove(parentElementOrPath);
+					fetchedChildren.put(parentElementOrPath, children);
+					try {
+						// a collapsed parent is pruned and fetched again on expansion
+						treeViewer.refresh(parentElement);
+					} finally {
+						fetchedChildren.remove(parentElementOrPath);
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			updateJob.setSystem(true);
+			updateJob.schedule();
+			return Status.OK_STATUS;
+		}
+	}
+
 	private Object[] internalGetChildren(final Object aParentElement,
-			final Object aParentElementOrPath, final Set enabledExtensions, final boolean elements) {
+			final Object aParentElementOrPath, final Set enabledExtensions,
+			final Map theOverridingExtensions, final boolean elements, final IProgressMonitor monitor) {
 		if (enabledExtensions.size() == 0) {
 			return NO_CHILDREN;
 		}
 		final Set finalSet = new LinkedHashSet();
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
 
-		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext() && !monitor.isCanceled();) {
 			SafeRunner.run(new NavigatorSafeRunnable() {
 				NavigatorContentExtension foundExtension = (NavigatorContentExtension) itr.next();
 				Object[] contributedChildren = null;
 				NavigatorContentExtension[] overridingExtensions;
 
 				public void run() throws Exception {
-					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
-							enabledExtensions)) {
+					if (theOverridingExtensions != null ? theOverridingExtensions
+							.containsKey(foundExtension) : !isOverridingExtensionInSet(
+							foundExtension.getDescriptor(), enabledExtensions)) {
+						long startTime = System.currentTimeMillis();
 						if (elements)
 							contributedChildren = foundExtension.internalGetContentProvider()
 									.getElements(aParentElementOrPath);
 						else
 							contributedChildren = foundExtension.internalGetContentProvider()
 									.getChildren(aParentElementOrPath);
-						overridingExtensions = foundExtension
-								.getOverridingExtensionsForTriggerPoint(aParentElement);
+						foundExtension.recordContentProviderCall(aParentElement, startTime);
+						overridingExtensions = getOverridingExtensions(aParentElement,
+								foundExtension, theOverridingExtensions);
 						INavigatorContentDescriptor foundDescriptor = foundExtension
 								.getDescriptor();
 						localSet.setContributor(foundDescriptor, foundDescriptor);
@@ -159,7 +398,7 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 						if (overridingExtensions.length > 0) {
 							pipelineChildren(aParentElement, overridingExtensions, foundDescriptor,
-									localSet, elements);
+									localSet, theOverridingExtensions, elements, monitor);
 						}
 						finalSet.addAll(localSet);
 					}
@@ -176,6 +415,20 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		return finalSet.toArray();
 	}
 
+	/**
+	 * Return the overriding extensions found in the UI thread if any, or
+	 * evaluate their trigger points.
+	 */
+	private NavigatorContentExtension[] getOverridingExtensions(Object aParentElement,
+			NavigatorContentExtension anExtension, Map theOverridingExtensions) {
+		if (theOverridingExtensions == null) {
+			return anExtension.getOverridingExtensionsForTriggerPoint(aParentElement);
+		}
+		NavigatorContentExtension[] overridingExtensions = (NavigatorContentExtension[]) theOverridingExtensions
+				.get(anExtension);
+		return overridingExtensions != null ? overridingExtensions : NO_EXTENSIONS;
+	}
+
 	/**
 	 * Query each of <code>theOverridingExtensions</code> for children, and then
 	 * pipe them through the Pipeline content provider.
@@ -188,26 +441,36 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	 * @param pipelinedChildren
 	 *            The current children to return to the viewer (should be
 	 *            modifiable)
+	 * @param theOverridingExtensionsByExtension
+	 *            The overriding extensions found in the UI thread, or
+	 *            <code>null</code> to evaluate their trigger points
+	 * @param monitor
+	 *            The monitor checked before each stage of the pipeline
 	 */
 	private void pipelineChildren(Object aParent, NavigatorContentExtension[] theOverridingExtensions,
-			INavigatorContentDescriptor firstClassDescriptor, ContributorTrackingSet pipelinedChildren, boolean elements) {
+			INavigatorContentDescriptor firstClassDescriptor, ContributorTrackingSet pipelinedChildren,
+			Map theOverridingExtensionsByExtension, boolean elements, IProgressMonitor monitor) {
 		IPipelinedTreeContentProvider pipelinedContentProvider;
 		NavigatorContentExtension[] overridingExtensions;
-		for (int i = 0; i < theOverridingExtensions.length; i++) {
+		for (int i = 0; i < theOverridingExtensions.length && !monitor.isCanceled(); i++) {
 
 			if (theOverridingExtensions[i].internalGetContentProvider().isPipelined()) {
 				pipelinedContentProvider = (IPipelinedTreeContentProvider) theOverridingExtensions[i]
 						.internalGetContentProvider();
 				pipelinedChildren.setContributor(theOverridingExtensions[i]
 						.getDescriptor(), firstClassDescriptor);
+				long startTime = System.currentTimeMillis();
 				if (elements) {
 					pipelinedContentProvider.getPipelinedElements(aParent, pipelinedChildren);
 				} else {
 					pipelinedContentProvider.getPipelinedChildren(aParent, pipelinedChildren);
 				}
-				overridingExtensions = theOverridingExtensions[i].getOverridingExtensionsForTriggerPoint(aParent);
+				theOverridingExtensions[i].recordContentProviderCall(aParent, startTime);
+				overridingExtensions = getOverridingExtensions(aParent, theOverridingExtensions[i],
+						theOverridingExtensionsByExtension);
 				if (overridingExtensions.length > 0) {
-					pipelineChildren(aParent, overridingExtensions, firstClassDescriptor, pipelinedChildren, elements);
+					pipelineChildren(aParent, overridingExtensions, firstClassDescriptor, pipelinedChildren,
+							theOverridingExtensionsByExtension, elements, monitor);
 				}
 			}
 		}
@@ -466,6 +729,10 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	 * @see org.eclipse.jface.viewers.IContentProvider#dispose()
 	 */
 	public void dispose() {
+		cancelFetchJobs(null);
+		if (viewer instanceof AbstractTreeViewer) {
+			((AbstractTreeViewer) viewer).removeTreeListener(collapseListener);
+		}
 		if (disposeContentService) {
 			contentService.dispose();
 		}
@@ -48,6 +48,17 @@ public class Policy {
 	 */
 	public static boolean DEBUG_VIEWER_MAP = DEFAULT;
 
+	/**
+	 * Option for tracing content extensions which are slow to provide children
+	 */
+	public static boolean DEBUG_PERFORMANCE = DEFAULT;
+
+	/**
+	 * The time in milliseconds from which a content provider call is traced
+	 * as slow
+	 */
+	public static long SLOW_CONTENT_PROVIDER_TIME = 50;
+
 	static {
 		if (getDebugOption("/debug")) { //$NON-NLS-1$
 			DEBUG_DND = getDebugOption("/debug/dnd"); //$NON-NLS-1$
@@ -55,6 +66,15 @@ public class Policy {
 			DEBUG_EXTENSION_SETUP = getDebugOption("/debug/setup"); //$NON-NLS-1$
 			DEBUG_SORT = getDebugOption("/debug/sort"); //$NON-NLS-1$
 			DEBUG_VIEWER_MAP = getDebugOption("/debug/viewermap"); //$NON-NLS-1$
+			DEBUG_PERFORMANCE = getDebugOption("/debug/performance"); //$NON-NLS-1$
+			String slowTime = Platform.getDebugOption(NavigatorPlugin.PLUGIN_ID + "/debug/performance/slowContentProvider"); //$NON-NLS-1$
+			if (slowTime != null) {
+				try {
+					SLOW_CONTENT_PROVIDER_TIME = Long.parseLong(slowTime);
+				} catch (NumberFormatException e) {
+					// keep the default
+				}
+			}
 		}
 	}
 
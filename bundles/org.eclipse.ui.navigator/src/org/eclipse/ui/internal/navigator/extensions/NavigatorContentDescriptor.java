@@ -11,12 +11,15 @@
 package org.eclipse.ui.internal.navigator.extensions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 import org.eclipse.osgi.util.NLS;
 
@@ -56,6 +59,9 @@ public final class NavigatorContentDescriptor implements
 		INavigatorContentDescriptor, INavigatorContentExtPtConstants {
 
 	private static final int HASH_CODE_NOT_COMPUTED = -1;
+
+	private static final List TYPE_EXPRESSIONS = Arrays.asList(new String[] {
+			"instanceof", "and", "or", "not" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 	private String id;
 
 	private String name;
@@ -99,6 +105,14 @@ public final class NavigatorContentDescriptor implements
 
 	private boolean providesSaveables;
 
+	/*
+	 * The expressions which only test the type of the element are evaluated
+	 * once per type; Map of (Class, Boolean)-pairs
+	 */
+	private Map triggerPointsByType;
+
+	private Map possibleChildrenByType;
+
 	/**
 	 * Creates a new content descriptor from a configuration element.
 	 * 
@@ -264,6 +278,9 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_TRIGGER_POINTS);
 			if (children.length == 1) {
 				enablement = new CustomAndExpression(children[0]);
+				if (isTypeExpression(children[0])) {
+					triggerPointsByType = Collections.synchronizedMap(new WeakHashMap());
+				}
 			} else {
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -277,6 +294,11 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_POSSIBLE_CHILDREN);
 			if (children.length == 1) {
 				possibleChildren = new CustomAndExpression(children[0]);
+				if (isTypeExpression(children[0])) {
+					possibleChildrenByType = Collections.synchronizedMap(new WeakHashMap());
+				}
+			} else if (children.length == 0 && triggerPointsByType != null) {
+				possibleChildrenByType = Collections.synchronizedMap(new WeakHashMap());
 			} else if(children.length > 1){
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -290,6 +312,10 @@ public final class NavigatorContentDescriptor implements
 			try {
 				enablement = ElementHandler.getDefault().create(
 						ExpressionConverter.getDefault(), children[0]);
+				if (isTypeExpression(children[0])) {
+					triggerPointsByType = Collections.synchronizedMap(new WeakHashMap());
+					possibleChildrenByType = Collections.synchronizedMap(new WeakHashMap());
+				}
 			} catch (CoreException e) {
 				NavigatorPlugin.log(IStatus.ERROR, 0, e.getMessage(), e);
 			}
@@ -422,8 +448,18 @@ public final class NavigatorContentDescriptor implements
 			return false;
 		}
 
+		if (triggerPointsByType != null) {
+			Boolean cached = (Boolean) triggerPointsByType.get(anElement.getClass());
+			if (cached != null) {
+				return cached.booleanValue();
+			}
+		}
 		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
-		return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+		boolean result = NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+		if (triggerPointsByType != null) {
+			triggerPointsByType.put(anElement.getClass(), Boolean.valueOf(result));
+		}
+		return result;
 	}
 
 	/**
@@ -449,13 +485,62 @@ public final class NavigatorContentDescriptor implements
 			return arePossibleChildren((IStructuredSelection) anElement);
 		}
 
+		if (possibleChildrenByType != null) {
+			Boolean cached = (Boolean) possibleChildrenByType.get(anElement.getClass());
+			if (cached != null) {
+				return cached.booleanValue();
+			}
+		}
 		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
+		boolean result;
 		if (possibleChildren != null) {
-			return NavigatorPlugin.safeEvaluate(possibleChildren, context) == EvaluationResult.TRUE;
-		} else if (enablement != null) {
-			return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+			result = NavigatorPlugin.safeEvaluate(possibleChildren, context) == EvaluationResult.TRUE;
+		} else {
+			result = NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+		}
+		if (possibleChildrenByType != null) {
+			possibleChildrenByType.put(anElement.getClass(), Boolean.valueOf(result));
+		}
+		return result;
+	}
+
+	/**
+	 * 
+	 * @return True if the <b>triggerPoints</b> expression only depends on the
+	 *         type of the element.
+	 */
+	public boolean isTriggerPointTypeBased() {
+		return enablement == null || triggerPointsByType != null;
+	}
+
+	/**
+	 * 
+	 * @return True if the <b>possibleChildren</b> expression only depends on
+	 *         the type of the element.
+	 */
+	public boolean isPossibleChildTypeBased() {
+		return (enablement == null && possibleChildren == null) || possibleChildrenByType != null;
+	}
+
+	/**
+	 * The <code>instanceof</code> expression and its combinations only depend
+	 * on the type of the evaluated element. Other expressions may test
+	 * properties, adapters or variables which differ between elements of the
+	 * same type.
+	 * 
+	 * @param anExpressionElement
+	 *            the element holding the expression
+	 * @return True if the expression only depends on the type of the element.
+	 */
+	private static boolean isTypeExpression(IConfigurationElement anExpressionElement) {
+		IConfigurationElement[] children = anExpressionElement.getChildren();
+		for (int i = 0; i < children.length; i++) {
+			String name = children[i].getName();
+			if (!TYPE_EXPRESSIONS.contains(name) || !isTypeExpression(children[i])) {
+				return false;
+			}
 		}
-		return false;
+		return true;
 	}
 	
 	/**
@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.internal.navigator.NavigatorPlugin;
 import org.eclipse.ui.internal.navigator.NavigatorSafeRunnable;
@@ -53,6 +54,8 @@ public class NavigatorContentDescriptorManager {
 
 		private final Map evaluations/* <Object, NavigatorContentDescriptor[]> */= new HashMap();
 		private final Map evaluationsWithOverrides/*<Object, NavigatorContentDescriptor[]>*/ = new HashMap();
+		private final Map typeEvaluations/*<Class, NavigatorContentDescriptor[]>*/ = new WeakHashMap();
+		private final Map typeEvaluationsWithOverrides/*<Class, NavigatorContentDescriptor[]>*/ = new WeakHashMap();
 
 		EvaluationCache(VisibilityAssistant anAssistant) {
 			anAssistant.addListener(this);
@@ -94,6 +97,19 @@ public class NavigatorContentDescriptorManager {
 			}
 		}
 
+		protected final NavigatorContentDescriptor[] getTypeDescriptors(Class aType, boolean considerOverrides) {
+			if (considerOverrides)
+				return (NavigatorContentDescriptor[]) typeEvaluationsWithOverrides.get(aType);
+			return (NavigatorContentDescriptor[]) typeEvaluations.get(aType);
+		}
+
+		protected final void setTypeDescriptors(Class aType, NavigatorContentDescriptor[] theDescriptors, boolean considerOverrides) {
+			if (considerOverrides)
+				typeEvaluationsWithOverrides.put(aType, theDescriptors);
+			else
+				typeEvaluations.put(aType, theDescriptors);
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * 
@@ -102,6 +118,8 @@ public class NavigatorContentDescriptorManager {
 		public void onVisibilityOrActivationChange() {
 			evaluations.clear();
 			evaluationsWithOverrides.clear();
+			typeEvaluations.clear();
+			typeEvaluationsWithOverrides.clear();
 		}
 	}
 
@@ -121,6 +139,10 @@ public class NavigatorContentDescriptorManager {
 
 	private final Set firstClassDescriptorsSet = new HashSet();
 
+	private Boolean triggerPointsTypeBased;
+
+	private Boolean possibleChildrenTypeBased;
+
 	/**
 	 * @return the singleton instance of the manager
 	 */
@@ -216,7 +238,20 @@ public class NavigatorContentDescriptorManager {
 
 		Set descriptors = new TreeSet(ExtensionSequenceNumberComparator.INSTANCE);
 		NavigatorContentDescriptor[] cachedDescriptors = null;
-		if ((cachedDescriptors = cache.getDescriptors(anElement)) != null) {
+
+		/*
+		 * When no expression looks beyond the type of the element, the
+		 * descriptors found for one element apply to all elements of its type.
+		 * Selections are checked element by element.
+		 */
+		Class elementType = null;
+		if (anElement != null && !(anElement instanceof IStructuredSelection) && isTypeBased(possibleChild)) {
+			elementType = anElement.getClass();
+			if ((cachedDescriptors = cache.getTypeDescriptors(elementType, considerOverrides)) != null) {
+				descriptors.addAll(Arrays.asList(cachedDescriptors));
+				return descriptors;
+			}
+		} else if ((cachedDescriptors = cache.getDescriptors(anElement)) != null) {
 			descriptors.addAll(Arrays.asList(cachedDescriptors));
 		}
 
@@ -238,11 +273,39 @@ public class NavigatorContentDescriptorManager {
 				}
 			}
 		}
-		cache.setDescriptors(anElement, (NavigatorContentDescriptor[]) descriptors.toArray(new NavigatorContentDescriptor[descriptors.size()]));
+		NavigatorContentDescriptor[] foundDescriptors = (NavigatorContentDescriptor[]) descriptors.toArray(new NavigatorContentDescriptor[descriptors.size()]);
+		if (elementType != null) {
+			cache.setTypeDescriptors(elementType, foundDescriptors, considerOverrides);
+		} else {
+			cache.setDescriptors(anElement, foundDescriptors);
+		}
 
 		return descriptors;
 	}
 
+	/**
+	 * @param possibleChild
+	 *            True for the <b>possibleChildren</b> expressions, false for
+	 *            the <b>triggerPoints</b> expressions
+	 * @return True if the expressions of all descriptors only depend on the
+	 *         type of the element.
+	 */
+	private synchronized boolean isTypeBased(boolean possibleChild) {
+		if ((possibleChild ? possibleChildrenTypeBased : triggerPointsTypeBased) == null) {
+			boolean typeBased = true;
+			for (Iterator iter = allDescriptors.values().iterator(); iter.hasNext() && typeBased;) {
+				NavigatorContentDescriptor descriptor = (NavigatorContentDescriptor) iter.next();
+				typeBased = possibleChild ? descriptor.isPossibleChildTypeBased() : descriptor.isTriggerPointTypeBased();
+			}
+			if (possibleChild) {
+				possibleChildrenTypeBased = Boolean.valueOf(typeBased);
+			} else {
+				triggerPointsTypeBased = Boolean.valueOf(typeBased);
+			}
+		}
+		return (possibleChild ? possibleChildrenTypeBased : triggerPointsTypeBased).booleanValue();
+	}
+
 	private EvaluationCache getEvaluationCache(Map anEvaluationMap,
 			VisibilityAssistant aVisibilityAssistant) {
 		EvaluationCache c = (EvaluationCache) anEvaluationMap
@@ -58,6 +58,10 @@ public class NavigatorContentExtension implements IMementoAware,
 
 	private StructuredViewerManager viewerManager;
 
+	private long contentProviderTime;
+
+	private int contentProviderCalls;
+
 	/**
 	 * Create an object to manage the instantiated elements from the extension.
 	 * 
@@ -325,6 +329,43 @@ public class NavigatorContentExtension implements IMementoAware,
 				.getExtensionStateModel(getDescriptor());
 	}
 
+	/**
+	 * Records the time spent in one call of the content provider of this
+	 * extension to compute or pipeline children.
+	 * 
+	 * @param aParent
+	 *            The parent element of the call
+	 * @param startTime
+	 *            The {@link System#currentTimeMillis()} before the call
+	 */
+	public void recordContentProviderCall(Object aParent, long startTime) {
+		long time = System.currentTimeMillis() - startTime;
+		synchronized (this) {
+			contentProviderTime += time;
+			contentProviderCalls++;
+		}
+		if (Policy.DEBUG_PERFORMANCE && time >= Policy.SLOW_CONTENT_PROVIDER_TIME) {
+			System.out.println("Content extension " + getId() + " took " + time + "ms for: " //$NON-NLS-1$ //$NON-NLS-2$
+					+ Policy.getObjectString(aParent));
+		}
+	}
+
+	/**
+	 * @return The total time in milliseconds spent by the content provider of
+	 *         this extension to compute or pipeline children.
+	 */
+	public synchronized long getContentProviderTime() {
+		return contentProviderTime;
+	}
+
+	/**
+	 * @return The number of calls to the content provider of this extension to
+	 *         compute or pipeline children.
+	 */
+	public synchronized int getContentProviderCalls() {
+		return contentProviderCalls;
+	}
+
 	/**
 	 * @param anElement
 	 *            The element for the query.
@@ -40,6 +40,13 @@ public final class NavigatorViewerDescriptor implements
 	 */
 	public static final String PROP_ENFORCE_HAS_CHILDREN = "org.eclipse.ui.navigator.enforceHasChildren"; //$NON-NLS-1$
 
+	/**
+	 * {@value} (boolean): True indicates the children of expanded elements
+	 * should be computed by a background job, showing a pending node until they
+	 * are available <b>false</b>).
+	 */
+	public static final String PROP_ASYNCHRONOUS_CONTENT = "org.eclipse.ui.navigator.asynchronousContent"; //$NON-NLS-1$
+
 	static final String TAG_INCLUDES = "includes"; //$NON-NLS-1$
 
 	static final String TAG_EXCLUDES = "excludes"; //$NON-NLS-1$
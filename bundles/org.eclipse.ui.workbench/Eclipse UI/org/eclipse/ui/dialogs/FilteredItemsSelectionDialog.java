@@ -122,6 +122,7 @@ import org.eclipse.ui.internal.IWorkbenchGraphicConstants;
 import org.eclipse.ui.internal.WorkbenchImages;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.dialogs.ElementNameIndex;
 import org.eclipse.ui.progress.UIJob;
 import org.eclipse.ui.statushandlers.StatusManager;
 
@@ -213,6 +214,12 @@ public abstract class FilteredItemsSelectionDialog extends
 
 	private ItemsFilter lastCompletedFilter;
 
+	/**
+	 * Index over the names of <code>lastCompletedResult</code>, built on the
+	 * first search in the cache that can use it.
+	 */
+	private ElementNameIndex lastCompletedIndex;
+
 	private String initialPatternText;
 
 	private int selectionMode;
@@ -221,6 +228,18 @@ public abstract class FilteredItemsSelectionDialog extends
 
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	/**
+	 * The number of cached items from which searches in the cache use an index
+	 * over the names of the items.
+	 */
+	private static final int INDEX_THRESHOLD = 2000;
+
+	/**
+	 * The number of candidates each worker matches at least when a search in
+	 * the cache is split across several jobs.
+	 */
+	private static final int PARALLEL_MATCH_CHUNK = 10000;
+
 	private boolean refreshWithLastSelection = false;
 
 	private IHandlerActivation showViewHandler;
@@ -2057,6 +2076,12 @@ public abstract class FilteredItemsSelectionDialog extends
 	 * of the last, then <code>FilterJob</code> only filters in the cache. If
 	 * it is the first filtering or the new filter isn't a sub-filter of the
 	 * last one, a full search is run.
+	 * <p>
+	 * Searches in a large cache only match the items whose name can match
+	 * when the filter allows it ({@link ItemsFilter#requiresElementNameMatch()}),
+	 * and are split across several jobs when the filter can be used
+	 * concurrently ({@link ItemsFilter#supportsConcurrentMatching()}).
+	 * </p>
 	 */
 	private class FilterJob extends Job {
 
@@ -2146,15 +2171,25 @@ public abstract class FilteredItemsSelectionDialog extends
 			if (lastCompletedFilter != null
 					&& lastCompletedFilter.isSubFilter(this.itemsFilter)) {
 
-				int length = lastCompletedResult.size() / 500;
+				Object[] candidates = getCandidates();
+				int length = candidates.length / 500;
 				monitor
 						.beginTask(
 								WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
 								length);
 
-				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
+				int workers = Math.min(Runtime.getRuntime()
+						.availableProcessors(), candidates.length
+						/ PARALLEL_MATCH_CHUNK);
+				if (workers > 1 && itemsFilter.supportsConcurrentMatching()) {
+					matchConcurrently(candidates, workers, monitor);
+					monitor.worked(length);
+					return;
+				}
+
+				for (int pos = 0; pos < candidates.length; pos++) {
 
-					Object item = lastCompletedResult.get(pos);
+					Object item = candidates[pos];
 					if (monitor.isCanceled())
 						break;
 					contentProvider.add(item, itemsFilter);
@@ -2168,6 +2203,7 @@ public abstract class FilteredItemsSelectionDialog extends
 
 				lastCompletedFilter = null;
 				lastCompletedResult = null;
+				lastCompletedIndex = null;
 
 				SubProgressMonitor subMonitor = null;
 				if (monitor != null) {
@@ -2190,6 +2226,75 @@ public abstract class FilteredItemsSelectionDialog extends
 
 		}
 
+		/**
+		 * Returns the items of the last completed result that may match the
+		 * current filter.
+		 * 
+		 * @return the candidates
+		 */
+		private Object[] getCandidates() {
+			if (itemsFilter.requiresElementNameMatch()
+					&& lastCompletedResult.size() >= INDEX_THRESHOLD) {
+				if (lastCompletedIndex == null) {
+					Object[] items = lastCompletedResult.toArray();
+					String[] names = new String[items.length];
+					for (int i = 0; i < items.length; i++) {
+						names[i] = getElementName(items[i]);
+					}
+					lastCompletedIndex = new ElementNameIndex(items, names);
+				}
+				Object[] candidates = lastCompletedIndex
+						.getCandidates(itemsFilter.patternMatcher);
+				if (candidates != null)
+					return candidates;
+			}
+			return lastCompletedResult.toArray();
+		}
+
+		/**
+		 * Matches the candidates in several jobs and waits for them.
+		 * 
+		 * @param candidates
+		 *            the items to match
+		 * @param workers
+		 *            the number of jobs to split the candidates across
+		 * @param monitor
+		 *            the monitor of this job, checked for cancellation
+		 */
+		private void matchConcurrently(final Object[] candidates, int workers,
+				final IProgressMonitor monitor) {
+			final ItemsFilter matchFilter = itemsFilter;
+			int chunk = (candidates.length + workers - 1) / workers;
+			Job[] jobs = new Job[workers];
+			for (int i = 0; i < workers; i++) {
+				final int from = i * chunk;
+				final int to = Math.min(candidates.length, from + chunk);
+				jobs[i] = new Job(getName()) {
+					protected IStatus run(IProgressMonitor jobMonitor) {
+						for (int pos = from; pos < to; pos++) {
+							if (monitor.isCanceled() || jobMonitor.isCanceled())
+								return Status.CANCEL_STATUS;
+							contentProvider.add(candidates[pos], matchFilter);
+						}
+						return Status.OK_STATUS;
+					}
+				};
+				jobs[i].setSystem(true);
+				jobs[i].schedule();
+			}
+			for (int i = 0; i < jobs.length; i++) {
+				try {
+					jobs[i].join();
+				} catch (InterruptedException e) {
+					for (int j = i; j < jobs.length; j++) {
+						jobs[j].cancel();
+					}
+					monitor.setCanceled(true);
+					return;
+				}
+			}
+		}
+
 	}
 
 	/**
@@ -2539,6 +2644,43 @@ public abstract class FilteredItemsSelectionDialog extends
 		 */
 		public abstract boolean isConsistentItem(Object item);
 
+		/**
+		 * Checks whether {@link #matchItem(Object)} only accepts items whose
+		 * element name, as returned by
+		 * {@link FilteredItemsSelectionDialog#getElementName(Object)}, matches
+		 * the pattern of this filter. If it does, searches in a large cache
+		 * only match the items whose name can match the pattern, looked up in
+		 * an index of the names.
+		 * <p>
+		 * The default implementation returns <code>false</code>. Subclasses
+		 * may override.
+		 * </p>
+		 * 
+		 * @return <code>true</code> if only items whose name matches the
+		 *         pattern can match this filter, <code>false</code> otherwise
+		 * @since 3.106
+		 */
+		public boolean requiresElementNameMatch() {
+			return false;
+		}
+
+		/**
+		 * Checks whether {@link #matchItem(Object)} may be called from several
+		 * threads at the same time. If it may, searches in a large cache are
+		 * split across several jobs.
+		 * <p>
+		 * The default implementation returns <code>false</code>. Subclasses
+		 * may override.
+		 * </p>
+		 * 
+		 * @return <code>true</code> if items can be matched concurrently,
+		 *         <code>false</code> otherwise
+		 * @since 3.106
+		 */
+		public boolean supportsConcurrentMatching() {
+			return false;
+		}
+
 	}
 
 	/**
@@ -2854,6 +2996,7 @@ public abstract class FilteredItemsSelectionDialog extends
 			if (itemsFilter == filter) {
 				lastCompletedFilter = itemsFilter;
 				lastCompletedResult = itemsList;
+				lastCompletedIndex = null;
 			}
 
 		}
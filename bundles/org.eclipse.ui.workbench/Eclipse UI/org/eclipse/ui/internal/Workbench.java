@@ -71,6 +71,7 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.InjectionException;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.internal.workbench.renderers.swt.IUpdateService;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.IEventLoopAdvisor;
@@ -1512,6 +1513,16 @@ public final class Workbench extends EventManager implements IWorkbench {
 	 * @return true if init succeeded.
 	 */
 	private boolean init() {
+		StartupTracer tracer = StartupTracer.getDefault();
+		long start = tracer.begin();
+		try {
+			return internalInit();
+		} finally {
+			tracer.end(StartupTracer.PHASE, "Workbench.init", start); //$NON-NLS-1$
+		}
+	}
+
+	private boolean internalInit() {
 		// setup debug mode if required.
 		if (WorkbenchPlugin.getDefault().isDebugging()) {
 			WorkbenchPlugin.DEBUG = true;
@@ -46,6 +46,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.PartServiceImpl;
+import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.descriptor.basic.MPartDescriptor;
 import org.eclipse.e4.ui.model.application.ui.MElementContainer;
@@ -310,6 +311,12 @@ public class WorkbenchPage extends CompatibleWorkbenchPage implements
 		// Update action sets
 
 		IContextService service = (IContextService) legacyWindow.getService(IContextService.class);
+		// the visibility of the contributions is updated once the contexts are,
+		// send the model events of the items hidden and shown again once
+		UIEventPublisher publisher = window.getContext().get(UIEventPublisher.class);
+		if (publisher != null) {
+			publisher.beginBatch();
+		}
 		try {
 			service.deferUpdates(true);
 			if (newPersp != null) {
@@ -344,7 +351,13 @@ public class WorkbenchPage extends CompatibleWorkbenchPage implements
 				}
 			}
 		} finally {
-			service.deferUpdates(false);
+			try {
+				service.deferUpdates(false);
+			} finally {
+				if (publisher != null) {
+					publisher.endBatch();
+				}
+			}
 		}
 	}
 
@@ -29,6 +29,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.e4.core.contexts.ContextFunction;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferenceManager;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -267,6 +268,22 @@ public class WorkbenchPlugin extends AbstractUIPlugin {
      */
     public static Object createExtension(final IConfigurationElement element,
             final String classAttribute) throws CoreException {
+        StartupTracer tracer = StartupTracer.getDefault();
+        long start = tracer.begin();
+        try {
+            return internalCreateExtension(element, classAttribute);
+        } finally {
+            if (tracer.isRecording()) {
+                tracer.end(StartupTracer.EXTENSION, element.getContributor()
+                        .getName() + '/' + element.getAttribute(classAttribute),
+                        start);
+            }
+        }
+    }
+
+    private static Object internalCreateExtension(
+            final IConfigurationElement element, final String classAttribute)
+            throws CoreException {
         try {
             // If plugin has been loaded create extension.
             // Otherwise, show busy cursor then create extension.
@@ -12,12 +12,12 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.decorators;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 
@@ -41,18 +41,43 @@ import org.eclipse.ui.progress.WorkbenchJob;
 
 /**
  * The DecorationScheduler is the class that handles the decoration of elements
- * using a background thread.
+ * using a bounded pool of background jobs.
  */
 public class DecorationScheduler {
 
 	static final ILabelProviderListener[] EMPTY_LISTENER_LIST = new ILabelProviderListener[0];
 
+	/**
+	 * The system property used to set the number of decoration workers. The
+	 * elements are decorated by a single worker by default, as contributed
+	 * lightweight decorators are not required to be thread safe. A greater
+	 * value lets the decorators of distinct elements run concurrently.
+	 */
+	static final String WORKER_COUNT_PROPERTY = "org.eclipse.ui.decorators.workers"; //$NON-NLS-1$
+
+	/**
+	 * The number of decorated elements after which a label update is
+	 * requested even though the queue has not been drained yet.
+	 */
+	static final int UPDATE_BATCH_SIZE = 250;
+
 	// When decorations are computed they are added to this cache via
-	// decorated() method
+	// decorated() method. Access is synchronized on the cache itself as it
+	// is written by all of the decoration workers.
 	Map resultCache = new HashMap();
 
-	// Objects that need an icon and text computed for display to the user
-	List awaitingDecoration = new ArrayList();
+	// References to the objects that need an icon and text computed for
+	// display to the user, in the order they were requested
+	LinkedList decorationQueue = new LinkedList();
+
+	// The queued references keyed by element so that requests for the same
+	// element are merged
+	Map queuedReferences = new HashMap();
+
+	// The elements being decorated by a worker. A reference queued for one of
+	// them is left to that worker so that an element is never decorated by
+	// two workers at once. Guarded by the scheduler.
+	Set decoratingElements = new HashSet();
 
 	// Objects that are awaiting a label update.
 	Set pendingUpdate = new HashSet();
@@ -60,13 +85,15 @@ public class DecorationScheduler {
 	// Key to lock write access to the pending update set
 	Object pendingKey = new Object();
 
-	Map awaitingDecorationValues = new HashMap();
-
 	DecoratorManager decoratorManager;
 
 	boolean shutdown = false;
 
-	Job decorationJob;
+	Job[] decorationJobs;
+
+	// Whether each decoration worker has been scheduled and has not yet
+	// found the queue empty. Guarded by the scheduler.
+	boolean[] activeWorkers;
 
 	UIJob updateJob;
 
@@ -89,7 +116,7 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		createDecorationJobs();
 	}
 
 	/**
@@ -139,7 +166,7 @@ public class DecorationScheduler {
 			IDecorationContext context) {
 
 		Assert.isNotNull(context);
-		DecorationReference reference = (DecorationReference) awaitingDecorationValues
+		DecorationReference reference = (DecorationReference) queuedReferences
 				.get(element);
 		if (reference != null) {
 			if (forceUpdate) {// Make sure we don't loose a force
@@ -151,16 +178,43 @@ public class DecorationScheduler {
 					context);
 			reference.setForceUpdate(forceUpdate);
 			reference.setUndecoratedText(undecoratedText);
-			awaitingDecorationValues.put(element, reference);
-			awaitingDecoration.add(element);
+			queuedReferences.put(element, reference);
+			decorationQueue.addLast(reference);
 			if (shutdown) {
 				return;
 			}
-			decorationJob.schedule();
+			scheduleWorkers();
 		}
 
 	}
 
+	/**
+	 * Schedule idle decoration workers until there are as many active workers
+	 * as queued elements, up to the size of the pool. A worker stays active
+	 * until it finds the queue empty, so it cannot miss an element queued
+	 * while it is running. A worker whose job is not scheduled anymore, for
+	 * instance because it was canceled, is idle.
+	 */
+	private void scheduleWorkers() {
+		int required = Math.min(decorationJobs.length, decorationQueue.size());
+		int active = 0;
+		for (int i = 0; i < decorationJobs.length; i++) {
+			if (activeWorkers[i] && decorationJobs[i].getState() == Job.NONE) {
+				activeWorkers[i] = false;
+			}
+			if (activeWorkers[i]) {
+				active++;
+			}
+		}
+		for (int i = 0; i < decorationJobs.length && active < required; i++) {
+			if (!activeWorkers[i]) {
+				activeWorkers[i] = true;
+				active++;
+				decorationJobs[i].schedule();
+			}
+		}
+	}
+
 	/**
 	 * Decorate the supplied image, element and its adapted value.
 	 * 
@@ -219,21 +273,34 @@ public class DecorationScheduler {
 
 	private DecorationResult internalGetResult(Object element,
 			IDecorationContext context) {
-		Map results = (Map) resultCache.get(context);
-		if (results != null) {
-			return (DecorationResult) results.get(element);
+		synchronized (resultCache) {
+			Map results = (Map) resultCache.get(context);
+			if (results != null) {
+				return (DecorationResult) results.get(element);
+			}
 		}
 		return null;
 	}
 
 	protected void internalPutResult(Object element,
 			IDecorationContext context, DecorationResult result) {
-		Map results = (Map) resultCache.get(context);
-		if (results == null) {
-			results = new HashMap();
-			resultCache.put(context, results);
+		synchronized (resultCache) {
+			Map results = (Map) resultCache.get(context);
+			if (results == null) {
+				results = new HashMap();
+				resultCache.put(context, results);
+			}
+			results.put(element, result);
+		}
+	}
+
+	/**
+	 * Clear all of the cached decoration results.
+	 */
+	private void clearResultCache() {
+		synchronized (resultCache) {
+			resultCache.clear();
 		}
-		results.put(element, result);
 	}
 
 	/**
@@ -263,25 +330,90 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Get the next resource to be decorated.
+	 * Get the next resource to be decorated, skipping the elements being
+	 * decorated by other workers. The worker becomes idle when there is none.
 	 * 
+	 * @param worker
+	 *            the index of the decoration worker
 	 * @return IResource
 	 */
-	synchronized DecorationReference nextElement() {
+	synchronized DecorationReference nextElement(int worker) {
+
+		if (!shutdown) {
+			for (Iterator iterator = decorationQueue.iterator(); iterator
+					.hasNext();) {
+				DecorationReference reference = (DecorationReference) iterator
+						.next();
+				Object element = reference.getElement();
+				if (decoratingElements.add(element)) {
+					iterator.remove();
+					queuedReferences.remove(element);
+					return reference;
+				}
+			}
+		}
+		activeWorkers[worker] = false;
+		return null;
+	}
+
+	/**
+	 * The worker is done with the element. A reference queued for it
+	 * meanwhile is taken by the next call to nextElement of the same worker.
+	 * 
+	 * @param element
+	 */
+	synchronized void elementDecorated(Object element) {
+		decoratingElements.remove(element);
+	}
 
-		if (shutdown || awaitingDecoration.isEmpty()) {
-			return null;
+	/**
+	 * Return whether or not there are elements waiting for decoration.
+	 * 
+	 * @return <code>true</code> if the queue is empty
+	 */
+	synchronized boolean isQueueEmpty() {
+		return decorationQueue.isEmpty();
+	}
+
+	/**
+	 * Return the number of decoration workers to use, one unless more are
+	 * asked for with the {@link #WORKER_COUNT_PROPERTY} system property.
+	 * 
+	 * @return int
+	 */
+	static int getWorkerCount() {
+		String property = System.getProperty(WORKER_COUNT_PROPERTY);
+		if (property != null) {
+			try {
+				return Math.max(1, Integer.parseInt(property));
+			} catch (NumberFormatException e) {
+				// Fall through to the default
+			}
 		}
-		Object element = awaitingDecoration.remove(0);
+		return 1;
+	}
 
-		return (DecorationReference) awaitingDecorationValues.remove(element);
+	/**
+	 * Create the pool of jobs used for running decoration.
+	 */
+	private void createDecorationJobs() {
+		decorationJobs = new Job[getWorkerCount()];
+		activeWorkers = new boolean[decorationJobs.length];
+		for (int i = 0; i < decorationJobs.length; i++) {
+			decorationJobs[i] = createDecorationJob(i);
+		}
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * Create a Job used for running decoration. Each worker pulls elements
+	 * from the shared queue until it is empty.
+	 * 
+	 * @param worker
+	 *            the index of the worker in the pool
+	 * @return Job
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(
+	private Job createDecorationJob(final int worker) {
+		Job decorationJob = new Job(
 				WorkbenchMessages.DecorationScheduler_CalculationJobName) {
 			/*
 			 * (non-Javadoc)
@@ -314,7 +446,8 @@ public class DecorationScheduler {
 				DecorationReference reference;
 				monitor.worked(5);
 				int workCount = 5;
-				while ((reference = nextElement()) != null) {
+				int batchCount = 0;
+				while ((reference = nextElement(worker)) != null) {
 
 					// Count up to 90 to give the appearance of updating
 					if (workCount < 90) {
@@ -326,15 +459,23 @@ public class DecorationScheduler {
 					Object element = reference.getElement();
 					boolean force = reference.shouldForceUpdate();
 					IDecorationContext[] contexts = reference.getContexts();
-					for (int i = 0; i < contexts.length; i++) {
-						IDecorationContext context = contexts[i];
-						ensureResultCached(element, force, context);
+					try {
+						for (int i = 0; i < contexts.length; i++) {
+							IDecorationContext context = contexts[i];
+							ensureResultCached(element, force, context);
+						}
+					} finally {
+						elementDecorated(element);
 					}
 
-					// Only notify listeners when we have exhausted the
-					// queue of decoration requests.
+					// Notify listeners when we have exhausted the queue of
+					// decoration requests or when a batch is ready so that
+					// long queues show progress.
+					batchCount++;
 					synchronized (DecorationScheduler.this) {
-						if (awaitingDecoration.isEmpty()) {
+						if (decorationQueue.isEmpty()
+								|| batchCount >= UPDATE_BATCH_SIZE) {
+							batchCount = 0;
 							decorated();
 						}
 					}
@@ -421,6 +562,7 @@ public class DecorationScheduler {
 		decorationJob.setSystem(true);
 		decorationJob.setPriority(Job.DECORATE);
 		decorationJob.schedule();
+		return decorationJob;
 	}
 
 	/**
@@ -459,7 +601,7 @@ public class DecorationScheduler {
 			 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
 			 */
 			protected IStatus run(IProgressMonitor monitor) {
-				resultCache.clear();
+				clearResultCache();
 				return Status.OK_STATUS;
 			}
 
@@ -563,8 +705,8 @@ public class DecorationScheduler {
                 // Other decoration requests may have occurred due to
                 // updates or we may have timed out updating listeners.
                 // Only clear the results if there are none pending.
-                if (awaitingDecoration.isEmpty()) {
-                    resultCache.clear();
+                if (isQueueEmpty()) {
+                    clearResultCache();
                 }
             }
             
@@ -684,7 +826,7 @@ public class DecorationScheduler {
 	 * @return boolean
 	 */
 	public boolean processingUpdates() {
-		return !hasPendingUpdates() && !awaitingDecoration.isEmpty();
+		return !hasPendingUpdates() && !isQueueEmpty();
 	}
 
 	/**
@@ -21,6 +21,7 @@ import org.eclipse.ui.internal.ActionExpression;
 import org.eclipse.ui.internal.IObjectContributor;
 import org.eclipse.ui.internal.LegacyResourceSupport;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.UIStats;
 
 /**
  * The DeclarativeDecoratorDefinition is a decorator definition that is defined
@@ -102,7 +103,7 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 	 * 
 	 * @return Returns a ILabelDecorator
 	 */
-	protected ILightweightLabelDecorator internalGetDecorator()
+	protected synchronized ILightweightLabelDecorator internalGetDecorator()
 			throws CoreException {
 		if (labelProviderCreationFailed) {
 			return null;
@@ -275,6 +276,21 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 
 	}
 
+	/**
+	 * Record a run of this decorator.
+	 * 
+	 * @param nanos
+	 *            the time spent decorating in nanoseconds
+	 * @param element
+	 *            the element that was decorated
+	 */
+	void recordDecoration(long nanos, Object element) {
+		if (UIStats.isDebugging(UIStats.DECORATE)) {
+			UIStats.addRun(UIStats.DECORATE, getId(), nanos / 1000000L,
+					element.getClass().getName());
+		}
+	}
+
 	/**
 	 * Returns the lightweight decorator, or <code>null</code> if not enabled.
 	 * 
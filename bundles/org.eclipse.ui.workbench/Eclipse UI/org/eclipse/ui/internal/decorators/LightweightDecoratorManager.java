@@ -94,8 +94,6 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		}
 	}
 
-	private LightweightRunnable runnable = new LightweightRunnable();
-
 	// The lightweight definitions read from the registry
 	private LightweightDecoratorDefinition[] lightweightDefinitions;
 
@@ -310,7 +308,12 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		List elements = new ArrayList(1);
 		elements.add(element);
 		LightweightDecoratorDefinition[] decoratorArray = EMPTY_LIGHTWEIGHT_DEF;
-		List contributors = getContributors(elements);
+		List contributors;
+		// The contributor lookup caches are shared by all of the decoration
+		// workers
+		synchronized (this) {
+			contributors = getContributors(elements);
+		}
 		if (!contributors.isEmpty()) {
 			Collection decorators = DecoratorManager.getDecoratorsFor(element,
 					(DecoratorDefinition[]) contributors
@@ -349,7 +352,9 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	}
 
 	/**
-	 * Decorate the element receiver in a SafeRunnable.
+	 * Decorate the element receiver in a SafeRunnable. A new runnable is used
+	 * for each decoration as several decoration workers may be running at
+	 * once. The time spent is recorded against the decorator.
 	 * 
 	 * @param element
 	 *            The Object to be decorated
@@ -361,8 +366,11 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	private void decorate(Object element, DecorationBuilder decoration,
 			LightweightDecoratorDefinition decorator) {
 
+		LightweightRunnable runnable = new LightweightRunnable();
 		runnable.setValues(element, decoration, decorator);
+		long start = System.nanoTime();
 		SafeRunner.run(runnable);
+		decorator.recordDecoration(System.nanoTime() - start, element);
 	}
 
 	
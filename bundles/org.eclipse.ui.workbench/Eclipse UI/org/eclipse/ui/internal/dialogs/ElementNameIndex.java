@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.dialogs;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.eclipse.ui.dialogs.SearchPattern;
+
+/**
+ * An index over the names of the items cached by a
+ * <code>FilteredItemsSelectionDialog</code>. It answers the items whose name
+ * may match a {@link SearchPattern} without running the pattern against every
+ * name: exact, prefix and camel case patterns are answered from the names
+ * sorted ignoring case, wildcard patterns from the trigrams of the names.
+ * <p>
+ * The candidates are a superset of the matching items, they still have to be
+ * matched against the pattern. The index is immutable once built, except for
+ * the trigram table which is created on first use.
+ * </p>
+ */
+public final class ElementNameIndex {
+
+	private static final int[] NO_POSITIONS = new int[0];
+
+	private final Object[] items;
+
+	/**
+	 * The lower case names, indexed like items.
+	 */
+	private final String[] names;
+
+	/**
+	 * The positions of the items, sorted by lower case name.
+	 */
+	private final int[] sorted;
+
+	/**
+	 * Maps a trigram (<code>Long</code>) to the ascending positions (
+	 * <code>int[]</code>) of the items whose name contains it.
+	 */
+	private Map trigrams;
+
+	/**
+	 * Creates an index over the given items.
+	 *
+	 * @param items
+	 *            the items to index
+	 * @param names
+	 *            the names of the items, indexed like the items. A
+	 *            <code>null</code> name never matches.
+	 */
+	public ElementNameIndex(Object[] items, String[] names) {
+		this.items = items;
+		this.names = new String[names.length];
+		for (int i = 0; i < names.length; i++) {
+			this.names[i] = names[i] == null ? null : toLowerCase(names[i]);
+		}
+
+		Integer[] order = new Integer[items.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = new Integer(i);
+		}
+		Arrays.sort(order, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				String name1 = ElementNameIndex.this.names[((Integer) o1)
+						.intValue()];
+				String name2 = ElementNameIndex.this.names[((Integer) o2)
+						.intValue()];
+				if (name1 == null)
+					return name2 == null ? 0 : -1;
+				if (name2 == null)
+					return 1;
+				return name1.compareTo(name2);
+			}
+		});
+		sorted = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sorted[i] = order[i].intValue();
+		}
+	}
+
+	/**
+	 * Returns the number of indexed items.
+	 *
+	 * @return the number of items
+	 */
+	public int size() {
+		return items.length;
+	}
+
+	/**
+	 * Returns the items whose name may match the given pattern.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return the candidates, or <code>null</code> if the index cannot narrow
+	 *         the items for this pattern and all of them have to be matched
+	 */
+	public Object[] getCandidates(SearchPattern pattern) {
+		String text = pattern.getPattern();
+		if (text.length() == 0)
+			return null;
+		switch (pattern.getMatchRule()) {
+		case SearchPattern.RULE_EXACT_MATCH:
+		case SearchPattern.RULE_PREFIX_MATCH:
+			return getPrefixCandidates(toLowerCase(text));
+		case SearchPattern.RULE_CAMELCASE_MATCH:
+			// both the camel case match and its prefix fallback require the
+			// first character to match
+			return getPrefixCandidates(toLowerCase(text.substring(0, 1)));
+		case SearchPattern.RULE_PATTERN_MATCH:
+			return getWildcardCandidates(toLowerCase(text));
+		default:
+			return null;
+		}
+	}
+
+	private Object[] getPrefixCandidates(String prefix) {
+		int from = lowerBound(prefix);
+		int to = lowerBound(prefix + Character.MAX_VALUE);
+		Object[] result = new Object[Math.max(0, to - from)];
+		for (int i = from; i < to; i++) {
+			result[i - from] = items[sorted[i]];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first position in the sorted order whose name is not less
+	 * than the given key.
+	 */
+	private int lowerBound(String key) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			String name = names[sorted[mid]];
+			if (name == null || name.compareTo(key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private Object[] getWildcardCandidates(String pattern) {
+		if (pattern.indexOf('\\') != -1) {
+			// escaped wildcards are left to the matcher
+			return null;
+		}
+		char first = pattern.charAt(0);
+		if (first != '*' && first != '?') {
+			int end = 1;
+			while (end < pattern.length() && pattern.charAt(end) != '*'
+					&& pattern.charAt(end) != '?') {
+				end++;
+			}
+			return getPrefixCandidates(pattern.substring(0, end));
+		}
+
+		int[] positions = null;
+		int start = 0;
+		for (int i = 0; i <= pattern.length(); i++) {
+			if (i < pattern.length() && pattern.charAt(i) != '*'
+					&& pattern.charAt(i) != '?')
+				continue;
+			for (int j = start; j + 3 <= i; j++) {
+				int[] postings = (int[]) getTrigrams().get(
+						trigram(pattern, j));
+				if (postings == null)
+					return new Object[0];
+				positions = positions == null ? postings : intersect(
+						positions, postings);
+				if (positions.length == 0)
+					return new Object[0];
+			}
+			start = i + 1;
+		}
+		if (positions == null)
+			return null;
+
+		Object[] result = new Object[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			result[i] = items[positions[i]];
+		}
+		return result;
+	}
+
+	private synchronized Map getTrigrams() {
+		if (trigrams == null) {
+			Map postings = new HashMap();
+			for (int i = 0; i < names.length; i++) {
+				String name = names[i];
+				if (name == null)
+					continue;
+				for (int j = 0; j + 3 <= name.length(); j++) {
+					Long key = trigram(name, j);
+					Postings list = (Postings) postings.get(key);
+					if (list == null) {
+						list = new Postings();
+						postings.put(key, list);
+					}
+					list.add(i);
+				}
+			}
+			Map result = new HashMap(postings.size());
+			for (Iterator it = postings.entrySet().iterator(); it
+					.hasNext();) {
+				Map.Entry entry = (Map.Entry) it.next();
+				result.put(entry.getKey(), ((Postings) entry.getValue())
+						.toArray());
+			}
+			trigrams = result;
+		}
+		return trigrams;
+	}
+
+	private static Long trigram(String text, int offset) {
+		return new Long(((long) text.charAt(offset) << 32)
+				| ((long) text.charAt(offset + 1) << 16)
+				| text.charAt(offset + 2));
+	}
+
+	private static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[count++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		if (count == 0)
+			return NO_POSITIONS;
+		if (count == result.length)
+			return result;
+		int[] trimmed = new int[count];
+		System.arraycopy(result, 0, trimmed, 0, count);
+		return trimmed;
+	}
+
+	/**
+	 * Lower cases the text one character at a time, the way
+	 * {@link SearchPattern} compares names ignoring case.
+	 */
+	private static String toLowerCase(String text) {
+		char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * A growable list of ascending item positions.
+	 */
+	private static final class Postings {
+		private int[] positions = new int[4];
+
+		private int size;
+
+		void add(int position) {
+			// a name containing the same trigram twice is recorded once
+			if (size > 0 && positions[size - 1] == position)
+				return;
+			if (size == positions.length) {
+				int[] grown = new int[size * 2];
+				System.arraycopy(positions, 0, grown, 0, size);
+				positions = grown;
+			}
+			positions[size++] = position;
+		}
+
+		int[] toArray() {
+			int[] result = new int[size];
+			System.arraycopy(positions, 0, result, 0, size);
+			return result;
+		}
+	}
+}
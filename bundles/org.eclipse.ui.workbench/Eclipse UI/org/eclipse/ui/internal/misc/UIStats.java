@@ -57,10 +57,12 @@ public class UIStats {
 	
 	public static final int CONTENT_TYPE_LOOKUP = 14;
 
+	public static final int DECORATE = 15;
+
     /**
      * Change this value when you add a new event constant.
      */
-    public static final int LAST_VALUE = CONTENT_TYPE_LOOKUP;
+    public static final int LAST_VALUE = DECORATE;
 
     private static boolean debug[] = new boolean[LAST_VALUE+1];
 
@@ -82,6 +84,7 @@ public class UIStats {
         events[NOTIFY_PERSPECTIVE_LISTENERS] = PlatformUI.PLUGIN_ID + "/perf/perspective.listeners"; //$NON-NLS-1$
         events[UI_JOB] = PlatformUI.PLUGIN_ID + "/perf/uijob"; //$NON-NLS-1$
 		events[CONTENT_TYPE_LOOKUP] = PlatformUI.PLUGIN_ID + "/perf/contentTypes"; //$NON-NLS-1$
+		events[DECORATE] = PlatformUI.PLUGIN_ID + "/perf/decorators"; //$NON-NLS-1$
 
         for (int i = 0; i <= LAST_VALUE; i++) {
         	//don't log any performance events if the general performance stats is disabled
@@ -135,6 +138,22 @@ public class UIStats {
         }
     }
    	
+   	/**
+   	 * Records a performance operation that was timed by the caller. Use this
+   	 * instead of {@link #start(int, String)} and
+   	 * {@link #end(int, Object, String)} for events that run concurrently.
+   	 * 
+   	 * @param event The event id
+   	 * @param blame An object that is responsible for the event that occurred
+   	 * @param elapsed The elapsed time in milliseconds
+   	 * @param label The event label
+   	 */
+   	public static void addRun(int event, Object blame, long elapsed, String label) {
+   		if (debug[event]) {
+   			PerformanceStats.getStats(events[event], blame).addRun(elapsed, label);
+   		}
+   	}
+
    	/**
    	 * Special hook to signal that application startup is complete and the event
    	 * loop has started running.
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.progress;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * The ProgressUpdateAggregator collects the progress reported by the job
+ * monitors and refreshes the listeners of the {@link ProgressManager} with the
+ * current state of each changed {@link JobInfo} once per update period, no
+ * matter how often the job reported progress in between. Reporting progress
+ * does not take any lock.
+ */
+public class ProgressUpdateAggregator {
+
+	/**
+	 * The system property setting the period in milliseconds between two
+	 * refreshes of a job. A period of <code>0</code> refreshes the listeners
+	 * on every progress report.
+	 */
+	static final String UPDATE_PERIOD_PROPERTY = "org.eclipse.ui.progress.updatePeriod"; //$NON-NLS-1$
+
+	static final long DEFAULT_UPDATE_PERIOD = 100;
+
+	private final ProgressManager manager;
+
+	private final long updatePeriod;
+
+	// the job infos with progress not yet sent to the listeners
+	private final Map pendingInfos = new ConcurrentHashMap();
+
+	private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
+	private final AtomicLong sentCount = new AtomicLong();
+
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final Job updateJob;
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param manager
+	 *            the manager whose listeners are refreshed
+	 */
+	ProgressUpdateAggregator(ProgressManager manager) {
+		this(manager, Long.getLong(UPDATE_PERIOD_PROPERTY,
+				DEFAULT_UPDATE_PERIOD).longValue());
+	}
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param manager
+	 *            the manager whose listeners are refreshed
+	 * @param updatePeriod
+	 *            the period in milliseconds between two refreshes
+	 */
+	public ProgressUpdateAggregator(ProgressManager manager, long updatePeriod) {
+		this.manager = manager;
+		this.updatePeriod = Math.max(0, updatePeriod);
+		updateJob = new Job(
+				ProgressMessages.ProgressContentProvider_UpdateProgressJob) {
+			/*
+			 * (non-Javadoc)
+			 *
+			 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+			 */
+			protected IStatus run(IProgressMonitor monitor) {
+				updateScheduled.set(false);
+				sendPendingUpdates();
+				return Status.OK_STATUS;
+			}
+		};
+		updateJob.setSystem(true);
+		updateJob.setPriority(Job.INTERACTIVE);
+		updateJob.setProperty(ProgressManagerUtil.INFRASTRUCTURE_PROPERTY,
+				new Object());
+	}
+
+	/**
+	 * Refresh the listeners with the state of the info at the end of the
+	 * current update period.
+	 *
+	 * @param info
+	 */
+	public void refreshLater(JobInfo info) {
+		if (updatePeriod == 0) {
+			sentCount.incrementAndGet();
+			manager.refreshJobInfo(info);
+			return;
+		}
+		if (pendingInfos.put(info, info) != null) {
+			coalescedCount.incrementAndGet();
+			return;
+		}
+		if (updateScheduled.compareAndSet(false, true)) {
+			updateJob.schedule(updatePeriod);
+		}
+	}
+
+	/**
+	 * Refresh the listeners with the pending infos. The infos of jobs that
+	 * have been removed from the manager since are dropped.
+	 */
+	public void sendPendingUpdates() {
+		Iterator infos = pendingInfos.keySet().iterator();
+		while (infos.hasNext()) {
+			JobInfo info = (JobInfo) infos.next();
+			infos.remove();
+			if (manager.internalGetJobInfo(info.getJob()) == info) {
+				sentCount.incrementAndGet();
+				manager.refreshJobInfo(info);
+			} else {
+				droppedCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Drop the pending updates and stop refreshing the listeners.
+	 */
+	public void shutdown() {
+		updateJob.cancel();
+		droppedCount.addAndGet(pendingInfos.size());
+		pendingInfos.clear();
+	}
+
+	/**
+	 * @return the number of refreshes sent to the listeners
+	 */
+	public long getSentCount() {
+		return sentCount.get();
+	}
+
+	/**
+	 * @return the number of progress reports merged into a pending refresh
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * @return the number of pending refreshes dropped because their job was
+	 *         removed first
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Reset the counters.
+	 */
+	public void resetCounts() {
+		sentCount.set(0);
+		coalescedCount.set(0);
+		droppedCount.set(0);
+	}
+}
@@ -15,10 +15,12 @@ import org.eclipse.e4.core.commands.ExpressionContext;
 
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
+import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.expressions.IEvaluationContext;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.contexts.RunAndTrack;
+import org.eclipse.e4.ui.services.IServiceConstants;
 import org.eclipse.e4.ui.internal.workbench.Activator;
 import org.eclipse.e4.ui.internal.workbench.Policy;
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -40,6 +42,23 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 	boolean postingChanges = true;
 	boolean hasRun = false;
 
+	/**
+	 * The variables read by the expression. The default variable is read from
+	 * the active selection.
+	 */
+	final String[] variableNames;
+
+	/**
+	 * The properties tested by the expression.
+	 */
+	final String[] propertyNames;
+
+	/**
+	 * Whether the expression info lists everything the expression reads. If
+	 * not, the reference has to track its reads in the context.
+	 */
+	final boolean describedByInfo;
+
 	public EvaluationReference(IEclipseContext context, Expression expression,
 			IPropertyChangeListener listener, String property) {
 		this.context = context;
@@ -47,6 +66,23 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 		this.listener = listener;
 		this.property = property;
 		this.sourcePriority = SourcePriorityNameMapping.computeSourcePriority(expression);
+		if (expression == null) {
+			variableNames = new String[0];
+			propertyNames = new String[0];
+			describedByInfo = true;
+		} else {
+			ExpressionInfo info = expression.computeExpressionInfo();
+			String[] names = info.getAccessedVariableNames();
+			if (info.hasDefaultVariableAccess()) {
+				String[] withSelection = new String[names.length + 1];
+				System.arraycopy(names, 0, withSelection, 0, names.length);
+				withSelection[names.length] = IServiceConstants.ACTIVE_SELECTION;
+				names = withSelection;
+			}
+			variableNames = names;
+			propertyNames = info.getAccessedPropertyNames();
+			describedByInfo = info.getMisbehavingExpressionTypes() == null;
+		}
 	}
 
 	/*
@@ -126,6 +162,18 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 		return participating;
 	}
 
+	/**
+	 * Evaluate the expression without recording its reads in the context
+	 * tracking the caller.
+	 */
+	void evaluateUntracked() {
+		runExternalCode(new Runnable() {
+			public void run() {
+				evaluate();
+			}
+		});
+	}
+
 	public void evaluate() {
 		boolean value = cache;
 		evaluate(new ExpressionContext(context));
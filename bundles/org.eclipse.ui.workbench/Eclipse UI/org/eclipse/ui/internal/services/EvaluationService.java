@@ -14,13 +14,16 @@ package org.eclipse.ui.internal.services;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import org.eclipse.core.expressions.Expression;
-import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.expressions.IEvaluationContext;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.ListenerList;
@@ -42,6 +45,11 @@ import org.eclipse.ui.services.IEvaluationReference;
 import org.eclipse.ui.services.IEvaluationService;
 
 /**
+ * References whose expression info lists everything their expression reads
+ * are indexed by the variables and properties they read, and only the
+ * references reading a changed variable are evaluated again. The other
+ * references track their reads in the context.
+ * 
  * @since 3.3
  * 
  */
@@ -59,20 +67,39 @@ public final class EvaluationService implements IEvaluationService {
 	LinkedList<EvaluationReference> refs = new LinkedList<EvaluationReference>();
 	private ISourceProviderListener contextUpdater;
 
+	private HashMap<String, Set<EvaluationReference>> refsByVariable = new HashMap<String, Set<EvaluationReference>>();
+	private HashMap<String, Set<EvaluationReference>> refsByProperty = new HashMap<String, Set<EvaluationReference>>();
+	private HashMap<String, int[]> evaluationCounts = new HashMap<String, int[]>();
+
 	private HashSet<String> ratVariables = new HashSet<String>();
 	private RunAndTrack ratUpdater = new RunAndTrack() {
 		@Override
 		public boolean changed(IEclipseContext context) {
 			context.get(RE_EVAL);
 			String[] vars = ratVariables.toArray(new String[ratVariables.size()]);
+			final List<String> changedVars = new ArrayList<String>();
 			for (String var : vars) {
 				Object value = context.getActive(var);
+				if (value != ratContext.getLocal(var)) {
+					changedVars.add(var);
+				}
 				if (value == null) {
 					ratContext.remove(var);
 				} else {
 					ratContext.set(var, value);
 				}
 			}
+			if (!changedVars.isEmpty()) {
+				runExternalCode(new Runnable() {
+					public void run() {
+						LinkedHashSet<EvaluationReference> toEvaluate = new LinkedHashSet<EvaluationReference>();
+						for (String var : changedVars) {
+							collectReferences(var, refsByVariable.get(var), false, toEvaluate);
+						}
+						evaluateReferences(toEvaluate);
+					}
+				});
+			}
 			return true;
 		}
 	};
@@ -201,6 +228,8 @@ public final class EvaluationService implements IEvaluationService {
 			invalidate(ref, false);
 		}
 		refs.clear();
+		refsByVariable.clear();
+		refsByProperty.clear();
 		serviceListeners.clear();
 	}
 
@@ -253,25 +282,110 @@ public final class EvaluationService implements IEvaluationService {
 		EvaluationReference eref = (EvaluationReference) ref;
 		refs.add(eref);
 		boolean changed = false;
-		if (eref.getExpression() != null) {
-			ExpressionInfo info = new ExpressionInfo();
-			eref.getExpression().collectExpressionInfo(info);
-			for (String varName : info.getAccessedVariableNames()) {
-				if (ratVariables.add(varName)) {
-					changed = true;
-				}
-			}
-
-			if (info.hasDefaultVariableAccess()
-					&& ratVariables.add(IServiceConstants.ACTIVE_SELECTION)) {
+		for (String varName : eref.variableNames) {
+			if (ratVariables.add(varName)) {
 				changed = true;
 			}
 		}
 		if (changed) {
 			contextEvaluate();
 		}
+		index(refsByVariable, eref.variableNames, eref);
+		index(refsByProperty, eref.propertyNames, eref);
 		eref.participating = true;
-		ratContext.runAndTrack(eref);
+		if (eref.describedByInfo) {
+			eref.evaluateUntracked();
+		} else {
+			ratContext.runAndTrack(eref);
+		}
+	}
+
+	private static void index(Map<String, Set<EvaluationReference>> refsByName, String[] names,
+			EvaluationReference ref) {
+		for (String name : names) {
+			Set<EvaluationReference> nameRefs = refsByName.get(name);
+			if (nameRefs == null) {
+				nameRefs = new LinkedHashSet<EvaluationReference>();
+				refsByName.put(name, nameRefs);
+			}
+			nameRefs.add(ref);
+		}
+	}
+
+	private static void unindex(Map<String, Set<EvaluationReference>> refsByName, String[] names,
+			EvaluationReference ref) {
+		for (String name : names) {
+			Set<EvaluationReference> nameRefs = refsByName.get(name);
+			if (nameRefs != null && nameRefs.remove(ref) && nameRefs.isEmpty()) {
+				refsByName.remove(name);
+			}
+		}
+	}
+
+	/**
+	 * Add the references to evaluate for a change of the named source,
+	 * counting each of them once, for the first source it is collected for.
+	 * 
+	 * @param name
+	 *            the variable or property name
+	 * @param nameRefs
+	 *            the references reading it, or <code>null</code>
+	 * @param includeTracking
+	 *            whether to collect the references tracking their reads in
+	 *            the context
+	 * @param toEvaluate
+	 *            the references to evaluate
+	 */
+	private void collectReferences(String name, Set<EvaluationReference> nameRefs,
+			boolean includeTracking, Set<EvaluationReference> toEvaluate) {
+		if (nameRefs == null) {
+			return;
+		}
+		int count = 0;
+		for (EvaluationReference ref : nameRefs) {
+			if ((includeTracking || ref.describedByInfo) && toEvaluate.add(ref)) {
+				count++;
+			}
+		}
+		if (count > 0) {
+			int[] total = evaluationCounts.get(name);
+			if (total == null) {
+				total = new int[1];
+				evaluationCounts.put(name, total);
+			}
+			total[0] += count;
+		}
+	}
+
+	private void evaluateReferences(Set<EvaluationReference> toEvaluate) {
+		for (EvaluationReference ref : toEvaluate) {
+			// a listener may have removed the reference meanwhile
+			if (ref.participating) {
+				ref.evaluate();
+			}
+		}
+	}
+
+	/**
+	 * Return the number of evaluations caused by changes to the given source
+	 * variable or by requests to evaluate the given property since the counts
+	 * were last reset. Evaluations of references tracking their reads in the
+	 * context are not counted.
+	 * 
+	 * @param sourceName
+	 *            the variable or property name
+	 * @return the number of evaluations
+	 */
+	public int getEvaluationCount(String sourceName) {
+		int[] total = evaluationCounts.get(sourceName);
+		return total == null ? 0 : total[0];
+	}
+
+	/**
+	 * Reset the evaluation counts of all sources.
+	 */
+	public void resetEvaluationCounts() {
+		evaluationCounts.clear();
 	}
 
 	private void invalidate(IEvaluationReference ref, boolean remove) {
@@ -279,6 +393,8 @@ public final class EvaluationService implements IEvaluationService {
 			refs.remove(ref);
 		}
 		EvaluationReference eref = (EvaluationReference) ref;
+		unindex(refsByVariable, eref.variableNames, eref);
+		unindex(refsByProperty, eref.propertyNames, eref);
 		eref.participating = false;
 		eref.evaluate();
 		eref.hasRun = false;
@@ -316,31 +432,10 @@ public final class EvaluationService implements IEvaluationService {
 
 		String[] sourceNames = new String[] { propertyName };
 		startSourceChange(sourceNames);
-		for (EvaluationReference ref : refs) {
-			Expression expr = ref.getExpression();
-			if (expr != null) {
-				boolean evaluated = false;
-				ExpressionInfo info = expr.computeExpressionInfo();
-				String[] names = info.getAccessedPropertyNames();
-				for (String name : names) {
-					if (propertyName.equals(name)) {
-						evaluated = true;
-						ref.evaluate();
-						break;
-					}
-				}
-				if (!evaluated) {
-					names = info.getAccessedVariableNames();
-					for (String name : names) {
-						if (propertyName.equals(name)) {
-							evaluated = true;
-							ref.evaluate();
-							break;
-						}
-					}
-				}
-			}
-		}
+		LinkedHashSet<EvaluationReference> toEvaluate = new LinkedHashSet<EvaluationReference>();
+		collectReferences(propertyName, refsByProperty.get(propertyName), true, toEvaluate);
+		collectReferences(propertyName, refsByVariable.get(propertyName), true, toEvaluate);
+		evaluateReferences(toEvaluate);
 		endSourceChange(sourceNames);
 	}
 
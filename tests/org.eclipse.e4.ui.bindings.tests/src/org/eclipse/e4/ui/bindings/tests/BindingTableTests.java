@@ -362,6 +362,51 @@ public class BindingTableTests extends TestCase {
 		assertEquals(about, it.next());
 	}
 
+	public void testManagerFollowsTableChanges() throws Exception {
+		IEclipseContext context = Activator.getDefault().getGlobalContext()
+				.createChild("tableChanges");
+		BindingTableManager manager = (BindingTableManager) ContextInjectionFactory
+				.make(BindingTableManager.class, context);
+		BindingTable dawTable = loadTable(ID_DIALOG_AND_WINDOW);
+		BindingTable textTable = loadTable(ID_TEXT);
+		manager.addTable(dawTable);
+		manager.addTable(textTable);
+
+		ArrayList<Context> text = new ArrayList<Context>();
+		text.add(contextManager.getContext(ID_DIALOG_AND_WINDOW));
+		text.add(contextManager.getContext(ID_TEXT));
+		ContextSet textSet = manager.createContextSet(text);
+
+		Binding about = getTestBinding(ABOUT_ID);
+		KeySequence ctrl5 = KeySequence.getInstance("CTRL+5");
+		KeySequence ctrl5V = KeySequence.getInstance("CTRL+5 V");
+		assertEquals(about, manager.getPerfectMatch(textSet, about
+				.getTriggerSequence()));
+		assertTrue(manager.isPartialMatch(textSet, ctrl5));
+
+		dawTable.removeBinding(about);
+		assertNull(manager.getPerfectMatch(textSet, about.getTriggerSequence()));
+		assertTrue(manager.isPartialMatch(textSet, ctrl5));
+		assertFalse(dawTable.isPartialMatch(ctrl5));
+
+		Binding pasteCtrl5 = manager.getPerfectMatch(textSet, ctrl5V);
+		assertNotNull(pasteCtrl5);
+		textTable.removeBinding(pasteCtrl5);
+		assertNull(manager.getPerfectMatch(textSet, ctrl5V));
+		assertFalse(manager.isPartialMatch(textSet, ctrl5));
+		assertNull(textTable.getPartialMatches(ctrl5));
+
+		dawTable.addBinding(about);
+		assertEquals(about, manager.getPerfectMatch(textSet, about
+				.getTriggerSequence()));
+		assertTrue(manager.isPartialMatch(textSet, ctrl5));
+		assertFalse(manager.isPartialMatch(textSet, about.getTriggerSequence()));
+
+		manager.removeTable(dawTable);
+		assertNull(manager.getPerfectMatch(textSet, about.getTriggerSequence()));
+		assertFalse(manager.isPartialMatch(textSet, ctrl5));
+	}
+
 	private BindingTable loadTable(String contextId) {
 		Context context = contextManager.getContext(contextId);
 		BindingTable table = new BindingTable(context);
@@ -57,6 +57,78 @@ public class ViewCSSTest extends TestCase {
 		assertEquals( 2, buttonStyle.getLength() );
 	}
 
+	public void testGetComputedStyleByIdAndClasses() throws Exception {
+		String css = "* { font-style: italic; }\n"
+			+ ".primary { color: blue; }\n"
+			+ "Button.primary.large { color: red; font-weight: bold; }\n"
+			+ "#ok.large { color: green; }\n"
+			+ "Label, .large { background-color: white; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement label = new TestElement("Label", engine);
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(label, null);
+		assertEquals(2, style.getLength());
+		assertNull(style.getPropertyCSSValue("color"));
+
+		label.setClass("primary");
+		style = viewCSS.getComputedStyle(label, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+
+		TestElement button = new TestElement("Button", engine);
+		button.setClass("large  primary");
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("red", style.getPropertyCSSValue("color").getCssText());
+		assertEquals("bold", style.getPropertyCSSValue("font-weight")
+				.getCssText());
+		assertEquals("white", style.getPropertyCSSValue("background-color")
+				.getCssText());
+
+		button.setId("ok");
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("green", style.getPropertyCSSValue("color").getCssText());
+
+		button.setClass("primary");
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+		assertNull(style.getPropertyCSSValue("background-color"));
+	}
+
+	public void testGetComputedStyleForAttributeSelector() throws Exception {
+		String css = "Button { color: blue; }\n"
+			+ "Button[BORDER] { color: gray; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement button = new TestElement("Button", engine);
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+
+		// same type, id and classes but a different attribute
+		TestElement borderButton = new TestElement("Button", engine);
+		borderButton.setAttribute("BORDER", "true");
+		style = viewCSS.getComputedStyle(borderButton, null);
+		assertEquals("gray", style.getPropertyCSSValue("color").getCssText());
+
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+	}
+
+	public void testGetComputedStyleAfterRuleDeleted() throws Exception {
+		String css = "Button { color: blue; }\n"
+			+ "Button { color: green; }\n";
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(styleSheet);
+		ViewCSS viewCSS = new ViewCSSImpl(docCss);
+
+		TestElement button = new TestElement("Button", engine);
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("green", style.getPropertyCSSValue("color").getCssText());
+
+		styleSheet.deleteRule(1);
+		style = viewCSS.getComputedStyle(button, null);
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+	}
+
 	private static ViewCSS createViewCss(String css) throws IOException {
 		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
 		DocumentCSSImpl docCss = new DocumentCSSImpl();
@@ -20,6 +20,7 @@ import org.eclipse.e4.ui.tests.application.ModelElementTest;
 import org.eclipse.e4.ui.tests.application.ModelRobustnessTest;
 import org.eclipse.e4.ui.tests.application.ResourceHandlerTest;
 import org.eclipse.e4.ui.tests.application.StartupTestSuite;
+import org.eclipse.e4.ui.tests.application.StartupTracerTest;
 import org.eclipse.e4.ui.tests.application.UIEventTypesTest;
 import org.eclipse.e4.ui.tests.reconciler.ModelReconcilerTestSuite;
 import org.eclipse.e4.ui.tests.workbench.Bug308317Test;
@@ -75,6 +76,7 @@ public class UIAllTests extends TestSuite {
 		addTestSuite(ModelElementTest.class);
 		addTestSuite(StackRendererTest.class);
 		addTestSuite(TabStateHandlerTest.class);
+		addTestSuite(StartupTracerTest.class);
 		// addTestSuite(SWTPartRendererTest.class);
 	}
 }
@@ -28,7 +28,9 @@ import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
 import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.PartImpl;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.ecore.EObject;
 
 public class EModelServiceFindTest extends TestCase {
 
@@ -277,4 +279,112 @@ public class EModelServiceFindTest extends TestCase {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	public void testFindElementsAfterModelChanges() {
+		MApplication application = createApplication();
+		EModelService modelService = (EModelService) application.getContext()
+				.get(EModelService.class.getName());
+		assertNotNull(modelService);
+
+		List<MPart> parts = modelService.findElements(application,
+				"twoValidIds", MPart.class, null);
+		assertEquals(1, parts.size());
+		MPart part1 = parts.get(0);
+
+		part1.setElementId("changedId");
+		MUIElement remaining = modelService.find("twoValidIds", application);
+		assertTrue(remaining instanceof MPartSashContainer);
+		assertEquals(part1, modelService.find("changedId", application));
+
+		List<String> tags = new ArrayList<String>();
+		tags.add("newTag");
+		part1.getTags().add("newTag");
+		assertEquals(1,
+				modelService.findElements(application, null, null, tags).size());
+		part1.getTags().remove("newTag");
+		assertEquals(0,
+				modelService.findElements(application, null, null, tags).size());
+
+		MPartStack stack = (MPartStack) part1.getParent();
+		stack.getChildren().remove(part1);
+		assertNull(modelService.find("changedId", application));
+		assertEquals(2,
+				modelService.findElements(application, null, MPart.class, null)
+						.size());
+
+		// elements are found in the order of the model
+		stack.getChildren().add(part1);
+		MPart part0 = BasicFactoryImpl.eINSTANCE.createPart();
+		part0.setElementId("changedId");
+		stack.getChildren().add(0, part0);
+		List<MUIElement> elements = modelService.findElements(application,
+				"changedId", null, null);
+		assertEquals(2, elements.size());
+		assertEquals(part0, elements.get(0));
+		assertEquals(part1, elements.get(1));
+	}
+
+	public void testFindSharedElementsFromApplication() {
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		application.setContext(applicationContext);
+
+		MWindow window = BasicFactoryImpl.eINSTANCE.createWindow();
+		application.getChildren().add(window);
+
+		MPart sharedPart = BasicFactoryImpl.eINSTANCE.createPart();
+		sharedPart.setElementId("sharedPart");
+		window.getSharedElements().add(sharedPart);
+
+		MPartStack stack = BasicFactoryImpl.eINSTANCE.createPartStack();
+		window.getChildren().add(stack);
+		MPart part = BasicFactoryImpl.eINSTANCE.createPart();
+		stack.getChildren().add(part);
+
+		EModelService modelService = (EModelService) application.getContext()
+				.get(EModelService.class.getName());
+		assertNotNull(modelService);
+
+		// shared elements are only found through their placeholders
+		assertNull(modelService.find("sharedPart", application));
+
+		MPlaceholder placeholder = AdvancedFactoryImpl.eINSTANCE
+				.createPlaceholder();
+		placeholder.setRef(sharedPart);
+		stack.getChildren().add(0, placeholder);
+		assertEquals(sharedPart, modelService.find("sharedPart", application));
+
+		List<MPart> parts = modelService.findElements(application, null,
+				MPart.class, null);
+		assertEquals(2, parts.size());
+		assertEquals(sharedPart, parts.get(0));
+		assertEquals(part, parts.get(1));
+
+		placeholder.setRef(null);
+		assertNull(modelService.find("sharedPart", application));
+	}
+
+	public void testFindElementsByImplementedClass() {
+		MApplication application = createApplication();
+		EModelService modelService = (EModelService) application.getContext()
+				.get(EModelService.class.getName());
+		assertNotNull(modelService);
+
+		List<MPart> parts = modelService.findElements(application, null,
+				MPart.class, null);
+		assertFalse(parts.isEmpty());
+
+		// classes implemented by the elements rather than by the model
+		// interfaces match the same elements as a walk of the model
+		List<PartImpl> partImpls = modelService.findElements(application,
+				null, PartImpl.class, null);
+		assertEquals(parts, partImpls);
+
+		List<EObject> eObjects = modelService.findElements(application, null,
+				EObject.class, null);
+		List<MUIElement> elements = modelService.findElements(application,
+				null, MUIElement.class, null);
+		assertEquals(elements, eObjects);
+		assertTrue(eObjects.containsAll(parts));
+	}
 }
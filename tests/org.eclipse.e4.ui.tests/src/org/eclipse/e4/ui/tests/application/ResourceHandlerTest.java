@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 IBM Corporation and others.
+ * Copyright (c) 2010, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,16 +11,27 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.E4BinaryResource;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.osgi.service.datalocation.Location;
+import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Filter;
 import org.osgi.framework.FrameworkUtil;
@@ -52,11 +63,19 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 	}
 
 	private ResourceHandler createHandler(URI uri) {
+		return createHandler(uri, true, false);
+	}
+
+	private ResourceHandler createHandler(URI uri, boolean clearPersistedState,
+			boolean binaryModel) {
 		IEclipseContext localContext = applicationContext.createChild();
 		localContext.set(E4Workbench.INSTANCE_LOCATION, getInstanceLocation());
 		localContext.set(E4Workbench.PERSIST_STATE, Boolean.TRUE);
-		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE, Boolean.TRUE);
+		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE,
+				Boolean.valueOf(clearPersistedState));
 		localContext.set(E4Workbench.DELTA_RESTORE, Boolean.TRUE);
+		localContext.set(E4Workbench.BINARY_MODEL,
+				Boolean.valueOf(binaryModel));
 
 		localContext.set(E4Workbench.INITIAL_WORKBENCH_MODEL_URI, uri);
 
@@ -162,4 +181,116 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 				.getChildren().get(0).getChildren().get(7).getElementId());
 	}
 
+	public void testBinaryResource() throws IOException {
+		URI uri = URI.createPlatformPluginURI(
+				"org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		Resource resource = createHandler(uri).loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+
+		E4BinaryResource binary = new E4BinaryResource(
+				URI.createURI("workbench.e4bin"));
+		binary.getContents().add(
+				EcoreUtil.copy((EObject) application));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		binary.save(out, null);
+		String windowId = binary.getID((EObject) ((MApplication) binary
+				.getContents().get(0)).getChildren().get(1));
+
+		E4BinaryResource loaded = new E4BinaryResource(
+				URI.createURI("workbench.e4bin"));
+		loaded.load(new ByteArrayInputStream(out.toByteArray()), null);
+		MApplication loadedApplication = (MApplication) loaded.getContents()
+				.get(0);
+		assertTrue(EcoreUtil.equals((EObject) application,
+				(EObject) loadedApplication));
+		assertEquals(windowId, loaded.getID((EObject) loadedApplication
+				.getChildren().get(1)));
+		assertSame(loadedApplication.getCommands().get(0), loadedApplication
+				.getHandlers().get(0).getCommand());
+
+		// a model written with another format version is not restored
+		byte[] bytes = out.toByteArray();
+		bytes[7]++;
+		try {
+			new E4BinaryResource(URI.createURI("workbench.e4bin")).load(
+					new ByteArrayInputStream(bytes), null);
+			fail("A binary model of another version should not be loaded");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	public void testBinaryResourceAfterModelBundleUpdate() throws IOException {
+		URI uri = URI.createPlatformPluginURI(
+				"org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		Resource resource = createHandler(uri).loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+
+		E4BinaryResource binary = new E4BinaryResource(
+				URI.createURI("workbench.e4bin"));
+		binary.getContents().add(EcoreUtil.copy((EObject) application));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		binary.save(out, null);
+
+		// a product update changes the qualifier of the model bundle but not
+		// the namespace of the model, so the saved model must not depend on it
+		DataInputStream header = new DataInputStream(new ByteArrayInputStream(
+				out.toByteArray()));
+		header.readInt();
+		header.readInt();
+		String version = header.readUTF();
+		assertEquals(ApplicationPackageImpl.eNS_URI, version);
+		Bundle bundle = FrameworkUtil.getBundle(ApplicationPackageImpl.class);
+		if (bundle != null) {
+			assertFalse(version.contains(bundle.getVersion().toString()));
+		}
+
+		E4BinaryResource loaded = new E4BinaryResource(
+				URI.createURI("workbench.e4bin"));
+		loaded.load(new ByteArrayInputStream(out.toByteArray()), null);
+		assertTrue(EcoreUtil.equals((EObject) application,
+				loaded.getContents().get(0)));
+	}
+
+	public void testOlderXMIModelNotRestoredForUnreadableBinaryModel()
+			throws Exception {
+		URI uri = URI.createPlatformPluginURI(
+				"org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		ResourceHandler handler = createHandler(uri);
+		Resource resource = handler.loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+		application.getChildren().get(0).setElementId("outdated");
+		handler.save();
+
+		File baseLocation = new File(URIUtil.toURI(getInstanceLocation()
+				.getURL()));
+		baseLocation = new File(baseLocation,
+				".metadata/.plugins/org.eclipse.e4.workbench");
+		File xmiData = new File(baseLocation, "workbench.xmi");
+		File binaryData = new File(baseLocation, "workbench."
+				+ E4BinaryResource.FILE_EXTENSION);
+		assertTrue(xmiData.exists());
+		FileOutputStream out = new FileOutputStream(binaryData);
+		try {
+			out.write(new byte[] { 1, 2, 3, 4 });
+		} finally {
+			out.close();
+		}
+		binaryData.setLastModified(xmiData.lastModified() + 10000);
+
+		// the binary model is newer but unreadable, so the application model
+		// is used rather than the outdated XMI model
+		handler = createHandler(uri, false, true);
+		resource = handler.loadMostRecentModel();
+		application = (MApplication) resource.getContents().get(0);
+		assertFalse("outdated".equals(application.getChildren().get(0)
+				.getElementId()));
+
+		// saving in the binary format removes the stale XMI model
+		handler.save();
+		assertTrue(binaryData.exists());
+		assertFalse(xmiData.exists());
+		binaryData.delete();
+	}
+
 }
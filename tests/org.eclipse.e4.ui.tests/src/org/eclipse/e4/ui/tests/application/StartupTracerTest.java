@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.application;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import junit.framework.TestCase;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
+
+public class StartupTracerTest extends TestCase {
+
+	private StartupTracer tracer;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		tracer = new StartupTracer(System.currentTimeMillis() - 1000);
+	}
+
+	public void testSummary() {
+		long start = tracer.begin();
+		tracer.end(StartupTracer.PHASE, "ModelAssembler.processModel", start);
+		tracer.end(StartupTracer.BUNDLE, "org.eclipse.a", start);
+		tracer.end(StartupTracer.BUNDLE, "org.eclipse.b", start);
+		tracer.end(StartupTracer.PART, "org.eclipse.ui.views.ProblemView",
+				start);
+
+		String summary = tracer.getSummary();
+		assertTrue(summary, summary.contains("ModelAssembler.processModel"));
+		assertTrue(summary, summary.contains("2 bundles activated"));
+		assertTrue(summary, summary.contains("0 extensions created"));
+		assertTrue(summary, summary.contains("1 parts rendered"));
+		assertTrue(summary,
+				summary.contains("org.eclipse.ui.views.ProblemView"));
+	}
+
+	public void testChromeTrace() throws IOException {
+		long start = tracer.begin();
+		tracer.end(StartupTracer.EXTENSION, "bundleclass://a/\"quoted\"\\",
+				start);
+
+		StringWriter writer = new StringWriter();
+		tracer.writeChromeTrace(writer);
+		String trace = writer.toString();
+		assertTrue(trace, trace.startsWith("{\"traceEvents\":["));
+		assertTrue(trace, trace.contains("\"ph\":\"X\""));
+		assertTrue(trace, trace.contains("\"cat\":\"extension\""));
+		assertTrue(trace,
+				trace.contains("\"name\":\"bundleclass://a/\\\"quoted\\\"\\\\\""));
+		assertTrue(trace, trace.contains("\"thread_name\""));
+		// the span starts about one second after the start of the tracer
+		int ts = trace.indexOf("\"ts\":") + 5;
+		long micros = Long.parseLong(trace.substring(ts,
+				trace.indexOf(',', ts)));
+		assertTrue(trace, micros >= 1000000);
+	}
+
+	public void testNoSpansAfterFinish() {
+		tracer.finish();
+		assertFalse(tracer.isRecording());
+		tracer.end(StartupTracer.PART, "part", tracer.begin());
+		assertTrue(tracer.getSummary(), tracer.getSummary().contains(
+				"0 parts rendered"));
+	}
+}
@@ -26,6 +26,7 @@ import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuFactory;
 import org.eclipse.e4.ui.tests.model.test.MTestFactory;
 import org.eclipse.e4.ui.tests.model.test.MTestHarness;
+import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.UIEvents.ApplicationElement;
 import org.eclipse.e4.ui.workbench.UIEvents.Command;
 import org.eclipse.e4.ui.workbench.UIEvents.Context;
@@ -355,6 +356,63 @@ public class UIEventsTest extends HeadlessApplicationElementTest {
 		assertFalse(seen[0]);
 	}
 
+	public void testBatchedEvents() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		final List<Event> events = new ArrayList<Event>();
+		EventHandler handler = new EventHandler() {
+			public void handleEvent(Event event) {
+				events.add(event);
+			}
+		};
+		eventBroker.subscribe(UIElement.TOPIC_TOBERENDERED, handler);
+		eventBroker.subscribe(UILabel.TOPIC_LABEL, handler);
+
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		final UIEventPublisher ep = new UIEventPublisher(applicationContext);
+		((Notifier) allData).eAdapters().add(ep);
+		allData.setToBeRendered(true);
+		allData.setLabel("first");
+		events.clear();
+		ep.resetEventCounts();
+
+		ep.beginBatch();
+		allData.setToBeRendered(false);
+		allData.setToBeRendered(true);
+		ep.beginBatch();
+		allData.setLabel("second");
+		allData.setLabel("third");
+		ep.endBatch();
+		assertEquals(0, events.size());
+		ep.endBatch();
+
+		// the toggle is dropped and the label changes are merged
+		assertEquals(1, events.size());
+		Event event = events.get(0);
+		assertEquals(allData, event.getProperty(EventTags.ELEMENT));
+		assertEquals("first", event.getProperty(EventTags.OLD_VALUE));
+		assertEquals("third", event.getProperty(EventTags.NEW_VALUE));
+
+		assertEquals(Integer.valueOf(1),
+				ep.getSentEventCounts().get(event.getTopic()));
+		assertEquals(Integer.valueOf(1),
+				ep.getMergedEventCounts().get(event.getTopic()));
+		// neither event of the dropped toggle is sent
+		String toBeRenderedTopic = UIElement.TOPIC_TOBERENDERED.replace(
+				UIEvents.ALL_SUB_TOPICS, UIEvents.EventTypes.SET);
+		assertNull(ep.getSentEventCounts().get(toBeRenderedTopic));
+		assertEquals(Integer.valueOf(2),
+				ep.getMergedEventCounts().get(toBeRenderedTopic));
+
+		// outside of a batch every change is sent, and not counted
+		events.clear();
+		allData.setToBeRendered(false);
+		allData.setToBeRendered(true);
+		assertEquals(2, events.size());
+		assertNull(ep.getSentEventCounts().get(toBeRenderedTopic));
+
+		eventBroker.unsubscribe(handler);
+	}
+
 	/**
 	 * @param allTesters
 	 * @param tester
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.reconciler.xml;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.e4.ui.internal.workbench.ModelReconcilingService;
+import org.eclipse.e4.ui.internal.workbench.XMLModelReconciler;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.impl.CommandsFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
+import org.eclipse.e4.ui.tests.reconciler.ModelReconcilerTest;
+import org.eclipse.e4.ui.workbench.modeling.IModelReconcilingService;
+import org.eclipse.e4.ui.workbench.modeling.ModelDelta;
+import org.eclipse.e4.ui.workbench.modeling.ModelReconciler;
+
+/**
+ * Reconciles large synthetic models, reporting the time spent constructing and
+ * applying the deltas when <code>DEBUG</code> is set.
+ */
+public class XMLModelReconcilerLargeModelTest extends ModelReconcilerTest {
+
+	private static final boolean DEBUG = false;
+
+	private static final int STACKS = 50;
+
+	private static final int PARTS = 40;
+
+	private static final int COMMANDS = 2000;
+
+	@Override
+	protected IModelReconcilingService getModelReconcilingService() {
+		return new ModelReconcilingService();
+	}
+
+	public void testLargeModel() {
+		MApplication application = createApplication();
+		MWindow window = createWindow(application);
+		for (int i = 0; i < STACKS; i++) {
+			MPartStack stack = BasicFactoryImpl.eINSTANCE.createPartStack();
+			window.getChildren().add(stack);
+			for (int j = 0; j < PARTS; j++) {
+				MPart part = BasicFactoryImpl.eINSTANCE.createPart();
+				part.setLabel("part" + i + "." + j);
+				stack.getChildren().add(part);
+			}
+		}
+		for (int i = 0; i < COMMANDS; i++) {
+			MCommand command = CommandsFactoryImpl.eINSTANCE.createCommand();
+			command.setCommandName("command" + i);
+			application.getCommands().add(command);
+		}
+
+		saveModel();
+
+		ModelReconciler reconciler = createModelReconciler();
+		reconciler.recordChanges(application);
+
+		for (int i = 0; i < STACKS; i++) {
+			MPartStack stack = (MPartStack) window.getChildren().get(i);
+			for (int j = 0; j < PARTS; j++) {
+				((MPart) stack.getChildren().get(j)).setLabel("renamed" + i
+						+ "." + j);
+			}
+			for (int j = 0; j < 2; j++) {
+				MPart part = BasicFactoryImpl.eINSTANCE.createPart();
+				part.setLabel("new" + i + "." + j);
+				stack.getChildren().add(part);
+			}
+		}
+
+		Object state = reconciler.serialize();
+
+		application = createApplication();
+		window = application.getChildren().get(0);
+
+		long start = System.currentTimeMillis();
+		Collection<ModelDelta> deltas = constructDeltas(application, state);
+		long constructed = System.currentTimeMillis();
+		applyAll(deltas);
+		long applied = System.currentTimeMillis();
+
+		if (DEBUG) {
+			System.out.println("Constructed " + deltas.size() + " deltas in "
+					+ (constructed - start) + " ms, applied them in "
+					+ (applied - constructed) + " ms");
+		}
+
+		assertEquals(STACKS, window.getChildren().size());
+		for (int i = 0; i < STACKS; i++) {
+			MPartStack stack = (MPartStack) window.getChildren().get(i);
+			assertEquals(PARTS + 2, stack.getChildren().size());
+			for (int j = 0; j < PARTS; j++) {
+				MPart part = (MPart) stack.getChildren().get(j);
+				assertEquals("renamed" + i + "." + j, part.getLabel());
+			}
+			MPart part = (MPart) stack.getChildren().get(PARTS);
+			assertEquals("new" + i + ".0", part.getLabel());
+			part = (MPart) stack.getChildren().get(PARTS + 1);
+			assertEquals("new" + i + ".1", part.getLabel());
+		}
+		assertEquals(COMMANDS, application.getCommands().size());
+	}
+
+	public void testThreeWayMerge_ConsecutiveAdditions() {
+		List<?> merged = XMLModelReconciler.threeWayMerge(
+				Arrays.asList("a", "b"), Arrays.asList("a", "x", "y", "b"),
+				Arrays.asList("a", "b", "c"));
+		assertEquals(Arrays.asList("a", "x", "y", "b", "c"), merged);
+	}
+
+	public void testThreeWayMerge_AdditionsBeforeFirstReference() {
+		List<?> merged = XMLModelReconciler.threeWayMerge(
+				Arrays.asList("a", "b"), Arrays.asList("x", "y", "a", "b"),
+				Arrays.asList("c", "a", "b"));
+		assertEquals(Arrays.asList("c", "x", "y", "a", "b"), merged);
+	}
+
+	public void testThreeWayMerge_Removal() {
+		List<?> merged = XMLModelReconciler.threeWayMerge(
+				Arrays.asList("a", "b"), Arrays.asList("a"),
+				Arrays.asList("a", "b", "c"));
+		assertEquals(Arrays.asList("a", "c"), merged);
+	}
+
+	public void testThreeWayMerge_RemovedAnchor() {
+		List<?> merged = XMLModelReconciler.threeWayMerge(
+				Arrays.asList("a", "b"), Arrays.asList("a", "b", "x"),
+				Arrays.asList("a", "c"));
+		assertEquals(Arrays.asList("a", "x", "c"), merged);
+	}
+}
@@ -55,6 +55,7 @@ public class XMLModelReconcilerTestSuite extends TestSuite {
 		addTestSuite(XMLModelReconcilerWindowTest.class);
 
 		addTestSuite(XMLModelReconcilerScenarioTest.class);
+		addTestSuite(XMLModelReconcilerLargeModelTest.class);
 
 		addTestSuite(ModelReconcilingServiceTest.class);
 	}
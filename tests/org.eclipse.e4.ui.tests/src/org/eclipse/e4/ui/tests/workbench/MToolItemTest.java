@@ -11,21 +11,36 @@
 
 package org.eclipse.e4.ui.tests.workbench;
 
+import javax.inject.Named;
 import junit.framework.TestCase;
+import org.eclipse.e4.core.commands.CommandServiceAddon;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.CanExecute;
+import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.e4.ui.bindings.BindingServiceAddon;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+import org.eclipse.e4.ui.internal.workbench.addons.CommandProcessingAddon;
+import org.eclipse.e4.ui.internal.workbench.addons.HandlerProcessingAddon;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.PartRenderingEngine;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MHandler;
+import org.eclipse.e4.ui.model.application.commands.impl.CommandsFactoryImpl;
 import org.eclipse.e4.ui.model.application.impl.ApplicationFactoryImpl;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimBar;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
 import org.eclipse.e4.ui.model.application.ui.menu.ItemType;
+import org.eclipse.e4.ui.model.application.ui.menu.MHandledToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.impl.MenuFactoryImpl;
+import org.eclipse.e4.ui.services.ContextServiceAddon;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.ToolItem;
 
@@ -259,4 +274,85 @@ public class MToolItemTest extends TestCase {
 		toolItem2.setSelected(true);
 		assertTrue(toolItemWidget2.getSelection());
 	}
+
+	public void testMHandledToolItem_EnablementUpdatedOnce() {
+		ContextInjectionFactory.make(CommandServiceAddon.class, appContext);
+		ContextInjectionFactory.make(ContextServiceAddon.class, appContext);
+		ContextInjectionFactory.make(BindingServiceAddon.class, appContext);
+
+		MTrimmedWindow window = BasicFactoryImpl.eINSTANCE
+				.createTrimmedWindow();
+		MTrimBar trimBar = BasicFactoryImpl.eINSTANCE.createTrimBar();
+		MToolBar toolBar = MenuFactoryImpl.eINSTANCE.createToolBar();
+
+		MCommand command = CommandsFactoryImpl.eINSTANCE.createCommand();
+		command.setElementId("testMHandledToolItem_EnablementUpdatedOnce");
+		command.setCommandName("Test Enablement");
+
+		MHandledToolItem toolItem = MenuFactoryImpl.eINSTANCE
+				.createHandledToolItem();
+		toolItem.setCommand(command);
+
+		final int[] evaluations = { 0 };
+		MHandler handler = CommandsFactoryImpl.eINSTANCE.createHandler();
+		handler.setCommand(command);
+		handler.setObject(new Object() {
+			@CanExecute
+			public boolean canExecute(
+					@Optional @Named("enablementInput") String input) {
+				evaluations[0]++;
+				return input != null;
+			}
+
+			@Execute
+			public void execute() {
+			}
+		});
+
+		window.getHandlers().add(handler);
+		window.getTrimBars().add(trimBar);
+		trimBar.getChildren().add(toolBar);
+		toolBar.getChildren().add(toolItem);
+
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		application.getCommands().add(command);
+		application.getChildren().add(window);
+		application.setContext(appContext);
+		appContext.set(MApplication.class.getName(), application);
+		ContextInjectionFactory.make(CommandProcessingAddon.class, appContext);
+		ContextInjectionFactory.make(HandlerProcessingAddon.class, appContext);
+
+		wb = new E4Workbench(window, appContext);
+		wb.createAndRunUI(window);
+		processEvents();
+
+		Object widget = toolItem.getWidget();
+		assertTrue(widget instanceof ToolItem);
+		assertFalse(((ToolItem) widget).isEnabled());
+
+		// the changes made before the display runs the update lead to a
+		// single evaluation
+		evaluations[0] = 0;
+		window.getContext().set("enablementInput", "first");
+		window.getContext().set("enablementInput", "second");
+		window.getContext().set("enablementInput", "third");
+		assertEquals(0, evaluations[0]);
+		processEvents();
+		assertEquals(1, evaluations[0]);
+		assertTrue(((ToolItem) widget).isEnabled());
+
+		// the context is tracked again after the update
+		window.getContext().remove("enablementInput");
+		processEvents();
+		assertEquals(2, evaluations[0]);
+		assertFalse(((ToolItem) widget).isEnabled());
+	}
+
+	private void processEvents() {
+		Display display = Display.getCurrent();
+		while (display.readAndDispatch()) {
+			// run the queued updates
+		}
+	}
 }
@@ -40,6 +40,7 @@ import org.eclipse.e4.ui.workbench.addons.cleanupaddon.CleanupAddon;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
 import org.eclipse.e4.ui.workbench.modeling.EPartService;
 import org.eclipse.e4.ui.workbench.modeling.EPartService.PartState;
+import org.eclipse.e4.ui.workbench.renderers.swt.LazyStackRenderer;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.widgets.Control;
@@ -3380,4 +3381,116 @@ public class PartRenderingEngineTests extends TestCase {
 		assertNull(part.getObject());
 		assertNull(part.getContext());
 	}
+
+	public void testMinimizedStackDefersSelectedPart() {
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		MWindow window = BasicFactoryImpl.eINSTANCE.createWindow();
+		application.getChildren().add(window);
+		application.setSelectedElement(window);
+
+		MPartSashContainer container = BasicFactoryImpl.eINSTANCE
+				.createPartSashContainer();
+		window.getChildren().add(container);
+		window.setSelectedElement(container);
+
+		MPartStack visibleStack = BasicFactoryImpl.eINSTANCE.createPartStack();
+		container.getChildren().add(visibleStack);
+		MPart visiblePart = BasicFactoryImpl.eINSTANCE.createPart();
+		visibleStack.getChildren().add(visiblePart);
+		visibleStack.setSelectedElement(visiblePart);
+
+		MPartStack minimizedStack = BasicFactoryImpl.eINSTANCE
+				.createPartStack();
+		minimizedStack.getTags().add(IPresentationEngine.MINIMIZED);
+		minimizedStack.setVisible(false);
+		container.getChildren().add(minimizedStack);
+		MPart minimizedPart = BasicFactoryImpl.eINSTANCE.createPart();
+		minimizedStack.getChildren().add(minimizedPart);
+		minimizedStack.setSelectedElement(minimizedPart);
+
+		application.setContext(appContext);
+		appContext.set(MApplication.class.getName(), application);
+
+		wb = new E4Workbench(application, appContext);
+		wb.createAndRunUI(window);
+
+		assertNotNull(visiblePart.getWidget());
+		assertNotNull(minimizedStack.getWidget());
+		assertNull(minimizedPart.getWidget());
+
+		minimizedStack.getTags().remove(IPresentationEngine.MINIMIZED);
+		minimizedStack.setVisible(true);
+		spinEventLoop();
+		assertNotNull(minimizedPart.getWidget());
+		CTabFolder folder = (CTabFolder) minimizedStack.getWidget();
+		assertEquals(minimizedPart.getWidget(), folder.getSelection()
+				.getControl());
+	}
+
+	public void testPrewarmInactivePerspective() {
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		MWindow window = BasicFactoryImpl.eINSTANCE.createWindow();
+		application.getChildren().add(window);
+		application.setSelectedElement(window);
+
+		MPart sharedPart = BasicFactoryImpl.eINSTANCE.createPart();
+		window.getSharedElements().add(sharedPart);
+
+		MPerspectiveStack perspectiveStack = AdvancedFactoryImpl.eINSTANCE
+				.createPerspectiveStack();
+		window.getChildren().add(perspectiveStack);
+		window.setSelectedElement(perspectiveStack);
+
+		MPerspective perspectiveA = AdvancedFactoryImpl.eINSTANCE
+				.createPerspective();
+		perspectiveStack.getChildren().add(perspectiveA);
+		perspectiveStack.setSelectedElement(perspectiveA);
+		MPlaceholder placeholderA = AdvancedFactoryImpl.eINSTANCE
+				.createPlaceholder();
+		placeholderA.setRef(sharedPart);
+		sharedPart.setCurSharedRef(placeholderA);
+		perspectiveA.getChildren().add(placeholderA);
+
+		MPerspective perspectiveB = AdvancedFactoryImpl.eINSTANCE
+				.createPerspective();
+		perspectiveStack.getChildren().add(perspectiveB);
+		MPlaceholder placeholderB = AdvancedFactoryImpl.eINSTANCE
+				.createPlaceholder();
+		placeholderB.setRef(sharedPart);
+		perspectiveB.getChildren().add(placeholderB);
+		MPartStack stackB = BasicFactoryImpl.eINSTANCE.createPartStack();
+		perspectiveB.getChildren().add(stackB);
+		MPart partB = BasicFactoryImpl.eINSTANCE.createPart();
+		stackB.getChildren().add(partB);
+		stackB.setSelectedElement(partB);
+
+		application.setContext(appContext);
+		appContext.set(MApplication.class.getName(), application);
+
+		wb = new E4Workbench(application, appContext);
+		wb.createAndRunUI(window);
+
+		assertNotNull(perspectiveA.getWidget());
+		assertNull(perspectiveB.getWidget());
+		assertNull(partB.getWidget());
+
+		while (LazyStackRenderer.renderNextDeferred(window)) {
+			// render everything that was deferred
+		}
+
+		assertNotNull(perspectiveB.getWidget());
+		assertNotNull(partB.getWidget());
+		// the shared part stays in the selected perspective
+		assertEquals(placeholderA, sharedPart.getCurSharedRef());
+		assertEquals(placeholderA.getWidget(),
+				((Control) sharedPart.getWidget()).getParent());
+		assertFalse(((Control) perspectiveB.getWidget()).isVisible());
+
+		perspectiveStack.setSelectedElement(perspectiveB);
+		assertEquals(placeholderB, sharedPart.getCurSharedRef());
+		assertEquals(placeholderB.getWidget(),
+				((Control) sharedPart.getWidget()).getParent());
+	}
 }
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.list.ListDiffVisitor;
+import org.eclipse.core.internal.databinding.observable.ListDiffAlgorithm;
+
+/**
+ * Checks that both list diff algorithms produce entries which turn the old
+ * list into the new one, and that the longest common subsequence diff never
+ * needs more entries than the element analyzer diff for lists of unique
+ * elements.
+ */
+public class ListDiffAlgorithmTest extends TestCase {
+	private Random random;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		random = new Random(2014);
+	}
+
+	public void testEmptyLists() {
+		checkBoth(Collections.EMPTY_LIST, Collections.EMPTY_LIST);
+		checkBoth(Collections.EMPTY_LIST, list("abc"));
+		checkBoth(list("abc"), Collections.EMPTY_LIST);
+	}
+
+	public void testEqualLists() {
+		assertEquals(0, lcsDiff(list("abcdef"), list("abcdef")).length);
+	}
+
+	public void testInsertAndRemove() {
+		checkBoth(list("abcdef"), list("abXcdeYf"));
+		checkBoth(list("abXcdeYf"), list("abcdef"));
+		checkBoth(list("abcdef"), list("Xabcdef"));
+		checkBoth(list("abcdef"), list("abcdefX"));
+	}
+
+	public void testReplacementsArePaired() {
+		ListDiffEntry[] entries = lcsDiff(list("abcde"), list("abXde"));
+		assertEquals(2, entries.length);
+		assertEntry(entries[0], false, 2, "c");
+		assertEntry(entries[1], true, 2, "X");
+	}
+
+	public void testMoves() {
+		checkBoth(list("abcdef"), list("fedcba"));
+		checkBoth(list("abcdef"), list("bcdefa"));
+		checkBoth(list("abcdef"), list("fabcde"));
+		checkBoth(list("abcdef"), list("dabcef"));
+	}
+
+	public void testDuplicatesAndNulls() {
+		List oldList = list("aabbaab");
+		oldList.add(2, null);
+		List newList = list("babaaba");
+		newList.add(null);
+		checkBoth(oldList, newList);
+		checkBoth(newList, oldList);
+		checkBoth(list("aaaa"), list("aa"));
+		checkBoth(list("abab"), list("baba"));
+	}
+
+	public void testRandomListsWithDuplicates() {
+		for (int i = 0; i < 500; i++) {
+			List oldList = randomList(random.nextInt(40), 6);
+			List newList = randomList(random.nextInt(40), 6);
+			checkBoth(oldList, newList);
+		}
+	}
+
+	public void testRandomEditsOfUniqueElements() {
+		for (int i = 0; i < 200; i++) {
+			List oldList = uniqueList(random.nextInt(200));
+			List newList = randomEdits(oldList, random.nextInt(20));
+			ListDiffEntry[] lcs = checkDiff(oldList, newList, lcsDiff(oldList,
+					newList));
+			ListDiffEntry[] analyzer = checkEntries(oldList, newList,
+					analyzerDiff(oldList, newList));
+			assertTrue("LCS diff should not be longer than the analyzer diff",
+					lcs.length <= analyzer.length);
+		}
+	}
+
+	public void testLargeRandomEdits() {
+		List oldList = uniqueList(50000);
+		List newList = randomEdits(oldList, 500);
+		checkDiff(oldList, newList, lcsDiff(oldList, newList));
+		checkDiff(oldList, newList, Diffs.computeListDiff(oldList, newList)
+				.getDifferences());
+	}
+
+	public void testLargeReplacement() {
+		List oldList = uniqueList(50000);
+		List newList = new ArrayList();
+		for (int i = 0; i < oldList.size(); i++) {
+			newList.add("new" + i);
+		}
+		ListDiffEntry[] entries = checkDiff(oldList, newList, lcsDiff(oldList,
+				newList));
+		assertEquals(100000, entries.length);
+	}
+
+	public void testLargeListWithDuplicates() {
+		List oldList = randomList(20000, 50);
+		List newList = randomEdits(oldList, 300);
+		checkDiff(oldList, newList, lcsDiff(oldList, newList));
+	}
+
+	private void checkBoth(List oldList, List newList) {
+		checkDiff(oldList, newList, lcsDiff(oldList, newList));
+		checkEntries(oldList, newList, analyzerDiff(oldList, newList));
+	}
+
+	private static ListDiffEntry[] lcsDiff(List oldList, List newList) {
+		List entries = new ArrayList();
+		ListDiffAlgorithm.computeLcsDiff(oldList, newList, entries);
+		return (ListDiffEntry[]) entries.toArray(new ListDiffEntry[entries
+				.size()]);
+	}
+
+	private static ListDiffEntry[] analyzerDiff(List oldList, List newList) {
+		List entries = new ArrayList();
+		ListDiffAlgorithm.computeAnalyzerDiff(oldList, newList, entries);
+		return (ListDiffEntry[]) entries.toArray(new ListDiffEntry[entries
+				.size()]);
+	}
+
+	/**
+	 * Applies the entries to the old list one by one and through a
+	 * {@link ListDiffVisitor}, and checks that both result in the new list.
+	 */
+	private static ListDiffEntry[] checkDiff(List oldList, List newList,
+			ListDiffEntry[] entries) {
+		checkEntries(oldList, newList, entries);
+
+		final List visited = new ArrayList(oldList);
+		Diffs.createListDiff(entries).accept(new ListDiffVisitor() {
+			public void handleAdd(int index, Object element) {
+				visited.add(index, element);
+			}
+
+			public void handleRemove(int index, Object element) {
+				assertEquals(element, visited.remove(index));
+			}
+
+			public void handleReplace(int index, Object oldElement,
+					Object newElement) {
+				assertEquals(oldElement, visited.set(index, newElement));
+			}
+		});
+		assertEquals(newList, visited);
+		return entries;
+	}
+
+	/**
+	 * Applies the entries to the old list one by one and checks that it
+	 * results in the new list. The moves the element analyzer reports for
+	 * lists with duplicates are not always visited correctly, so its entries
+	 * are only checked this way.
+	 */
+	private static ListDiffEntry[] checkEntries(List oldList, List newList,
+			ListDiffEntry[] entries) {
+		List list = new ArrayList(oldList);
+		for (int i = 0; i < entries.length; i++) {
+			ListDiffEntry entry = entries[i];
+			if (entry.isAddition()) {
+				list.add(entry.getPosition(), entry.getElement());
+			} else {
+				assertEquals(entry.getElement(), list.remove(entry
+						.getPosition()));
+			}
+		}
+		assertEquals(newList, list);
+		return entries;
+	}
+
+	private static void assertEntry(ListDiffEntry entry, boolean addition,
+			int position, Object element) {
+		assertEquals("addition", addition, entry.isAddition());
+		assertEquals("position", position, entry.getPosition());
+		assertEquals("element", element, entry.getElement());
+	}
+
+	private static List list(String elements) {
+		List list = new ArrayList();
+		for (int i = 0; i < elements.length(); i++) {
+			list.add(elements.substring(i, i + 1));
+		}
+		return list;
+	}
+
+	private List randomList(int size, int distinct) {
+		List list = new ArrayList();
+		for (int i = 0; i < size; i++) {
+			list.add(new Integer(random.nextInt(distinct)));
+		}
+		return list;
+	}
+
+	private static List uniqueList(int size) {
+		List list = new ArrayList();
+		for (int i = 0; i < size; i++) {
+			list.add("element" + i);
+		}
+		return list;
+	}
+
+	/**
+	 * Returns a copy of the list with elements randomly inserted, removed or
+	 * moved.
+	 */
+	private List randomEdits(List list, int edits) {
+		List result = new ArrayList(list);
+		for (int i = 0; i < edits; i++) {
+			int operation = random.nextInt(3);
+			if (operation == 0 || result.isEmpty()) {
+				result.add(random.nextInt(result.size() + 1), "inserted" + i);
+			} else if (operation == 1) {
+				result.remove(random.nextInt(result.size()));
+			} else {
+				Object element = result.remove(random.nextInt(result.size()));
+				result.add(random.nextInt(result.size() + 1), element);
+			}
+		}
+		return result;
+	}
+}
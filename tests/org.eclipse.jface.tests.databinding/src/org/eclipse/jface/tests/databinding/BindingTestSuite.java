@@ -132,6 +132,7 @@ import org.eclipse.core.tests.internal.databinding.observable.DelayedObservableV
 import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableListTest;
 import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableSetTest;
 import org.eclipse.core.tests.internal.databinding.observable.IdentityObservableSetTest;
+import org.eclipse.core.tests.internal.databinding.observable.ListDiffAlgorithmTest;
 import org.eclipse.core.tests.internal.databinding.observable.MapEntryObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.StalenessObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableListTest;
@@ -376,6 +377,7 @@ public class BindingTestSuite extends TestSuite {
 		addTest(EmptyObservableListTest.suite());
 		addTest(EmptyObservableSetTest.suite());
 		addTest(IdentityObservableSetTest.suite());
+		addTestSuite(ListDiffAlgorithmTest.class);
 		addTest(MapEntryObservableValueTest.suite());
 		addTest(StalenessObservableValueTest.suite());
 		addTest(UnmodifiableObservableValueTest.suite());
@@ -10,17 +10,26 @@
  *******************************************************************************/
 package org.eclipse.ui.tests.navigator;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.internal.navigator.NavigatorContentService;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptorManager;
 import org.eclipse.ui.navigator.INavigatorContentDescriptor;
 import org.eclipse.ui.navigator.INavigatorContentExtension;
 import org.eclipse.ui.navigator.INavigatorContentService;
 import org.eclipse.ui.navigator.NavigatorContentServiceFactory;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.eclipse.ui.tests.harness.util.EditorTestHelper;
 import org.eclipse.ui.tests.navigator.extension.TestContentProvider;
 
@@ -190,6 +199,62 @@ public class INavigatorContentServiceTests extends NavigatorTestBase {
 
 	}
 
+	public void testTypeBasedTriggerPoints() {
+		NavigatorContentDescriptorManager manager = NavigatorContentDescriptorManager
+				.getInstance();
+
+		NavigatorContentDescriptor typeBased = manager
+				.getContentDescriptor(TEST_CONTENT_OVERRIDDEN1);
+		assertTrue(typeBased.isTriggerPointTypeBased());
+		assertTrue(typeBased.isTriggerPoint(_project));
+		assertTrue(typeBased.isTriggerPoint(_project));
+		assertFalse(typeBased.isTriggerPoint(new Object()));
+
+		// files of the same type only differ in their extension
+		NavigatorContentDescriptor propertyBased = manager
+				.getContentDescriptor(TEST_CONTENT_HAS_CHILDREN);
+		assertFalse(propertyBased.isTriggerPointTypeBased());
+		assertTrue(propertyBased.isTriggerPoint(_project.getFile("a.dat")));
+		assertFalse(propertyBased.isTriggerPoint(_project
+				.getFile("model.properties")));
+		assertTrue(propertyBased.isTriggerPoint(_project.getFile("b.dat")));
+	}
+
+	public void testAsynchronousContent() throws Exception {
+		Shell shell = new Shell();
+		final TreeViewer viewer = new TreeViewer(shell);
+		INavigatorContentService service = NavigatorContentServiceFactory.INSTANCE
+				.createContentService(TEST_VIEWER_ASYNCHRONOUS, viewer);
+		try {
+			service.bindExtensions(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT }, true);
+			service.getActivationService().activateExtensions(
+					new String[] { COMMON_NAVIGATOR_RESOURCE_EXT }, false);
+			viewer.setContentProvider(service.createCommonContentProvider());
+			viewer.setLabelProvider(service.createCommonLabelProvider());
+			viewer.setInput(ResourcesPlugin.getWorkspace().getRoot());
+
+			viewer.expandToLevel(_project, 1);
+			final TreeItem projectItem = (TreeItem) viewer.testFindItem(_project);
+			assertEquals(1, projectItem.getItemCount());
+			assertTrue(projectItem.getItem(0).getData() instanceof PendingUpdateAdapter);
+
+			boolean fetched = new DisplayHelper() {
+				protected boolean condition() {
+					return !(projectItem.getItem(0).getData() instanceof PendingUpdateAdapter);
+				}
+			}.waitForCondition(Display.getCurrent(), 10000);
+			assertTrue("Children should have been fetched in the background", fetched);
+			Set children = new HashSet();
+			for (int i = 0; i < projectItem.getItemCount(); i++) {
+				children.add(projectItem.getItem(i).getData());
+			}
+			assertTrue(children.containsAll(_expectedChildren));
+		} finally {
+			service.dispose();
+			shell.dispose();
+		}
+	}
+
 	// Bug 267722 [CommonNavigator] ClassCastException when synchronizing
 	public void testNonCommonViewer() throws Exception {
 		EditorTestHelper.showView(TEST_VIEW_NON_COMMONVIEWER, true);
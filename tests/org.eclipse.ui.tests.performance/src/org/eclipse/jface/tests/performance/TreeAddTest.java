@@ -21,6 +21,8 @@ public class TreeAddTest extends TreeTest {
 
 	static int TEST_COUNT = 1000;
 
+	static int BULK_COUNT = 10000;
+
 	public TreeAddTest(String testName, int tagging) {
 		super(testName, tagging);
 	}
@@ -149,6 +151,45 @@ public class TreeAddTest extends TreeTest {
 
 	}
 
+	/**
+	 * Test addition of ten thousand elements in one block to a tree showing
+	 * ten thousand elements they interleave with.
+	 */
+	public void testAddTenThousandInterleaved() {
+		openBrowser();
+
+		exercise(new TestRunnable() {
+			public void run() {
+
+				TestTreeElement input = new TestTreeElement(0, null);
+				input.createChildren(BULK_COUNT * 2);
+				TestTreeElement[] all = input.children;
+				TestTreeElement[] existing = new TestTreeElement[BULK_COUNT];
+				Object[] added = new Object[BULK_COUNT];
+				for (int j = 0; j < all.length; j++) {
+					if (j % 2 == 0)
+						existing[j / 2] = all[j];
+					else
+						added[j / 2] = all[j];
+				}
+				input.children = existing;
+				viewer.setInput(input);
+				input.children = all;
+				processEvents();
+				startMeasuring();
+
+				viewer.add(input, added);
+				processEvents();
+
+				stopMeasuring();
+
+			}
+		}, MIN_ITERATIONS, ITERATIONS, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
 	/**
 	 * @throws CoreException
 	 *             Test addition to the tree with the items presorted.
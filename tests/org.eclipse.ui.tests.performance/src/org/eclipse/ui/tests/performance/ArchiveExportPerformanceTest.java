@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Random;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.wizards.datatransfer.ArchiveFileExportOperation;
+
+/**
+ * Measures the export of a synthetic project of fifty thousand small text
+ * files to a compressed .zip or .tar.gz file.
+ *
+ * @since 3.10
+ */
+public class ArchiveExportPerformanceTest extends BasicPerformanceTest {
+
+	private static final int FOLDER_COUNT = 500;
+
+	private static final int FILE_COUNT = 100;
+
+	private IProject project;
+
+	private File archive;
+
+	public ArchiveExportPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		project = workspace.getRoot().getProject("ArchiveExportPerformance");
+		workspace.run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				project.create(monitor);
+				project.open(monitor);
+				Random random = new Random(2014);
+				for (int i = 0; i < FOLDER_COUNT; i++) {
+					IFolder folder = project.getFolder("folder" + i);
+					folder.create(true, true, monitor);
+					for (int j = 0; j < FILE_COUNT; j++) {
+						StringBuffer contents = new StringBuffer();
+						int lines = 1 + random.nextInt(40);
+						for (int k = 0; k < lines; k++) {
+							contents.append("line ").append(k).append(" value ")
+									.append(random.nextInt(1000)).append('\n');
+						}
+						folder.getFile("file" + j + ".txt").create(
+								new ByteArrayInputStream(contents.toString()
+										.getBytes()), true, monitor);
+					}
+				}
+			}
+		}, new NullProgressMonitor());
+		archive = File.createTempFile("export", ".archive");
+	}
+
+	protected void doTearDown() throws Exception {
+		archive.delete();
+		project.delete(true, true, new NullProgressMonitor());
+		super.doTearDown();
+	}
+
+	public void testExportZip() throws Exception {
+		export(false);
+	}
+
+	public void testExportTarGz() throws Exception {
+		export(true);
+	}
+
+	private void export(final boolean tar) throws Exception {
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				ArchiveFileExportOperation operation = new ArchiveFileExportOperation(
+						project, archive.getAbsolutePath());
+				operation.setUseCompression(true);
+				operation.setUseTarFormat(tar);
+				startMeasuring();
+				operation.run(new NullProgressMonitor());
+				stopMeasuring();
+				assertTrue(operation.getStatus().isOK());
+				archive.delete();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.core.commands.Command;
+import org.eclipse.core.commands.CommandManager;
+import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.core.commands.contexts.ContextManager;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.ui.bindings.internal.BindingTable;
+import org.eclipse.e4.ui.bindings.internal.BindingTableManager;
+import org.eclipse.e4.ui.bindings.internal.ContextSet;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.keys.IKeyLookup;
+import org.eclipse.jface.bindings.keys.KeyBinding;
+import org.eclipse.jface.bindings.keys.KeyLookupFactory;
+import org.eclipse.jface.bindings.keys.KeySequence;
+import org.eclipse.jface.bindings.keys.KeyStroke;
+
+/**
+ * Measures the key binding look-ups done by the e4 key binding dispatcher on
+ * every keystroke, against six thousand bindings spread over forty active
+ * contexts.
+ *
+ * @since 3.10
+ */
+public class BindingTablePerformanceTest extends BasicPerformanceTest {
+
+	private static final int CONTEXT_COUNT = 40;
+
+	private static final int BINDING_COUNT = 6000;
+
+	private static final String SCHEME_ID = "org.eclipse.ui.defaultAcceleratorConfiguration";
+
+	private Comparator savedComparator;
+
+	private BindingTableManager manager;
+
+	private BindingTable[] tables;
+
+	private ContextSet contextSet;
+
+	private KeySequence[] sequences;
+
+	private Binding[] bindings;
+
+	public BindingTablePerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+
+		ContextManager contextManager = new ContextManager();
+		savedComparator = ContextSet.getComparator();
+		ContextSet.setComparator(new ContextSet.CComp(contextManager));
+
+		manager = (BindingTableManager) ContextInjectionFactory.make(
+				BindingTableManager.class, EclipseContextFactory.create());
+		List contexts = new ArrayList();
+		tables = new BindingTable[CONTEXT_COUNT];
+		String parentId = null;
+		for (int i = 0; i < CONTEXT_COUNT; i++) {
+			Context context = contextManager.getContext("context" + i);
+			context.define("context" + i, null, parentId);
+			parentId = context.getId();
+			contexts.add(context);
+			tables[i] = new BindingTable(context);
+			manager.addTable(tables[i]);
+		}
+		contextSet = manager.createContextSet(contexts);
+
+		IKeyLookup lookup = KeyLookupFactory.getDefault();
+		int[] modifiers = { lookup.getCtrl(), lookup.getAlt(),
+				lookup.getCtrl() | lookup.getShift(),
+				lookup.getAlt() | lookup.getShift(),
+				lookup.getCtrl() | lookup.getAlt() };
+		CommandManager commandManager = new CommandManager();
+		bindings = new Binding[BINDING_COUNT];
+		sequences = new KeySequence[BINDING_COUNT];
+		for (int i = 0; i < BINDING_COUNT; i++) {
+			// every third binding is a two stroke sequence
+			KeyStroke first = KeyStroke.getInstance(modifiers[i
+					% modifiers.length], 'A' + (i / modifiers.length) % 26);
+			KeySequence sequence = i % 3 == 0 ? KeySequence
+					.getInstance(new KeyStroke[] {
+							first,
+							KeyStroke.getInstance(0, 'A' + (i / 130)
+									% 26) }) : KeySequence.getInstance(first);
+			Command command = commandManager.getCommand("command" + i);
+			int table = i % CONTEXT_COUNT;
+			bindings[i] = new KeyBinding(sequence, new ParameterizedCommand(
+					command, null), SCHEME_ID, tables[table].getId(), null,
+					null, null, Binding.SYSTEM);
+			sequences[i] = sequence;
+			tables[table].addBinding(bindings[i]);
+		}
+	}
+
+	protected void doTearDown() throws Exception {
+		ContextSet.setComparator(savedComparator);
+		manager = null;
+		tables = null;
+		bindings = null;
+		super.doTearDown();
+	}
+
+	/**
+	 * Looks up the perfect and the partial match of every bound sequence and
+	 * of their first keystroke, like the dispatcher does for each keystroke.
+	 */
+	public void testKeystrokeLookup() throws Exception {
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				startMeasuring();
+				for (int i = 0; i < sequences.length; i++) {
+					KeySequence sequence = sequences[i];
+					manager.getPerfectMatch(contextSet, sequence);
+					manager.isPartialMatch(contextSet, sequence);
+					KeySequence prefix = KeySequence.getInstance(sequence
+							.getKeyStrokes()[0]);
+					manager.getPerfectMatch(contextSet, prefix);
+					manager.isPartialMatch(contextSet, prefix);
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Removes and adds back a tenth of the bindings, looking up a sequence
+	 * after each change.
+	 */
+	public void testAddRemoveBindings() throws Exception {
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				startMeasuring();
+				for (int i = 0; i < bindings.length; i += 10) {
+					BindingTable table = tables[i % CONTEXT_COUNT];
+					table.removeBinding(bindings[i]);
+					manager.isPartialMatch(contextSet, sequences[i]);
+					table.addBinding(bindings[i]);
+					manager.getPerfectMatch(contextSet, sequences[i]);
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
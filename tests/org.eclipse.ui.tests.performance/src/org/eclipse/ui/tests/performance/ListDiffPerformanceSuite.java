@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Compares the list diff algorithms. The element analyzer diff is quadratic
+ * and only measured up to 5000 elements.
+ * 
+ * @since 3.10
+ */
+public class ListDiffPerformanceSuite extends TestSuite {
+
+	private static final int[] CHANGES = new int[] {
+			ListDiffPerformanceTest.EDIT, ListDiffPerformanceTest.REPLACE,
+			ListDiffPerformanceTest.REVERSE };
+
+	public static Test suite() {
+		return new ListDiffPerformanceSuite();
+	}
+
+	public ListDiffPerformanceSuite() {
+		for (int i = 0; i < CHANGES.length; i++) {
+			addTest(new ListDiffPerformanceTest(1000, CHANGES[i], false));
+			addTest(new ListDiffPerformanceTest(1000, CHANGES[i], true));
+			addTest(new ListDiffPerformanceTest(5000, CHANGES[i], false));
+			addTest(new ListDiffPerformanceTest(5000, CHANGES[i], true));
+			addTest(new ListDiffPerformanceTest(50000, CHANGES[i], true));
+		}
+	}
+}
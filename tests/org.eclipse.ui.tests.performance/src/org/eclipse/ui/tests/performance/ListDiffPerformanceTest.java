@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.internal.databinding.observable.ListDiffAlgorithm;
+
+/**
+ * Measures the list diff algorithms of
+ * <code>org.eclipse.core.databinding.observable.Diffs</code> on a list of
+ * unique elements which is edited or replaced.
+ * 
+ * @since 3.10
+ */
+public class ListDiffPerformanceTest extends BasicPerformanceTest {
+
+	/**
+	 * A few percent of the elements are inserted, removed or moved.
+	 */
+	public static final int EDIT = 0;
+
+	/**
+	 * All elements are replaced by new ones.
+	 */
+	public static final int REPLACE = 1;
+
+	/**
+	 * The elements are reversed.
+	 */
+	public static final int REVERSE = 2;
+
+	private final int size;
+
+	private final int change;
+
+	private final boolean lcs;
+
+	/**
+	 * @param size
+	 *            the number of list elements
+	 * @param change
+	 *            one of {@link #EDIT}, {@link #REPLACE} or {@link #REVERSE}
+	 * @param lcs
+	 *            <code>true</code> to measure the longest common subsequence
+	 *            diff, <code>false</code> to measure the element analyzer diff
+	 */
+	public ListDiffPerformanceTest(int size, int change, boolean lcs) {
+		super((lcs ? "LCS" : "Analyzer") + " list diff, "
+				+ new String[] { "edit", "replace", "reverse" }[change] + " "
+				+ size + " elements");
+		this.size = size;
+		this.change = change;
+		this.lcs = lcs;
+	}
+
+	protected void runTest() throws Throwable {
+		final List oldList = new ArrayList(size);
+		for (int i = 0; i < size; i++) {
+			oldList.add("element" + i);
+		}
+		final List newList = createNewList(oldList);
+
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				List entries = new ArrayList();
+				startMeasuring();
+				if (lcs) {
+					ListDiffAlgorithm.computeLcsDiff(oldList, newList, entries);
+				} else {
+					ListDiffAlgorithm.computeAnalyzerDiff(oldList, newList,
+							entries);
+				}
+				stopMeasuring();
+			}
+		}, 3, 20, 10000);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private List createNewList(List oldList) {
+		List newList = new ArrayList(oldList);
+		switch (change) {
+		case EDIT:
+			Random random = new Random(size);
+			for (int i = 0; i < size / 50; i++) {
+				switch (random.nextInt(3)) {
+				case 0:
+					newList.add(random.nextInt(newList.size()), "inserted" + i);
+					break;
+				case 1:
+					newList.remove(random.nextInt(newList.size()));
+					break;
+				default:
+					Object element = newList.remove(random.nextInt(newList
+							.size()));
+					newList.add(random.nextInt(newList.size()), element);
+				}
+			}
+			break;
+		case REPLACE:
+			for (int i = 0; i < size; i++) {
+				newList.set(i, "new" + i);
+			}
+			break;
+		case REVERSE:
+			Collections.reverse(newList);
+			break;
+		}
+		return newList;
+	}
+}
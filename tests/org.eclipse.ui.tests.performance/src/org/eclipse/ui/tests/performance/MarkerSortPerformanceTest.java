@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.views.markers.MarkerSortUtil;
+import org.eclipse.ui.internal.views.markers.MockMarkerEntry;
+
+/**
+ * Measures the sort of two hundred thousand synthetic marker entries done by
+ * the markers views when a column header is clicked, sorting either the first
+ * entries shown or all of them.
+ * 
+ * @since 3.10
+ */
+public class MarkerSortPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ENTRY_COUNT = 200000;
+
+	private static final Comparator NAME_COMPARATOR = new MarkerSortUtil.ThreadSafeComparator() {
+		public int compare(Object o1, Object o2) {
+			return ((MockMarkerEntry) o1).name
+					.compareTo(((MockMarkerEntry) o2).name);
+		}
+
+		public boolean isThreadSafe() {
+			return true;
+		}
+	};
+
+	private MockMarkerEntry[] entries;
+
+	public MarkerSortPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		Random random = new Random(2014);
+		entries = new MockMarkerEntry[ENTRY_COUNT];
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			entries[i] = new MockMarkerEntry("Marker "
+					+ random.nextInt(ENTRY_COUNT));
+		}
+	}
+
+	protected void doTearDown() throws Exception {
+		entries = null;
+		super.doTearDown();
+	}
+
+	/**
+	 * Sorts the first hundred entries, the default limit of the views.
+	 */
+	public void testSortLimitedEntries() throws Exception {
+		sort(100);
+	}
+
+	/**
+	 * Sorts all the entries, as when the limit is disabled.
+	 */
+	public void testSortAllEntries() throws Exception {
+		sort(ENTRY_COUNT);
+	}
+
+	private void sort(final int limit) throws Exception {
+		exercise(new TestRunnable() {
+			public void run() throws Exception {
+				MockMarkerEntry[] toSort = (MockMarkerEntry[]) entries.clone();
+				startMeasuring();
+				MarkerSortUtil.sortStartingKElement(toSort, NAME_COMPARATOR, 0,
+						toSort.length - 1, limit, new NullProgressMonitor());
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -39,5 +39,9 @@ public class UIPerformanceTestSuite extends FilteredTestSuite {
         addTest(new EditorPerformanceSuite());
         addTest(new TestSuite(CommandsPerformanceTest.class));
 		addTest(new LabelProviderTestSuite());
+		addTest(new ListDiffPerformanceSuite());
+		addTest(new TestSuite(BindingTablePerformanceTest.class));
+		addTest(new TestSuite(MarkerSortPerformanceTest.class));
+		addTest(new TestSuite(ArchiveExportPerformanceTest.class));
     }
 }
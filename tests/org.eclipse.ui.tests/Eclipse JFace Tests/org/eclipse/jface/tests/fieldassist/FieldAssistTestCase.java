@@ -10,10 +10,15 @@
  ******************************************************************************/
 package org.eclipse.jface.tests.fieldassist;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.bindings.keys.KeyStroke;
+import org.eclipse.jface.fieldassist.ContentProposal;
 import org.eclipse.jface.fieldassist.ContentProposalAdapter;
 import org.eclipse.jface.fieldassist.ControlDecoration;
 import org.eclipse.jface.fieldassist.FieldDecorationRegistry;
+import org.eclipse.jface.fieldassist.IAsyncContentProposalProvider;
+import org.eclipse.jface.fieldassist.IContentProposal;
+import org.eclipse.jface.fieldassist.IContentProposalCollector;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Display;
@@ -278,4 +283,108 @@ public abstract class FieldAssistTestCase extends AbstractFieldAssistTestCase {
 		controlBounds = getDisplay().map(getFieldAssistWindow().getFieldAssistControl().getParent(), null, controlBounds);
 		assertFalse("Popup is blocking the control", popupBounds.intersects(controlBounds));
 	}
+
+	public void testAsynchronousProposals() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		window.setPropagateKeys(true);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		final Thread uiThread = Thread.currentThread();
+		final int[] computations = new int[1];
+		final boolean[] computedInUIThread = new boolean[1];
+		window.setContentProposalProvider(new IAsyncContentProposalProvider() {
+			public IContentProposal[] getProposals(String contents, int position) {
+				fail("Asynchronous provider asked for proposals in the UI thread");
+				return null;
+			}
+
+			public void computeProposals(String contents, int position,
+					IContentProposalCollector collector,
+					IProgressMonitor monitor) {
+				computations[0]++;
+				computedInUIThread[0] |= Thread.currentThread() == uiThread;
+				collector.addProposals(new IContentProposal[] { new ContentProposal("one") });
+				collector.addProposals(new IContentProposal[] { new ContentProposal("two") });
+			}
+
+			public IContentProposal[] refineProposals(
+					IContentProposal[] proposals, String contents, int position) {
+				return proposals;
+			}
+		});
+		window.open();
+		window.getContentProposalAdapter().setAsynchronous(true);
+		sendKeyDownToControl(stroke);
+		long target = System.currentTimeMillis() + 5000;
+		while (!window.getContentProposalAdapter().isProposalPopupOpen()
+				&& System.currentTimeMillis() < target) {
+			spinEventLoop();
+		}
+		assertTwoShellsUp();
+		assertEquals("1.0", 1, computations[0]);
+		assertFalse("1.1", computedInUIThread[0]);
+
+		// Typing more text refines the last proposals instead of computing them
+		sendKeyDownToControl(EXTRA_CHAR);
+		target = System.currentTimeMillis() + 500;
+		while (System.currentTimeMillis() < target) {
+			spinEventLoop();
+		}
+		assertEquals("1.2", String.valueOf(EXTRA_CHAR), getControlContent());
+		assertEquals("1.3", 1, computations[0]);
+	}
+
+	public void testAsynchronousProposalsFilteredByAdapter() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		window.setPropagateKeys(true);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		final int[] computations = new int[1];
+		window.setContentProposalProvider(new IAsyncContentProposalProvider() {
+			public IContentProposal[] getProposals(String contents, int position) {
+				fail("Asynchronous provider asked for proposals in the UI thread");
+				return null;
+			}
+
+			public void computeProposals(String contents, int position,
+					IContentProposalCollector collector,
+					IProgressMonitor monitor) {
+				computations[0]++;
+				collector.addProposals(new IContentProposal[] {
+						new ContentProposal(EXTRA_CHAR + "one"),
+						new ContentProposal("two") });
+			}
+
+			public IContentProposal[] refineProposals(
+					IContentProposal[] proposals, String contents, int position) {
+				return null;
+			}
+		});
+		window.open();
+		window.getContentProposalAdapter().setAsynchronous(true);
+		sendKeyDownToControl(stroke);
+		long target = System.currentTimeMillis() + 5000;
+		while (!window.getContentProposalAdapter().isProposalPopupOpen()
+				&& System.currentTimeMillis() < target) {
+			spinEventLoop();
+		}
+		assertTwoShellsUp();
+		assertEquals("1.0", 1, computations[0]);
+
+		// A proposal starts with the typed text, so none is computed
+		sendKeyDownToControl(EXTRA_CHAR);
+		target = System.currentTimeMillis() + 500;
+		while (System.currentTimeMillis() < target) {
+			spinEventLoop();
+		}
+		assertEquals("1.1", 1, computations[0]);
+
+		// No proposal is left, so they are computed again
+		sendKeyDownToControl(EXTRA_CHAR);
+		target = System.currentTimeMillis() + 5000;
+		while (computations[0] < 2 && System.currentTimeMillis() < target) {
+			spinEventLoop();
+		}
+		assertEquals("1.2", 2, computations[0]);
+	}
 }
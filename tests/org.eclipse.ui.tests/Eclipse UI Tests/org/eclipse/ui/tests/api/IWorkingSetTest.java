@@ -268,6 +268,41 @@ public class IWorkingSetTest extends UITestCase {
     	assertTrue(fWorkingSet.adaptElements(new IAdaptable[] {element}).length == 0);
     }
     
+	/**
+	 * Tests that the resource working sets sharing resources all follow the
+	 * moves and deletions of these resources.
+	 */
+	public void testResourceWorkingSetUpdates() throws Throwable {
+		IWorkingSetManager workingSetManager = fWorkbench
+				.getWorkingSetManager();
+		IProject p1 = FileUtil.createProject("TP1");
+		IProject p2 = FileUtil.createProject("TP2");
+		IFile f1 = FileUtil.createFile("f1.txt", p1);
+		IFile f2 = FileUtil.createFile("f2.txt", p2);
+		IWorkingSet ws1 = workingSetManager.createWorkingSet(
+				WORKING_SET_NAME_2, new IAdaptable[] { p1, f2 });
+		ws1.setId("org.eclipse.ui.resourceWorkingSetPage");
+		IWorkingSet ws2 = workingSetManager.createWorkingSet(
+				WORKING_SET_NAME_2 + "b", new IAdaptable[] { f1, p2 });
+		ws2.setId("org.eclipse.ui.resourceWorkingSetPage");
+		workingSetManager.addWorkingSet(ws1);
+		workingSetManager.addWorkingSet(ws2);
+		IProject p3 = fWorkspace.getRoot().getProject("TP3");
+		try {
+			p1.move(p3.getFullPath(), true, null);
+			FileUtil.delete(f2);
+			assertTrue(ArrayUtil.equals(new IAdaptable[] { p3 }, ws1
+					.getElements()));
+			assertTrue(ArrayUtil.equals(new IAdaptable[] {
+					p3.getFile("f1.txt"), p2 }, ws2.getElements()));
+		} finally {
+			workingSetManager.removeWorkingSet(ws1);
+			workingSetManager.removeWorkingSet(ws2);
+			FileUtil.deleteProject(p2);
+			FileUtil.deleteProject(p3);
+		}
+	}
+
     /**
 	 * Tests to verify that we don't fall down in the event that the factory
 	 * throws an exception while restoring a working set.
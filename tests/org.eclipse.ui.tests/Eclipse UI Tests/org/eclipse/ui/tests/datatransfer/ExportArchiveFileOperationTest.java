@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,25 +11,31 @@
 package org.eclipse.ui.tests.datatransfer;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.tests.harness.FileSystemHelper;
@@ -105,6 +111,225 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		verifyCompressed(ZIP_FILE_EXT);
 	}
 	
+	public void testExportZipStoreCompressedFiles() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		byte[] jarContents = new byte[4096];
+		new Random(2014).nextBytes(jarContents);
+		project.getFile("library.jar").create(
+				new ByteArrayInputStream(jarContents), true,
+				new NullProgressMonitor());
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation =
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseCompression(true);
+        operation.setUseTarFormat(false);
+        operation.setStoreCompressedFiles(true);
+        operation.run(new NullProgressMonitor());
+        assertTrue(operation.getStatus().isOK());
+
+        ZipFile zipFile = new ZipFile(filePath);
+        try {
+        	String prefix = project.getName() + "/";
+        	ZipEntry jarEntry = zipFile.getEntry(prefix + "library.jar");
+        	assertEquals(ZipEntry.STORED, jarEntry.getMethod());
+        	assertTrue(Arrays.equals(jarContents, readContents(zipFile, jarEntry)));
+        	for (int i = 0; i < directoryNames.length; i++) {
+        		for (int k = 0; k < fileNames.length; k++) {
+        			ZipEntry entry = zipFile.getEntry(prefix + directoryNames[i] + "/" + fileNames[k]);
+        			assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+        			assertEquals(directoryNames[i] + ", " + fileNames[k],
+        					new String(readContents(zipFile, entry)));
+        		}
+        	}
+        } finally {
+        	zipFile.close();
+        }
+	}
+
+	public void testExportZipManyEntries() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		// more entries than the central directory can count without ZIP64,
+		// created on disk as creating them in the workspace is slow
+		int count = 66000;
+		IPath location = project.getLocation();
+		for (int i = 0; i < count / 1000; i++) {
+			File folder = location.append("many" + i).toFile();
+			assertTrue(folder.mkdirs());
+			for (int k = 0; k < 1000; k++) {
+				FileOutputStream out = new FileOutputStream(new File(folder,
+						"file" + k + ".txt"));
+				try {
+					out.write((i + ", " + k).getBytes());
+				} finally {
+					out.close();
+				}
+			}
+		}
+		project.refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor());
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation =
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseCompression(true);
+        operation.setUseTarFormat(false);
+        operation.run(new NullProgressMonitor());
+        assertTrue(operation.getStatus().isOK());
+
+        String prefix = project.getName() + "/";
+        ZipFile zipFile = new ZipFile(filePath);
+        int entryCount;
+        try {
+        	entryCount = zipFile.size();
+        	assertTrue(entryCount > count);
+        	ZipEntry entry = zipFile.getEntry(prefix + "many65/file999.txt");
+        	assertEquals("65, 999", new String(readContents(zipFile, entry)));
+        } finally {
+        	zipFile.close();
+        }
+        ZipInputStream in = new ZipInputStream(new FileInputStream(filePath));
+        try {
+        	int read = 0;
+        	while (in.getNextEntry() != null) {
+        		read++;
+        	}
+        	assertEquals(entryCount, read);
+        } finally {
+        	in.close();
+        }
+	}
+
+	public void testExportZipLargeFile() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		// larger than the files compressed before they are written, so that
+		// the sizes are written after the contents
+		byte[] contents = new byte[3 * 1024 * 1024 + 17];
+		Random random = new Random(2014);
+		for (int i = 0; i < contents.length; i++) {
+			contents[i] = (byte) ('a' + random.nextInt(4));
+		}
+		project.getFile("large.txt").create(
+				new ByteArrayInputStream(contents), true,
+				new NullProgressMonitor());
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation =
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseCompression(true);
+        operation.setUseTarFormat(false);
+        operation.run(new NullProgressMonitor());
+        assertTrue(operation.getStatus().isOK());
+
+        String name = project.getName() + "/large.txt";
+        ZipFile zipFile = new ZipFile(filePath);
+        try {
+        	ZipEntry entry = zipFile.getEntry(name);
+        	assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+        	assertEquals(contents.length, entry.getSize());
+        	assertTrue(Arrays.equals(contents, readContents(zipFile, entry)));
+        } finally {
+        	zipFile.close();
+        }
+        ZipInputStream in = new ZipInputStream(new FileInputStream(filePath));
+        try {
+        	boolean found = false;
+        	ZipEntry entry;
+        	while ((entry = in.getNextEntry()) != null) {
+        		byte[] read = readContents(in);
+        		if (name.equals(entry.getName())) {
+        			assertTrue(Arrays.equals(contents, read));
+        			found = true;
+        		}
+        	}
+        	assertTrue(found);
+        } finally {
+        	in.close();
+        }
+	}
+
+	public void testExportZipUnicodeName() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		String fileName = "caf\u00e9 \u00e0 la cr\u00e8me.txt";
+		project.getFile(fileName).create(
+				new ByteArrayInputStream("contents".getBytes()), true,
+				new NullProgressMonitor());
+		List resources = new ArrayList();
+		resources.add(project);
+        ArchiveFileExportOperation operation =
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setUseCompression(true);
+        operation.setUseTarFormat(false);
+        operation.run(new NullProgressMonitor());
+        assertTrue(operation.getStatus().isOK());
+
+        String name = project.getName() + "/" + fileName;
+        ZipFile zipFile = new ZipFile(filePath);
+        try {
+        	ZipEntry entry = zipFile.getEntry(name);
+        	assertNotNull(entry);
+        	assertEquals("contents", new String(readContents(zipFile, entry)));
+        } finally {
+        	zipFile.close();
+        }
+        ZipInputStream in = new ZipInputStream(new FileInputStream(filePath));
+        try {
+        	boolean found = false;
+        	ZipEntry entry;
+        	while ((entry = in.getNextEntry()) != null) {
+        		found |= name.equals(entry.getName());
+        	}
+        	assertTrue(found);
+        } finally {
+        	in.close();
+        }
+
+        // the general purpose flags of the local header mark the name as UTF-8
+        InputStream raw = new FileInputStream(filePath);
+        byte[] archive;
+        try {
+        	archive = readContents(raw);
+        } finally {
+        	raw.close();
+        }
+        int offset = indexOf(archive, name.getBytes("UTF8"));
+        assertTrue(offset >= 30);
+        assertEquals(0x800, archive[offset - 30 + 7] << 8 & 0x800);
+	}
+
+	public void testExportZipDuplicateEntry() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		List resources = new ArrayList();
+		resources.add(project.getFolder(directoryNames[0]).getFile(fileNames[0]));
+		resources.add(project.getFolder(directoryNames[1]).getFile(fileNames[0]));
+        ArchiveFileExportOperation operation =
+        	new ArchiveFileExportOperation(resources, filePath);
+
+        operation.setCreateLeadupStructure(false);
+        operation.setUseCompression(true);
+        operation.setUseTarFormat(false);
+        operation.run(new NullProgressMonitor());
+        IStatus status = operation.getStatus();
+        assertEquals(IStatus.ERROR, status.getSeverity());
+        IStatus[] children = status.getChildren();
+        assertEquals(1, children.length);
+        assertTrue(children[0].getMessage(),
+        		children[0].getMessage().indexOf("duplicate entry") != -1);
+
+        ZipFile zipFile = new ZipFile(filePath);
+        try {
+        	assertEquals(1, zipFile.size());
+        	ZipEntry entry = zipFile.getEntry(fileNames[0]);
+        	assertEquals(directoryNames[0] + ", " + fileNames[0],
+        			new String(readContents(zipFile, entry)));
+        } finally {
+        	zipFile.close();
+        }
+	}
+
 	public void testExportZipCreateSelectedDirectories() throws Exception {
 		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
 		List resources = new ArrayList();
@@ -338,6 +563,38 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
     	}
     }
     
+    private byte[] readContents(ZipFile zipFile, ZipEntry entry) throws IOException {
+    	InputStream in = zipFile.getInputStream(entry);
+    	try {
+    		return readContents(in);
+    	} finally {
+    		in.close();
+    	}
+    }
+
+    private byte[] readContents(InputStream in) throws IOException {
+    	ByteArrayOutputStream out = new ByteArrayOutputStream();
+    	byte[] buffer = new byte[4096];
+    	int n;
+    	while ((n = in.read(buffer)) > 0) {
+    		out.write(buffer, 0, n);
+    	}
+    	return out.toByteArray();
+    }
+
+    private int indexOf(byte[] data, byte[] pattern) {
+    	for (int i = 0; i <= data.length - pattern.length; i++) {
+    		int k = 0;
+    		while (k < pattern.length && data[i + k] == pattern[k]) {
+    			k++;
+    		}
+    		if (k == pattern.length) {
+    			return i;
+    		}
+    	}
+    	return -1;
+    }
+
     private void verifyCompressed(String type){
     	String fileName = "";
 		boolean compressed = false;
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.ui.tests.datatransfer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -30,6 +31,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
+import org.eclipse.ui.internal.wizards.datatransfer.TarEntry;
 import org.eclipse.ui.internal.wizards.datatransfer.TarFile;
 import org.eclipse.ui.internal.wizards.datatransfer.TarLeveledStructureProvider;
 import org.eclipse.ui.internal.wizards.datatransfer.ZipLeveledStructureProvider;
@@ -188,6 +190,30 @@ public class ImportArchiveOperationTest extends UITestCase implements IOverwrite
         verifyFiles(directoryNames.length, false);
     }
 
+    public void testTarGetInputStreamOutOfOrder() throws Exception {
+    	setup(ARCHIVE_SOURCE_PROPERTY);
+        project = FileUtil.createProject("ImportTarOutOfOrder");
+        TarFile tarFile = new TarFile(tarFileURL.getPath());
+        try {
+	        List entries = new ArrayList();
+	        List contents = new ArrayList();
+	        Enumeration tarEntries = tarFile.entries();
+	        while (tarEntries.hasMoreElements()) {
+	        	TarEntry entry = (TarEntry) tarEntries.nextElement();
+	        	entries.add(entry);
+	        	contents.add(readContents(tarFile.getInputStream(entry)));
+	        }
+	        for (int i = entries.size() - 1; i >= 0; i--) {
+	        	assertEquals("Wrong contents for "
+	        			+ ((TarEntry) entries.get(i)).getName(), contents
+	        			.get(i), readContents(tarFile
+	        			.getInputStream((TarEntry) entries.get(i))));
+	        }
+        } finally {
+        	tarFile.close();
+        }
+    }
+
     public void testTarSetOverwriteResources() throws Exception {
     	setup(ARCHIVE_SOURCE_PROPERTY);
         project = FileUtil.createProject("ImportTarSetOverwriteResources");
@@ -337,6 +363,16 @@ public class ImportArchiveOperationTest extends UITestCase implements IOverwrite
         }
     }
     
+    private String readContents(InputStream stream) throws IOException {
+    	ByteArrayOutputStream out = new ByteArrayOutputStream();
+    	byte[] buffer = new byte[1024];
+    	int read;
+    	while ((read = stream.read(buffer, 0, buffer.length)) > 0) {
+    		out.write(buffer, 0, read);
+    	}
+    	return out.toString();
+    }
+
     private boolean closeZipFile(ZipFile zipFile){
     	try{
     		zipFile.close();
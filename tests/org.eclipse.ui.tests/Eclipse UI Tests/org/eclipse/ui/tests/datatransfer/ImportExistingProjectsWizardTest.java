@@ -13,6 +13,7 @@
 package org.eclipse.ui.tests.datatransfer;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
@@ -25,6 +26,7 @@ import junit.framework.TestSuite;
 
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -250,6 +252,38 @@ public class ImportExistingProjectsWizardTest extends UITestCase {
 		}
 	}
 
+	public void testFindDirectorySkipsExcludedFolders() {
+		try {
+			dataLocation = copyDataLocation(WS_DATA_LOCATION);
+			File dependency = new File(dataLocation, "node_modules/dependency");
+			assertTrue(dependency.mkdirs());
+			FileWriter writer = new FileWriter(new File(dependency,
+					IProjectDescription.DESCRIPTION_FILE_NAME));
+			try {
+				writer.write("<projectDescription><name>dependency</name></projectDescription>");
+			} finally {
+				writer.close();
+			}
+			WizardProjectsImportPage wpip = getNewWizard();
+			// We're importing a directory
+			wpip.getProjectFromDirectoryRadio().setSelection((true));
+			wpip.updateProjectsList(dataLocation);
+
+			ProjectRecord[] selectedProjects = wpip.getProjectRecords();
+			ArrayList projectNames = new ArrayList();
+			for (int i = 0; i < selectedProjects.length; i++) {
+				projectNames.add(selectedProjects[i].getProjectName());
+			}
+
+			assertTrue("Project not found in directory", projectNames
+					.contains("HelloWorld"));
+			assertFalse("Project found in excluded folder", projectNames
+					.contains("dependency"));
+		} catch (IOException e) {
+			fail(e.toString());
+		}
+	}
+
 	public void testDoNotShowProjectWithSameName() {
 		try {
 			dataLocation = copyDataLocation(WS_DATA_LOCATION);
@@ -263,10 +297,17 @@ public class ImportExistingProjectsWizardTest extends UITestCase {
 			wpip.updateProjectsList(wsPath.toOSString());
 
 			ProjectRecord[] selectedProjects = wpip.getProjectRecords();
+			CheckboxTreeViewer projectsList = wpip.getProjectsList();
+			boolean found = false;
 			for (int i = 0; i < selectedProjects.length; i++) {
-				if(selectedProjects[i].getProjectName().equals("HelloWorld"))
+				if(selectedProjects[i].getProjectName().equals("HelloWorld")) {
+					found = true;
 					assertTrue(selectedProjects[i].hasConflicts());
+					assertFalse("Conflicting project checked", projectsList
+							.getChecked(selectedProjects[i]));
+				}
 			}
+			assertTrue("Conflicting project not found", found);
 
 		} catch (Exception e) {
 			fail(e.toString());
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.dialogs;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.ui.dialogs.SearchPattern;
+import org.eclipse.ui.internal.dialogs.ElementNameIndex;
+
+/**
+ * Tests that the candidates answered by the name index of the filtered items
+ * selection dialog contain every item matching a pattern.
+ */
+public class ElementNameIndexAuto extends TestCase {
+
+	private static final String NAME_CHARS = "abcABC_.xyzXYZ"; //$NON-NLS-1$
+
+	private static final String PATTERN_CHARS = NAME_CHARS + "*?< "; //$NON-NLS-1$
+
+	private String[] names;
+
+	private Object[] items;
+
+	private ElementNameIndex index;
+
+	/**
+	 * @param name
+	 */
+	public ElementNameIndexAuto(String name) {
+		super(name);
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		super.setUp();
+		Random random = new Random(42);
+		names = new String[5000];
+		items = new Object[names.length];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = randomString(random, NAME_CHARS, 1 + random.nextInt(10));
+			items[i] = new Integer(i);
+		}
+		index = new ElementNameIndex(items, names);
+	}
+
+	private static String randomString(Random random, String chars, int length) {
+		StringBuffer buffer = new StringBuffer(length);
+		for (int i = 0; i < length; i++) {
+			buffer.append(chars.charAt(random.nextInt(chars.length())));
+		}
+		return buffer.toString();
+	}
+
+	private void assertCandidates(String pattern) {
+		SearchPattern searchPattern = new SearchPattern();
+		searchPattern.setPattern(pattern);
+		Object[] candidates = index.getCandidates(searchPattern);
+		if (candidates == null)
+			return;
+		Set candidateSet = new HashSet(Arrays.asList(candidates));
+		for (int i = 0; i < names.length; i++) {
+			if (searchPattern.matches(names[i])) {
+				assertTrue("Missing candidate " + names[i] + " for " + pattern, //$NON-NLS-1$ //$NON-NLS-2$
+						candidateSet.contains(items[i]));
+			}
+		}
+	}
+
+	public void testPrefixCandidates() {
+		assertCandidates("a"); //$NON-NLS-1$
+		assertCandidates("aB"); //$NON-NLS-1$
+		assertCandidates("abc<"); //$NON-NLS-1$
+		assertEquals(0, index.getCandidates(pattern("qqq")).length); //$NON-NLS-1$
+	}
+
+	public void testCamelCaseCandidates() {
+		assertCandidates("AX"); //$NON-NLS-1$
+		assertCandidates("XyZ"); //$NON-NLS-1$
+		assertCandidates("ABc"); //$NON-NLS-1$
+	}
+
+	public void testWildcardCandidates() {
+		assertCandidates("*abc"); //$NON-NLS-1$
+		assertCandidates("?b*z.a"); //$NON-NLS-1$
+		assertCandidates("a*bc"); //$NON-NLS-1$
+		assertCandidates("*"); //$NON-NLS-1$
+	}
+
+	public void testBlankPattern() {
+		assertNull(index.getCandidates(pattern(""))); //$NON-NLS-1$
+	}
+
+	public void testRandomPatterns() {
+		Random random = new Random(7);
+		for (int i = 0; i < 2000; i++) {
+			assertCandidates(randomString(random, PATTERN_CHARS, 1 + random
+					.nextInt(5)));
+		}
+	}
+
+	private static SearchPattern pattern(String text) {
+		SearchPattern searchPattern = new SearchPattern();
+		searchPattern.setPattern(text);
+		return searchPattern;
+	}
+}
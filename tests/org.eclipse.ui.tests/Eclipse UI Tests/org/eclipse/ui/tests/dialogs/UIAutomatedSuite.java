@@ -43,6 +43,7 @@ public class UIAutomatedSuite extends TestSuite {
 		addTest(new TestSuite(UINewWorkingSetWizardAuto.class));
 		addTest(new TestSuite(UIEditWorkingSetWizardAuto.class));
 		addTest(new TestSuite(SearchPatternAuto.class));
+		addTest(new TestSuite(ElementNameIndexAuto.class));
 		addTest(new TestSuite(UIFilteredResourcesSelectionDialogAuto.class));
 	}
 }
@@ -48,17 +48,57 @@ public class MarkerSortUtilTest extends UITestCase {
 	public void testCompleteSort() {
 		sortToLimit(ARRAYSIZE,ARRAYSIZE);
 	}
+
+	public void testSortFirstEntries() {
+		sortToLimit(ARRAYSIZE,100);
+	}
+
+	public void testParallelSort() {
+		Comparator comparator = new MarkerSortUtil.ThreadSafeComparator() {
+			public int compare(Object o1, Object o2) {
+				return ((MockMarkerEntry) o1).name
+						.compareTo(((MockMarkerEntry) o2).name);
+			}
+
+			public boolean isThreadSafe() {
+				return true;
+			}
+		};
+		sortToLimit(ARRAYSIZE, 100, comparator);
+		sortToLimit(ARRAYSIZE, ARRAYSIZE, comparator);
+	}
+
 	/**
-	 * 
+	 * Comparators not known to be thread safe, such as the ones of contributed
+	 * marker fields, are only called from the sorting thread.
 	 */
+	public void testSortInCallingThread() {
+		final Thread thread = Thread.currentThread();
+		final boolean[] otherThread = new boolean[1];
+		sortToLimit(ARRAYSIZE, ARRAYSIZE, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				otherThread[0] |= Thread.currentThread() != thread;
+				return ((MockMarkerEntry) o1).name
+						.compareTo(((MockMarkerEntry) o2).name);
+			}
+		});
+		assertFalse("Comparator called from another thread", otherThread[0]);
+	}
+
 	private void sortToLimit(int arraySize,int limit) {
-		MockMarkerEntry[] fArray1=generateArray(arraySize);
-		MockMarkerEntry[] fArray2=(MockMarkerEntry[]) fArray1.clone();
-		Comparator comparator=new Comparator() {
+		sortToLimit(arraySize, limit, new Comparator() {
 			public int compare(Object o1, Object o2) {
 				return ((MockMarkerEntry)o1).name.compareTo(((MockMarkerEntry)o2).name);
 			}
-		};
+		});
+	}
+
+	/**
+	 * 
+	 */
+	private void sortToLimit(int arraySize,int limit,Comparator comparator) {
+		MockMarkerEntry[] fArray1=generateArray(arraySize);
+		MockMarkerEntry[] fArray2=(MockMarkerEntry[]) fArray1.clone();
 		MarkerSortUtil.sortStartingKElement(fArray1, comparator, 0,fArray1.length-1, limit);
 		Arrays.sort(fArray2,comparator);
 		
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.markers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.views.markers.ExtendedMarkersView;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.eclipse.ui.views.markers.internal.MarkerGroup;
+
+/**
+ * MarkersIncrementalUpdateTest checks that the markers added, removed and
+ * changed while the markers view is open are shown in the same order as after
+ * a full update of the view.
+ *
+ * @since 3.10
+ */
+public class MarkersIncrementalUpdateTest extends UITestCase {
+
+	private static final int MARKER_COUNT = 40;
+
+	private static final long TIMEOUT = 30000;
+
+	private IProject project;
+
+	private IFile file;
+
+	private MarkersTestMarkersView view;
+
+	private MarkerGroup defaultGroup;
+
+	private int nextMarker;
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param testName
+	 */
+	public MarkersIncrementalUpdateTest(String testName) {
+		super(testName);
+	}
+
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = FileUtil.createProject("MarkersIncrementalUpdate");
+		file = FileUtil.createFile("markers.txt", project);
+		view = (MarkersTestMarkersView) fWorkbench.getActiveWorkbenchWindow()
+				.getActivePage().showView("org.eclipse.ui.tests.markerTests");
+		defaultGroup = (MarkerGroup) invoke(view, ExtendedMarkersView.class,
+				"getCategoryGroup", null);
+		createMarkers(MARKER_COUNT);
+		waitForUpdates();
+	}
+
+	protected void doTearDown() throws Exception {
+		setCategoryGroup(defaultGroup);
+		waitForUpdates();
+		FileUtil.deleteProject(project);
+		super.doTearDown();
+	}
+
+	public void testAddFlat() throws Exception {
+		setCategoryGroup(null);
+		checkAdd();
+	}
+
+	public void testRemoveFlat() throws Exception {
+		setCategoryGroup(null);
+		checkRemove();
+	}
+
+	public void testChangeFlat() throws Exception {
+		setCategoryGroup(null);
+		checkChange();
+	}
+
+	public void testAddGrouped() throws Exception {
+		assertNotNull("The problems are not grouped by default", defaultGroup);
+		checkAdd();
+	}
+
+	public void testRemoveGrouped() throws Exception {
+		assertNotNull("The problems are not grouped by default", defaultGroup);
+		checkRemove();
+	}
+
+	public void testChangeGrouped() throws Exception {
+		assertNotNull("The problems are not grouped by default", defaultGroup);
+		checkChange();
+	}
+
+	/**
+	 * Check the changes when the marker limit leaves some of the markers
+	 * unsorted.
+	 *
+	 * @throws Exception
+	 */
+	public void testChangeFlatWithLimit() throws Exception {
+		Field field = ExtendedMarkersView.class.getDeclaredField("generator");
+		field.setAccessible(true);
+		Object generator = field.get(view);
+		Integer limit = (Integer) invoke(generator, generator.getClass(),
+				"getMarkerLimits", null);
+		Boolean enabled = (Boolean) invoke(generator, generator.getClass(),
+				"isMarkerLimitsEnabled", null);
+		try {
+			setLimits(generator, 10, true);
+			setCategoryGroup(null);
+			checkAdd();
+			checkChange();
+			checkRemove();
+		} finally {
+			setLimits(generator, limit.intValue(), enabled.booleanValue());
+		}
+	}
+
+	/**
+	 * Check that a marker added while the markers are gathered is shown once
+	 * the gathered markers are installed.
+	 *
+	 * @throws Exception
+	 */
+	public void testAddDuringGather() throws Exception {
+		setCategoryGroup(null);
+		Object builder = invoke(view, ExtendedMarkersView.class, "getBuilder",
+				null);
+		Field field = builder.getClass().getDeclaredField("updateJob");
+		field.setAccessible(true);
+		Object updateJob = field.get(builder);
+		ISchedulingRule rule = (ISchedulingRule) invoke(builder, builder
+				.getClass(), "getUpdateRule", null);
+		Class jobClass = updateJob.getClass();
+		Collection entries = new LinkedList();
+		IProgressMonitor monitor = new NullProgressMonitor();
+		final IMarker[] added = new IMarker[1];
+
+		// gather the markers the way the update job does, holding its rule
+		Job.getJobManager().beginRule(rule, null);
+		try {
+			invoke(updateJob, jobClass, "clean", new Class[] {
+					Collection.class, IProgressMonitor.class }, new Object[] {
+					entries, monitor });
+			Job job = new Job("Add marker") {
+				protected IStatus run(IProgressMonitor jobMonitor) {
+					try {
+						added[0] = file.createMarker(IMarker.PROBLEM);
+						added[0].setAttribute(IMarker.MESSAGE, "marker "
+								+ nextMarker++);
+					} catch (CoreException e) {
+						return e.getStatus();
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			job.schedule();
+			job.join();
+			assertTrue(job.getResult().isOK());
+
+			// give the incremental update the time to run if it could
+			long end = System.currentTimeMillis() + 1000;
+			while (System.currentTimeMillis() < end) {
+				while (fWorkbench.getDisplay().readAndDispatch()) {
+					// process the UI updates
+				}
+				Thread.sleep(20);
+			}
+			invoke(updateJob, jobClass, "processMarkerEntries", new Class[] {
+					Collection.class, IProgressMonitor.class }, new Object[] {
+					entries, monitor });
+		} finally {
+			Job.getJobManager().endRule(rule);
+		}
+		waitForUpdates();
+		List shown = Arrays.asList(view.getCurrentMarkers());
+		assertTrue("Marker added while gathering not shown", shown
+				.contains(added[0]));
+		checkOrder(shown);
+	}
+
+	private void checkAdd() throws Exception {
+		IMarker[] added = createMarkers(5);
+		List shown = Arrays.asList(view.getCurrentMarkers());
+		for (int i = 0; i < added.length; i++) {
+			assertTrue("Added marker not shown", shown.contains(added[i]));
+		}
+		checkOrder(shown);
+	}
+
+	private void checkRemove() throws Exception {
+		final IMarker[] markers = file.findMarkers(IMarker.PROBLEM, false, 0);
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < markers.length; i += 7) {
+					markers[i].delete();
+				}
+			}
+		}, null);
+		waitForUpdates();
+		List shown = Arrays.asList(view.getCurrentMarkers());
+		for (int i = 0; i < markers.length; i += 7) {
+			assertFalse("Removed marker still shown", shown.contains(markers[i]));
+		}
+		checkOrder(shown);
+	}
+
+	private void checkChange() throws Exception {
+		final IMarker[] markers = file.findMarkers(IMarker.PROBLEM, false, 0);
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < markers.length; i += 5) {
+					markers[i].setAttribute(IMarker.SEVERITY,
+							(markers[i].getAttribute(IMarker.SEVERITY, 0) + 1) % 3);
+					markers[i].setAttribute(IMarker.MESSAGE, "changed "
+							+ nextMarker++);
+				}
+			}
+		}, null);
+		waitForUpdates();
+		checkOrder(Arrays.asList(view.getCurrentMarkers()));
+	}
+
+	/**
+	 * Check that a full update shows the markers in the same order.
+	 *
+	 * @param shown
+	 *            the markers shown after the incremental update
+	 * @throws Exception
+	 */
+	private void checkOrder(List shown) throws Exception {
+		Object builder = invoke(view, ExtendedMarkersView.class, "getBuilder",
+				null);
+		invoke(builder, builder.getClass(), "scheduleUpdate", null);
+		waitForUpdates();
+		List expected = Arrays.asList(view.getCurrentMarkers());
+		assertEquals(expected.size(), shown.size());
+		int sorted = getSortedCount(expected.size());
+		assertEquals(expected.subList(0, sorted), shown.subList(0, sorted));
+		assertTrue(shown.containsAll(expected));
+	}
+
+	/**
+	 * Return the number of markers sorted when the marker limit is enabled.
+	 */
+	private int getSortedCount(int count) throws Exception {
+		Field field = ExtendedMarkersView.class.getDeclaredField("generator");
+		field.setAccessible(true);
+		Object generator = field.get(view);
+		Boolean enabled = (Boolean) invoke(generator, generator.getClass(),
+				"isMarkerLimitsEnabled", null);
+		if (!enabled.booleanValue() || getCategoryGroup() != null) {
+			return count;
+		}
+		Integer limit = (Integer) invoke(generator, generator.getClass(),
+				"getMarkerLimits", null);
+		return Math.min(count, limit.intValue());
+	}
+
+	private IMarker[] createMarkers(final int count) throws Exception {
+		final IMarker[] markers = new IMarker[count];
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (int i = 0; i < count; i++) {
+					int number = nextMarker++;
+					IMarker marker = file.createMarker(IMarker.PROBLEM);
+					marker.setAttribute(IMarker.SEVERITY, number % 3);
+					marker.setAttribute(IMarker.MESSAGE, "marker "
+							+ ((number * 17) % 101) + " " + number);
+					marker.setAttribute(IMarker.LINE_NUMBER, number);
+					markers[i] = marker;
+				}
+			}
+		}, null);
+		waitForUpdates();
+		return markers;
+	}
+
+	private MarkerGroup getCategoryGroup() throws Exception {
+		return (MarkerGroup) invoke(view, ExtendedMarkersView.class,
+				"getCategoryGroup", null);
+	}
+
+	private void setCategoryGroup(MarkerGroup group) throws Exception {
+		Method method = ExtendedMarkersView.class.getDeclaredMethod(
+				"setCategoryGroup", new Class[] { MarkerGroup.class });
+		method.setAccessible(true);
+		method.invoke(view, new Object[] { group });
+		waitForUpdates();
+	}
+
+	private void setLimits(Object generator, int limit, boolean enabled)
+			throws Exception {
+		generator.getClass().getMethod("setMarkerLimits",
+				new Class[] { Integer.TYPE }).invoke(generator,
+				new Object[] { new Integer(limit) });
+		generator.getClass().getMethod("setMarkerLimitsEnabled",
+				new Class[] { Boolean.TYPE }).invoke(generator,
+				new Object[] { Boolean.valueOf(enabled) });
+	}
+
+	private static Object invoke(Object target, Class type, String name,
+			Object[] args) throws Exception {
+		return invoke(target, type, name, new Class[0], args);
+	}
+
+	private static Object invoke(Object target, Class type, String name,
+			Class[] types, Object[] args) throws Exception {
+		Method method = type.getDeclaredMethod(name, types);
+		method.setAccessible(true);
+		return method.invoke(target, args);
+	}
+
+	/**
+	 * Wait until the update jobs of the view are done, running the UI jobs in
+	 * the meantime.
+	 */
+	private void waitForUpdates() throws InterruptedException {
+		Display display = Display.getCurrent();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		do {
+			while (display.readAndDispatch()) {
+				// process the UI updates
+			}
+			Thread.sleep(20);
+		} while (Job.getJobManager().find(view.MARKERSVIEW_UPDATE_JOB_FAMILY).length > 0
+				&& System.currentTimeMillis() < end);
+		while (display.readAndDispatch()) {
+			// process the last UI update
+		}
+	}
+}
@@ -766,6 +766,75 @@ public class OperationsAPITest extends TestCase {
 		}
 	}
 	
+	public void testContextIndexFollowsContextChanges() {
+		ObjectUndoContext contextD = new ObjectUndoContext("D");
+		assertNull("No operation should have the new context", history.getUndoOperation(contextD));
+		op1.addContext(contextD);
+		assertSame("Adding a context should be seen by the history", op1, history.getUndoOperation(contextD));
+		op1.removeContext(contextD);
+		assertNull("Removing a context should be seen by the history", history.getUndoOperation(contextD));
+		contextD.addMatch(contextB);
+		assertSame("Adding a match should be seen by the history", op5, history.getUndoOperation(contextD));
+		assertEquals("Both operations with the matching context should be in the history", 2, history.getUndoHistory(contextD).length);
+		contextD.removeMatch(contextB);
+		assertNull("Removing a match should be seen by the history", history.getUndoOperation(contextD));
+	}
+
+	public void testContextIndexFollowsCustomMatches() {
+		final boolean[] matching = new boolean[1];
+		IUndoContext contextD = new IUndoContext() {
+			public String getLabel() {
+				return "D";
+			}
+
+			public boolean matches(IUndoContext context) {
+				return context == this || matching[0] && context == contextB;
+			}
+		};
+		assertNull("No operation should match the new context", history.getUndoOperation(contextD));
+		matching[0] = true;
+		assertSame("A changed match should be seen by the history", op5, history.getUndoOperation(contextD));
+		matching[0] = false;
+		assertNull("A changed match should be seen by the history", history.getUndoOperation(contextD));
+		op1.addContext(contextD);
+		assertSame("Adding a context should be seen by the history", op1, history.getUndoOperation(contextD));
+		matching[0] = true;
+		assertEquals("A changed match should be seen by the history", 3, history.getUndoHistory(contextB).length);
+		op1.removeContext(contextD);
+		assertEquals("Removing a context should be seen by the history", 2, history.getUndoHistory(contextB).length);
+	}
+
+	public void testUndoOperationOfManyContexts() throws ExecutionException {
+		int count = 200;
+		ObjectUndoContext[] contexts = new ObjectUndoContext[count];
+		IUndoableOperation[] latest = new IUndoableOperation[count];
+		for (int i = 0; i < count; i++) {
+			contexts[i] = new ObjectUndoContext("editor" + i);
+			history.setLimit(contexts[i], 10);
+		}
+		for (int j = 0; j < 20; j++) {
+			for (int i = 0; i < count; i++) {
+				IUndoableOperation op = new TestOperation("op" + i + "." + j);
+				op.addContext(contexts[i]);
+				history.execute(op, null, null);
+				latest[i] = op;
+				assertTrue("Operation should be undoable", history.canUndo(contexts[i]));
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			assertSame("Most recent operation should be available for undo", latest[i], history.getUndoOperation(contexts[i]));
+			assertEquals("Undo limit should be enforced", 10, history.getUndoHistory(contexts[i]).length);
+		}
+		history.undo(contexts[0], null, null);
+		assertSame("Undone operation should be available for redo", latest[0], history.getRedoOperation(contexts[0]));
+		assertEquals("Undone operation should leave the undo history", 9, history.getUndoHistory(contexts[0]).length);
+		assertSame("Other contexts should not be affected", latest[1], history.getUndoOperation(contexts[1]));
+		for (int i = 0; i < count; i++) {
+			history.dispose(contexts[i], true, true, true);
+		}
+		assertNull("Disposed context should have no operation", history.getUndoOperation(contexts[1]));
+	}
+
 	public void test159305() throws ExecutionException {
 		final int [] approvalCount = new int[1];
 		IOperationApprover approver;
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2014 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.progress;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ui.internal.progress.JobInfo;
+import org.eclipse.ui.internal.progress.ProgressManager;
+import org.eclipse.ui.internal.progress.ProgressUpdateAggregator;
+
+public class ProgressUpdateAggregatorTest extends TestCase {
+
+	private ProgressUpdateAggregator aggregator;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		// a period long enough for the updates never to be sent by the job
+		aggregator = new ProgressUpdateAggregator(ProgressManager
+				.getInstance(), 60000);
+	}
+
+	protected void tearDown() throws Exception {
+		aggregator.shutdown();
+		super.tearDown();
+	}
+
+	public void testUpdatesAreCoalesced() {
+		JobInfo info = new TestJobInfo("Coalesced");
+		ProgressManager.getInstance().addJobInfo(info);
+		try {
+			for (int i = 0; i < 100; i++) {
+				aggregator.refreshLater(info);
+			}
+			assertEquals(0, aggregator.getSentCount());
+			assertEquals(99, aggregator.getCoalescedCount());
+
+			aggregator.sendPendingUpdates();
+			assertEquals(1, aggregator.getSentCount());
+
+			aggregator.sendPendingUpdates();
+			assertEquals(1, aggregator.getSentCount());
+			assertEquals(0, aggregator.getDroppedCount());
+		} finally {
+			ProgressManager.getInstance().removeJobInfo(info);
+		}
+	}
+
+	public void testUpdatesOfRemovedJobsAreDropped() {
+		JobInfo info = new TestJobInfo("Removed");
+		ProgressManager.getInstance().addJobInfo(info);
+		aggregator.refreshLater(info);
+		ProgressManager.getInstance().removeJobInfo(info);
+
+		aggregator.sendPendingUpdates();
+		assertEquals(0, aggregator.getSentCount());
+		assertEquals(1, aggregator.getDroppedCount());
+
+		aggregator.resetCounts();
+		assertEquals(0, aggregator.getDroppedCount());
+	}
+
+	public void testNoPeriodSendsEveryUpdate() {
+		aggregator.shutdown();
+		aggregator = new ProgressUpdateAggregator(ProgressManager
+				.getInstance(), 0);
+		JobInfo info = new TestJobInfo("Immediate");
+		ProgressManager.getInstance().addJobInfo(info);
+		try {
+			aggregator.refreshLater(info);
+			aggregator.refreshLater(info);
+			assertEquals(2, aggregator.getSentCount());
+			assertEquals(0, aggregator.getCoalescedCount());
+		} finally {
+			ProgressManager.getInstance().removeJobInfo(info);
+		}
+	}
+
+	private static class TestJobInfo extends JobInfo {
+
+		public TestJobInfo(String name) {
+			super(new DummyJob(name, Status.OK_STATUS));
+		}
+	}
+}
@@ -49,6 +49,7 @@ import org.eclipse.ui.handlers.IHandlerActivation;
 import org.eclipse.ui.handlers.IHandlerService;
 import org.eclipse.ui.internal.WorkbenchWindow;
 import org.eclipse.ui.internal.handlers.HandlerPersistence;
+import org.eclipse.ui.internal.services.EvaluationService;
 import org.eclipse.ui.services.IEvaluationReference;
 import org.eclipse.ui.services.IEvaluationService;
 import org.eclipse.ui.services.ISourceProviderService;
@@ -408,6 +409,53 @@ public class EvaluationServiceTest extends UITestCase {
 		assertEquals(3, listener.count);
 	}
 	
+	public void testOnlyReadersAreEvaluated() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		EvaluationService service = (EvaluationService) getWorkbench()
+				.getService(IEvaluationService.class);
+		ISourceProviderService sps = (ISourceProviderService) window
+				.getService(ISourceProviderService.class);
+		ActiveUserSourceProvider userProvider = (ActiveUserSourceProvider) sps
+				.getSourceProvider("username");
+		userProvider.setUsername("guest");
+
+		MyEval userListener = new MyEval();
+		MyEval contextListener = new MyEval();
+		IEvaluationReference userRef = service.addEvaluationListener(
+				new UserExpression("Paul"), userListener,
+				IEvaluationService.RESULT);
+		IEvaluationReference contextRef = service.addEvaluationListener(
+				new ActiveContextExpression(CONTEXT_ID1,
+						new String[] { ISources.ACTIVE_CONTEXT_NAME }),
+				contextListener, IEvaluationService.RESULT);
+		try {
+			assertEquals(1, userListener.count);
+			assertEquals(1, contextListener.count);
+			service.resetEvaluationCounts();
+
+			userProvider.setUsername("Paul");
+			assertTrue(userListener.currentValue);
+			assertEquals(2, userListener.count);
+			assertEquals(1, contextListener.count);
+			assertEquals(1, service.getEvaluationCount("username"));
+
+			service.requestEvaluation("username");
+			assertEquals(2, service.getEvaluationCount("username"));
+			assertEquals(0, service
+					.getEvaluationCount(ISources.ACTIVE_CONTEXT_NAME));
+
+			service.removeEvaluationListener(userRef);
+			userRef = null;
+			userProvider.setUsername("guest");
+			assertEquals(2, service.getEvaluationCount("username"));
+		} finally {
+			if (userRef != null) {
+				service.removeEvaluationListener(userRef);
+			}
+			service.removeEvaluationListener(contextRef);
+		}
+	}
+
 	public void testSourceProviderPriority() throws Exception {
 		IHandlerService hs = (IHandlerService) getWorkbench().getService(IHandlerService.class);
 		